@@ -0,0 +1,123 @@
+package com.bt.openlink.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dom4j.Document;
+import org.dom4j.Element;
+import org.dom4j.io.SAXReader;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallDirection;
+import com.bt.openlink.type.CallFeatureBoolean;
+import com.bt.openlink.type.CallFeatureDeviceKey;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.Changed;
+import com.bt.openlink.type.DeviceKey;
+import com.bt.openlink.type.FeatureId;
+import com.bt.openlink.type.FeatureType;
+import com.bt.openlink.type.RequestAction;
+
+/**
+ * Builds the payloads used by the benchmarks. Every payload is derived from the fixtures shared by the library tests so
+ * that the benchmarks exercise the same stanzas that the tests verify.
+ */
+@SuppressWarnings("ConstantConditions")
+final class BenchmarkFixtures {
+
+    private static final String CALL_START_TAG = "<call>";
+    private static final String CALL_END_TAG = "</call>";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @param callCount the number of calls required
+     * @return a {@code <callstatus>} element containing {@code callCount} calls, each with a unique call id
+     */
+    static String callStatus(final int callCount) {
+        final String template = CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED;
+        final int start = template.indexOf(CALL_START_TAG);
+        final int end = template.lastIndexOf(CALL_END_TAG) + CALL_END_TAG.length();
+        final String callTemplate = template.substring(start, end);
+        final String callIdElement = "<id>" + CoreFixtures.CALL_ID + "</id>";
+        final StringBuilder callStatus = new StringBuilder(template.length() * callCount);
+        callStatus.append(template, 0, start);
+        for (int i = 0; i < callCount; i++) {
+            callStatus.append(callTemplate.replace(callIdElement, "<id>" + callId(i) + "</id>"));
+        }
+        callStatus.append(template, end, template.length());
+        return callStatus.toString();
+    }
+
+    /**
+     * @param stanza    a fixture containing {@link CoreFixtures#CALL_STATUS_INCOMING_ORIGINATED}
+     * @param callCount the number of calls required
+     * @return the fixture with the single call replaced by {@code callCount} calls
+     */
+    static String withCalls(final String stanza, final int callCount) {
+        return stanza.replace(CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED, callStatus(callCount));
+    }
+
+    /**
+     * @param callCount the number of calls required
+     * @return {@code callCount} calls equivalent to those in {@link #callStatus(int)}
+     */
+    static List<Call> calls(final int callCount) {
+        final List<Call> calls = new ArrayList<>(callCount);
+        for (int i = 0; i < callCount; i++) {
+            calls.add(call(i));
+        }
+        return calls;
+    }
+
+    static Element elementFrom(final String stanza) {
+        try {
+            final SAXReader reader = new SAXReader();
+            final Document document = reader.read(new ByteArrayInputStream(stanza.getBytes(StandardCharsets.UTF_8)));
+            return document.getRootElement();
+        } catch (final Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static String callId(final int index) {
+        return CoreFixtures.CALL_ID + "-" + index;
+    }
+
+    private static Call call(final int index) {
+        return Call.Builder.start()
+                .setId(CallId.from(callId(index)).get())
+                .setConferenceId(CoreFixtures.CONFERENCE_ID)
+                .setSite(CoreFixtures.SITE)
+                .setProfileId(CoreFixtures.PROFILE_ID)
+                .setUserId(CoreFixtures.USER_ID)
+                .setInterestId(CoreFixtures.INTEREST_ID)
+                .setChanged(Changed.STATE)
+                .setState(CallState.CALL_ORIGINATED)
+                .setDirection(CallDirection.INCOMING)
+                .setCallerNumber(CoreFixtures.CALLER_NUMBER)
+                .setCallerName(CoreFixtures.CALLER_NAME)
+                .addCallerE164Number(CoreFixtures.CALLER_E164_NUMBER)
+                .setCalledNumber(CoreFixtures.CALLED_NUMBER)
+                .setCalledName(CoreFixtures.CALLED_NAME)
+                .addCalledE164Number(CoreFixtures.CALLED_E164_NUMBER)
+                .setCalledDestination(CoreFixtures.CALLED_DESTINATION)
+                .addOriginatorReference("key1", "value1")
+                .addOriginatorReference("key2", "value2")
+                .setStartTime(CoreFixtures.START_TIME)
+                .setDuration(CoreFixtures.DURATION)
+                .addAction(RequestAction.ANSWER_CALL)
+                .addFeature(CallFeatureBoolean.Builder.start().setId(FeatureId.from("hs_1").get()).setType(FeatureType.HANDSET).setLabel("Handset 1").setEnabled(false).build())
+                .addFeature(CallFeatureBoolean.Builder.start().setId(FeatureId.from("hs_2").get()).setType(FeatureType.HANDSET).setLabel("Handset 2").setEnabled(false).build())
+                .addFeature(CallFeatureBoolean.Builder.start().setId(FeatureId.from("priv_1").get()).setType(FeatureType.PRIVACY).setLabel("Privacy").setEnabled(false).build())
+                .addFeature(CallFeatureDeviceKey.Builder.start().setId(FeatureId.from("NetrixHiTouch_sales1").get()).setType(FeatureType.DEVICE_KEYS).setLabel("NetrixHiTouch").setDeviceKey(DeviceKey.from("key_1:1:1").get()).build())
+                .addFeature(CoreFixtures.SPEAKER_FEATURE)
+                .addParticipant(CoreFixtures.PARTICIPANT)
+                .build();
+    }
+}
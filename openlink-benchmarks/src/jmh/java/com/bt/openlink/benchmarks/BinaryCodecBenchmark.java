@@ -0,0 +1,100 @@
+package com.bt.openlink.benchmarks;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.bt.openlink.PubSubMessageFixtures;
+import com.bt.openlink.codec.BinaryCodecs;
+import com.bt.openlink.codec.BinaryReader;
+import com.bt.openlink.codec.BinaryWriter;
+import com.bt.openlink.tinder.message.CallStatusMessage;
+import com.bt.openlink.type.Call;
+
+/**
+ * Compares passing calls between processes in the binary format with passing them as a call status stanza. Each
+ * operation encodes or decodes a whole stream, so strings are written in full the first time they occur; the
+ * {@code Repeated} benchmarks encode the calls again on a stream that has already carried them, as on a long-lived bus.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BinaryCodecBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int callCount;
+
+    private List<Call> calls;
+    private String stanza;
+    private CallStatusMessage callStatusMessage;
+    private ByteBuffer buffer;
+    private byte[] encodedCalls;
+    private BinaryWriter repeatedWriter;
+
+    @Setup
+    public void setUp() {
+        calls = BenchmarkFixtures.calls(callCount);
+        stanza = BenchmarkFixtures.withCalls(PubSubMessageFixtures.CALL_STATUS_MESSAGE, callCount);
+        callStatusMessage = CallStatusMessage.from(new StringReader(stanza));
+        buffer = ByteBuffer.allocate(stanza.length());
+        encodeBinary();
+        buffer.flip();
+        encodedCalls = new byte[buffer.remaining()];
+        buffer.get(encodedCalls);
+        repeatedWriter = new BinaryWriter();
+        encode(repeatedWriter);
+        if (decodeBinary().size() != callCount) {
+            throw new IllegalStateException("Unexpected number of calls decoded from the benchmark stream");
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBinary() {
+        return encode(new BinaryWriter());
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBinaryRepeated() {
+        return encode(repeatedWriter);
+    }
+
+    @Benchmark
+    public List<Call> decodeBinary() {
+        final ByteBuffer encoded = ByteBuffer.wrap(encodedCalls);
+        final BinaryReader reader = new BinaryReader();
+        final List<Call> decodedCalls = new ArrayList<>(callCount);
+        while (encoded.hasRemaining()) {
+            decodedCalls.add(reader.read(BinaryCodecs.CALL, encoded));
+        }
+        return decodedCalls;
+    }
+
+    @Benchmark
+    public String encodeXml() {
+        return callStatusMessage.toXML();
+    }
+
+    @Benchmark
+    public List<Call> decodeXml() {
+        return CallStatusMessage.from(new StringReader(stanza)).getCalls();
+    }
+
+    private ByteBuffer encode(final BinaryWriter writer) {
+        buffer.clear();
+        for (final Call call : calls) {
+            writer.write(BinaryCodecs.CALL, call, buffer);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,57 @@
+package com.bt.openlink.benchmarks;
+
+import com.bt.openlink.GetCallHistoryFixtures;
+import com.bt.openlink.GetFeaturesFixtures;
+import com.bt.openlink.GetInterestFixtures;
+import com.bt.openlink.GetInterestsFixtures;
+import com.bt.openlink.GetProfilesFixtures;
+import com.bt.openlink.MakeCallFixtures;
+import com.bt.openlink.PubSubPublishFixtures;
+import com.bt.openlink.PubSubSubscribeFixtures;
+import com.bt.openlink.RequestActionFixtures;
+
+/**
+ * The IQ stanzas that are benchmarked, one per stanza type understood by the libraries.
+ */
+public enum IQFixture {
+    GET_PROFILES_REQUEST(GetProfilesFixtures.GET_PROFILES_REQUEST),
+    GET_PROFILES_RESULT(GetProfilesFixtures.GET_PROFILES_RESULT_WITH_NO_NOTES),
+    GET_INTERESTS_REQUEST(GetInterestsFixtures.GET_INTERESTS_REQUEST),
+    GET_INTERESTS_RESULT(GetInterestsFixtures.GET_INTERESTS_RESULT),
+    GET_INTEREST_REQUEST(GetInterestFixtures.GET_INTEREST_REQUEST),
+    GET_INTEREST_RESULT(GetInterestFixtures.GET_INTEREST_RESULT),
+    GET_FEATURES_REQUEST(GetFeaturesFixtures.GET_FEATURES_REQUEST),
+    GET_FEATURES_RESULT(GetFeaturesFixtures.GET_FEATURES_RESULT),
+    GET_CALL_HISTORY_REQUEST(GetCallHistoryFixtures.GET_CALL_HISTORY_REQUEST_WITH_ALL_FIELDS),
+    MAKE_CALL_REQUEST(MakeCallFixtures.MAKE_CALL_REQUEST),
+    MAKE_CALL_RESULT(MakeCallFixtures.MAKE_CALL_RESULT),
+    REQUEST_ACTION_REQUEST(RequestActionFixtures.REQUEST_ACTION_REQUEST),
+    REQUEST_ACTION_RESULT(RequestActionFixtures.REQUEST_ACTION_RESULT),
+    PUBSUB_PUBLISH_CALL_STATUS_REQUEST(PubSubPublishFixtures.PUBLISH_REQUEST_CALL_STATUS),
+    PUBSUB_PUBLISH_DEVICE_STATUS_REQUEST(PubSubPublishFixtures.PUBLISH_REQUEST_DEVICE_STATUS),
+    PUBSUB_SUBSCRIBE_REQUEST(PubSubSubscribeFixtures.SUBSCRIBE_REQUEST),
+    PUBSUB_SUBSCRIBE_RESULT(PubSubSubscribeFixtures.SUBSCRIBE_RESULT),
+    PUBSUB_UNSUBSCRIBE_REQUEST(PubSubSubscribeFixtures.UNSUBSCRIBE_REQUEST),
+    PUBSUB_UNSUBSCRIBE_RESULT(PubSubSubscribeFixtures.UNSUBSCRIBE_RESULT);
+
+    private final String stanza;
+
+    IQFixture(final String stanza) {
+        this.stanza = stanza;
+    }
+
+    /**
+     * @return the stanza as it appears in the library test fixtures
+     */
+    public String stanza() {
+        return stanza;
+    }
+
+    /**
+     * @param callCount the number of calls required
+     * @return the stanza with any call status payload expanded to {@code callCount} calls
+     */
+    public String stanza(final int callCount) {
+        return BenchmarkFixtures.withCalls(stanza, callCount);
+    }
+}
@@ -0,0 +1,98 @@
+package com.bt.openlink.benchmarks;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.bt.openlink.PubSubMessageFixtures;
+import com.bt.openlink.codec.JsonCodecs;
+import com.bt.openlink.codec.JsonReader;
+import com.bt.openlink.codec.JsonWriter;
+import com.bt.openlink.tinder.message.CallStatusMessage;
+import com.bt.openlink.type.Call;
+
+/**
+ * Compares passing calls to a web client as JSON with passing them as a call status stanza. The {@code Utf8}
+ * benchmarks encode to and decode from a {@link ByteBuffer}, as a WebSocket bridge would; the others use a
+ * {@link String}, as the stanza benchmarks do.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JsonCodecBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int callCount;
+
+    private List<Call> calls;
+    private String stanza;
+    private CallStatusMessage callStatusMessage;
+    private String json;
+    private byte[] utf8Json;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        calls = BenchmarkFixtures.calls(callCount);
+        stanza = BenchmarkFixtures.withCalls(PubSubMessageFixtures.CALL_STATUS_MESSAGE, callCount);
+        callStatusMessage = CallStatusMessage.from(new StringReader(stanza));
+        json = encodeJson();
+        utf8Json = json.getBytes(StandardCharsets.UTF_8);
+        buffer = ByteBuffer.allocate(utf8Json.length);
+        if (decodeJson().size() != callCount || decodeJsonUtf8().size() != callCount) {
+            throw new IllegalStateException("Unexpected number of calls decoded from the benchmark JSON");
+        }
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        final StringBuilder builder = new StringBuilder();
+        JsonCodecs.encodeList(JsonWriter.of(builder), JsonCodecs.CALL, calls);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public ByteBuffer encodeJsonUtf8() {
+        buffer.clear();
+        JsonCodecs.encodeList(JsonWriter.of(buffer), JsonCodecs.CALL, calls);
+        return buffer;
+    }
+
+    @Benchmark
+    public List<Call> decodeJson() {
+        return decode(JsonReader.of(json));
+    }
+
+    @Benchmark
+    public List<Call> decodeJsonUtf8() {
+        return decode(JsonReader.of(ByteBuffer.wrap(utf8Json)));
+    }
+
+    @Benchmark
+    public String encodeXml() {
+        return callStatusMessage.toXML();
+    }
+
+    @Benchmark
+    public List<Call> decodeXml() {
+        return CallStatusMessage.from(new StringReader(stanza)).getCalls();
+    }
+
+    private List<Call> decode(final JsonReader reader) {
+        final List<Call> decodedCalls = new ArrayList<>(callCount);
+        JsonCodecs.decodeList(reader, JsonCodecs.CALL, decodedCalls::add);
+        return decodedCalls;
+    }
+}
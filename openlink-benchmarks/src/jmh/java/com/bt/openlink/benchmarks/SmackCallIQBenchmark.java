@@ -0,0 +1,68 @@
+package com.bt.openlink.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jivesoftware.smack.packet.IQ;
+import org.jivesoftware.smack.provider.ProviderManager;
+import org.jivesoftware.smack.util.PacketParserUtils;
+import org.jxmpp.jid.impl.JidCreate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.smack.iq.MakeCallResult;
+import com.bt.openlink.smack.iq.OpenlinkIQProvider;
+import com.bt.openlink.type.Call;
+
+/**
+ * Measures the Smack IQ stanzas that carry call status payloads with increasing numbers of calls.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SmackCallIQBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int callCount;
+
+    private String stanza;
+    private List<Call> calls;
+    private MakeCallResult makeCallResult;
+
+    @Setup
+    public void setUp() throws Exception {
+        ProviderManager.addIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), new OpenlinkIQProvider());
+        stanza = IQFixture.MAKE_CALL_RESULT.stanza(callCount);
+        calls = BenchmarkFixtures.calls(callCount);
+        makeCallResult = MakeCallResult.Builder.start()
+                .setId(CoreFixtures.STANZA_ID)
+                .setTo(JidCreate.from(CoreFixtures.TO_JID_STRING))
+                .setFrom(JidCreate.from(CoreFixtures.FROM_JID_STRING))
+                .addCalls(calls)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ProviderManager.removeIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri());
+    }
+
+    @Benchmark
+    public IQ parse() throws Exception {
+        return PacketParserUtils.parseStanza(stanza);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return makeCallResult.toXML().toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.bt.openlink.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jivesoftware.smack.packet.IQ;
+import org.jivesoftware.smack.packet.UnparsedIQ;
+import org.jivesoftware.smack.provider.ProviderManager;
+import org.jivesoftware.smack.util.PacketParserUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.smack.iq.OpenlinkIQProvider;
+
+/**
+ * Measures {@link OpenlinkIQProvider} and the subsequent {@code toXML()} for every IQ stanza type supported by the
+ * Smack library.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SmackIQBenchmark {
+
+    @Param({"GET_PROFILES_REQUEST", "GET_PROFILES_RESULT",
+            "GET_INTERESTS_REQUEST", "GET_INTERESTS_RESULT",
+            "GET_INTEREST_REQUEST", "GET_INTEREST_RESULT",
+            "GET_FEATURES_REQUEST", "GET_FEATURES_RESULT",
+            "MAKE_CALL_REQUEST", "MAKE_CALL_RESULT"})
+    public IQFixture fixture;
+
+    private String stanza;
+    private IQ parsedIQ;
+
+    @Setup
+    public void setUp() throws Exception {
+        ProviderManager.addIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), new OpenlinkIQProvider());
+        stanza = fixture.stanza();
+        parsedIQ = PacketParserUtils.parseStanza(stanza);
+        if (parsedIQ instanceof UnparsedIQ) {
+            throw new IllegalStateException("The stanza " + fixture + " was not recognised by the provider");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ProviderManager.removeIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri());
+    }
+
+    @Benchmark
+    public IQ parse() throws Exception {
+        return PacketParserUtils.parseStanza(stanza);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return parsedIQ.toXML().toString();
+    }
+}
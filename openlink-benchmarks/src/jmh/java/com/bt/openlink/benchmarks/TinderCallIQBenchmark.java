@@ -0,0 +1,100 @@
+package com.bt.openlink.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.xmpp.packet.IQ;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.tinder.iq.MakeCallResult;
+import com.bt.openlink.tinder.iq.OpenlinkIQParser;
+import com.bt.openlink.tinder.iq.PubSubPublishRequest;
+import com.bt.openlink.tinder.iq.RequestActionResult;
+import com.bt.openlink.type.Call;
+
+/**
+ * Measures the IQ stanzas that carry call status payloads with increasing numbers of calls.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TinderCallIQBenchmark {
+
+    @Param({"MAKE_CALL_RESULT", "REQUEST_ACTION_RESULT", "PUBSUB_PUBLISH_CALL_STATUS_REQUEST"})
+    public IQFixture fixture;
+
+    @Param({"1", "10", "100"})
+    public int callCount;
+
+    private String stanza;
+    private IQ iq;
+    private List<Call> calls;
+    private IQ parsedIQ;
+
+    @Setup
+    public void setUp() {
+        stanza = fixture.stanza(callCount);
+        iq = new IQ(BenchmarkFixtures.elementFrom(stanza));
+        calls = BenchmarkFixtures.calls(callCount);
+        parsedIQ = OpenlinkIQParser.parse(iq);
+    }
+
+    @Benchmark
+    public IQ parse() {
+        return OpenlinkIQParser.parse(iq);
+    }
+
+    @Benchmark
+    public IQ parseFromString() {
+        return OpenlinkIQParser.parse(new IQ(BenchmarkFixtures.elementFrom(stanza)));
+    }
+
+    @Benchmark
+    public IQ build() {
+        switch (fixture) {
+        case MAKE_CALL_RESULT:
+            return MakeCallResult.Builder.start()
+                    .setId(iq.getID())
+                    .setTo(iq.getTo())
+                    .setFrom(iq.getFrom())
+                    .addCalls(calls)
+                    .build();
+        case REQUEST_ACTION_RESULT:
+            return RequestActionResult.Builder.start()
+                    .setId(iq.getID())
+                    .setTo(iq.getTo())
+                    .setFrom(iq.getFrom())
+                    .addCalls(calls)
+                    .build();
+        case PUBSUB_PUBLISH_CALL_STATUS_REQUEST:
+            return PubSubPublishRequest.Builder.start()
+                    .setId(iq.getID())
+                    .setTo(iq.getTo())
+                    .setFrom(iq.getFrom())
+                    .setInterestId(CoreFixtures.INTEREST_ID)
+                    .setCallStatusBusy(false)
+                    .addCalls(calls)
+                    .build();
+        default:
+            throw new IllegalStateException("Unsupported fixture " + fixture);
+        }
+    }
+
+    @Benchmark
+    public String serialize() {
+        return parsedIQ.toXML();
+    }
+
+    @Benchmark
+    public String buildAndSerialize() {
+        return build().toXML();
+    }
+}
@@ -0,0 +1,83 @@
+package com.bt.openlink.benchmarks;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.xmpp.packet.Message;
+
+import com.bt.openlink.PubSubMessageFixtures;
+import com.bt.openlink.tinder.message.CallStatusMessage;
+import com.bt.openlink.tinder.message.OpenlinkMessageParser;
+import com.bt.openlink.type.Call;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TinderCallStatusMessageBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int callCount;
+
+    private String stanza;
+    private Message message;
+    private List<Call> calls;
+    private CallStatusMessage callStatusMessage;
+
+    @Setup
+    public void setUp() {
+        stanza = BenchmarkFixtures.withCalls(PubSubMessageFixtures.CALL_STATUS_MESSAGE, callCount);
+        message = new Message(BenchmarkFixtures.elementFrom(stanza));
+        calls = BenchmarkFixtures.calls(callCount);
+        callStatusMessage = build();
+        if (CallStatusMessage.from(message).getCalls().size() != callCount) {
+            throw new IllegalStateException("Unexpected number of calls decoded from the benchmark stanza");
+        }
+    }
+
+    @Benchmark
+    public CallStatusMessage parse() {
+        return CallStatusMessage.from(message);
+    }
+
+    @Benchmark
+    public Message parseFromString() {
+        return OpenlinkMessageParser.parse(new Message(BenchmarkFixtures.elementFrom(stanza)));
+    }
+
+    @Benchmark
+    public CallStatusMessage parseFromStream() {
+        return CallStatusMessage.from(new StringReader(stanza));
+    }
+
+    @Benchmark
+    public CallStatusMessage build() {
+        return CallStatusMessage.Builder.start()
+                .setId(message.getID())
+                .setTo(message.getTo())
+                .setFrom(message.getFrom())
+                .setPubSubNodeId(PubSubMessageFixtures.NODE_ID)
+                .setItemId(PubSubMessageFixtures.ITEM_ID)
+                .setCallStatusBusy(false)
+                .addCalls(calls)
+                .build();
+    }
+
+    @Benchmark
+    public String serialize() {
+        return callStatusMessage.toXML();
+    }
+
+    @Benchmark
+    public String buildAndSerialize() {
+        return build().toXML();
+    }
+}
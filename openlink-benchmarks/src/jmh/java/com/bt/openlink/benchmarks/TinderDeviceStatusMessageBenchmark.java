@@ -0,0 +1,46 @@
+package com.bt.openlink.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.xmpp.packet.Message;
+
+import com.bt.openlink.PubSubMessageFixtures;
+import com.bt.openlink.tinder.message.DeviceStatusMessage;
+import com.bt.openlink.tinder.message.OpenlinkMessageParser;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TinderDeviceStatusMessageBenchmark {
+
+    private Message message;
+    private DeviceStatusMessage deviceStatusMessage;
+
+    @Setup
+    public void setUp() {
+        message = new Message(BenchmarkFixtures.elementFrom(PubSubMessageFixtures.DEVICE_STATUS_MESSAGE));
+        deviceStatusMessage = DeviceStatusMessage.from(message);
+    }
+
+    @Benchmark
+    public DeviceStatusMessage parse() {
+        return DeviceStatusMessage.from(message);
+    }
+
+    @Benchmark
+    public Message parseFromString() {
+        return OpenlinkMessageParser.parse(new Message(BenchmarkFixtures.elementFrom(PubSubMessageFixtures.DEVICE_STATUS_MESSAGE)));
+    }
+
+    @Benchmark
+    public String serialize() {
+        return deviceStatusMessage.toXML();
+    }
+}
@@ -0,0 +1,56 @@
+package com.bt.openlink.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.xmpp.packet.IQ;
+
+import com.bt.openlink.tinder.iq.OpenlinkIQParser;
+
+/**
+ * Measures {@link OpenlinkIQParser#parse(IQ)} and the subsequent {@code toXML()} for every IQ stanza type.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TinderIQBenchmark {
+
+    @Param
+    public IQFixture fixture;
+
+    private String stanza;
+    private IQ iq;
+    private IQ parsedIQ;
+
+    @Setup
+    public void setUp() {
+        stanza = fixture.stanza();
+        iq = new IQ(BenchmarkFixtures.elementFrom(stanza));
+        parsedIQ = OpenlinkIQParser.parse(iq);
+        if (parsedIQ.getClass() == IQ.class) {
+            throw new IllegalStateException("The stanza " + fixture + " was not recognised by the parser");
+        }
+    }
+
+    @Benchmark
+    public IQ parse() {
+        return OpenlinkIQParser.parse(iq);
+    }
+
+    @Benchmark
+    public IQ parseFromString() {
+        return OpenlinkIQParser.parse(new IQ(BenchmarkFixtures.elementFrom(stanza)));
+    }
+
+    @Benchmark
+    public String serialize() {
+        return parsedIQ.toXML();
+    }
+}
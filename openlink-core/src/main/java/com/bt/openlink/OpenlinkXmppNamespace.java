@@ -28,6 +28,7 @@ public enum OpenlinkXmppNamespace {
     OPENLINK_QUERY_FEATURES("http://xmpp.org/protocol/openlink:01:00:00#query-features", "Query features"),
     OPENLINK_GET_CALL_HISTORY("http://xmpp.org/protocol/openlink:01:00:00#get-call-history", "Get call history"),
     OPENLINK_CALL_STATUS("http://xmpp.org/protocol/openlink:01:00:00#call-status", "Call status message"),
+    OPENLINK_CALL_STATUS_DELTA("http://xmpp.org/protocol/openlink:01:00:00#call-status-delta", "Call status delta"),
     OPENLINK_DEVICE_STATUS("http://xmpp.org/protocol/openlink:01:00:00#device-status", "Device status message"),
     OPENLINK_DEVICE_KEY("http://xmpp.org/protocol/openlink:01:00:00/features#device-keys", "Device key feature"),
     OPENLINK_SPEAKER_CHANNEL("http://xmpp.org/protocol/openlink:01:00:00/features#speaker-channel", "Speaker channel feature");
@@ -46,6 +47,7 @@ public enum OpenlinkXmppNamespace {
     public static final String TAG_INTEREST = "interest";
     public static final String TAG_FEATURES = "features";
     public static final String TAG_FEATURE = "feature";
+    public static final String TAG_FIELDS = "fields";
 
     private final String uri;
     private final String label;
@@ -0,0 +1,312 @@
+package com.bt.openlink;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A sink for the errors found when parsing or validating a stanza. Rather than formatting each message as it is found,
+ * the sink records the message template and its arguments; the text is only formatted, as per
+ * {@link String#format(String, Object...)}, when an error is read. As most stanzas contain no errors, the sink does not
+ * allocate any storage until the first error is reported.
+ * <p>
+ * The sink is a {@code List<String>}, so it can be passed to any method that collects errors; those methods should
+ * report errors with {@link #report(List, String, Object...)} so that they are formatted lazily when collected by a
+ * sink, and immediately otherwise. As formatting is deferred, the arguments of an error should be immutable.
+ * <p>
+ * A sink also carries the {@link ValidationMode} of the decode; builders and decoders should skip any validation for
+ * which {@link #isValidating(List)} returns {@code false}.
+ * <p>
+ * A sink is not thread-safe, but the {@link #snapshot() snapshots} of its errors can be safely shared.
+ */
+public final class ParseDiagnostics extends AbstractList<String> implements RandomAccess {
+
+    /**
+     * A shared sink that discards every error, for use when the errors would otherwise be thrown away. As there is no
+     * point validating values when the errors are discarded, the sink is {@link ValidationMode#TRUSTED trusted}.
+     */
+    public static final ParseDiagnostics IGNORED = new ParseDiagnostics(ValidationMode.TRUSTED, true);
+
+    @Nonnull private static volatile ValidationMode defaultValidationMode = ValidationMode.STRICT;
+
+    private static final Object[] NO_ENTRIES = {};
+    private static final Object[] NO_ARGUMENTS = {};
+
+    @Nonnull private final ValidationMode validationMode;
+    private final boolean ignored;
+    // Each entry is either a message, or an Error whose message is formatted when first read
+    @Nonnull private Object[] entries = NO_ENTRIES;
+    private int size;
+
+    /**
+     * Creates an empty sink with the {@link #getDefaultValidationMode() default validation mode}.
+     */
+    public ParseDiagnostics() {
+        this(defaultValidationMode, false);
+    }
+
+    /**
+     * Creates an empty sink.
+     *
+     * @param validationMode the validation mode of the decode
+     */
+    public ParseDiagnostics(@Nonnull final ValidationMode validationMode) {
+        this(validationMode, false);
+    }
+
+    private ParseDiagnostics(@Nonnull final ValidationMode validationMode, final boolean ignored) {
+        this.validationMode = validationMode;
+        this.ignored = ignored;
+    }
+
+    /**
+     * @return the validation mode of sinks created without one; this is {@link ValidationMode#STRICT} unless changed
+     */
+    @Nonnull
+    public static ValidationMode getDefaultValidationMode() {
+        return defaultValidationMode;
+    }
+
+    /**
+     * Sets the validation mode of sinks created without one, and so of every decode that is not given a mode. Only
+     * use {@link ValidationMode#TRUSTED} if every stanza is decoded from a trusted peer.
+     *
+     * @param validationMode the default validation mode
+     */
+    public static void setDefaultValidationMode(@Nonnull final ValidationMode validationMode) {
+        defaultValidationMode = validationMode;
+    }
+
+    /**
+     * Indicates whether values should be validated before reporting errors to a list of errors. Lists other than a
+     * {@link ParseDiagnostics} are always validated.
+     *
+     * @param errors the list of errors
+     * @return {@code false} if the list is a sink for a {@link ValidationMode#TRUSTED trusted} decode, otherwise
+     *         {@code true}
+     */
+    public static boolean isValidating(@Nonnull final List<String> errors) {
+        return validationModeOf(errors) == ValidationMode.STRICT;
+    }
+
+    /**
+     * @param errors the list of errors
+     * @return the validation mode of the list if it is a {@link ParseDiagnostics}, otherwise
+     *         {@link ValidationMode#STRICT}
+     */
+    @Nonnull
+    public static ValidationMode validationModeOf(@Nonnull final List<String> errors) {
+        return errors instanceof ParseDiagnostics ? ((ParseDiagnostics) errors).validationMode : ValidationMode.STRICT;
+    }
+
+    /**
+     * Reports an error to a list of errors. If the list is a {@link ParseDiagnostics} the error is recorded to be
+     * formatted when read, otherwise it is formatted and added to the list immediately.
+     *
+     * @param errors the list of errors
+     * @param template the message template, as per {@link String#format(String, Object...)}
+     * @param arguments the arguments referenced by the template
+     */
+    public static void report(@Nonnull final List<String> errors, @Nonnull final String template, @Nonnull final Object... arguments) {
+        if (errors instanceof ParseDiagnostics) {
+            ((ParseDiagnostics) errors).report(template, arguments);
+        } else {
+            errors.add(String.format(template, arguments));
+        }
+    }
+
+    /**
+     * Returns an unmodifiable copy of a list of errors, suitable for holding in a stanza. The copy of a
+     * {@link ParseDiagnostics} shares its storage, so neither the errors nor their messages are copied.
+     *
+     * @param errors the list of errors, or {@code null}
+     * @return an unmodifiable copy of the errors, which is empty if there are none
+     */
+    @Nonnull
+    public static List<String> unmodifiableCopyOf(@Nullable final List<String> errors) {
+        if (errors == null || errors.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (errors instanceof ParseDiagnostics) {
+            return ((ParseDiagnostics) errors).snapshot();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    /**
+     * Records an error, to be formatted when it is read.
+     *
+     * @param template the message template, as per {@link String#format(String, Object...)}
+     * @param arguments the arguments referenced by the template
+     */
+    public void report(@Nonnull final String template, @Nonnull final Object... arguments) {
+        append(arguments.length == 0 && template.indexOf('%') < 0 ? template : new Error(template, arguments));
+    }
+
+    /**
+     * Records an error whose message has already been formatted.
+     *
+     * @param message the error message
+     * @return {@code true} if the error was recorded, or {@code false} if this sink discards errors
+     */
+    @Override
+    public boolean add(@Nullable final String message) {
+        return append(message);
+    }
+
+    @Override
+    public boolean addAll(@Nonnull final Collection<? extends String> errors) {
+        if (!(errors instanceof ParseDiagnostics)) {
+            return super.addAll(errors);
+        }
+        final ParseDiagnostics diagnostics = (ParseDiagnostics) errors;
+        final int count = diagnostics.size;
+        if (ignored || count == 0) {
+            return false;
+        }
+        ensureCapacity(size + count);
+        System.arraycopy(diagnostics.entries, 0, entries, size, count);
+        size += count;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * @return the validation mode of the decode
+     */
+    @Nonnull
+    public ValidationMode getValidationMode() {
+        return validationMode;
+    }
+
+    @Override
+    public String get(final int index) {
+        checkIndex(index, size);
+        return format(entries, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        // Replace rather than overwrite the entries, as they may be shared with a snapshot
+        entries = NO_ENTRIES;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * @param index the index of the error
+     * @return the message template of the error, which is the message itself if it was added already formatted
+     * @throws IndexOutOfBoundsException if there is no such error
+     */
+    @Nullable
+    public String getTemplate(final int index) {
+        checkIndex(index, size);
+        final Object entry = entries[index];
+        return entry instanceof Error ? ((Error) entry).template : (String) entry;
+    }
+
+    /**
+     * @param index the index of the error
+     * @return a copy of the arguments of the error, which is empty if it was added already formatted
+     * @throws IndexOutOfBoundsException if there is no such error
+     */
+    @Nonnull
+    public Object[] getArguments(final int index) {
+        checkIndex(index, size);
+        final Object entry = entries[index];
+        return entry instanceof Error ? ((Error) entry).arguments.clone() : NO_ARGUMENTS;
+    }
+
+    /**
+     * Takes an unmodifiable snapshot of the errors reported so far; errors reported later are not included. The
+     * snapshot shares the storage of this sink, so taking it does not copy the errors.
+     *
+     * @return the errors reported so far
+     */
+    @Nonnull
+    public List<String> snapshot() {
+        return size == 0 ? Collections.emptyList() : new Snapshot(entries, size);
+    }
+
+    private boolean append(@Nullable final Object entry) {
+        if (ignored) {
+            return false;
+        }
+        ensureCapacity(size + 1);
+        entries[size++] = entry;
+        modCount++;
+        return true;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(capacity, Math.max(4, entries.length * 2)));
+        }
+    }
+
+    private static void checkIndex(final int index, final int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static String format(@Nonnull final Object[] entries, final int index) {
+        final Object entry = entries[index];
+        return entry instanceof Error ? ((Error) entry).getMessage() : (String) entry;
+    }
+
+    private static final class Error {
+        @Nonnull private final String template;
+        @Nonnull private final Object[] arguments;
+        // Strings are immutable, so it is safe for threads sharing a snapshot to race to format the message
+        @Nullable private String message;
+
+        private Error(@Nonnull final String template, @Nonnull final Object[] arguments) {
+            this.template = template;
+            this.arguments = arguments;
+        }
+
+        @Nonnull
+        private String getMessage() {
+            String formattedMessage = message;
+            if (formattedMessage == null) {
+                formattedMessage = String.format(template, arguments);
+                message = formattedMessage;
+            }
+            return formattedMessage;
+        }
+    }
+
+    private static final class Snapshot extends AbstractList<String> implements RandomAccess {
+        @Nonnull private final Object[] entries;
+        private final int size;
+
+        private Snapshot(@Nonnull final Object[] entries, final int size) {
+            this.entries = entries;
+            this.size = size;
+        }
+
+        @Override
+        public String get(final int index) {
+            checkIndex(index, size);
+            return format(entries, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.bt.openlink;
+
+/**
+ * How thoroughly a decoded stanza is validated.
+ *
+ * @see ParseDiagnostics#setDefaultValidationMode(ValidationMode)
+ */
+public enum ValidationMode {
+
+    /**
+     * Every stanza is validated, and any missing, invalid or inconsistent values are reported as parse errors. This is
+     * the default.
+     */
+    STRICT,
+    /**
+     * The stanza is assumed to come from a trusted peer, so only values that cannot be decoded are reported as parse
+     * errors; mandatory values are not checked, nor are legacy values checked against their replacements.
+     */
+    TRUSTED
+
+}
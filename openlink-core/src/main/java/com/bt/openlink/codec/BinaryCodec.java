@@ -0,0 +1,35 @@
+package com.bt.openlink.codec;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Encodes and decodes values of a type in the compact binary format written by a {@link BinaryWriter} and read by a
+ * {@link BinaryReader}. The format is intended for passing values between processes that both use this library, such
+ * as the gateways on an internal bus, where re-encoding as XML is wasted effort; it is not an Openlink wire format.
+ * <p>
+ * {@link BinaryCodecs} provides a codec for each of the {@code com.bt.openlink.type} classes. Other codecs can be built
+ * on the same primitives, and can use the codecs of {@link BinaryCodecs} for any values they contain. A codec must
+ * read exactly what it writes, and must be stateless; all state belongs to the writer and reader.
+ *
+ * @param <T> the type of the values
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * Encodes a value.
+     *
+     * @param writer the writer to which the value is written
+     * @param value  the value
+     */
+    void encode(@Nonnull BinaryWriter writer, @Nonnull T value);
+
+    /**
+     * Decodes a value.
+     *
+     * @param reader the reader from which the value is read
+     * @return the value
+     * @throws IllegalArgumentException if the value is not validly encoded
+     */
+    @Nonnull
+    T decode(@Nonnull BinaryReader reader);
+}
@@ -0,0 +1,653 @@
+package com.bt.openlink.codec;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallDirection;
+import com.bt.openlink.type.CallFeature;
+import com.bt.openlink.type.CallFeatureBoolean;
+import com.bt.openlink.type.CallFeatureDeviceKey;
+import com.bt.openlink.type.CallFeatureSpeakerChannel;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.Changed;
+import com.bt.openlink.type.ConferenceId;
+import com.bt.openlink.type.DeviceKey;
+import com.bt.openlink.type.DeviceStatus;
+import com.bt.openlink.type.Feature;
+import com.bt.openlink.type.FeatureId;
+import com.bt.openlink.type.FeatureType;
+import com.bt.openlink.type.Interest;
+import com.bt.openlink.type.InterestId;
+import com.bt.openlink.type.InterestType;
+import com.bt.openlink.type.OriginatorReference;
+import com.bt.openlink.type.Participant;
+import com.bt.openlink.type.ParticipantType;
+import com.bt.openlink.type.PhoneNumber;
+import com.bt.openlink.type.Profile;
+import com.bt.openlink.type.ProfileId;
+import com.bt.openlink.type.RequestAction;
+import com.bt.openlink.type.Site;
+import com.bt.openlink.type.UserId;
+
+/**
+ * The binary codecs of the {@code com.bt.openlink.type} classes. Each value is written as a varint of flags, which
+ * records which of its optional fields are present - and the value of any optional boolean - followed by the fields
+ * that are present, so that a value is decoded exactly as it was encoded, including the fields that are missing or
+ * were not loaded. A decoded value is not validated again.
+ */
+public final class BinaryCodecs {
+
+    public static final BinaryCodec<Site> SITE = new SiteCodec();
+    public static final BinaryCodec<Participant> PARTICIPANT = new ParticipantCodec();
+    public static final BinaryCodec<Feature> FEATURE = new FeatureCodec();
+    public static final BinaryCodec<CallFeature> CALL_FEATURE = new CallFeatureCodec();
+    public static final BinaryCodec<Call> CALL = new CallCodec();
+    public static final BinaryCodec<Profile> PROFILE = new ProfileCodec();
+    public static final BinaryCodec<Interest> INTEREST = new InterestCodec();
+    public static final BinaryCodec<DeviceStatus> DEVICE_STATUS = new DeviceStatusCodec();
+
+    // The constants of each enum, in declaration order; values() clones them on every call
+    private static final Site.Type[] SITE_TYPES = Site.Type.values();
+    private static final ParticipantType[] PARTICIPANT_TYPES = ParticipantType.values();
+    private static final CallDirection[] CALL_DIRECTIONS = CallDirection.values();
+    private static final CallState[] CALL_STATES = CallState.values();
+    private static final Changed[] CHANGES = Changed.values();
+    private static final FeatureType[] FEATURE_TYPES = FeatureType.values();
+    private static final RequestAction[] REQUEST_ACTIONS = RequestAction.values();
+    private static final CallField[] CALL_FIELDS = CallField.values();
+
+    private BinaryCodecs() {
+    }
+
+    /**
+     * Encodes a list of values as its size followed by each value.
+     *
+     * @param writer the writer to which the values are written
+     * @param codec  the codec of the values
+     * @param values the values
+     * @param <T>    the type of the values
+     */
+    public static <T> void encodeList(@Nonnull final BinaryWriter writer, @Nonnull final BinaryCodec<? super T> codec, @Nonnull final List<T> values) {
+        writer.writeVarInt(values.size());
+        for (final T value : values) {
+            codec.encode(writer, value);
+        }
+    }
+
+    private static int flag(final boolean present, final int bit) {
+        return present ? 1 << bit : 0;
+    }
+
+    // An optional boolean takes two bits; the first if it is present, the second if it is true
+    private static int flag(@Nonnull final Optional<Boolean> value, final int bit) {
+        return value.map(present -> present ? 3 << bit : 1 << bit).orElse(0);
+    }
+
+    private static boolean isSet(final int flags, final int bit) {
+        return (flags & 1 << bit) != 0;
+    }
+
+    @Nullable
+    private static Boolean getBoolean(final int flags, final int bit) {
+        return isSet(flags, bit) ? isSet(flags, bit + 1) : null;
+    }
+
+    @Nonnull
+    private static <T> T required(@Nonnull final Optional<T> value, @Nonnull final String description) {
+        return value.orElseThrow(() -> new IllegalArgumentException("Invalid binary encoding; invalid " + description));
+    }
+
+    private static final class SiteCodec implements BinaryCodec<Site> {
+
+        private static final int ID = 0;
+        private static final int DEFAULT = 1;
+        private static final int TYPE = 3;
+        private static final int NAME = 4;
+
+        @Override
+        public void encode(@Nonnull final BinaryWriter writer, @Nonnull final Site site) {
+            writer.writeVarInt(flag(site.getId().isPresent(), ID)
+                    | flag(site.isDefault(), DEFAULT)
+                    | flag(site.getType().isPresent(), TYPE)
+                    | flag(site.getName().isPresent(), NAME));
+            site.getId().ifPresent(writer::writeSignedVarLong);
+            site.getType().ifPresent(writer::writeSymbol);
+            site.getName().ifPresent(writer::writeString);
+        }
+
+        @Nonnull
+        @Override
+        public Site decode(@Nonnull final BinaryReader reader) {
+            final int flags = reader.readVarInt();
+            final Site.Builder builder = Site.Builder.start();
+            if (isSet(flags, ID)) {
+                builder.setId(reader.readSignedVarLong());
+            }
+            if (isSet(flags, DEFAULT)) {
+                builder.setDefault(getBoolean(flags, DEFAULT));
+            }
+            if (isSet(flags, TYPE)) {
+                builder.setType(reader.readSymbol(SITE_TYPES));
+            }
+            if (isSet(flags, NAME)) {
+                builder.setName(reader.readString());
+            }
+            return builder.build(ParseDiagnostics.IGNORED);
+        }
+    }
+
+    private static final class ParticipantCodec implements BinaryCodec<Participant> {
+
+        private static final int JID = 0;
+        private static final int TYPE = 1;
+        private static final int DIRECTION = 2;
+        private static final int START_TIME = 3;
+        private static final int DURATION = 4;
+
+        @Override
+        public void encode(@Nonnull final BinaryWriter writer, @Nonnull final Participant participant) {
+            writer.writeVarInt(flag(participant.getJID().isPresent(), JID)
+                    | flag(participant.getType().isPresent(), TYPE)
+                    | flag(participant.getDirection().isPresent(), DIRECTION)
+                    | flag(participant.getStartTime().isPresent(), START_TIME)
+                    | flag(participant.getDuration().isPresent(), DURATION));
+            participant.getJID().ifPresent(writer::writeString);
+            participant.getType().ifPresent(writer::writeSymbol);
+            participant.getDirection().ifPresent(writer::writeSymbol);
+            participant.getStartTime().ifPresent(writer::writeInstant);
+            participant.getDuration().ifPresent(writer::writeDuration);
+        }
+
+        @Nonnull
+        @Override
+        public Participant decode(@Nonnull final BinaryReader reader) {
+            final int flags = reader.readVarInt();
+            final Participant.Builder builder = Participant.Builder.start();
+            if (isSet(flags, JID)) {
+                builder.setJID(reader.readString());
+            }
+            if (isSet(flags, TYPE)) {
+                builder.setType(reader.readSymbol(PARTICIPANT_TYPES));
+            }
+            if (isSet(flags, DIRECTION)) {
+                builder.setDirection(reader.readSymbol(CALL_DIRECTIONS));
+            }
+            if (isSet(flags, START_TIME)) {
+                builder.setStartTime(reader.readInstant());
+            }
+            if (isSet(flags, DURATION)) {
+                builder.setDuration(reader.readDuration());
+            }
+            return builder.build(ParseDiagnostics.IGNORED);
+        }
+    }
+
+    private static final class FeatureCodec implements BinaryCodec<Feature> {
+
+        private static final int ID = 0;
+        private static final int TYPE = 1;
+        private static final int LABEL = 2;
+
+        @Override
+        public void encode(@Nonnull final BinaryWriter writer, @Nonnull final Feature feature) {
+            writer.writeVarInt(flags(feature));
+            encodeFields(writer, feature);
+        }
+
+        @Nonnull
+        @Override
+        public Feature decode(@Nonnull final BinaryReader reader) {
+            final int flags = reader.readVarInt();
+            return decodeFields(reader, flags, Feature.Builder.start()).build(ParseDiagnostics.IGNORED);
+        }
+
+        private static int flags(@Nonnull final Feature feature) {
+            return flag(feature.getId().isPresent(), ID)
+                    | flag(feature.getType().isPresent(), TYPE)
+                    | flag(feature.getLabel().isPresent(), LABEL);
+        }
+
+        private static void encodeFields(@Nonnull final BinaryWriter writer, @Nonnull final Feature feature) {
+            feature.getId().ifPresent(featureId -> writer.writeString(featureId.value()));
+            feature.getType().ifPresent(writer::writeSymbol);
+            feature.getLabel().ifPresent(writer::writeString);
+        }
+
+        @Nonnull
+        private static <B extends Feature.AbstractFeatureBuilder<B>> B decodeFields(@Nonnull final BinaryReader reader, final int flags, @Nonnull final B builder) {
+            if (isSet(flags, ID)) {
+                builder.setId(required(FeatureId.from(reader.readString()), "feature id"));
+            }
+            if (isSet(flags, TYPE)) {
+                builder.setType(reader.readSymbol(FEATURE_TYPES));
+            }
+            if (isSet(flags, LABEL)) {
+                builder.setLabel(reader.readString());
+            }
+            return builder;
+        }
+    }
+
+    /**
+     * A call feature is written as the kind of feature, followed by the fields of a {@link Feature} and then those of
+     * its kind, whose flags follow those of the feature.
+     */
+    private static final class CallFeatureCodec implements BinaryCodec<CallFeature> {
+
+        private static final int BOOLEAN = 0;
+        private static final int DEVICE_KEY = 1;
+        private static final int SPEAKER_CHANNEL = 2;
+
+        private static final int ENABLED = 3;
+        private static final int KEY = 3;
+        private static final int CHANNEL = 3;
+        private static final int MICROPHONE_ACTIVE = 4;
+        private static final int MUTE_REQUESTED = 6;
+
+        @Override
+        public void encode(@Nonnull final BinaryWriter writer, @Nonnull final CallFeature feature) {
+            final int flags = FeatureCodec.flags(feature);
+            if (feature instanceof CallFeatureBoolean) {
+                writer.writeVarInt(BOOLEAN);
+                writer.writeVarInt(flags | flag(((CallFeatureBoolean) feature).isEnabled(), ENABLED));
+                FeatureCodec.encodeFields(writer, feature);
+            } else if (feature instanceof CallFeatureDeviceKey) {
+                final Optional<DeviceKey> deviceKey = ((CallFeatureDeviceKey) feature).getDeviceKey();
+                writer.writeVarInt(DEVICE_KEY);
+                writer.writeVarInt(flags | flag(deviceKey.isPresent(), KEY));
+                FeatureCodec.encodeFields(writer, feature);
+                deviceKey.ifPresent(key -> writer.writeString(key.value()));
+            } else if (feature instanceof CallFeatureSpeakerChannel) {
+                final CallFeatureSpeakerChannel speakerChannel = (CallFeatureSpeakerChannel) feature;
+                writer.writeVarInt(SPEAKER_CHANNEL);
+                writer.writeVarInt(flags
+                        | flag(speakerChannel.getChannel().isPresent(), CHANNEL)
+                        | flag(speakerChannel.isMicrophoneActive(), MICROPHONE_ACTIVE)
+                        | flag(speakerChannel.isMuteRequested(), MUTE_REQUESTED));
+                FeatureCodec.encodeFields(writer, feature);
+                speakerChannel.getChannel().ifPresent(writer::writeSignedVarLong);
+            } else {
+                throw new IllegalArgumentException("Unable to encode call feature of type " + feature.getClass().getName());
+            }
+        }
+
+        @Nonnull
+        @Override
+        public CallFeature decode(@Nonnull final BinaryReader reader) {
+            final int kind = reader.readVarInt();
+            final int flags = reader.readVarInt();
+            switch (kind) {
+            case BOOLEAN:
+                final CallFeatureBoolean.Builder booleanBuilder = FeatureCodec.decodeFields(reader, flags, CallFeatureBoolean.Builder.start());
+                if (isSet(flags, ENABLED)) {
+                    booleanBuilder.setEnabled(getBoolean(flags, ENABLED));
+                }
+                return booleanBuilder.build(ParseDiagnostics.IGNORED);
+            case DEVICE_KEY:
+                final CallFeatureDeviceKey.Builder deviceKeyBuilder = FeatureCodec.decodeFields(reader, flags, CallFeatureDeviceKey.Builder.start());
+                if (isSet(flags, KEY)) {
+                    deviceKeyBuilder.setDeviceKey(required(DeviceKey.from(reader.readString()), "device key"));
+                }
+                return deviceKeyBuilder.build(ParseDiagnostics.IGNORED);
+            case SPEAKER_CHANNEL:
+                final CallFeatureSpeakerChannel.Builder speakerChannelBuilder = FeatureCodec.decodeFields(reader, flags, CallFeatureSpeakerChannel.Builder.start());
+                if (isSet(flags, CHANNEL)) {
+                    speakerChannelBuilder.setChannel(reader.readSignedVarLong());
+                }
+                if (isSet(flags, MICROPHONE_ACTIVE)) {
+                    speakerChannelBuilder.setMicrophoneActive(getBoolean(flags, MICROPHONE_ACTIVE));
+                }
+                if (isSet(flags, MUTE_REQUESTED)) {
+                    speakerChannelBuilder.setMuteRequested(getBoolean(flags, MUTE_REQUESTED));
+                }
+                return speakerChannelBuilder.build(ParseDiagnostics.IGNORED);
+            default:
+                throw new IllegalArgumentException("Invalid binary encoding; unknown call feature kind " + kind);
+            }
+        }
+    }
+
+    private static final class CallCodec implements BinaryCodec<Call> {
+
+        private static final int ID = 0;
+        private static final int CONFERENCE_ID = 1;
+        private static final int SITE = 2;
+        private static final int PROFILE_ID = 3;
+        private static final int USER_ID = 4;
+        private static final int INTEREST_ID = 5;
+        private static final int CHANGED = 6;
+        private static final int STATE = 7;
+        private static final int DIRECTION = 8;
+        private static final int CALLER_NUMBER = 9;
+        private static final int CALLER_NAME = 10;
+        private static final int CALLER_E164_NUMBERS = 11;
+        private static final int CALLED_NUMBER = 12;
+        private static final int CALLED_NAME = 13;
+        private static final int CALLED_DESTINATION = 14;
+        private static final int CALLED_E164_NUMBERS = 15;
+        private static final int ORIGINATOR_REFERENCES = 16;
+        private static final int START_TIME = 17;
+        private static final int DURATION = 18;
+        private static final int ACTIONS = 19;
+        private static final int FEATURES = 20;
+        private static final int PARTICIPANTS = 21;
+        private static final int PARTIALLY_LOADED = 22;
+        private static final int DELTA = 23;
+
+        @Override
+        public void encode(@Nonnull final BinaryWriter writer, @Nonnull final Call call) {
+            final Set<CallField> loadedFields = call.getLoadedFields();
+            final boolean partiallyLoaded = loadedFields.size() != CallField.ALL.size();
+            writer.writeVarInt(flag(call.getId().isPresent(), ID)
+                    | flag(call.getConferenceId().isPresent(), CONFERENCE_ID)
+                    | flag(call.getSite().isPresent(), SITE)
+                    | flag(call.getProfileId().isPresent(), PROFILE_ID)
+                    | flag(call.getUserId().isPresent(), USER_ID)
+                    | flag(call.getInterestId().isPresent(), INTEREST_ID)
+                    | flag(call.getChanged().isPresent(), CHANGED)
+                    | flag(call.getState().isPresent(), STATE)
+                    | flag(call.getDirection().isPresent(), DIRECTION)
+                    | flag(call.getCallerNumber().isPresent(), CALLER_NUMBER)
+                    | flag(call.getCallerName().isPresent(), CALLER_NAME)
+                    | flag(!call.getCallerE164Numbers().isEmpty(), CALLER_E164_NUMBERS)
+                    | flag(call.getCalledNumber().isPresent(), CALLED_NUMBER)
+                    | flag(call.getCalledName().isPresent(), CALLED_NAME)
+                    | flag(call.getCalledDestination().isPresent(), CALLED_DESTINATION)
+                    | flag(!call.getCalledE164Numbers().isEmpty(), CALLED_E164_NUMBERS)
+                    | flag(!call.getOriginatorReferences().isEmpty(), ORIGINATOR_REFERENCES)
+                    | flag(call.getStartTime().isPresent(), START_TIME)
+                    | flag(call.getDuration().isPresent(), DURATION)
+                    | flag(!call.getActions().isEmpty(), ACTIONS)
+                    | flag(!call.getFeatures().isEmpty(), FEATURES)
+                    | flag(!call.getParticipants().isEmpty(), PARTICIPANTS)
+                    | flag(partiallyLoaded, PARTIALLY_LOADED)
+                    | flag(call.isDelta(), DELTA));
+            if (partiallyLoaded) {
+                long loadedFieldBits = 0;
+                for (final CallField field : loadedFields) {
+                    loadedFieldBits |= 1L << field.ordinal();
+                }
+                writer.writeVarLong(loadedFieldBits);
+            }
+            call.getId().ifPresent(callId -> writer.writeString(callId.value()));
+            call.getConferenceId().ifPresent(conferenceId -> writer.writeString(conferenceId.value()));
+            call.getSite().ifPresent(site -> BinaryCodecs.SITE.encode(writer, site));
+            call.getProfileId().ifPresent(profileId -> writer.writeString(profileId.value()));
+            call.getUserId().ifPresent(userId -> writer.writeString(userId.value()));
+            call.getInterestId().ifPresent(interestId -> writer.writeString(interestId.value()));
+            call.getChanged().ifPresent(writer::writeSymbol);
+            call.getState().ifPresent(writer::writeSymbol);
+            call.getDirection().ifPresent(writer::writeSymbol);
+            call.getCallerNumber().ifPresent(callerNumber -> writer.writeString(callerNumber.value()));
+            call.getCallerName().ifPresent(writer::writeString);
+            encodePhoneNumbers(writer, call.getCallerE164Numbers());
+            call.getCalledNumber().ifPresent(calledNumber -> writer.writeString(calledNumber.value()));
+            call.getCalledName().ifPresent(writer::writeString);
+            call.getCalledDestination().ifPresent(calledDestination -> writer.writeString(calledDestination.value()));
+            encodePhoneNumbers(writer, call.getCalledE164Numbers());
+            if (!call.getOriginatorReferences().isEmpty()) {
+                writer.writeVarInt(call.getOriginatorReferences().size());
+                for (final OriginatorReference originatorReference : call.getOriginatorReferences()) {
+                    writer.writeString(originatorReference.getKey());
+                    writer.writeString(originatorReference.getValue());
+                }
+            }
+            call.getStartTime().ifPresent(writer::writeInstant);
+            call.getDuration().ifPresent(writer::writeDuration);
+            if (!call.getActions().isEmpty()) {
+                writer.writeVarInt(call.getActions().size());
+                call.getActions().forEach(writer::writeSymbol);
+            }
+            if (!call.getFeatures().isEmpty()) {
+                encodeList(writer, BinaryCodecs.CALL_FEATURE, call.getFeatures());
+            }
+            if (!call.getParticipants().isEmpty()) {
+                encodeList(writer, BinaryCodecs.PARTICIPANT, call.getParticipants());
+            }
+        }
+
+        private static void encodePhoneNumbers(@Nonnull final BinaryWriter writer, @Nonnull final List<PhoneNumber> phoneNumbers) {
+            if (!phoneNumbers.isEmpty()) {
+                writer.writeVarInt(phoneNumbers.size());
+                for (final PhoneNumber phoneNumber : phoneNumbers) {
+                    writer.writeString(phoneNumber.value());
+                }
+            }
+        }
+
+        @Nonnull
+        @Override
+        public Call decode(@Nonnull final BinaryReader reader) {
+            final int flags = reader.readVarInt();
+            final Call.Builder builder = Call.Builder.start()
+                    .setCanonicalPool(reader.getCanonicalPool())
+                    .setDelta(isSet(flags, DELTA));
+            if (isSet(flags, PARTIALLY_LOADED)) {
+                final long loadedFieldBits = reader.readVarLong();
+                final Set<CallField> loadedFields = EnumSet.noneOf(CallField.class);
+                for (final CallField field : CALL_FIELDS) {
+                    if ((loadedFieldBits & 1L << field.ordinal()) != 0) {
+                        loadedFields.add(field);
+                    }
+                }
+                builder.setLoadedFields(loadedFields);
+            }
+            if (isSet(flags, ID)) {
+                builder.setId(required(CallId.from(reader.readString()), "call id"));
+            }
+            if (isSet(flags, CONFERENCE_ID)) {
+                builder.setConferenceId(required(ConferenceId.from(reader.readString()), "conference id"));
+            }
+            if (isSet(flags, SITE)) {
+                builder.setSite(BinaryCodecs.SITE.decode(reader));
+            }
+            if (isSet(flags, PROFILE_ID)) {
+                builder.setProfileId(required(ProfileId.from(reader.readString()), "profile id"));
+            }
+            if (isSet(flags, USER_ID)) {
+                builder.setUserId(required(UserId.from(reader.readString()), "user id"));
+            }
+            if (isSet(flags, INTEREST_ID)) {
+                builder.setInterestId(required(InterestId.from(reader.readString()), "interest id"));
+            }
+            if (isSet(flags, CHANGED)) {
+                builder.setChanged(reader.readSymbol(CHANGES));
+            }
+            if (isSet(flags, STATE)) {
+                builder.setState(reader.readSymbol(CALL_STATES));
+            }
+            if (isSet(flags, DIRECTION)) {
+                builder.setDirection(reader.readSymbol(CALL_DIRECTIONS));
+            }
+            if (isSet(flags, CALLER_NUMBER)) {
+                builder.setCallerNumber(required(PhoneNumber.from(reader.readString()), "caller number"));
+            }
+            if (isSet(flags, CALLER_NAME)) {
+                builder.setCallerName(reader.readString());
+            }
+            if (isSet(flags, CALLER_E164_NUMBERS)) {
+                for (int i = reader.readVarInt(); i > 0; i--) {
+                    builder.addCallerE164Number(required(PhoneNumber.from(reader.readString()), "caller E164 number"));
+                }
+            }
+            if (isSet(flags, CALLED_NUMBER)) {
+                builder.setCalledNumber(required(PhoneNumber.from(reader.readString()), "called number"));
+            }
+            if (isSet(flags, CALLED_NAME)) {
+                builder.setCalledName(reader.readString());
+            }
+            if (isSet(flags, CALLED_DESTINATION)) {
+                builder.setCalledDestination(required(PhoneNumber.from(reader.readString()), "called destination"));
+            }
+            if (isSet(flags, CALLED_E164_NUMBERS)) {
+                for (int i = reader.readVarInt(); i > 0; i--) {
+                    builder.addCalledE164Number(required(PhoneNumber.from(reader.readString()), "called E164 number"));
+                }
+            }
+            if (isSet(flags, ORIGINATOR_REFERENCES)) {
+                for (int i = reader.readVarInt(); i > 0; i--) {
+                    final String key = reader.readString();
+                    builder.addOriginatorReference(key, reader.readString());
+                }
+            }
+            if (isSet(flags, START_TIME)) {
+                builder.setStartTime(reader.readInstant());
+            }
+            if (isSet(flags, DURATION)) {
+                builder.setDuration(reader.readDuration());
+            }
+            if (isSet(flags, ACTIONS)) {
+                for (int i = reader.readVarInt(); i > 0; i--) {
+                    builder.addAction(reader.readSymbol(REQUEST_ACTIONS));
+                }
+            }
+            if (isSet(flags, FEATURES)) {
+                for (int i = reader.readVarInt(); i > 0; i--) {
+                    builder.addFeature(BinaryCodecs.CALL_FEATURE.decode(reader));
+                }
+            }
+            if (isSet(flags, PARTICIPANTS)) {
+                for (int i = reader.readVarInt(); i > 0; i--) {
+                    builder.addParticipant(BinaryCodecs.PARTICIPANT.decode(reader));
+                }
+            }
+            return builder.build(ParseDiagnostics.IGNORED);
+        }
+    }
+
+    private static final class ProfileCodec implements BinaryCodec<Profile> {
+
+        private static final int ID = 0;
+        private static final int DEFAULT = 1;
+        private static final int DEVICE = 3;
+        private static final int LABEL = 4;
+        private static final int ONLINE = 5;
+        private static final int SITE = 7;
+        private static final int ACTIONS = 8;
+
+        @Override
+        public void encode(@Nonnull final BinaryWriter writer, @Nonnull final Profile profile) {
+            writer.writeVarInt(flag(profile.getId().isPresent(), ID)
+                    | flag(profile.isDefaultProfile(), DEFAULT)
+                    | flag(profile.getDevice().isPresent(), DEVICE)
+                    | flag(profile.getLabel().isPresent(), LABEL)
+                    | flag(profile.isOnline(), ONLINE)
+                    | flag(profile.getSite().isPresent(), SITE)
+                    | flag(!profile.getActions().isEmpty(), ACTIONS));
+            profile.getId().ifPresent(profileId -> writer.writeString(profileId.value()));
+            profile.getDevice().ifPresent(writer::writeString);
+            profile.getLabel().ifPresent(writer::writeString);
+            profile.getSite().ifPresent(site -> BinaryCodecs.SITE.encode(writer, site));
+            if (!profile.getActions().isEmpty()) {
+                writer.writeVarInt(profile.getActions().size());
+                profile.getActions().forEach(writer::writeSymbol);
+            }
+        }
+
+        @Nonnull
+        @Override
+        public Profile decode(@Nonnull final BinaryReader reader) {
+            final int flags = reader.readVarInt();
+            final Profile.Builder builder = Profile.Builder.start();
+            if (isSet(flags, ID)) {
+                builder.setId(required(ProfileId.from(reader.readString()), "profile id"));
+            }
+            if (isSet(flags, DEFAULT)) {
+                builder.setDefault(getBoolean(flags, DEFAULT));
+            }
+            if (isSet(flags, DEVICE)) {
+                builder.setDevice(reader.readString());
+            }
+            if (isSet(flags, LABEL)) {
+                builder.setLabel(reader.readString());
+            }
+            if (isSet(flags, ONLINE)) {
+                builder.setOnline(getBoolean(flags, ONLINE));
+            }
+            if (isSet(flags, SITE)) {
+                builder.setSite(BinaryCodecs.SITE.decode(reader));
+            }
+            if (isSet(flags, ACTIONS)) {
+                for (int i = reader.readVarInt(); i > 0; i--) {
+                    builder.addAction(reader.readSymbol(REQUEST_ACTIONS));
+                }
+            }
+            return builder.build(ParseDiagnostics.IGNORED);
+        }
+    }
+
+    private static final class InterestCodec implements BinaryCodec<Interest> {
+
+        private static final int ID = 0;
+        private static final int TYPE = 1;
+        private static final int LABEL = 2;
+        private static final int DEFAULT = 3;
+
+        @Override
+        public void encode(@Nonnull final BinaryWriter writer, @Nonnull final Interest interest) {
+            writer.writeVarInt(flag(interest.getId().isPresent(), ID)
+                    | flag(interest.getType().isPresent(), TYPE)
+                    | flag(interest.getLabel().isPresent(), LABEL)
+                    | flag(interest.isDefaultInterest(), DEFAULT));
+            interest.getId().ifPresent(interestId -> writer.writeString(interestId.value()));
+            interest.getType().ifPresent(interestType -> writer.writeString(interestType.value()));
+            interest.getLabel().ifPresent(writer::writeString);
+        }
+
+        @Nonnull
+        @Override
+        public Interest decode(@Nonnull final BinaryReader reader) {
+            final int flags = reader.readVarInt();
+            final Interest.Builder builder = Interest.Builder.start();
+            if (isSet(flags, ID)) {
+                builder.setId(required(InterestId.from(reader.readString()), "interest id"));
+            }
+            if (isSet(flags, TYPE)) {
+                builder.setType(required(InterestType.from(reader.readString()), "interest type"));
+            }
+            if (isSet(flags, LABEL)) {
+                builder.setLabel(reader.readString());
+            }
+            if (isSet(flags, DEFAULT)) {
+                builder.setDefault(getBoolean(flags, DEFAULT));
+            }
+            return builder.build(ParseDiagnostics.IGNORED);
+        }
+    }
+
+    private static final class DeviceStatusCodec implements BinaryCodec<DeviceStatus> {
+
+        private static final int ONLINE = 0;
+        private static final int PROFILE_ID = 2;
+
+        @Override
+        public void encode(@Nonnull final BinaryWriter writer, @Nonnull final DeviceStatus deviceStatus) {
+            writer.writeVarInt(flag(deviceStatus.isOnline(), ONLINE)
+                    | flag(deviceStatus.getProfileId().isPresent(), PROFILE_ID));
+            deviceStatus.getProfileId().ifPresent(profileId -> writer.writeString(profileId.value()));
+        }
+
+        @Nonnull
+        @Override
+        public DeviceStatus decode(@Nonnull final BinaryReader reader) {
+            final int flags = reader.readVarInt();
+            final DeviceStatus.Builder builder = DeviceStatus.Builder.start();
+            if (isSet(flags, ONLINE)) {
+                builder.setOnline(getBoolean(flags, ONLINE));
+            }
+            if (isSet(flags, PROFILE_ID)) {
+                builder.setProfileId(required(ProfileId.from(reader.readString()), "profile id"));
+            }
+            return builder.build(ParseDiagnostics.IGNORED);
+        }
+    }
+}
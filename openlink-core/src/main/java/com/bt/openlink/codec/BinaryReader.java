@@ -0,0 +1,188 @@
+package com.bt.openlink.codec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Reads a stream of values written by a {@link BinaryWriter}. A value is read from a {@link ByteBuffer}; if the buffer
+ * does not yet hold all of the value, the buffer and reader are left as they were before the value was read, so that
+ * the value can be read again once more of the stream has been received.
+ * <p>
+ * A reader holds the state of a single stream. Once a value has been found to be invalidly encoded, the rest of the
+ * stream cannot be read. A reader is not thread-safe.
+ */
+public final class BinaryReader {
+
+    private static final int MAXIMUM_VAR_INT_BYTES = 5;
+    private static final int MAXIMUM_VAR_LONG_BYTES = 10;
+
+    @Nonnull private final CanonicalPool canonicalPool;
+    @Nonnull private final List<String> strings = new ArrayList<>();
+    @Nonnull private ByteBuffer buffer = ByteBuffer.allocate(0);
+    private boolean started;
+
+    /**
+     * Creates a reader.
+     */
+    public BinaryReader() {
+        this(CanonicalPool.NONE);
+    }
+
+    /**
+     * Creates a reader that takes the values of the calls it reads from a pool.
+     *
+     * @param canonicalPool the pool to use
+     */
+    public BinaryReader(@Nonnull final CanonicalPool canonicalPool) {
+        this.canonicalPool = canonicalPool;
+    }
+
+    /**
+     * @return the pool from which the values of the calls read are taken
+     */
+    @Nonnull
+    public CanonicalPool getCanonicalPool() {
+        return canonicalPool;
+    }
+
+    /**
+     * Reads a value from a buffer.
+     *
+     * @param codec  the codec of the value
+     * @param buffer the buffer from which the value is read
+     * @param <T>    the type of the value
+     * @return the value
+     * @throws BufferUnderflowException if the buffer does not hold all of the value; neither the buffer's position nor
+     *                                  the state of the reader is changed
+     * @throws IllegalArgumentException if the value is not validly encoded
+     */
+    @Nonnull
+    public <T> T read(@Nonnull final BinaryCodec<T> codec, @Nonnull final ByteBuffer buffer) {
+        final int position = buffer.position();
+        final int stringCount = strings.size();
+        final boolean wasStarted = started;
+        this.buffer = buffer;
+        try {
+            if (!started) {
+                final int version = readVarInt();
+                if (version != BinaryWriter.FORMAT_VERSION) {
+                    throw new IllegalArgumentException("Unsupported binary format version " + version);
+                }
+                started = true;
+            }
+            return codec.decode(this);
+        } catch (final BufferUnderflowException e) {
+            buffer.position(position);
+            while (strings.size() > stringCount) {
+                strings.remove(strings.size() - 1);
+            }
+            started = wasStarted;
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a new stream, forgetting every string read so far.
+     */
+    public void reset() {
+        strings.clear();
+        started = false;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int i = 0; i < MAXIMUM_VAR_INT_BYTES; i++) {
+            final byte b = buffer.get();
+            value |= (b & 0x7F) << (7 * i);
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid binary encoding; malformed varint");
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int i = 0; i < MAXIMUM_VAR_LONG_BYTES; i++) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << (7 * i);
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid binary encoding; malformed varint");
+    }
+
+    public long readSignedVarLong() {
+        final long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    @Nonnull
+    public String readString() {
+        final int reference = readVarInt();
+        if (reference != BinaryWriter.LITERAL_STRING) {
+            if (reference < 0 || reference > strings.size()) {
+                throw new IllegalArgumentException("Invalid binary encoding; unknown string reference " + reference);
+            }
+            return strings.get(reference - 1);
+        }
+        final int length = readVarInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw length < 0 ? new IllegalArgumentException("Invalid binary encoding; malformed string") : new BufferUnderflowException();
+        }
+        final String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (strings.size() < BinaryWriter.STRING_TABLE_CAPACITY) {
+            strings.add(value);
+        }
+        return value;
+    }
+
+    /**
+     * Reads the symbol id of an enum constant.
+     *
+     * @param constants the constants of the enum, in declaration order
+     * @param <E>       the enum type
+     * @return the constant
+     * @throws IllegalArgumentException if the id is not that of a constant
+     */
+    @Nonnull
+    public <E extends Enum<E>> E readSymbol(@Nonnull final E[] constants) {
+        final int id = readVarInt();
+        if (id < 0 || id >= constants.length) {
+            throw new IllegalArgumentException("Invalid binary encoding; unknown symbol id " + id + " of " + constants.getClass().getComponentType().getSimpleName());
+        }
+        return constants[id];
+    }
+
+    @Nonnull
+    public Instant readInstant() {
+        final long epochSecond = readSignedVarLong();
+        return Instant.ofEpochSecond(epochSecond, readVarInt());
+    }
+
+    @Nonnull
+    public Duration readDuration() {
+        final long seconds = readSignedVarLong();
+        return Duration.ofSeconds(seconds, readVarInt());
+    }
+}
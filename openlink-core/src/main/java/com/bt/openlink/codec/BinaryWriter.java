@@ -0,0 +1,163 @@
+package com.bt.openlink.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Writes a stream of values in the compact binary format of {@link BinaryCodec}. Integers are written as varints, the
+ * constants of an enum as their symbol id, and each distinct string as its UTF-8 bytes the first time it is written
+ * and as a reference to that first occurrence thereafter, so that the ids repeated by successive events - such as the
+ * call, profile and interest ids of a call - cost a byte or two. The stream starts with the
+ * {@link #FORMAT_VERSION version} of the format.
+ * <p>
+ * A writer holds the state of a single stream, so the values written must be read, in order, by a single
+ * {@link BinaryReader}. A value is written to a {@link ByteBuffer}; if it does not fit, the buffer and writer are left
+ * as they were before the value was written, so that the value can be written again once the buffer has been drained.
+ * A writer is not thread-safe.
+ */
+public final class BinaryWriter {
+
+    /**
+     * The version of the binary format, which is written at the start of each stream.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * The maximum number of distinct strings that are written by reference in a stream; later strings are always
+     * written in full. This bounds the memory held by a writer and reader for a long-lived stream.
+     */
+    public static final int STRING_TABLE_CAPACITY = 4096;
+
+    // A string is written either as 0 followed by the string, or as its index in the table plus one
+    static final int LITERAL_STRING = 0;
+
+    @Nonnull private final Map<String, Integer> stringIndexes = new HashMap<>();
+    @Nonnull private final List<String> strings = new ArrayList<>();
+    @Nonnull private ByteBuffer buffer = ByteBuffer.allocate(0);
+    private boolean started;
+
+    /**
+     * Writes a value to a buffer.
+     *
+     * @param codec  the codec of the value
+     * @param value  the value
+     * @param buffer the buffer to which the value is written
+     * @param <T>    the type of the value
+     * @throws BufferOverflowException if the buffer does not have room for the value; neither the buffer's position nor
+     *                                 the state of the writer is changed
+     */
+    public <T> void write(@Nonnull final BinaryCodec<T> codec, @Nonnull final T value, @Nonnull final ByteBuffer buffer) {
+        final int position = buffer.position();
+        final int stringCount = strings.size();
+        final boolean wasStarted = started;
+        this.buffer = buffer;
+        try {
+            if (!started) {
+                writeVarInt(FORMAT_VERSION);
+                started = true;
+            }
+            codec.encode(this, value);
+        } catch (final BufferOverflowException e) {
+            buffer.position(position);
+            while (strings.size() > stringCount) {
+                stringIndexes.remove(strings.remove(strings.size() - 1));
+            }
+            started = wasStarted;
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a new stream, forgetting every string written so far.
+     */
+    public void reset() {
+        stringIndexes.clear();
+        strings.clear();
+        started = false;
+    }
+
+    /**
+     * @param value a non-negative value, written in one to five bytes
+     */
+    public void writeVarInt(final int value) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            buffer.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * @param value a non-negative value, written in one to ten bytes
+     */
+    public void writeVarLong(final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * @param value a value that may be negative, written with a zig-zag encoding so that small magnitudes are short
+     */
+    public void writeSignedVarLong(final long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeBoolean(final boolean value) {
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * @param value the string, written by reference if it has been written before in the stream
+     */
+    public void writeString(@Nonnull final String value) {
+        final Integer index = stringIndexes.get(value);
+        if (index != null) {
+            writeVarInt(index + 1);
+            return;
+        }
+        writeVarInt(LITERAL_STRING);
+        writeUtf8(value);
+        if (strings.size() < STRING_TABLE_CAPACITY) {
+            stringIndexes.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+
+    /**
+     * Writes the symbol id of an enum constant, which is its ordinal; constants may therefore be added to the end of
+     * an enum without changing the format, but not reordered or removed.
+     *
+     * @param value the constant
+     */
+    public void writeSymbol(@Nonnull final Enum<?> value) {
+        writeVarInt(value.ordinal());
+    }
+
+    public void writeInstant(@Nonnull final Instant value) {
+        writeSignedVarLong(value.getEpochSecond());
+        writeVarInt(value.getNano());
+    }
+
+    public void writeDuration(@Nonnull final Duration value) {
+        writeSignedVarLong(value.getSeconds());
+        writeVarInt(value.getNano());
+    }
+
+    private void writeUtf8(@Nonnull final String value) {
+        writeVarInt(Utf8.encodedLength(value, 0, value.length()));
+        Utf8.encode(value, 0, value.length(), buffer);
+    }
+}
@@ -0,0 +1,111 @@
+package com.bt.openlink.codec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+
+/**
+ * Merges each {@link Call#isDelta() delta} received in a call status into the last version of the call, so that the
+ * receiver of deltas sees the same calls as if every call status carried the full call. A receiver that supports
+ * deltas should advertise the {@link com.bt.openlink.OpenlinkXmppNamespace#OPENLINK_CALL_STATUS_DELTA call status
+ * delta} feature, decode each call status with deltas negotiated - a call status is otherwise decoded with any delta
+ * reported as a parse error - and use a decoder for each subscription.
+ * <p>
+ * A call that is not a delta replaces the last version of the call. A delta of a call that has not been received
+ * before cannot be merged, so is returned as is; its fields that were not carried are reported as not loaded. A call
+ * is forgotten once it reaches a {@link CallState#isTerminal() terminal} state.
+ * <p>
+ * A decoder is thread-safe, but the deltas of a call must be decoded in the order in which they were published.
+ *
+ * @see CallDeltaEncoder
+ */
+public final class CallDeltaDecoder {
+
+    @Nonnull private final ConcurrentMap<CallId, Call> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Decodes a call that has been received.
+     *
+     * @param call the call, which may be a delta
+     * @return the call merged with the last version of the call, if the call is a delta, otherwise the call itself
+     */
+    @Nonnull
+    public Call decode(@Nonnull final Call call) {
+        final CallId callId = call.getId().orElse(null);
+        if (callId == null) {
+            return call;
+        }
+        final Call previousCall = calls.get(callId);
+        final Call mergedCall = call.isDelta() && previousCall != null ? merge(previousCall, call) : call;
+        if (mergedCall.getState().map(CallState::isTerminal).orElse(false)) {
+            calls.remove(callId);
+        } else {
+            calls.put(callId, mergedCall);
+        }
+        return mergedCall;
+    }
+
+    /**
+     * Decodes the calls of a call status that has been received.
+     *
+     * @param receivedCalls the calls
+     * @return the decoded calls, in the same order
+     */
+    @Nonnull
+    public List<Call> decode(@Nonnull final Collection<Call> receivedCalls) {
+        final List<Call> decodedCalls = new ArrayList<>(receivedCalls.size());
+        for (final Call call : receivedCalls) {
+            decodedCalls.add(decode(call));
+        }
+        return decodedCalls;
+    }
+
+    /**
+     * @param callId the id of a call
+     * @return the last version of the call, unless it has ended
+     */
+    @Nonnull
+    public Optional<Call> getCall(@Nonnull final CallId callId) {
+        return Optional.ofNullable(calls.get(callId));
+    }
+
+    /**
+     * Forgets every call.
+     */
+    public void clear() {
+        calls.clear();
+    }
+
+    /**
+     * Merges a delta of a call into the last version of the call.
+     *
+     * @param previousCall the last version of the call
+     * @param delta        the delta
+     * @return the merged call, which remains a delta until every field has been received
+     */
+    @Nonnull
+    public static Call merge(@Nonnull final Call previousCall, @Nonnull final Call delta) {
+        final Set<CallField> loadedFields = EnumSet.noneOf(CallField.class);
+        loadedFields.addAll(previousCall.getLoadedFields());
+        loadedFields.addAll(delta.getLoadedFields());
+        return Call.Builder.start()
+                .setLoadedFields(loadedFields)
+                .setDelta(loadedFields.size() != CallField.ALL.size())
+                .copyFields(previousCall, previousCall.getLoadedFields())
+                .copyFields(delta, delta.getLoadedFields())
+                .build(ParseDiagnostics.IGNORED);
+    }
+}
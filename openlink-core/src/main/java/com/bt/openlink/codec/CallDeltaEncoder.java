@@ -0,0 +1,116 @@
+package com.bt.openlink.codec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+
+/**
+ * Reduces each call to be published to a {@link Call#isDelta() delta} of the version of the call last published, so
+ * that a call status carries only the fields of each call that have changed, along with its id. This substantially
+ * reduces the size of the call status of long-lived calls, such as conferences, where most fields never change.
+ * <p>
+ * Deltas must only be published to peers that support them - i.e. that advertise the
+ * {@link OpenlinkXmppNamespace#OPENLINK_CALL_STATUS_DELTA call status delta} feature - and that have received every
+ * earlier call status for the call, so an encoder should be created with the features advertised by the peer of each
+ * subscription; if they do not include call status deltas, every call is published in full. The first version of a
+ * call, and any call without an id or that is not fully loaded, is also published in full. A call is forgotten once it
+ * reaches a {@link CallState#isTerminal() terminal} state.
+ * <p>
+ * An encoder is thread-safe, but the deltas of a call must be published in the order in which they were encoded.
+ *
+ * @see CallDeltaDecoder
+ */
+public final class CallDeltaEncoder {
+
+    @Nonnull private final ConcurrentMap<CallId, Call> publishedCalls = new ConcurrentHashMap<>();
+    private final boolean deltasNegotiated;
+
+    /**
+     * @param peerFeatures the features advertised by the peer, e.g. in its service discovery information
+     */
+    public CallDeltaEncoder(@Nonnull final Collection<String> peerFeatures) {
+        this.deltasNegotiated = peerFeatures.contains(OpenlinkXmppNamespace.OPENLINK_CALL_STATUS_DELTA.uri());
+    }
+
+    /**
+     * @return {@code true} if the peer has advertised the call status delta feature, so calls may be encoded as deltas
+     */
+    public boolean isDeltasNegotiated() {
+        return deltasNegotiated;
+    }
+
+    /**
+     * Encodes a call that is about to be published.
+     *
+     * @param call the call
+     * @return a delta of the call since it was last encoded, or the call itself if it has not been encoded before or the
+     *         peer does not support deltas
+     */
+    @Nonnull
+    public Call encode(@Nonnull final Call call) {
+        final CallId callId = call.getId().orElse(null);
+        if (!deltasNegotiated || callId == null || call.isDelta() || call.getLoadedFields().size() != CallField.ALL.size()) {
+            return call;
+        }
+        final boolean terminal = call.getState().map(CallState::isTerminal).orElse(false);
+        final Call previousCall = terminal ? publishedCalls.remove(callId) : publishedCalls.put(callId, call);
+        if (previousCall == null) {
+            return call;
+        }
+        final Set<CallField> fields = EnumSet.of(CallField.ID);
+        for (final CallField field : CallField.values()) {
+            if (!call.hasSameValue(field, previousCall)) {
+                fields.add(field);
+            }
+        }
+        return Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(fields)
+                .copyFields(call, fields)
+                .build(ParseDiagnostics.IGNORED);
+    }
+
+    /**
+     * Encodes the calls of a call status that is about to be published.
+     *
+     * @param calls the calls
+     * @return the encoded calls, in the same order
+     */
+    @Nonnull
+    public List<Call> encode(@Nonnull final Collection<Call> calls) {
+        final List<Call> encodedCalls = new ArrayList<>(calls.size());
+        for (final Call call : calls) {
+            encodedCalls.add(encode(call));
+        }
+        return encodedCalls;
+    }
+
+    /**
+     * Forgets a call, so that it is next published in full; e.g. when a subscriber has missed a call status.
+     *
+     * @param callId the id of the call
+     */
+    public void reset(@Nonnull final CallId callId) {
+        publishedCalls.remove(callId);
+    }
+
+    /**
+     * Forgets every call, so that each is next published in full.
+     */
+    public void clear() {
+        publishedCalls.clear();
+    }
+}
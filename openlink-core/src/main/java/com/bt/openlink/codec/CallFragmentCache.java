@@ -0,0 +1,165 @@
+package com.bt.openlink.codec;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallId;
+
+/**
+ * A bounded cache of the encoded {@code <call>} elements of calls, so that a call that has not changed since it was
+ * last published is not encoded again. This is most effective for busy lines, where a change to one call results in
+ * every call on the interest - such as each held call - being republished.
+ * <p>
+ * Fragments are keyed on the id of the call, and are versioned by the {@link Call#contentHash() hash of its content},
+ * which each call computes once; a fragment is reused for any call with the {@link Call#hasSameContent(Call) same
+ * content} as the call it was encoded from, so an unchanged call that has been decoded again, rebuilt or merged from a
+ * delta is not encoded again. A call without an id is always encoded. Each call id has at most one fragment.
+ * <p>
+ * The encoding of a fragment is identified by a format, as the same call is encoded differently by each stanza
+ * library; a fragment is only reused for the format it was encoded in.
+ * <p>
+ * A cache is thread-safe. The fragments are held in stripes, by call id, each with its own lock, so that publishers of
+ * different calls seldom contend; each stripe evicts its least recently used fragment when it is full, so a large cache
+ * evicts approximately, rather than exactly, the least recently used fragment of the cache. Calls are encoded without
+ * holding a lock, so that two threads may occasionally both encode the same call, which is harmless.
+ */
+public final class CallFragmentCache {
+
+    // Stripes hold at least this many fragments, so that a small cache evicts exactly its least recently used fragment
+    private static final int MINIMUM_STRIPE_CAPACITY = 16;
+    private static final int MAXIMUM_STRIPES = 16;
+
+    private final int capacity;
+    @Nonnull private final Stripe[] stripes;
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity the maximum number of fragments to hold
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public CallFragmentCache(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity must not be negative");
+        }
+        this.capacity = capacity;
+        final int stripeCount = Math.min(MAXIMUM_STRIPES, Math.max(1, Integer.highestOneBit(capacity / MINIMUM_STRIPE_CAPACITY)));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // Spread the remainder over the first stripes, so that the stripes hold the capacity exactly
+            stripes[i] = new Stripe(capacity / stripeCount + (i < capacity % stripeCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * @return the maximum number of fragments that the cache can hold
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of fragments currently held
+     */
+    public int size() {
+        int size = 0;
+        for (final Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the encoded element of a call, encoding the call only if the cache does not hold a fragment in the format
+     * for a call with the same content.
+     *
+     * @param format  identifies the encoding of the fragment
+     * @param call    the call
+     * @param encoder encodes the call
+     * @return the encoded element of the call
+     */
+    @Nonnull
+    public String getFragment(@Nonnull final Object format, @Nonnull final Call call, @Nonnull final Function<Call, String> encoder) {
+        final CallId callId = call.getId().orElse(null);
+        if (callId == null || capacity == 0) {
+            return encoder.apply(call);
+        }
+        final Stripe stripe = stripeOf(callId);
+        final Fragment fragment;
+        synchronized (stripe) {
+            fragment = stripe.get(callId);
+        }
+        if (fragment != null && fragment.format.equals(format) && fragment.call.hasSameContent(call)) {
+            return fragment.text;
+        }
+        final String text = encoder.apply(call);
+        synchronized (stripe) {
+            stripe.put(callId, new Fragment(format, call, text));
+        }
+        return text;
+    }
+
+    /**
+     * Removes the fragment of a call, e.g. once the call has ended.
+     *
+     * @param callId the id of the call
+     */
+    public void remove(@Nonnull final CallId callId) {
+        final Stripe stripe = stripeOf(callId);
+        synchronized (stripe) {
+            stripe.remove(callId);
+        }
+    }
+
+    /**
+     * Removes every fragment from the cache.
+     */
+    public void clear() {
+        for (final Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Nonnull
+    private Stripe stripeOf(@Nonnull final CallId callId) {
+        final int hash = callId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    // An access-ordered map of fragments, guarded by its own monitor
+    private static final class Stripe extends LinkedHashMap<CallId, Fragment> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Stripe(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<CallId, Fragment> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private static final class Fragment {
+        @Nonnull private final Object format;
+        @Nonnull private final Call call;
+        @Nonnull private final String text;
+
+        private Fragment(@Nonnull final Object format, @Nonnull final Call call, @Nonnull final String text) {
+            this.format = format;
+            this.call = call;
+            this.text = text;
+        }
+    }
+}
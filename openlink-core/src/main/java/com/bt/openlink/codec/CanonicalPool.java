@@ -0,0 +1,88 @@
+package com.bt.openlink.codec;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nullable;
+
+/**
+ * A bounded pool of canonical instances of immutable values, such as ids, phone numbers, sites and names. Decoders
+ * that share a pool return the same instance for equal values, so that long-lived holders of calls keep one copy of
+ * each value rather than one per event.
+ * <p>
+ * The pool is a two-way set-associative cache of fixed capacity; a value that is not in the pool replaces the least
+ * recently added value in its set. Access is lock-free; concurrent access may occasionally result in an equal value
+ * that is not the canonical instance being returned, which is harmless as the values are immutable.
+ * <p>
+ * Values must be immutable, and must implement {@link Object#equals(Object)} and {@link Object#hashCode()}.
+ */
+public final class CanonicalPool {
+
+    /**
+     * A pool that holds nothing, so that every value is returned as is.
+     */
+    public static final CanonicalPool NONE = new CanonicalPool(0);
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final AtomicReferenceArray<Object> table;
+    private final int mask;
+
+    /**
+     * Creates a pool.
+     *
+     * @param capacity the maximum number of values to hold; this is rounded up to a power of two
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public CanonicalPool(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity must not be negative");
+        }
+        final int tableSize = capacity == 0 ? 0 : Math.max(2, capacity > MAXIMUM_CAPACITY >> 1 ? MAXIMUM_CAPACITY : Integer.highestOneBit(capacity * 2 - 1));
+        this.table = new AtomicReferenceArray<>(tableSize);
+        this.mask = tableSize - 1;
+    }
+
+    /**
+     * @return the maximum number of values that the pool can hold
+     */
+    public int getCapacity() {
+        return table.length();
+    }
+
+    /**
+     * Returns the canonical instance of a value, adding the value to the pool if no equal value is held.
+     *
+     * @param value the value
+     * @param <T> the type of the value
+     * @return an instance equal to the value, or {@code null} if the value is {@code null}
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T canonical(@Nullable final T value) {
+        if (value == null || mask < 0) {
+            return value;
+        }
+        final int hash = value.hashCode();
+        final int first = (hash ^ (hash >>> 16)) & mask & ~1;
+        final Object firstValue = table.get(first);
+        if (value.equals(firstValue)) {
+            return (T) firstValue;
+        }
+        final Object secondValue = table.get(first + 1);
+        if (value.equals(secondValue)) {
+            return (T) secondValue;
+        }
+        table.lazySet(first + 1, firstValue);
+        table.lazySet(first, value);
+        return value;
+    }
+
+    /**
+     * Removes every value from the pool.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.bt.openlink.codec;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Encodes and decodes values of a type as JSON, written by a {@link JsonWriter} and read by a {@link JsonReader}. JSON
+ * is intended for bridging Openlink to clients that do not speak XMPP, such as browsers over a WebSocket; it is not an
+ * Openlink wire format.
+ * <p>
+ * {@link JsonCodecs} provides a codec for each of the {@code com.bt.openlink.type} classes. Other codecs can be built on
+ * the same writer and reader, and can use the codecs of {@link JsonCodecs} for any values they contain. A codec must
+ * be stateless; all state belongs to the writer and reader.
+ *
+ * @param <T> the type of the values
+ */
+public interface JsonCodec<T> {
+
+    /**
+     * Encodes a value.
+     *
+     * @param writer the writer to which the value is written
+     * @param value  the value
+     */
+    void encode(@Nonnull JsonWriter writer, @Nonnull T value);
+
+    /**
+     * Decodes a value. Any problem with the content of the value is reported to the
+     * {@link JsonReader#getParseErrors() parse errors} of the reader, as it is when a stanza is parsed.
+     *
+     * @param reader the reader from which the value is read
+     * @return the value
+     * @throws IllegalArgumentException if the JSON is malformed, or is not of the expected shape
+     */
+    @Nonnull
+    T decode(@Nonnull JsonReader reader);
+}
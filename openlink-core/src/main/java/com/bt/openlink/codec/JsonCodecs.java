@@ -0,0 +1,910 @@
+package com.bt.openlink.codec;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallDirection;
+import com.bt.openlink.type.CallFeature;
+import com.bt.openlink.type.CallFeatureBoolean;
+import com.bt.openlink.type.CallFeatureDeviceKey;
+import com.bt.openlink.type.CallFeatureSpeakerChannel;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.Changed;
+import com.bt.openlink.type.ConferenceId;
+import com.bt.openlink.type.DeviceKey;
+import com.bt.openlink.type.DeviceStatus;
+import com.bt.openlink.type.Feature;
+import com.bt.openlink.type.FeatureId;
+import com.bt.openlink.type.FeatureType;
+import com.bt.openlink.type.Interest;
+import com.bt.openlink.type.InterestId;
+import com.bt.openlink.type.InterestType;
+import com.bt.openlink.type.OriginatorReference;
+import com.bt.openlink.type.Participant;
+import com.bt.openlink.type.ParticipantType;
+import com.bt.openlink.type.PhoneNumber;
+import com.bt.openlink.type.Profile;
+import com.bt.openlink.type.ProfileId;
+import com.bt.openlink.type.RequestAction;
+import com.bt.openlink.type.Site;
+import com.bt.openlink.type.UserId;
+
+/**
+ * The JSON codecs of the {@code com.bt.openlink.type} classes. Each value is written as an object whose members follow
+ * the elements and attributes of its stanza - e.g. a call state is written with its label, {@code "CallOriginated"},
+ * and a timestamp in the XEP-0082 format - except that durations are written as a number of milliseconds. A missing
+ * value is omitted, as are the unloaded fields of a partially loaded call, whose loaded fields are listed by their
+ * element names in a {@code fields} member.
+ * <p>
+ * When decoding, members with unknown names are skipped and a {@code null} member is treated as missing, so that
+ * clients and servers can be upgraded independently. Each decoded value is validated as when it is parsed from a
+ * stanza, with any errors reported to the parse errors of the reader.
+ */
+public final class JsonCodecs {
+
+    public static final JsonCodec<Site> SITE = new SiteCodec();
+    public static final JsonCodec<Participant> PARTICIPANT = new ParticipantCodec();
+    public static final JsonCodec<Feature> FEATURE = new FeatureCodec();
+    public static final JsonCodec<CallFeature> CALL_FEATURE = new CallFeatureCodec();
+    public static final JsonCodec<Call> CALL = new CallCodec();
+    public static final JsonCodec<Profile> PROFILE = new ProfileCodec();
+    public static final JsonCodec<Interest> INTEREST = new InterestCodec();
+    public static final JsonCodec<DeviceStatus> DEVICE_STATUS = new DeviceStatusCodec();
+
+    private enum Name {
+        ACTIONS("actions"),
+        CALLED("called"),
+        CALLER("caller"),
+        CHANGED("changed"),
+        CHANNEL("channel"),
+        CONFERENCE("conference"),
+        DEFAULT("default"),
+        DELTA("delta"),
+        DESTINATION("destination"),
+        DEVICE("device"),
+        DEVICE_KEY("deviceKey"),
+        DIRECTION("direction"),
+        DURATION("duration"),
+        E164("e164"),
+        ENABLED("enabled"),
+        FEATURES("features"),
+        FIELDS("fields"),
+        ID("id"),
+        INTEREST("interest"),
+        JID("jid"),
+        KEY("key"),
+        LABEL("label"),
+        MICROPHONE_ACTIVE("microphoneActive"),
+        MUTE_REQUESTED("muteRequested"),
+        NAME("name"),
+        NUMBER("number"),
+        ONLINE("online"),
+        ORIGINATOR_REFERENCES("originatorReferences"),
+        PARTICIPANTS("participants"),
+        PROFILE("profile"),
+        SITE("site"),
+        SPEAKER_CHANNEL("speakerChannel"),
+        START_TIME("startTime"),
+        STATE("state"),
+        TYPE("type"),
+        USER("user"),
+        VALUE("value");
+
+        private static final SymbolTable<Name> SYMBOLS = SymbolTable.caseSensitive(values(), Name::getLabel);
+
+        @Nonnull private final String label;
+
+        Name(@Nonnull final String label) {
+            this.label = label;
+        }
+
+        @Nonnull
+        String getLabel() {
+            return label;
+        }
+    }
+
+    private JsonCodecs() {
+    }
+
+    /**
+     * Encodes a list of values as an array.
+     *
+     * @param writer the writer to which the values are written
+     * @param codec  the codec of the values
+     * @param values the values
+     * @param <T>    the type of the values
+     */
+    public static <T> void encodeList(@Nonnull final JsonWriter writer, @Nonnull final JsonCodec<? super T> codec, @Nonnull final List<T> values) {
+        writer.beginArray();
+        for (final T value : values) {
+            codec.encode(writer, value);
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Decodes an array of values.
+     *
+     * @param reader   the reader from which the values are read
+     * @param codec    the codec of the values
+     * @param consumer the consumer of each value
+     * @param <T>      the type of the values
+     */
+    public static <T> void decodeList(@Nonnull final JsonReader reader, @Nonnull final JsonCodec<T> codec, @Nonnull final Consumer<? super T> consumer) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            consumer.accept(codec.decode(reader));
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Reads the name of the next member of an object, skipping any members that are unknown or null.
+     *
+     * @return the name of the member, or {@code null} if there are no more members
+     */
+    @Nullable
+    private static Name nextName(@Nonnull final JsonReader reader) {
+        while (reader.hasNext()) {
+            final Optional<Name> name = reader.nextName(Name.SYMBOLS);
+            if (name.isPresent() && reader.peek() != JsonReader.Token.NULL) {
+                return name.get();
+            }
+            reader.skipValue();
+        }
+        return null;
+    }
+
+    private static void name(@Nonnull final JsonWriter writer, @Nonnull final Name name) {
+        writer.name(name.getLabel());
+    }
+
+    private static void writeString(@Nonnull final JsonWriter writer, @Nonnull final Name name, @Nonnull final Optional<String> value) {
+        if (value.isPresent()) {
+            writer.name(name.getLabel()).value(value.get());
+        }
+    }
+
+    private static void writeBoolean(@Nonnull final JsonWriter writer, @Nonnull final Name name, @Nonnull final Optional<Boolean> value) {
+        if (value.isPresent()) {
+            writer.name(name.getLabel()).value(value.get().booleanValue());
+        }
+    }
+
+    private static void writePhoneNumbers(@Nonnull final JsonWriter writer, @Nonnull final Name name, @Nonnull final List<PhoneNumber> phoneNumbers) {
+        if (!phoneNumbers.isEmpty()) {
+            writer.name(name.getLabel()).beginArray();
+            for (final PhoneNumber phoneNumber : phoneNumbers) {
+                writer.value(phoneNumber.value());
+            }
+            writer.endArray();
+        }
+    }
+
+    private static void writeActions(@Nonnull final JsonWriter writer, @Nonnull final List<RequestAction> actions) {
+        if (!actions.isEmpty()) {
+            name(writer, Name.ACTIONS);
+            writer.beginArray();
+            for (final RequestAction action : actions) {
+                writer.value(action.getId());
+            }
+            writer.endArray();
+        }
+    }
+
+    private static void readActions(@Nonnull final JsonReader reader, @Nonnull final Consumer<RequestAction> consumer) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.nextString(RequestAction::from).ifPresent(consumer);
+        }
+        reader.endArray();
+    }
+
+    private static void readPhoneNumbers(@Nonnull final JsonReader reader, @Nonnull final Consumer<PhoneNumber> consumer) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            PhoneNumber.from(reader.nextString()).ifPresent(consumer);
+        }
+        reader.endArray();
+    }
+
+    private static void readInstant(@Nonnull final JsonReader reader, @Nonnull final String description, @Nonnull final Name name, @Nonnull final Consumer<Instant> consumer) {
+        final String value = reader.nextString();
+        try {
+            consumer.accept(TimestampCodec.parseIso8601(value));
+        } catch (final DateTimeParseException ignored) {
+            reader.getParseErrors().report("Invalid %s; invalid %s '%s'; format should be compliant with XEP-0082", description, name.getLabel(), value);
+        }
+    }
+
+    private static void readDuration(@Nonnull final JsonReader reader, @Nonnull final Consumer<Duration> consumer) {
+        consumer.accept(Duration.ofMillis(reader.nextLong()));
+    }
+
+    private static final class SiteCodec implements JsonCodec<Site> {
+
+        @Override
+        public void encode(@Nonnull final JsonWriter writer, @Nonnull final Site site) {
+            writer.beginObject();
+            if (site.getId().isPresent()) {
+                name(writer, Name.ID);
+                writer.value(site.getId().get().longValue());
+            }
+            if (site.getType().isPresent()) {
+                name(writer, Name.TYPE);
+                writer.value(site.getType().get().name());
+            }
+            writeBoolean(writer, Name.DEFAULT, site.isDefault());
+            writeString(writer, Name.NAME, site.getName());
+            writer.endObject();
+        }
+
+        @Nonnull
+        @Override
+        public Site decode(@Nonnull final JsonReader reader) {
+            final Site.Builder builder = Site.Builder.start();
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                switch (name) {
+                case ID:
+                    builder.setId(reader.nextLong());
+                    break;
+                case TYPE:
+                    reader.nextString(Site.Type::from).ifPresent(builder::setType);
+                    break;
+                case DEFAULT:
+                    builder.setDefault(reader.nextBoolean());
+                    break;
+                case NAME:
+                    builder.setName(reader.nextString());
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+            return builder.build(reader.getParseErrors());
+        }
+    }
+
+    private static final class ParticipantCodec implements JsonCodec<Participant> {
+
+        private static final String DESCRIPTION = "participant";
+
+        @Override
+        public void encode(@Nonnull final JsonWriter writer, @Nonnull final Participant participant) {
+            writer.beginObject();
+            writeString(writer, Name.JID, participant.getJID());
+            if (participant.getType().isPresent()) {
+                name(writer, Name.TYPE);
+                writer.value(participant.getType().get().getId());
+            }
+            if (participant.getDirection().isPresent()) {
+                name(writer, Name.DIRECTION);
+                writer.value(participant.getDirection().get().getLabel());
+            }
+            if (participant.getStartTime().isPresent()) {
+                name(writer, Name.START_TIME);
+                writer.value(participant.getStartTime().get());
+            }
+            if (participant.getDuration().isPresent()) {
+                name(writer, Name.DURATION);
+                writer.value(participant.getDuration().get().toMillis());
+            }
+            writer.endObject();
+        }
+
+        @Nonnull
+        @Override
+        public Participant decode(@Nonnull final JsonReader reader) {
+            final Participant.Builder builder = Participant.Builder.start();
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                switch (name) {
+                case JID:
+                    builder.setJID(reader.nextString());
+                    break;
+                case TYPE:
+                    reader.nextString(ParticipantType::from).ifPresent(builder::setType);
+                    break;
+                case DIRECTION:
+                    reader.nextString(CallDirection::from).ifPresent(builder::setDirection);
+                    break;
+                case START_TIME:
+                    readInstant(reader, DESCRIPTION, name, builder::setStartTime);
+                    break;
+                case DURATION:
+                    readDuration(reader, builder::setDuration);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+            return builder.build(reader.getParseErrors());
+        }
+    }
+
+    private static final class FeatureCodec implements JsonCodec<Feature> {
+
+        @Override
+        public void encode(@Nonnull final JsonWriter writer, @Nonnull final Feature feature) {
+            writer.beginObject();
+            encodeFields(writer, feature);
+            writer.endObject();
+        }
+
+        @Nonnull
+        @Override
+        public Feature decode(@Nonnull final JsonReader reader) {
+            final Feature.Builder builder = Feature.Builder.start();
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                if (!decodeField(reader, name, builder)) {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return builder.build(reader.getParseErrors());
+        }
+
+        private static void encodeFields(@Nonnull final JsonWriter writer, @Nonnull final Feature feature) {
+            if (feature.getId().isPresent()) {
+                name(writer, Name.ID);
+                writer.value(feature.getId().get().value());
+            }
+            if (feature.getType().isPresent()) {
+                name(writer, Name.TYPE);
+                writer.value(feature.getType().get().getId());
+            }
+            writeString(writer, Name.LABEL, feature.getLabel());
+        }
+
+        private static boolean decodeField(@Nonnull final JsonReader reader, @Nonnull final Name name, @Nonnull final Feature.AbstractFeatureBuilder<?> builder) {
+            switch (name) {
+            case ID:
+                FeatureId.from(reader.nextString()).ifPresent(builder::setId);
+                return true;
+            case TYPE:
+                reader.nextString(FeatureType::from).ifPresent(builder::setType);
+                return true;
+            case LABEL:
+                builder.setLabel(reader.nextString());
+                return true;
+            default:
+                return false;
+            }
+        }
+    }
+
+    /**
+     * A call feature is written as the members of a {@link Feature}, followed by {@code enabled}, {@code deviceKey} or
+     * {@code speakerChannel} depending on its kind; when decoding, the kind is chosen by which of these is present, as
+     * it is chosen by the child element of a feature in a stanza.
+     */
+    private static final class CallFeatureCodec implements JsonCodec<CallFeature> {
+
+        @Override
+        public void encode(@Nonnull final JsonWriter writer, @Nonnull final CallFeature feature) {
+            writer.beginObject();
+            FeatureCodec.encodeFields(writer, feature);
+            if (feature instanceof CallFeatureBoolean) {
+                writeBoolean(writer, Name.ENABLED, ((CallFeatureBoolean) feature).isEnabled());
+            } else if (feature instanceof CallFeatureDeviceKey) {
+                final Optional<DeviceKey> deviceKey = ((CallFeatureDeviceKey) feature).getDeviceKey();
+                name(writer, Name.DEVICE_KEY);
+                if (deviceKey.isPresent()) {
+                    writer.value(deviceKey.get().value());
+                } else {
+                    writer.nullValue();
+                }
+            } else if (feature instanceof CallFeatureSpeakerChannel) {
+                final CallFeatureSpeakerChannel speakerChannel = (CallFeatureSpeakerChannel) feature;
+                name(writer, Name.SPEAKER_CHANNEL);
+                writer.beginObject();
+                if (speakerChannel.getChannel().isPresent()) {
+                    name(writer, Name.CHANNEL);
+                    writer.value(speakerChannel.getChannel().get().longValue());
+                }
+                writeBoolean(writer, Name.MICROPHONE_ACTIVE, speakerChannel.isMicrophoneActive());
+                writeBoolean(writer, Name.MUTE_REQUESTED, speakerChannel.isMuteRequested());
+                writer.endObject();
+            } else {
+                throw new IllegalArgumentException("Unable to encode call feature of type " + feature.getClass().getName());
+            }
+            writer.endObject();
+        }
+
+        @Nonnull
+        @Override
+        public CallFeature decode(@Nonnull final JsonReader reader) {
+            // The kind of feature may not be known until its last member, so the members are held until then
+            final Feature.Builder featureBuilder = Feature.Builder.start();
+            Boolean enabled = null;
+            boolean deviceKeyFeature = false;
+            DeviceKey deviceKey = null;
+            CallFeatureSpeakerChannel.Builder speakerChannelBuilder = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final Optional<Name> name = reader.nextName(Name.SYMBOLS);
+                if (name.isPresent() && name.get() == Name.DEVICE_KEY) {
+                    deviceKeyFeature = true;
+                    if (reader.peek() == JsonReader.Token.NULL) {
+                        reader.nextNull();
+                    } else {
+                        deviceKey = DeviceKey.from(reader.nextString()).orElse(null);
+                    }
+                } else if (!name.isPresent() || reader.peek() == JsonReader.Token.NULL) {
+                    reader.skipValue();
+                } else if (name.get() == Name.ENABLED) {
+                    enabled = reader.nextBoolean();
+                } else if (name.get() == Name.SPEAKER_CHANNEL) {
+                    speakerChannelBuilder = decodeSpeakerChannel(reader);
+                } else if (!FeatureCodec.decodeField(reader, name.get(), featureBuilder)) {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (speakerChannelBuilder != null) {
+                return copyFields(featureBuilder, speakerChannelBuilder).build(reader.getParseErrors());
+            } else if (deviceKeyFeature) {
+                final CallFeatureDeviceKey.Builder deviceKeyBuilder = copyFields(featureBuilder, CallFeatureDeviceKey.Builder.start());
+                if (deviceKey != null) {
+                    deviceKeyBuilder.setDeviceKey(deviceKey);
+                }
+                return deviceKeyBuilder.build(reader.getParseErrors());
+            } else {
+                final CallFeatureBoolean.Builder booleanBuilder = copyFields(featureBuilder, CallFeatureBoolean.Builder.start());
+                if (enabled != null) {
+                    booleanBuilder.setEnabled(enabled);
+                }
+                return booleanBuilder.build(reader.getParseErrors());
+            }
+        }
+
+        @Nonnull
+        private static CallFeatureSpeakerChannel.Builder decodeSpeakerChannel(@Nonnull final JsonReader reader) {
+            final CallFeatureSpeakerChannel.Builder builder = CallFeatureSpeakerChannel.Builder.start();
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                switch (name) {
+                case CHANNEL:
+                    builder.setChannel(reader.nextLong());
+                    break;
+                case MICROPHONE_ACTIVE:
+                    builder.setMicrophoneActive(reader.nextBoolean());
+                    break;
+                case MUTE_REQUESTED:
+                    builder.setMuteRequested(reader.nextBoolean());
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+            return builder;
+        }
+
+        @Nonnull
+        private static <B extends Feature.AbstractFeatureBuilder<B>> B copyFields(@Nonnull final Feature.Builder source, @Nonnull final B destination) {
+            final Feature feature = source.build(ParseDiagnostics.IGNORED);
+            feature.getId().ifPresent(destination::setId);
+            feature.getType().ifPresent(destination::setType);
+            feature.getLabel().ifPresent(destination::setLabel);
+            return destination;
+        }
+    }
+
+    private static final class CallCodec implements JsonCodec<Call> {
+
+        private static final String DESCRIPTION = "call";
+
+        @Override
+        public void encode(@Nonnull final JsonWriter writer, @Nonnull final Call call) {
+            writer.beginObject();
+            if (call.getId().isPresent()) {
+                name(writer, Name.ID);
+                writer.value(call.getId().get().value());
+            }
+            if (call.getConferenceId().isPresent()) {
+                name(writer, Name.CONFERENCE);
+                writer.value(call.getConferenceId().get().value());
+            }
+            if (call.getSite().isPresent()) {
+                name(writer, Name.SITE);
+                JsonCodecs.SITE.encode(writer, call.getSite().get());
+            }
+            if (call.getProfileId().isPresent()) {
+                name(writer, Name.PROFILE);
+                writer.value(call.getProfileId().get().value());
+            }
+            if (call.getUserId().isPresent()) {
+                name(writer, Name.USER);
+                writer.value(call.getUserId().get().value());
+            }
+            if (call.getInterestId().isPresent()) {
+                name(writer, Name.INTEREST);
+                writer.value(call.getInterestId().get().value());
+            }
+            if (call.getChanged().isPresent()) {
+                name(writer, Name.CHANGED);
+                writer.value(call.getChanged().get().getId());
+            }
+            if (call.getState().isPresent()) {
+                name(writer, Name.STATE);
+                writer.value(call.getState().get().getLabel());
+            }
+            if (call.getDirection().isPresent()) {
+                name(writer, Name.DIRECTION);
+                writer.value(call.getDirection().get().getLabel());
+            }
+            if (call.getCallerNumber().isPresent() || call.getCallerName().isPresent() || !call.getCallerE164Numbers().isEmpty()) {
+                name(writer, Name.CALLER);
+                writer.beginObject();
+                writeString(writer, Name.NUMBER, call.getCallerNumber().map(PhoneNumber::value));
+                writeString(writer, Name.NAME, call.getCallerName());
+                writePhoneNumbers(writer, Name.E164, call.getCallerE164Numbers());
+                writer.endObject();
+            }
+            if (call.getCalledNumber().isPresent() || call.getCalledName().isPresent() || call.getCalledDestination().isPresent() || !call.getCalledE164Numbers().isEmpty()) {
+                name(writer, Name.CALLED);
+                writer.beginObject();
+                writeString(writer, Name.NUMBER, call.getCalledNumber().map(PhoneNumber::value));
+                writeString(writer, Name.NAME, call.getCalledName());
+                writeString(writer, Name.DESTINATION, call.getCalledDestination().map(PhoneNumber::value));
+                writePhoneNumbers(writer, Name.E164, call.getCalledE164Numbers());
+                writer.endObject();
+            }
+            if (!call.getOriginatorReferences().isEmpty()) {
+                name(writer, Name.ORIGINATOR_REFERENCES);
+                writer.beginArray();
+                for (final OriginatorReference originatorReference : call.getOriginatorReferences()) {
+                    writer.beginObject();
+                    name(writer, Name.KEY);
+                    writer.value(originatorReference.getKey());
+                    name(writer, Name.VALUE);
+                    writer.value(originatorReference.getValue());
+                    writer.endObject();
+                }
+                writer.endArray();
+            }
+            if (call.getStartTime().isPresent()) {
+                name(writer, Name.START_TIME);
+                writer.value(call.getStartTime().get());
+            }
+            if (call.getDuration().isPresent()) {
+                name(writer, Name.DURATION);
+                writer.value(call.getDuration().get().toMillis());
+            }
+            writeActions(writer, call.getActions());
+            if (!call.getFeatures().isEmpty()) {
+                name(writer, Name.FEATURES);
+                encodeList(writer, JsonCodecs.CALL_FEATURE, call.getFeatures());
+            }
+            if (!call.getParticipants().isEmpty()) {
+                name(writer, Name.PARTICIPANTS);
+                encodeList(writer, JsonCodecs.PARTICIPANT, call.getParticipants());
+            }
+            final Set<CallField> loadedFields = call.getLoadedFields();
+            if (loadedFields.size() != CallField.ALL.size()) {
+                name(writer, Name.FIELDS);
+                writer.beginArray();
+                for (final CallField field : loadedFields) {
+                    writer.value(field.getElementName());
+                }
+                writer.endArray();
+            }
+            if (call.isDelta()) {
+                name(writer, Name.DELTA);
+                writer.value(true);
+            }
+            writer.endObject();
+        }
+
+        @Nonnull
+        @Override
+        public Call decode(@Nonnull final JsonReader reader) {
+            final Call.Builder builder = Call.Builder.start();
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                switch (name) {
+                case ID:
+                    CallId.from(reader.nextString()).ifPresent(builder::setId);
+                    break;
+                case CONFERENCE:
+                    ConferenceId.from(reader.nextString()).ifPresent(builder::setConferenceId);
+                    break;
+                case SITE:
+                    builder.setSite(JsonCodecs.SITE.decode(reader));
+                    break;
+                case PROFILE:
+                    ProfileId.from(reader.nextString()).ifPresent(builder::setProfileId);
+                    break;
+                case USER:
+                    UserId.from(reader.nextString()).ifPresent(builder::setUserId);
+                    break;
+                case INTEREST:
+                    InterestId.from(reader.nextString()).ifPresent(builder::setInterestId);
+                    break;
+                case CHANGED:
+                    reader.nextString(Changed::from).ifPresent(builder::setChanged);
+                    break;
+                case STATE:
+                    reader.nextString(CallState::from).ifPresent(builder::setState);
+                    break;
+                case DIRECTION:
+                    reader.nextString(CallDirection::from).ifPresent(builder::setDirection);
+                    break;
+                case CALLER:
+                    decodeCaller(reader, builder);
+                    break;
+                case CALLED:
+                    decodeCalled(reader, builder);
+                    break;
+                case ORIGINATOR_REFERENCES:
+                    decodeOriginatorReferences(reader, builder);
+                    break;
+                case START_TIME:
+                    readInstant(reader, DESCRIPTION, name, builder::setStartTime);
+                    break;
+                case DURATION:
+                    readDuration(reader, builder::setDuration);
+                    break;
+                case ACTIONS:
+                    readActions(reader, builder::addAction);
+                    break;
+                case FEATURES:
+                    decodeList(reader, JsonCodecs.CALL_FEATURE, builder::addFeature);
+                    break;
+                case PARTICIPANTS:
+                    decodeList(reader, JsonCodecs.PARTICIPANT, builder::addParticipant);
+                    break;
+                case FIELDS:
+                    final Set<CallField> loadedFields = EnumSet.noneOf(CallField.class);
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        CallField.fromElementName(reader.nextString()).ifPresent(loadedFields::add);
+                    }
+                    reader.endArray();
+                    builder.setLoadedFields(loadedFields);
+                    break;
+                case DELTA:
+                    builder.setDelta(reader.nextBoolean());
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+            return builder.build(reader.getParseErrors());
+        }
+
+        private static void decodeCaller(@Nonnull final JsonReader reader, @Nonnull final Call.Builder builder) {
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                switch (name) {
+                case NUMBER:
+                    PhoneNumber.from(reader.nextString()).ifPresent(builder::setCallerNumber);
+                    break;
+                case NAME:
+                    builder.setCallerName(reader.nextString());
+                    break;
+                case E164:
+                    readPhoneNumbers(reader, builder::addCallerE164Number);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+        }
+
+        private static void decodeCalled(@Nonnull final JsonReader reader, @Nonnull final Call.Builder builder) {
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                switch (name) {
+                case NUMBER:
+                    PhoneNumber.from(reader.nextString()).ifPresent(builder::setCalledNumber);
+                    break;
+                case NAME:
+                    builder.setCalledName(reader.nextString());
+                    break;
+                case DESTINATION:
+                    PhoneNumber.from(reader.nextString()).ifPresent(builder::setCalledDestination);
+                    break;
+                case E164:
+                    readPhoneNumbers(reader, builder::addCalledE164Number);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+        }
+
+        private static void decodeOriginatorReferences(@Nonnull final JsonReader reader, @Nonnull final Call.Builder builder) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String key = null;
+                String value = null;
+                reader.beginObject();
+                for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                    if (name == Name.KEY) {
+                        key = reader.nextString();
+                    } else if (name == Name.VALUE) {
+                        value = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (key != null && value != null) {
+                    builder.addOriginatorReference(key, value);
+                }
+            }
+            reader.endArray();
+        }
+    }
+
+    private static final class ProfileCodec implements JsonCodec<Profile> {
+
+        @Override
+        public void encode(@Nonnull final JsonWriter writer, @Nonnull final Profile profile) {
+            writer.beginObject();
+            if (profile.getId().isPresent()) {
+                name(writer, Name.ID);
+                writer.value(profile.getId().get().value());
+            }
+            writeBoolean(writer, Name.DEFAULT, profile.isDefaultProfile());
+            writeString(writer, Name.DEVICE, profile.getDevice());
+            writeString(writer, Name.LABEL, profile.getLabel());
+            writeBoolean(writer, Name.ONLINE, profile.isOnline());
+            if (profile.getSite().isPresent()) {
+                name(writer, Name.SITE);
+                JsonCodecs.SITE.encode(writer, profile.getSite().get());
+            }
+            writeActions(writer, profile.getActions());
+            writer.endObject();
+        }
+
+        @Nonnull
+        @Override
+        public Profile decode(@Nonnull final JsonReader reader) {
+            final Profile.Builder builder = Profile.Builder.start();
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                switch (name) {
+                case ID:
+                    ProfileId.from(reader.nextString()).ifPresent(builder::setId);
+                    break;
+                case DEFAULT:
+                    builder.setDefault(reader.nextBoolean());
+                    break;
+                case DEVICE:
+                    builder.setDevice(reader.nextString());
+                    break;
+                case LABEL:
+                    builder.setLabel(reader.nextString());
+                    break;
+                case ONLINE:
+                    builder.setOnline(reader.nextBoolean());
+                    break;
+                case SITE:
+                    builder.setSite(JsonCodecs.SITE.decode(reader));
+                    break;
+                case ACTIONS:
+                    readActions(reader, builder::addAction);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+            return builder.build(reader.getParseErrors());
+        }
+    }
+
+    private static final class InterestCodec implements JsonCodec<Interest> {
+
+        @Override
+        public void encode(@Nonnull final JsonWriter writer, @Nonnull final Interest interest) {
+            writer.beginObject();
+            if (interest.getId().isPresent()) {
+                name(writer, Name.ID);
+                writer.value(interest.getId().get().value());
+            }
+            if (interest.getType().isPresent()) {
+                name(writer, Name.TYPE);
+                writer.value(interest.getType().get().value());
+            }
+            writeString(writer, Name.LABEL, interest.getLabel());
+            writeBoolean(writer, Name.DEFAULT, interest.isDefaultInterest());
+            writer.endObject();
+        }
+
+        @Nonnull
+        @Override
+        public Interest decode(@Nonnull final JsonReader reader) {
+            final Interest.Builder builder = Interest.Builder.start();
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                switch (name) {
+                case ID:
+                    InterestId.from(reader.nextString()).ifPresent(builder::setId);
+                    break;
+                case TYPE:
+                    InterestType.from(reader.nextString()).ifPresent(builder::setType);
+                    break;
+                case LABEL:
+                    builder.setLabel(reader.nextString());
+                    break;
+                case DEFAULT:
+                    builder.setDefault(reader.nextBoolean());
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+            return builder.build(reader.getParseErrors());
+        }
+    }
+
+    private static final class DeviceStatusCodec implements JsonCodec<DeviceStatus> {
+
+        @Override
+        public void encode(@Nonnull final JsonWriter writer, @Nonnull final DeviceStatus deviceStatus) {
+            writer.beginObject();
+            if (deviceStatus.getProfileId().isPresent()) {
+                name(writer, Name.PROFILE);
+                writer.value(deviceStatus.getProfileId().get().value());
+            }
+            writeBoolean(writer, Name.ONLINE, deviceStatus.isOnline());
+            writer.endObject();
+        }
+
+        @Nonnull
+        @Override
+        public DeviceStatus decode(@Nonnull final JsonReader reader) {
+            final DeviceStatus.Builder builder = DeviceStatus.Builder.start();
+            reader.beginObject();
+            for (Name name = nextName(reader); name != null; name = nextName(reader)) {
+                switch (name) {
+                case PROFILE:
+                    ProfileId.from(reader.nextString()).ifPresent(builder::setProfileId);
+                    break;
+                case ONLINE:
+                    builder.setOnline(reader.nextBoolean());
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+            return builder.build(reader.getParseErrors());
+        }
+    }
+}
@@ -0,0 +1,600 @@
+package com.bt.openlink.codec;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+
+import com.bt.openlink.ParseDiagnostics;
+
+/**
+ * Reads JSON text, token by token, from a {@link CharSequence}, a {@link Reader} or UTF-8 in a {@link ByteBuffer},
+ * without building a tree of the document first. The input may hold several values, separated by whitespace, such as
+ * the values written to a stream by a {@link JsonWriter}; {@link Token#END_DOCUMENT} is returned once they have all
+ * been read.
+ * <p>
+ * The names of members can be looked up in a {@link SymbolTable}, and string values can be resolved to an enum
+ * constant, without creating a {@link String}. Malformed JSON, or a token other than the one expected, is reported by
+ * throwing an {@link IllegalArgumentException}; problems with the content of a value are reported to the
+ * {@link #getParseErrors() parse errors} of the reader by the {@link JsonCodec} that reads it.
+ * <p>
+ * A reader is not thread-safe.
+ */
+public final class JsonReader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    /**
+     * The kinds of token in JSON text.
+     */
+    public enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    /**
+     * Resolves a string value held in a slice of a {@code char[]}, such as the {@code from(char[], int, int)} method
+     * of the Openlink enums.
+     *
+     * @param <T> the type of the resolved value
+     */
+    @FunctionalInterface
+    public interface SymbolParser<T> {
+
+        /**
+         * @param chars  the characters containing the value
+         * @param offset the offset of the value in the characters
+         * @param length the length of the value
+         * @return the resolved value
+         */
+        @Nonnull
+        T parse(@Nonnull char[] chars, int offset, int length);
+    }
+
+    @Nonnull private final ParseDiagnostics parseErrors = new ParseDiagnostics();
+    @Nonnull private final Source source;
+    @Nonnull private char[] buffer;
+    private int position;
+    private int limit;
+    // The number of characters discarded from the start of the buffer, so that errors can give the offset of the input
+    private long discarded;
+    private boolean exhausted;
+    @Nonnull private int[] scopes = new int[32];
+    private int depth = 1;
+    private Token peeked;
+    // The most recently read string, which is either in the buffer or in the scratch buffer if it contained escapes
+    @Nonnull private char[] scratch = new char[64];
+    @Nonnull private char[] sliceChars;
+    private int sliceOffset;
+    private int sliceLength;
+
+    private JsonReader(@Nonnull final Source source, @Nonnull final char[] buffer, final int limit) {
+        this.source = source;
+        this.buffer = buffer;
+        this.limit = limit;
+        this.sliceChars = buffer;
+        scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * @param text the JSON text
+     * @return a reader of the text
+     */
+    @Nonnull
+    public static JsonReader of(@Nonnull final CharSequence text) {
+        final char[] chars = new char[Math.max(text.length(), 1)];
+        if (text instanceof String) {
+            ((String) text).getChars(0, text.length(), chars, 0);
+        } else {
+            for (int i = 0; i < text.length(); i++) {
+                chars[i] = text.charAt(i);
+            }
+        }
+        return new JsonReader((destination, offset, length) -> -1, chars, text.length());
+    }
+
+    /**
+     * @param reader the source of the JSON text
+     * @return a reader of the text; an {@link IOException} is rethrown as an {@link UncheckedIOException}
+     */
+    @Nonnull
+    public static JsonReader of(@Nonnull final Reader reader) {
+        return new JsonReader((destination, offset, length) -> {
+            try {
+                return reader.read(destination, offset, length);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, new char[DEFAULT_BUFFER_SIZE], 0);
+    }
+
+    /**
+     * @param buffer the JSON text, as UTF-8; the text is read from the position of the buffer to its limit, and the
+     *               position is advanced as the text is read
+     * @return a reader of the text
+     */
+    @Nonnull
+    public static JsonReader of(@Nonnull final ByteBuffer buffer) {
+        final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        final boolean[] flushed = new boolean[1];
+        return new JsonReader((destination, offset, length) -> {
+            if (flushed[0]) {
+                return -1;
+            }
+            final CharBuffer decoded = CharBuffer.wrap(destination, offset, length);
+            CoderResult result = decoder.decode(buffer, decoded, true);
+            if (result.isUnderflow()) {
+                result = decoder.flush(decoded);
+                flushed[0] = result.isUnderflow();
+            }
+            if (result.isError()) {
+                throw new IllegalArgumentException("Invalid JSON; malformed UTF-8");
+            }
+            final int decodedLength = decoded.position() - offset;
+            return decodedLength == 0 && flushed[0] ? -1 : decodedLength;
+        }, new char[DEFAULT_BUFFER_SIZE], 0);
+    }
+
+    /**
+     * Reads a value.
+     *
+     * @param codec the codec of the value
+     * @param <T>   the type of the value
+     * @return the value
+     * @throws IllegalArgumentException if the JSON is malformed, or is not of the expected shape
+     */
+    @Nonnull
+    public <T> T read(@Nonnull final JsonCodec<T> codec) {
+        return codec.decode(this);
+    }
+
+    /**
+     * @return the errors found in the content of the values read, such as invalid or missing values
+     */
+    @Nonnull
+    public ParseDiagnostics getParseErrors() {
+        return parseErrors;
+    }
+
+    /**
+     * @return the kind of the next token, without consuming it
+     */
+    @Nonnull
+    public Token peek() {
+        if (peeked == null) {
+            peeked = readToken();
+        }
+        return peeked;
+    }
+
+    /**
+     * @return {@code true} if the current object or array has another member
+     */
+    public boolean hasNext() {
+        final Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * @return the name of the next member of the current object
+     */
+    @Nonnull
+    public String nextName() {
+        expect(Token.NAME);
+        readString();
+        return new String(sliceChars, sliceOffset, sliceLength);
+    }
+
+    /**
+     * Reads the name of the next member of the current object, and looks it up without creating a {@link String}.
+     *
+     * @param names the names to look up
+     * @param <E>   the enum of the names
+     * @return the matching constant, or {@link Optional#empty()} if the name is not in the table
+     */
+    @Nonnull
+    public <E extends Enum<E>> Optional<E> nextName(@Nonnull final SymbolTable<E> names) {
+        expect(Token.NAME);
+        readString();
+        return names.lookup(sliceChars, sliceOffset, sliceLength);
+    }
+
+    @Nonnull
+    public String nextString() {
+        expect(Token.STRING);
+        readString();
+        return new String(sliceChars, sliceOffset, sliceLength);
+    }
+
+    /**
+     * Reads a string value, and resolves it without creating a {@link String}.
+     *
+     * @param parser the parser of the value, such as {@code CallState::from}
+     * @param <T>    the type of the resolved value
+     * @return the resolved value
+     */
+    @Nonnull
+    public <T> T nextString(@Nonnull final SymbolParser<T> parser) {
+        expect(Token.STRING);
+        readString();
+        return parser.parse(sliceChars, sliceOffset, sliceLength);
+    }
+
+    public long nextLong() {
+        expect(Token.NUMBER);
+        final boolean negative = peekChar() == '-';
+        if (negative) {
+            position++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (int c = peekChar(); c >= '0' && c <= '9'; c = peekChar()) {
+            final int digit = c - '0';
+            // Accumulated as a negative number, as Long.MIN_VALUE has no positive counterpart
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw error("number out of range");
+            }
+            value = value * 10 - digit;
+            digits++;
+            position++;
+        }
+        final int c = peekChar();
+        if (digits == 0 || c == '.' || c == 'e' || c == 'E') {
+            throw error("expected an integer");
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw error("number out of range");
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    public boolean nextBoolean() {
+        expect(Token.BOOLEAN);
+        if (peekChar() == 't') {
+            readLiteral("true");
+            return true;
+        }
+        readLiteral("false");
+        return false;
+    }
+
+    public void nextNull() {
+        expect(Token.NULL);
+        readLiteral("null");
+    }
+
+    /**
+     * Skips the next value, including all of its members if it is an object or array.
+     */
+    public void skipValue() {
+        int skippedDepth = 0;
+        do {
+            switch (peek()) {
+            case BEGIN_OBJECT:
+                beginObject();
+                skippedDepth++;
+                break;
+            case BEGIN_ARRAY:
+                beginArray();
+                skippedDepth++;
+                break;
+            case END_OBJECT:
+                endObject();
+                skippedDepth--;
+                break;
+            case END_ARRAY:
+                endArray();
+                skippedDepth--;
+                break;
+            case NAME:
+            case STRING:
+                peeked = null;
+                readString();
+                break;
+            case NUMBER:
+                peeked = null;
+                for (int c = peekChar(); c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || c >= '0' && c <= '9'; c = peekChar()) {
+                    position++;
+                }
+                break;
+            case BOOLEAN:
+                nextBoolean();
+                break;
+            case NULL:
+                nextNull();
+                break;
+            default:
+                throw error("expected a value but found " + peek());
+            }
+        } while (skippedDepth > 0);
+    }
+
+    private void expect(@Nonnull final Token expected) {
+        final Token token = peek();
+        if (token != expected) {
+            throw error("expected " + expected + " but found " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(final int scope) {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        scopes[depth++] = scope;
+    }
+
+    @Nonnull
+    private Token readToken() {
+        final int scope = scopes[depth - 1];
+        switch (scope) {
+        case EMPTY_ARRAY:
+            scopes[depth - 1] = NONEMPTY_ARRAY;
+            if (peekNonWhitespace() == ']') {
+                position++;
+                return Token.END_ARRAY;
+            }
+            break;
+        case NONEMPTY_ARRAY:
+            final int arrayChar = nextNonWhitespace();
+            if (arrayChar == ']') {
+                return Token.END_ARRAY;
+            } else if (arrayChar != ',') {
+                throw error("expected ',' or ']'");
+            }
+            break;
+        case EMPTY_OBJECT:
+        case NONEMPTY_OBJECT:
+            scopes[depth - 1] = DANGLING_NAME;
+            int objectChar = nextNonWhitespace();
+            if (objectChar == '}') {
+                return Token.END_OBJECT;
+            }
+            if (scope == NONEMPTY_OBJECT) {
+                if (objectChar != ',') {
+                    throw error("expected ',' or '}'");
+                }
+                objectChar = nextNonWhitespace();
+            }
+            if (objectChar != '"') {
+                throw error("expected a name");
+            }
+            return Token.NAME;
+        case DANGLING_NAME:
+            scopes[depth - 1] = NONEMPTY_OBJECT;
+            if (nextNonWhitespace() != ':') {
+                throw error("expected ':'");
+            }
+            break;
+        default:
+            scopes[depth - 1] = NONEMPTY_DOCUMENT;
+            if (peekNonWhitespace() == -1) {
+                return Token.END_DOCUMENT;
+            }
+            break;
+        }
+        final int c = nextNonWhitespace();
+        switch (c) {
+        case '{':
+            return Token.BEGIN_OBJECT;
+        case '[':
+            return Token.BEGIN_ARRAY;
+        case '"':
+            return Token.STRING;
+        case 't':
+        case 'f':
+            position--;
+            return Token.BOOLEAN;
+        case 'n':
+            position--;
+            return Token.NULL;
+        default:
+            if (c == '-' || c >= '0' && c <= '9') {
+                position--;
+                return Token.NUMBER;
+            }
+            throw c == -1 ? error("unexpected end of input") : error("unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private int peekNonWhitespace() {
+        final int c = nextNonWhitespace();
+        if (c != -1) {
+            position--;
+        }
+        return c;
+    }
+
+    private int nextNonWhitespace() {
+        while (position < limit || fill(position)) {
+            final char c = buffer[position++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    private int peekChar() {
+        return position < limit || fill(position) ? buffer[position] : -1;
+    }
+
+    private char nextChar() {
+        if (position == limit && !fill(position)) {
+            throw error("unexpected end of input");
+        }
+        return buffer[position++];
+    }
+
+    private void readLiteral(@Nonnull final String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (nextChar() != literal.charAt(i)) {
+                throw error("expected '" + literal + "'");
+            }
+        }
+    }
+
+    // Reads the string whose opening quote has been consumed into the slice, in place unless it contains escapes
+    private void readString() {
+        int length = 0;
+        while (true) {
+            if (position + length == limit && !fill(position)) {
+                throw error("unterminated string");
+            }
+            final char c = buffer[position + length];
+            if (c == '"') {
+                sliceChars = buffer;
+                sliceOffset = position;
+                sliceLength = length;
+                position += length + 1;
+                return;
+            } else if (c == '\\') {
+                readEscapedString(length);
+                return;
+            } else if (c < 0x20) {
+                throw error("unescaped control character in string");
+            }
+            length++;
+        }
+    }
+
+    private void readEscapedString(final int unescapedLength) {
+        ensureScratch(unescapedLength);
+        System.arraycopy(buffer, position, scratch, 0, unescapedLength);
+        position += unescapedLength;
+        int length = unescapedLength;
+        for (char c = nextChar(); c != '"'; c = nextChar()) {
+            if (c == '\\') {
+                c = readEscape();
+            } else if (c < 0x20) {
+                throw error("unescaped control character in string");
+            }
+            ensureScratch(length + 1);
+            scratch[length++] = c;
+        }
+        sliceChars = scratch;
+        sliceOffset = 0;
+        sliceLength = length;
+    }
+
+    private char readEscape() {
+        final char c = nextChar();
+        switch (c) {
+        case '"':
+        case '\\':
+        case '/':
+            return c;
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case 'u':
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                final int digit = Character.digit(nextChar(), 16);
+                if (digit < 0) {
+                    throw error("invalid unicode escape");
+                }
+                value = value << 4 | digit;
+            }
+            return (char) value;
+        default:
+            throw error("invalid escape '\\" + c + "'");
+        }
+    }
+
+    private void ensureScratch(final int capacity) {
+        if (capacity > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(capacity, scratch.length * 2));
+        }
+    }
+
+    // Reads more of the input after the limit, discarding the characters before 'keep'; false at the end of the input
+    private boolean fill(final int keep) {
+        if (exhausted) {
+            return false;
+        }
+        if (keep > 0) {
+            System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+            limit -= keep;
+            position -= keep;
+            discarded += keep;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read;
+        do {
+            read = source.read(buffer, limit, buffer.length - limit);
+        } while (read == 0);
+        if (read < 0) {
+            exhausted = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    @Nonnull
+    private IllegalArgumentException error(@Nonnull final String message) {
+        return new IllegalArgumentException("Invalid JSON; " + message + " at offset " + (discarded + position));
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        int read(@Nonnull char[] destination, int offset, int length);
+    }
+}
@@ -0,0 +1,297 @@
+package com.bt.openlink.codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Writes JSON text, token by token, straight to an {@link Appendable} - such as a {@link StringBuilder} or a
+ * {@link java.io.Writer} - or as UTF-8 to a {@link ByteBuffer}, without building a tree of the document first. The
+ * writer inserts the separators between the members of objects and arrays; it does not otherwise check that the
+ * tokens written form a valid document.
+ * <p>
+ * A writer is not thread-safe.
+ *
+ * @see JsonCodec
+ */
+public abstract class JsonWriter {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // Whether each open object or array already has a member, so that the next is preceded by a comma
+    @Nonnull private boolean[] hasMember = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    private JsonWriter() {
+    }
+
+    /**
+     * @param appendable the destination of the JSON text
+     * @return a writer that appends to the destination; an {@link IOException} is rethrown as an
+     *         {@link UncheckedIOException}
+     */
+    @Nonnull
+    public static JsonWriter of(@Nonnull final Appendable appendable) {
+        return appendable instanceof StringBuilder ? new StringBuilderWriter((StringBuilder) appendable) : new AppendableWriter(appendable);
+    }
+
+    /**
+     * @param buffer the destination of the JSON text
+     * @return a writer that puts the text in the buffer as UTF-8; a {@link BufferOverflowException} is thrown if the
+     *         buffer is too small, after which the contents of the buffer are undefined
+     */
+    @Nonnull
+    public static JsonWriter of(@Nonnull final ByteBuffer buffer) {
+        return new ByteBufferWriter(buffer);
+    }
+
+    /**
+     * Writes a value.
+     *
+     * @param codec the codec of the value
+     * @param value the value
+     * @param <T>   the type of the value
+     * @return this writer
+     */
+    @Nonnull
+    public <T> JsonWriter write(@Nonnull final JsonCodec<T> codec, @Nonnull final T value) {
+        codec.encode(this, value);
+        return this;
+    }
+
+    @Nonnull
+    public JsonWriter beginObject() {
+        beforeValue();
+        append('{');
+        push();
+        return this;
+    }
+
+    @Nonnull
+    public JsonWriter endObject() {
+        depth--;
+        append('}');
+        return this;
+    }
+
+    @Nonnull
+    public JsonWriter beginArray() {
+        beforeValue();
+        append('[');
+        push();
+        return this;
+    }
+
+    @Nonnull
+    public JsonWriter endArray() {
+        depth--;
+        append(']');
+        return this;
+    }
+
+    /**
+     * Writes the name of the next member of an object.
+     *
+     * @param name the name
+     * @return this writer
+     */
+    @Nonnull
+    public JsonWriter name(@Nonnull final String name) {
+        beforeValue();
+        appendString(name);
+        append(':');
+        afterName = true;
+        return this;
+    }
+
+    @Nonnull
+    public JsonWriter value(@Nonnull final CharSequence value) {
+        beforeValue();
+        appendString(value);
+        return this;
+    }
+
+    @Nonnull
+    public JsonWriter value(final long value) {
+        beforeValue();
+        appendLong(value);
+        return this;
+    }
+
+    @Nonnull
+    public JsonWriter value(final boolean value) {
+        beforeValue();
+        append(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes an instant as an XEP-0082 timestamp string, as it is written in a stanza.
+     *
+     * @param value the instant
+     * @return this writer
+     */
+    @Nonnull
+    public JsonWriter value(@Nonnull final Instant value) {
+        return value(TimestampCodec.formatIso8601(value));
+    }
+
+    @Nonnull
+    public JsonWriter nullValue() {
+        beforeValue();
+        append("null");
+        return this;
+    }
+
+    private void push() {
+        if (depth == hasMember.length) {
+            hasMember = Arrays.copyOf(hasMember, depth * 2);
+        }
+        hasMember[depth++] = false;
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+        } else if (depth > 0) {
+            if (hasMember[depth - 1]) {
+                append(',');
+            } else {
+                hasMember[depth - 1] = true;
+            }
+        }
+    }
+
+    private void appendString(@Nonnull final CharSequence value) {
+        append('"');
+        final int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                append(value, start, i);
+                appendEscaped(c);
+                start = i + 1;
+            }
+        }
+        append(value, start, length);
+        append('"');
+    }
+
+    private void appendEscaped(final char c) {
+        switch (c) {
+        case '"':
+            append("\\\"");
+            break;
+        case '\\':
+            append("\\\\");
+            break;
+        case '\n':
+            append("\\n");
+            break;
+        case '\r':
+            append("\\r");
+            break;
+        case '\t':
+            append("\\t");
+            break;
+        default:
+            append("\\u00");
+            append(HEX_DIGITS[c >> 4]);
+            append(HEX_DIGITS[c & 0xF]);
+            break;
+        }
+    }
+
+    abstract void append(char c);
+
+    void append(@Nonnull final CharSequence text) {
+        append(text, 0, text.length());
+    }
+
+    abstract void append(@Nonnull CharSequence text, int start, int end);
+
+    void appendLong(final long value) {
+        append(Long.toString(value));
+    }
+
+    private static final class StringBuilderWriter extends JsonWriter {
+
+        @Nonnull private final StringBuilder builder;
+
+        private StringBuilderWriter(@Nonnull final StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        void append(final char c) {
+            builder.append(c);
+        }
+
+        @Override
+        void append(@Nonnull final CharSequence text, final int start, final int end) {
+            builder.append(text, start, end);
+        }
+
+        @Override
+        void appendLong(final long value) {
+            builder.append(value);
+        }
+    }
+
+    private static final class AppendableWriter extends JsonWriter {
+
+        @Nonnull private final Appendable appendable;
+
+        private AppendableWriter(@Nonnull final Appendable appendable) {
+            this.appendable = appendable;
+        }
+
+        @Override
+        void append(final char c) {
+            try {
+                appendable.append(c);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        void append(@Nonnull final CharSequence text, final int start, final int end) {
+            try {
+                appendable.append(text, start, end);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class ByteBufferWriter extends JsonWriter {
+
+        @Nonnull private final ByteBuffer buffer;
+
+        private ByteBufferWriter(@Nonnull final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        void append(final char c) {
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else {
+                append(String.valueOf(c), 0, 1);
+            }
+        }
+
+        @Override
+        void append(@Nonnull final CharSequence text, final int start, final int end) {
+            Utf8.encode(text, start, end, buffer);
+        }
+    }
+}
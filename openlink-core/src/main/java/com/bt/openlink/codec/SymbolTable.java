@@ -0,0 +1,178 @@
+package com.bt.openlink.codec;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An immutable, open-addressed hash table that maps the symbols of an enum - the labels and ids used on the wire - to
+ * its constants. Unlike looping over {@code values()}, a lookup neither clones the constants nor allocates; it can also
+ * be made with a slice of a {@code char[]}, so a streaming parser can resolve a symbol without first creating a
+ * {@link String}.
+ * <p>
+ * A case-insensitive table matches symbols as per {@link String#equalsIgnoreCase(String)}. If two constants share a
+ * symbol, the first declared wins.
+ * <p>
+ * This class is for internal use by the library only; users of the API should not access this class directly.
+ *
+ * @param <E> the enum type
+ */
+public final class SymbolTable<E extends Enum<E>> {
+
+    @Nonnull private final String[] symbols;
+    @Nonnull private final Optional<E>[] values;
+    private final boolean caseInsensitive;
+    private final int mask;
+
+    private SymbolTable(@Nonnull final E[] constants, @Nonnull final Function<E, String> symbolFunction, final boolean caseInsensitive) {
+        // A load factor of no more than 25% keeps nearly every lookup to a single probe
+        final int capacity = Integer.highestOneBit(Math.max(constants.length, 1) * 4 - 1) << 1;
+        this.symbols = new String[capacity];
+        @SuppressWarnings("unchecked") final Optional<E>[] optionalValues = (Optional<E>[]) new Optional<?>[capacity];
+        this.values = optionalValues;
+        this.caseInsensitive = caseInsensitive;
+        this.mask = capacity - 1;
+        for (final E constant : constants) {
+            final String symbol = symbolFunction.apply(constant);
+            int index = hash(symbol, 0, symbol.length()) & mask;
+            while (symbols[index] != null && !matches(symbols[index], symbol, 0, symbol.length())) {
+                index = (index + 1) & mask;
+            }
+            if (symbols[index] == null) {
+                symbols[index] = symbol;
+                values[index] = Optional.of(constant);
+            }
+        }
+    }
+
+    /**
+     * Creates a table that matches symbols regardless of their case.
+     *
+     * @param constants the constants of the enum, in declaration order
+     * @param symbolFunction the function that returns the symbol for each constant
+     * @param <E> the enum type
+     * @return the symbol table
+     */
+    @Nonnull
+    public static <E extends Enum<E>> SymbolTable<E> caseInsensitive(@Nonnull final E[] constants, @Nonnull final Function<E, String> symbolFunction) {
+        return new SymbolTable<>(constants, symbolFunction, true);
+    }
+
+    /**
+     * Creates a table that only matches symbols of the same case.
+     *
+     * @param constants the constants of the enum, in declaration order
+     * @param symbolFunction the function that returns the symbol for each constant
+     * @param <E> the enum type
+     * @return the symbol table
+     */
+    @Nonnull
+    public static <E extends Enum<E>> SymbolTable<E> caseSensitive(@Nonnull final E[] constants, @Nonnull final Function<E, String> symbolFunction) {
+        return new SymbolTable<>(constants, symbolFunction, false);
+    }
+
+    /**
+     * @param symbol the symbol to look up
+     * @return the matching constant, or {@link Optional#empty()} if there is none
+     */
+    @Nonnull
+    public Optional<E> lookup(@Nullable final CharSequence symbol) {
+        if (symbol == null) {
+            return Optional.empty();
+        }
+        final int length = symbol.length();
+        for (int index = hash(symbol, 0, length) & mask;; index = (index + 1) & mask) {
+            final String candidate = symbols[index];
+            if (candidate == null) {
+                return Optional.empty();
+            }
+            if (matches(candidate, symbol, 0, length)) {
+                return values[index];
+            }
+        }
+    }
+
+    /**
+     * @param chars the characters containing the symbol
+     * @param offset the offset of the symbol in the characters
+     * @param length the length of the symbol
+     * @return the matching constant, or {@link Optional#empty()} if there is none
+     */
+    @Nonnull
+    public Optional<E> lookup(@Nonnull final char[] chars, final int offset, final int length) {
+        for (int index = hash(chars, offset, length) & mask;; index = (index + 1) & mask) {
+            final String candidate = symbols[index];
+            if (candidate == null) {
+                return Optional.empty();
+            }
+            if (matches(candidate, chars, offset, length)) {
+                return values[index];
+            }
+        }
+    }
+
+    private int hash(@Nonnull final CharSequence symbol, final int offset, final int length) {
+        int hash = length;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + fold(symbol.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private int hash(@Nonnull final char[] chars, final int offset, final int length) {
+        int hash = length;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + fold(chars[i]);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean matches(@Nonnull final String candidate, @Nonnull final CharSequence symbol, final int offset, final int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!matches(candidate.charAt(i), symbol.charAt(offset + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(@Nonnull final String candidate, @Nonnull final char[] chars, final int offset, final int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!matches(candidate.charAt(i), chars[offset + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(final char c1, final char c2) {
+        if (c1 == c2) {
+            return true;
+        }
+        if (!caseInsensitive) {
+            return false;
+        }
+        // The same comparison as String.equalsIgnoreCase
+        final char u1 = Character.toUpperCase(c1);
+        final char u2 = Character.toUpperCase(c2);
+        return u1 == u2 || Character.toLowerCase(u1) == Character.toLowerCase(u2);
+    }
+
+    private int fold(final char c) {
+        if (!caseInsensitive) {
+            return c;
+        }
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,367 @@
+package com.bt.openlink.codec;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Encodes and decodes the two timestamp formats used by Openlink;
+ * <ul>
+ * <li>the XEP-0082 format, which is always written as {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'}</li>
+ * <li>the legacy {@link java.util.Date#toString()} format, {@code EEE MMM dd HH:mm:ss zzz yyyy}, which is always
+ * written in UTC</li>
+ * </ul>
+ * The fixed layouts are encoded and decoded by hand, and the most recent second seen is cached as consecutive call
+ * events usually share it. Anything outside the fixed layouts is handed to {@link Instant#parse(CharSequence)} or a
+ * {@link DateTimeFormatter}, so the same values are accepted and rejected as before.
+ * <p>
+ * This class is for internal use by the library only; users of the API should not access this class directly.
+ */
+public final class TimestampCodec {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final DateTimeFormatter ISO_8601_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+    private static final DateTimeFormatter LEGACY_FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH);
+    private static final String[] DAYS_OF_WEEK = { "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" };
+    private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec" };
+    private static final int ISO_8601_SECONDS_LENGTH = "yyyy-MM-ddTHH:mm:ss".length();
+    private static final int LEGACY_LENGTH = "EEE MMM dd HH:mm:ss zzz yyyy".length();
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+
+    private static volatile FormattedSecond lastFormattedSecond = new FormattedSecond(0);
+    private static volatile ParsedSecond lastParsedIso8601Second = new ParsedSecond("1970-01-01T00:00:00", 0);
+    private static volatile ParsedSecond lastParsedLegacySecond = new ParsedSecond("Thu Jan 01 00:00:00 UTC 1970", 0);
+
+    private TimestampCodec() {
+    }
+
+    /**
+     * @param instant the instant to format
+     * @return the instant in the format {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'}
+     */
+    @Nonnull
+    public static String formatIso8601(@Nonnull final Instant instant) {
+        return appendIso8601(new StringBuilder(ISO_8601_SECONDS_LENGTH + 5), instant).toString();
+    }
+
+    /**
+     * Appends an instant to a builder in the format {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'}.
+     *
+     * @param builder the builder to append to
+     * @param instant the instant to append
+     * @return the builder
+     */
+    @Nonnull
+    public static StringBuilder appendIso8601(@Nonnull final StringBuilder builder, @Nonnull final Instant instant) {
+        final FormattedSecond formattedSecond = getFormattedSecond(instant.getEpochSecond());
+        if (formattedSecond == null) {
+            return builder.append(ISO_8601_FORMATTER.format(instant.atZone(UTC)));
+        }
+        builder.append(formattedSecond.iso8601).append('.');
+        appendDigits(builder, instant.getNano() / NANOS_PER_MILLI, 3);
+        return builder.append('Z');
+    }
+
+    /**
+     * @param instant the instant to format
+     * @return the instant in the UTC format {@code EEE MMM dd HH:mm:ss zzz yyyy}; any fraction of a second is ignored
+     */
+    @Nonnull
+    public static String formatLegacy(@Nonnull final Instant instant) {
+        final FormattedSecond formattedSecond = getFormattedSecond(instant.getEpochSecond());
+        if (formattedSecond == null) {
+            return LEGACY_FORMATTER.format(instant.atZone(UTC));
+        }
+        return formattedSecond.legacy;
+    }
+
+    /**
+     * Parses an XEP-0082 timestamp, as per {@link Instant#parse(CharSequence)}.
+     *
+     * @param text the text to parse
+     * @return the parsed instant
+     * @throws DateTimeParseException if the text is not a valid timestamp
+     */
+    @Nonnull
+    public static Instant parseIso8601(@Nonnull final CharSequence text) {
+        final int length = text.length();
+        final int nanos = parseIso8601Nanos(text, length);
+        if (nanos >= 0) {
+            final ParsedSecond parsedSecond = lastParsedIso8601Second;
+            if (parsedSecond.matches(text, ISO_8601_SECONDS_LENGTH)) {
+                return Instant.ofEpochSecond(parsedSecond.epochSecond, nanos);
+            }
+            final long epochSecond = parseIso8601Seconds(text);
+            if (epochSecond != Long.MIN_VALUE) {
+                lastParsedIso8601Second = new ParsedSecond(text.subSequence(0, ISO_8601_SECONDS_LENGTH).toString(), epochSecond);
+                return Instant.ofEpochSecond(epochSecond, nanos);
+            }
+        }
+        return Instant.parse(text);
+    }
+
+    /**
+     * Parses a legacy timestamp in the format {@code EEE MMM dd HH:mm:ss zzz yyyy}.
+     *
+     * @param text the text to parse
+     * @return the parsed instant
+     * @throws DateTimeParseException if the text is not a valid timestamp
+     */
+    @Nonnull
+    public static Instant parseLegacy(@Nonnull final CharSequence text) {
+        final ParsedSecond parsedSecond = lastParsedLegacySecond;
+        if (text.length() == LEGACY_LENGTH && parsedSecond.matches(text, LEGACY_LENGTH)) {
+            return Instant.ofEpochSecond(parsedSecond.epochSecond);
+        }
+        final long epochSecond = parseLegacySeconds(text);
+        if (epochSecond != Long.MIN_VALUE) {
+            lastParsedLegacySecond = new ParsedSecond(text.toString(), epochSecond);
+            return Instant.ofEpochSecond(epochSecond);
+        }
+        return Instant.from(LEGACY_FORMATTER.parse(text));
+    }
+
+    /**
+     * Checks if a legacy timestamp is exactly the one that would be written for an instant, without parsing it. This
+     * allows a legacy timestamp that accompanies an XEP-0082 timestamp to be checked cheaply.
+     *
+     * @param text the legacy timestamp
+     * @param instant the instant to compare with
+     * @return {@code true} if the legacy timestamp represents the instant, otherwise {@code false} - in which case it
+     *         may still represent the instant in a different time zone
+     */
+    public static boolean isLegacyTimestampOf(@Nonnull final CharSequence text, @Nonnull final Instant instant) {
+        return instant.getNano() == 0 && formatLegacy(instant).contentEquals(text);
+    }
+
+    private static FormattedSecond getFormattedSecond(final long epochSecond) {
+        final FormattedSecond formattedSecond = lastFormattedSecond;
+        if (formattedSecond.epochSecond == epochSecond) {
+            return formattedSecond;
+        }
+        final long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        final int year = yearFromEpochDay(epochDay);
+        if (year < 1 || year > 9999) {
+            return null;
+        }
+        final FormattedSecond newFormattedSecond = new FormattedSecond(epochSecond);
+        lastFormattedSecond = newFormattedSecond;
+        return newFormattedSecond;
+    }
+
+    /**
+     * @return the nano-of-second if the text has the layout {@code yyyy-MM-ddTHH:mm:ss[.fffffffff]Z}, otherwise -1
+     */
+    private static int parseIso8601Nanos(final CharSequence text, final int length) {
+        if (length < ISO_8601_SECONDS_LENGTH + 1 || text.charAt(length - 1) != 'Z') {
+            return -1;
+        }
+        if (length == ISO_8601_SECONDS_LENGTH + 1) {
+            return 0;
+        }
+        final int fractionDigits = length - ISO_8601_SECONDS_LENGTH - 2;
+        if (text.charAt(ISO_8601_SECONDS_LENGTH) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+            return -1;
+        }
+        int nanos = parseDigits(text, ISO_8601_SECONDS_LENGTH + 1, fractionDigits);
+        if (nanos < 0) {
+            return -1;
+        }
+        for (int i = fractionDigits; i < 9; i++) {
+            nanos *= 10;
+        }
+        return nanos;
+    }
+
+    /**
+     * @return the epoch second of the text with the layout {@code yyyy-MM-ddTHH:mm:ss}, or Long.MIN_VALUE if it cannot
+     *         be parsed by hand
+     */
+    private static long parseIso8601Seconds(final CharSequence text) {
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        final int year = parseDigits(text, 0, 4);
+        final int month = parseDigits(text, 5, 2);
+        final int day = parseDigits(text, 8, 2);
+        if (year < 0 || !isValidDate(year, month, day)) {
+            return Long.MIN_VALUE;
+        }
+        return toEpochSecond(daysFromCivil(year, month, day), text, 11);
+    }
+
+    /**
+     * @return the epoch second of the text with the layout {@code EEE MMM dd HH:mm:ss UTC yyyy}, or Long.MIN_VALUE if it
+     *         cannot be parsed by hand
+     */
+    private static long parseLegacySeconds(final CharSequence text) {
+        if (text.length() != LEGACY_LENGTH
+                || text.charAt(3) != ' ' || text.charAt(7) != ' ' || text.charAt(10) != ' ' || text.charAt(13) != ':'
+                || text.charAt(16) != ':' || text.charAt(19) != ' ' || text.charAt(23) != ' '
+                || !(regionEquals(text, 20, "UTC") || regionEquals(text, 20, "GMT"))) {
+            return Long.MIN_VALUE;
+        }
+        final int month = indexOf(MONTHS, text, 4) + 1;
+        final int day = parseDigits(text, 8, 2);
+        final int year = parseDigits(text, 24, 4);
+        if (year < 1 || !isValidDate(year, month, day)) {
+            return Long.MIN_VALUE;
+        }
+        final long epochDay = daysFromCivil(year, month, day);
+        if (indexOf(DAYS_OF_WEEK, text, 0) != Math.floorMod(epochDay + 3, 7)) {
+            return Long.MIN_VALUE;
+        }
+        return toEpochSecond(epochDay, text, 11);
+    }
+
+    private static long toEpochSecond(final long epochDay, final CharSequence text, final int timeOffset) {
+        final int hour = parseDigits(text, timeOffset, 2);
+        final int minute = parseDigits(text, timeOffset + 3, 2);
+        final int second = parseDigits(text, timeOffset + 6, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+        return epochDay * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+    }
+
+    private static boolean isValidDate(final int year, final int month, final int day) {
+        return month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month);
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        switch (month) {
+        case 2:
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    // See http://howardhinnant.github.io/date_algorithms.html for the derivation of the following two methods
+    private static long daysFromCivil(final int year, final int month, final int day) {
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(y, 400);
+        final long yearOfEra = y - era * 400;
+        final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int yearFromEpochDay(final long epochDay) {
+        return (int) civilFromDays(epochDay)[0];
+    }
+
+    private static long[] civilFromDays(final long epochDay) {
+        final long z = epochDay + 719_468;
+        final long era = Math.floorDiv(z, 146_097);
+        final long dayOfEra = z - era * 146_097;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long mp = (5 * dayOfYear + 2) / 153;
+        final long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        final long month = mp < 10 ? mp + 3 : mp - 9;
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return new long[] { year, month, day };
+    }
+
+    private static int parseDigits(final CharSequence text, final int offset, final int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void appendDigits(final StringBuilder builder, final int value, final int count) {
+        for (int divisor = count == 4 ? 1000 : count == 3 ? 100 : 10; divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private static boolean regionEquals(final CharSequence text, final int offset, final String expected) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (text.charAt(offset + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(final String[] names, final CharSequence text, final int offset) {
+        for (int i = 0; i < names.length; i++) {
+            if (regionEquals(text, offset, names[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class FormattedSecond {
+
+        private final long epochSecond;
+        @Nonnull private final String iso8601;
+        @Nonnull private final String legacy;
+
+        private FormattedSecond(final long epochSecond) {
+            this.epochSecond = epochSecond;
+            final long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+            final int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+            final long[] date = civilFromDays(epochDay);
+            final int year = (int) date[0];
+            final int month = (int) date[1];
+            final int day = (int) date[2];
+
+            final StringBuilder time = new StringBuilder(8);
+            appendDigits(time, secondOfDay / 3600, 2);
+            time.append(':');
+            appendDigits(time, secondOfDay / 60 % 60, 2);
+            time.append(':');
+            appendDigits(time, secondOfDay % 60, 2);
+
+            final StringBuilder builder = new StringBuilder(LEGACY_LENGTH);
+            appendDigits(builder, year, 4);
+            builder.append('-');
+            appendDigits(builder, month, 2);
+            builder.append('-');
+            appendDigits(builder, day, 2);
+            this.iso8601 = builder.append('T').append(time).toString();
+
+            builder.setLength(0);
+            builder.append(DAYS_OF_WEEK[(int) Math.floorMod(epochDay + 3, 7)]).append(' ')
+                    .append(MONTHS[month - 1]).append(' ');
+            appendDigits(builder, day, 2);
+            builder.append(' ').append(time).append(" UTC ");
+            appendDigits(builder, year, 4);
+            this.legacy = builder.toString();
+        }
+    }
+
+    private static final class ParsedSecond {
+
+        @Nonnull private final String text;
+        private final long epochSecond;
+
+        private ParsedSecond(@Nonnull final String text, final long epochSecond) {
+            this.text = text;
+            this.epochSecond = epochSecond;
+        }
+
+        private boolean matches(@Nonnull final CharSequence candidate, final int length) {
+            return text.length() == length && regionEquals(candidate, 0, text);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bt.openlink.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Encodes characters as UTF-8 straight to a {@link ByteBuffer}, without the intermediate {@code byte[]} of
+ * {@link String#getBytes(java.nio.charset.Charset)}. As per {@code String.getBytes(UTF_8)}, an unpaired surrogate is
+ * encoded as {@code '?'}.
+ */
+final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * @param text  the characters
+     * @param start the index of the first character to encode
+     * @param end   the index after the last character to encode
+     * @return the number of bytes that {@link #encode} puts for the characters
+     */
+    static int encodedLength(@Nonnull final CharSequence text, final int start, final int end) {
+        int byteCount = 0;
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                byteCount++;
+            } else if (c < 0x800) {
+                byteCount += 2;
+            } else if (isSurrogatePair(text, i, end)) {
+                byteCount += 4;
+                i++;
+            } else {
+                byteCount += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return byteCount;
+    }
+
+    /**
+     * @param text   the characters
+     * @param start  the index of the first character to encode
+     * @param end    the index after the last character to encode
+     * @param buffer the buffer to put the bytes in
+     * @throws BufferOverflowException if the buffer is too small, after which the bytes put are undefined
+     */
+    static void encode(@Nonnull final CharSequence text, final int start, final int end, @Nonnull final ByteBuffer buffer) {
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (isSurrogatePair(text, i, end)) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static boolean isSurrogatePair(@Nonnull final CharSequence text, final int index, final int end) {
+        return Character.isHighSurrogate(text.charAt(index)) && index + 1 < end && Character.isLowSurrogate(text.charAt(index + 1));
+    }
+}
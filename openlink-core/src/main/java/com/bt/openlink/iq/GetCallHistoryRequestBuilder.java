@@ -7,6 +7,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.CallType;
 
 public abstract class GetCallHistoryRequestBuilder<B extends GetCallHistoryRequestBuilder, J, T extends Enum<T>> extends IQBuilder<B, J, T> {
@@ -44,6 +45,9 @@ public abstract class GetCallHistoryRequestBuilder<B extends GetCallHistoryReque
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
@@ -8,6 +8,7 @@ import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.Feature;
 import com.bt.openlink.type.FeatureId;
 import com.bt.openlink.type.ProfileId;
@@ -80,13 +81,16 @@ public abstract class GetFeaturesResultBuilder<B extends GetFeaturesResultBuilde
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
         if(profileId==null) {
             errors.add("Invalid get-features result stanza; missing profile");
         }
-        validateUniqueness(profile -> errors.add("Invalid get-features result stanza; each feature id must be unique - " + profile + " appears more than once"));
+        validateUniqueness(profile -> ParseDiagnostics.report(errors, "Invalid get-features result stanza; each feature id must be unique - %s appears more than once", profile));
     }
 
 }
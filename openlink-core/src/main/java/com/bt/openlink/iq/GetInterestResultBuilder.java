@@ -6,6 +6,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.Interest;
 
 public abstract class GetInterestResultBuilder<B extends GetInterestResultBuilder, J, T extends Enum<T>> extends IQBuilder<B, J, T> {
@@ -48,6 +49,9 @@ public abstract class GetInterestResultBuilder<B extends GetInterestResultBuilde
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
@@ -7,6 +7,7 @@ import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.Interest;
 import com.bt.openlink.type.InterestId;
 
@@ -61,9 +62,12 @@ public abstract class GetInterestsResultBuilder<B extends GetInterestsResultBuil
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
-        validateUniqueness(interestId -> errors.add("Invalid get-interests result stanza; each interest id must be unique - " + interestId + " appears more than once"));
+        validateUniqueness(interestId -> ParseDiagnostics.report(errors, "Invalid get-interests result stanza; each interest id must be unique - %s appears more than once", interestId));
     }
 }
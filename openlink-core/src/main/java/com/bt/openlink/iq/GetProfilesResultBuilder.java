@@ -7,6 +7,7 @@ import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.Profile;
 import com.bt.openlink.type.ProfileId;
 
@@ -63,9 +64,12 @@ public abstract class GetProfilesResultBuilder<B extends GetProfilesResultBuilde
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
-        validateUniqueness(profileId -> errors.add("Invalid get-profiles result stanza; each profile id must be unique - " + profileId + " appears more than once"));
+        validateUniqueness(profileId -> ParseDiagnostics.report(errors, "Invalid get-profiles result stanza; each profile id must be unique - %s appears more than once", profileId));
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.StanzaBuilder;
 
 @SuppressWarnings("unchecked")
@@ -43,6 +44,9 @@ public abstract class IQBuilder<B extends IQBuilder, J, T extends Enum<T>> exten
     }
 
     public void validate(final List<String> errors) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (!getTo().isPresent()) {
             errors.add("Invalid stanza; missing 'to' attribute is mandatory");
         }
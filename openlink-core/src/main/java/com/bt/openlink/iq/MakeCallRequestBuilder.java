@@ -7,6 +7,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.FeatureId;
 import com.bt.openlink.type.InterestId;
 import com.bt.openlink.type.PhoneNumber;
@@ -90,6 +91,9 @@ public abstract class MakeCallRequestBuilder<B extends MakeCallRequestBuilder, J
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
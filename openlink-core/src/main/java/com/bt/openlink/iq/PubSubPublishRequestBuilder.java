@@ -9,6 +9,7 @@ import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.Call;
 import com.bt.openlink.type.CallId;
 import com.bt.openlink.type.DeviceStatus;
@@ -150,15 +151,18 @@ public abstract class PubSubPublishRequestBuilder<B extends PubSubPublishRequest
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
         if (pubSubNodeId == null) {
             errors.add("Invalid pub-sub publish request stanza; missing node id/interest id");
         }
-        validateUniqueness(callId -> errors.add("Invalid pub-sub publish request stanza; each call id must be unique - " + callId + " appears more than once"));
-        validateCallsAreOnTheCorrectInterest(call -> errors.add("Invalid pub-sub publish request stanza; the call with id " + call.getId().orElse(null) + " is on interest " + call.getInterestId().orElse(null)
-                + " which differs from the pub-sub node id " + pubSubNodeId));
+        validateUniqueness(callId -> ParseDiagnostics.report(errors, "Invalid pub-sub publish request stanza; each call id must be unique - %s appears more than once", callId));
+        validateCallsAreOnTheCorrectInterest(call -> ParseDiagnostics.report(errors, "Invalid pub-sub publish request stanza; the call with id %s is on interest %s which differs from the pub-sub node id %s",
+                call.getId().orElse(null), call.getInterestId().orElse(null), pubSubNodeId));
     }
 
 }
@@ -6,6 +6,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.InterestId;
 import com.bt.openlink.type.PubSubNodeId;
 import com.bt.openlink.type.SubscriptionState;
@@ -90,6 +91,9 @@ public abstract class PubSubSubscriptionRequestResultBuilder<B extends PubSubSub
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
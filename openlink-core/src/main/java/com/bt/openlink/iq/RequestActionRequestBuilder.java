@@ -6,6 +6,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.CallId;
 import com.bt.openlink.type.InterestId;
 import com.bt.openlink.type.RequestAction;
@@ -125,6 +126,9 @@ public abstract class RequestActionRequestBuilder<B extends RequestActionRequest
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
@@ -135,16 +139,16 @@ public abstract class RequestActionRequestBuilder<B extends RequestActionRequest
             errors.add("Invalid request-action stanza; missing or invalid 'requestAction'");
         } else {
             if (requestAction.getMinValueCount() > 0 && value1 == null) {
-                errors.add(String.format("Invalid request-action stanza; the action '%s' requires value1 to be set", requestAction.getId()));
+                ParseDiagnostics.report(errors, "Invalid request-action stanza; the action '%s' requires value1 to be set", requestAction.getId());
             }
             if (requestAction.getMinValueCount() > 1 && value2 == null) {
-                errors.add(String.format("Invalid request-action stanza; the action '%s' requires value2 to be set", requestAction.getId()));
+                ParseDiagnostics.report(errors, "Invalid request-action stanza; the action '%s' requires value2 to be set", requestAction.getId());
             }
             if (requestAction.getMaxValueCount() < 1 && value1 != null) {
-                errors.add(String.format("Invalid request-action stanza; the action '%s' does not require value1 to be set", requestAction.getId()));
+                ParseDiagnostics.report(errors, "Invalid request-action stanza; the action '%s' does not require value1 to be set", requestAction.getId());
             }
             if (requestAction.getMaxValueCount() < 2 && value2 != null) {
-                errors.add(String.format("Invalid request-action stanza; the action '%s' does not require value2 to be set", requestAction.getId()));
+                ParseDiagnostics.report(errors, "Invalid request-action stanza; the action '%s' does not require value2 to be set", requestAction.getId());
             }
         }
         if (callId == null) {
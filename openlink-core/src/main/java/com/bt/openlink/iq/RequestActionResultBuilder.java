@@ -8,6 +8,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.Call;
 
 public abstract class RequestActionResultBuilder<B extends RequestActionResultBuilder, J, T extends Enum<T>> extends IQBuilder<B, J, T> {
@@ -71,6 +72,9 @@ public abstract class RequestActionResultBuilder<B extends RequestActionResultBu
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
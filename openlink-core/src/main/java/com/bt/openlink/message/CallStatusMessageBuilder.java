@@ -8,6 +8,7 @@ import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.Call;
 import com.bt.openlink.type.CallId;
 import com.bt.openlink.type.InterestId;
@@ -50,8 +51,8 @@ public abstract class CallStatusMessageBuilder<B extends CallStatusMessageBuilde
     }
 
     @Override
-    protected void validate() {
-        super.validate();
+    protected void validateWithoutRecipient() {
+        super.validateWithoutRecipient();
         if (calls.isEmpty()) {
             throw new IllegalStateException("The callstatus message has no calls");
         }
@@ -71,15 +72,19 @@ public abstract class CallStatusMessageBuilder<B extends CallStatusMessageBuilde
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
         if (calls.isEmpty()) {
             errors.add("Invalid callstatus message stanza; missing or invalid calls");
         }
-        validateUniqueness(callId -> errors.add("Invalid callstatus message stanza; each call id must be unique - " + callId + " appears more than once"));
+        validateUniqueness(callId -> ParseDiagnostics.report(errors, "Invalid callstatus message stanza; each call id must be unique - %s appears more than once", callId));
         final PubSubNodeId nodeId = getPubSubNodeId().orElse(null);
-        validateCallsAreOnTheCorrectInterest(nodeId, call -> errors.add("Invalid callstatus message stanza; the call with id " + call.getId().orElse(null) + " is on interest " + call.getInterestId().orElse(null) + " which differs from the pub-sub node id " + nodeId));
+        validateCallsAreOnTheCorrectInterest(nodeId, call -> ParseDiagnostics.report(errors, "Invalid callstatus message stanza; the call with id %s is on interest %s which differs from the pub-sub node id %s",
+                call.getId().orElse(null), call.getInterestId().orElse(null), nodeId));
     }
 
     private void validateUniqueness(final Consumer<CallId> errorConsumer) {
@@ -6,6 +6,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.type.DeviceStatus;
 
 public abstract class DeviceStatusMessageBuilder<B extends DeviceStatusMessageBuilder, J> extends PubSubMessageBuilder<B, J> {
@@ -25,8 +26,8 @@ public abstract class DeviceStatusMessageBuilder<B extends DeviceStatusMessageBu
     }
 
     @Override
-    protected void validate() {
-        super.validate();
+    protected void validateWithoutRecipient() {
+        super.validateWithoutRecipient();
         if (deviceStatus == null) {
             throw new IllegalStateException("The stanza 'deviceStatus' has not been set");
         }
@@ -38,6 +39,9 @@ public abstract class DeviceStatusMessageBuilder<B extends DeviceStatusMessageBu
     }
 
     protected void validate(List<String> errors, boolean checkIQFields) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (checkIQFields) {
             super.validate(errors);
         }
@@ -7,6 +7,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.StanzaBuilder;
 import com.bt.openlink.type.InterestId;
 import com.bt.openlink.type.ItemId;
@@ -63,6 +64,16 @@ public abstract class PubSubMessageBuilder<B extends PubSubMessageBuilder, J> ex
         if (!getTo().isPresent()) {
             throw new IllegalStateException("The stanza 'to' has not been set");
         }
+        validateWithoutRecipient();
+    }
+
+    /**
+     * Validates everything but the recipient of the stanza, for a stanza that is encoded once and sent to many
+     * recipients.
+     *
+     * @throws IllegalStateException if the stanza is not valid
+     */
+    protected void validateWithoutRecipient() {
         if (!getFrom().isPresent()) {
             throw new IllegalStateException("The stanza 'from' has not been set");
         }
@@ -76,6 +87,9 @@ public abstract class PubSubMessageBuilder<B extends PubSubMessageBuilder, J> ex
     }
 
     public void validate(final List<String> errors) {
+        if (!ParseDiagnostics.isValidating(errors)) {
+            return;
+        }
         if (!getTo().isPresent()) {
             errors.add("Invalid stanza; missing 'to' attribute is mandatory");
         }
@@ -0,0 +1,345 @@
+package com.bt.openlink.registry;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallDirection;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.InterestId;
+import com.bt.openlink.type.UserId;
+
+/**
+ * Tracks whether each interest and each user is busy - i.e. is {@link CallState#isParticipating(CallDirection)
+ * participating} in one or more calls - as calls are added, updated and removed, so that the busy attribute of a call
+ * status can be read without rescanning the calls, as {@link Call#oneOrMoreCallsIsBusy} does.
+ * <p>
+ * For each interest and user the tracker counts the calls whose state and direction are known, and how many of those
+ * are participating; the busy state is derived from the counts in the same way as {@link Call#oneOrMoreCallsIsBusy}
+ * derives it from the calls. A {@link Call#isDelta() delta} updates only the fields it carries. A call is removed once
+ * it reaches a {@link CallState#isTerminal() terminal} state. Calls without an id are ignored.
+ * <p>
+ * Each call is updated under a lock that is striped by call id, and the counts of each interest and user under a lock
+ * striped by key, so updates of different calls do not contend unless they share an interest or user. Reads never
+ * block. An update that leaves a call with the same interest, or the same user, changes the counts of that key in a
+ * single step, so a reader never sees the key idle in between; a call that moves to another interest or user is
+ * removed from the counts of the one key before it is added to those of the other.
+ * <p>
+ * Listeners are notified of each change to the busy state of a key, one change at a time and in the order the changes
+ * were made, so the last notification of a key is always its current state. They are never notified with the locks of
+ * an update held, so may update the tracker themselves. A change is notified by the thread that made it or, if another
+ * thread is notifying at the time, by that thread; it may so not yet have been notified when the update returns.
+ */
+public final class BusyTracker {
+
+    /**
+     * Notified when an interest or user becomes busy or ceases to be busy.
+     */
+    public interface Listener {
+
+        /**
+         * @param interestId the id of the interest
+         * @param busy       {@code true} if the interest is now busy, otherwise {@code false}
+         */
+        default void interestBusyChanged(@Nonnull final InterestId interestId, final boolean busy) {
+        }
+
+        /**
+         * @param userId the id of the user
+         * @param busy   {@code true} if the user is now busy, otherwise {@code false}
+         */
+        default void userBusyChanged(@Nonnull final UserId userId, final boolean busy) {
+        }
+    }
+
+    // The fields of each call that determine what it counts towards; unused by the tracker of a CallRegistry, which
+    // tracks the calls it holds instead
+    @Nonnull private final ConcurrentMap<CallId, TrackedCall> trackedCalls = new ConcurrentHashMap<>();
+    @Nonnull private final ConcurrentMap<InterestId, Counts> countsByInterest = new ConcurrentHashMap<>();
+    @Nonnull private final ConcurrentMap<UserId, Counts> countsByUser = new ConcurrentHashMap<>();
+    @Nonnull private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    // The changes to notify, queued with the lock of their key held, so those of each key are queued in order
+    @Nonnull private final Queue<BusyChange> pendingChanges = new ConcurrentLinkedQueue<>();
+    // Set while a thread notifies the listeners, so that they are notified of one change at a time
+    @Nonnull private final AtomicBoolean notifying = new AtomicBoolean();
+    private final boolean registryTracker;
+
+    /**
+     * Creates a tracker of no calls.
+     */
+    public BusyTracker() {
+        this(false);
+    }
+
+    BusyTracker(final boolean registryTracker) {
+        this.registryTracker = registryTracker;
+    }
+
+    /**
+     * @param listener the listener to notify of changes to the busy state of an interest or user
+     */
+    public void addListener(@Nonnull final Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to no longer notify
+     */
+    public void removeListener(@Nonnull final Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Updates the tracker with a call that has been received or published.
+     *
+     * @param call the call, which may be a delta
+     * @throws IllegalStateException if this is the tracker of a {@link CallRegistry}, which is updated by the registry
+     */
+    public void update(@Nonnull final Call call) {
+        checkNotRegistryTracker();
+        final CallId callId = call.getId().orElse(null);
+        if (callId == null) {
+            return;
+        }
+        trackedCalls.compute(callId, (id, previousCall) -> {
+            final TrackedCall trackedCall = TrackedCall.from(call, previousCall);
+            track(previousCall, trackedCall);
+            return trackedCall;
+        });
+        notifyListeners();
+    }
+
+    /**
+     * Removes a call, e.g. when the call status of its interest is no longer available.
+     *
+     * @param callId the id of the call
+     * @throws IllegalStateException if this is the tracker of a {@link CallRegistry}, which is updated by the registry
+     */
+    public void remove(@Nonnull final CallId callId) {
+        checkNotRegistryTracker();
+        trackedCalls.computeIfPresent(callId, (id, previousCall) -> {
+            track(previousCall, null);
+            return null;
+        });
+        notifyListeners();
+    }
+
+    /**
+     * Removes every call.
+     *
+     * @throws IllegalStateException if this is the tracker of a {@link CallRegistry}, which is updated by the registry
+     */
+    public void clear() {
+        checkNotRegistryTracker();
+        for (final CallId callId : trackedCalls.keySet()) {
+            remove(callId);
+        }
+    }
+
+    /**
+     * @param interestId the id of an interest
+     * @return whether one or more calls on the interest is participating, or {@link Optional#empty()} if the state and
+     *         direction of no call on the interest is known
+     */
+    @Nonnull
+    public Optional<Boolean> isInterestBusy(@Nonnull final InterestId interestId) {
+        return busyOf(countsByInterest.get(interestId));
+    }
+
+    /**
+     * @param userId the id of a user
+     * @return whether one or more calls of the user is participating, or {@link Optional#empty()} if the state and
+     *         direction of no call of the user is known
+     */
+    @Nonnull
+    public Optional<Boolean> isUserBusy(@Nonnull final UserId userId) {
+        return busyOf(countsByUser.get(userId));
+    }
+
+    /**
+     * Counts a change to a call held by a {@link CallRegistry}; called by the registry with the lock of the call held,
+     * which must then {@link #notifyListeners()} once the lock is released.
+     *
+     * @param previousCall the call previously held, if any
+     * @param call         the call now held, if any
+     */
+    void track(@Nullable final Call previousCall, @Nullable final Call call) {
+        track(previousCall == null ? null : TrackedCall.from(previousCall, null), call == null ? null : TrackedCall.from(call, null));
+    }
+
+    /**
+     * Notifies the listeners of the changes queued, unless another thread is already doing so; called with no lock held.
+     */
+    void notifyListeners() {
+        // Checked again once notifying is cleared, so that a change queued by a thread that found it set is not missed
+        while (!pendingChanges.isEmpty() && notifying.compareAndSet(false, true)) {
+            try {
+                BusyChange change;
+                while ((change = pendingChanges.poll()) != null) {
+                    for (final Listener listener : listeners) {
+                        change.notify(listener);
+                    }
+                }
+            } finally {
+                notifying.set(false);
+            }
+        }
+    }
+
+    private void checkNotRegistryTracker() {
+        if (registryTracker) {
+            throw new IllegalStateException("The busy tracker of a call registry is only updated by the registry");
+        }
+    }
+
+    private void track(@Nullable final TrackedCall previousCall, @Nullable final TrackedCall trackedCall) {
+        track(countsByInterest, previousCall, previousCall == null ? null : previousCall.interestId, trackedCall, trackedCall == null ? null : trackedCall.interestId);
+        track(countsByUser, previousCall, previousCall == null ? null : previousCall.userId, trackedCall, trackedCall == null ? null : trackedCall.userId);
+    }
+
+    private <K> void track(
+            @Nonnull final ConcurrentMap<K, Counts> countsByKey,
+            @Nullable final TrackedCall previousCall,
+            @Nullable final K previousKey,
+            @Nullable final TrackedCall trackedCall,
+            @Nullable final K key) {
+        if (previousKey != null && previousKey.equals(key)) {
+            if (previousCall.isKnown() != trackedCall.isKnown() || previousCall.isParticipating() != trackedCall.isParticipating()) {
+                count(countsByKey, key, previousCall, trackedCall);
+            }
+            return;
+        }
+        if (previousKey != null) {
+            count(countsByKey, previousKey, previousCall, null);
+        }
+        if (key != null) {
+            count(countsByKey, key, null, trackedCall);
+        }
+    }
+
+    // Moves a call out of and/or into the counts of a key in a single step, so a reader sees either the counts before
+    // the move or those after it
+    private <K> void count(
+            @Nonnull final ConcurrentMap<K, Counts> countsByKey,
+            @Nonnull final K key,
+            @Nullable final TrackedCall removedCall,
+            @Nullable final TrackedCall addedCall) {
+        countsByKey.compute(key, (k, previousCounts) -> {
+            final Counts counts = (previousCounts == null ? Counts.NONE : previousCounts).minus(removedCall).plus(addedCall);
+            final boolean busy = counts.participatingCalls > 0;
+            if (busy != (previousCounts != null && previousCounts.participatingCalls > 0)) {
+                pendingChanges.add(new BusyChange(key, busy));
+            }
+            return counts.calls == 0 ? null : counts;
+        });
+    }
+
+    @Nonnull
+    private static Optional<Boolean> busyOf(@Nullable final Counts counts) {
+        if (counts == null || counts.knownCalls == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(counts.participatingCalls > 0);
+    }
+
+    private static final class BusyChange {
+
+        @Nonnull private final Object key;
+        private final boolean busy;
+
+        private BusyChange(@Nonnull final Object key, final boolean busy) {
+            this.key = key;
+            this.busy = busy;
+        }
+
+        private void notify(@Nonnull final Listener listener) {
+            if (key instanceof InterestId) {
+                listener.interestBusyChanged((InterestId) key, busy);
+            } else {
+                listener.userBusyChanged((UserId) key, busy);
+            }
+        }
+    }
+
+    // Immutable, and replaced in a single step per key, so that a read sees the counts of the key between two updates
+    private static final class Counts {
+
+        private static final Counts NONE = new Counts(0, 0, 0);
+
+        private final int calls;
+        private final int knownCalls;
+        private final int participatingCalls;
+
+        private Counts(final int calls, final int knownCalls, final int participatingCalls) {
+            this.calls = calls;
+            this.knownCalls = knownCalls;
+            this.participatingCalls = participatingCalls;
+        }
+
+        @Nonnull
+        private Counts plus(@Nullable final TrackedCall trackedCall) {
+            return trackedCall == null ? this : add(trackedCall, 1);
+        }
+
+        @Nonnull
+        private Counts minus(@Nullable final TrackedCall trackedCall) {
+            return trackedCall == null ? this : add(trackedCall, -1);
+        }
+
+        @Nonnull
+        private Counts add(@Nonnull final TrackedCall trackedCall, final int delta) {
+            return new Counts(
+                    calls + delta,
+                    knownCalls + (trackedCall.isKnown() ? delta : 0),
+                    participatingCalls + (trackedCall.isParticipating() ? delta : 0));
+        }
+    }
+
+    private static final class TrackedCall {
+
+        @Nullable private final InterestId interestId;
+        @Nullable private final UserId userId;
+        @Nullable private final CallState state;
+        @Nullable private final CallDirection direction;
+
+        private TrackedCall(@Nullable final InterestId interestId, @Nullable final UserId userId, @Nullable final CallState state, @Nullable final CallDirection direction) {
+            this.interestId = interestId;
+            this.userId = userId;
+            this.state = state;
+            this.direction = direction;
+        }
+
+        // Returns null if the call has ended
+        @Nullable
+        private static TrackedCall from(@Nonnull final Call call, @Nullable final TrackedCall previousCall) {
+            final boolean merge = call.isDelta() && previousCall != null;
+            final CallState state = merge && !call.isLoaded(CallField.STATE) ? previousCall.state : call.getState().orElse(null);
+            if (state != null && state.isTerminal()) {
+                return null;
+            }
+            return new TrackedCall(
+                    merge && !call.isLoaded(CallField.INTEREST_ID) ? previousCall.interestId : call.getInterestId().orElse(null),
+                    merge && !call.isLoaded(CallField.USER_ID) ? previousCall.userId : call.getUserId().orElse(null),
+                    state,
+                    merge && !call.isLoaded(CallField.DIRECTION) ? previousCall.direction : call.getDirection().orElse(null));
+        }
+
+        private boolean isKnown() {
+            return state != null && direction != null;
+        }
+
+        private boolean isParticipating() {
+            return isKnown() && state.isParticipating(direction);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.bt.openlink.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.bt.openlink.codec.CallDeltaDecoder;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.InterestId;
+import com.bt.openlink.type.ProfileId;
+import com.bt.openlink.type.UserId;
+
+/**
+ * Holds the current version of each live call, as reported by the call status received or published, so that
+ * applications need not each keep their own map of calls. Calls can be looked up by id, or listed by interest, profile
+ * or user.
+ * <p>
+ * Each call is updated atomically, under a lock that is striped by call id, so updates of different calls do not
+ * contend; the views by interest, profile and user are updated along with the call. Reads never block. A call read is
+ * always a complete, immutable version of the call; a list of calls read while calls are being updated holds the
+ * version of each call at the time it was read, so may include a call that has since moved to another interest, say,
+ * but never a call that did not belong when it was read.
+ * <p>
+ * A {@link Call#isDelta() delta} is merged into the current version of its call. A call is removed once it reaches a
+ * {@link CallState#isTerminal() terminal} state. Calls without an id are ignored.
+ * <p>
+ * The registry keeps a {@link BusyTracker} up to date with the calls it holds, so the busy state of an interest or
+ * user can be read without listing its calls. Its listeners are notified once the lock of the call is released.
+ */
+public final class CallRegistry {
+
+    private static final int DEFAULT_EXPECTED_CALLS = 16;
+
+    @Nonnull private final ConcurrentMap<CallId, Call> calls;
+    @Nonnull private final ConcurrentMap<InterestId, ConcurrentMap<CallId, Call>> callsByInterest = new ConcurrentHashMap<>();
+    @Nonnull private final ConcurrentMap<ProfileId, ConcurrentMap<CallId, Call>> callsByProfile = new ConcurrentHashMap<>();
+    @Nonnull private final ConcurrentMap<UserId, ConcurrentMap<CallId, Call>> callsByUser = new ConcurrentHashMap<>();
+    @Nonnull private final BusyTracker busyTracker = new BusyTracker(true);
+
+    /**
+     * Creates an empty registry.
+     */
+    public CallRegistry() {
+        this(DEFAULT_EXPECTED_CALLS);
+    }
+
+    /**
+     * Creates an empty registry sized for a number of calls, to avoid resizing as it fills.
+     *
+     * @param expectedCalls the number of calls expected to be held at once
+     */
+    public CallRegistry(final int expectedCalls) {
+        this.calls = new ConcurrentHashMap<>(expectedCalls);
+    }
+
+    /**
+     * Applies a call that has been received or published.
+     *
+     * @param call the call, which may be a delta
+     * @return the call now held, which is the call merged with the previous version if it is a delta, or
+     *         {@link Optional#empty()} if the call has ended or has no id
+     */
+    @Nonnull
+    public Optional<Call> apply(@Nonnull final Call call) {
+        final CallId callId = call.getId().orElse(null);
+        if (callId == null) {
+            return Optional.empty();
+        }
+        final Call heldCall = calls.compute(callId, (id, previousCall) -> {
+            final Call currentCall = call.isDelta() && previousCall != null ? CallDeltaDecoder.merge(previousCall, call) : call;
+            final Call callToHold = currentCall.getState().map(CallState::isTerminal).orElse(false) ? null : currentCall;
+            index(id, previousCall, callToHold);
+            return callToHold;
+        });
+        busyTracker.notifyListeners();
+        return Optional.ofNullable(heldCall);
+    }
+
+    /**
+     * Applies the calls of a call status that has been received or published.
+     *
+     * @param callStatus the calls
+     */
+    public void apply(@Nonnull final Collection<Call> callStatus) {
+        for (final Call call : callStatus) {
+            apply(call);
+        }
+    }
+
+    /**
+     * Removes a call, e.g. when the call status of its interest is no longer available.
+     *
+     * @param callId the id of the call
+     * @return the call that was held, if any
+     */
+    @Nonnull
+    public Optional<Call> remove(@Nonnull final CallId callId) {
+        final Call[] removedCall = new Call[1];
+        calls.computeIfPresent(callId, (id, previousCall) -> {
+            index(id, previousCall, null);
+            removedCall[0] = previousCall;
+            return null;
+        });
+        busyTracker.notifyListeners();
+        return Optional.ofNullable(removedCall[0]);
+    }
+
+    /**
+     * Removes every call.
+     */
+    public void clear() {
+        for (final CallId callId : calls.keySet()) {
+            remove(callId);
+        }
+    }
+
+    /**
+     * @param callId the id of a call
+     * @return the current version of the call, unless it has ended
+     */
+    @Nonnull
+    public Optional<Call> getCall(@Nonnull final CallId callId) {
+        return Optional.ofNullable(calls.get(callId));
+    }
+
+    /**
+     * @return the current version of every call
+     */
+    @Nonnull
+    public List<Call> getCalls() {
+        return Collections.unmodifiableList(new ArrayList<>(calls.values()));
+    }
+
+    /**
+     * @param interestId the id of an interest
+     * @return the current version of every call on the interest
+     */
+    @Nonnull
+    public List<Call> getCallsForInterest(@Nonnull final InterestId interestId) {
+        return snapshotOf(callsByInterest.get(interestId));
+    }
+
+    /**
+     * @param profileId the id of a profile
+     * @return the current version of every call on the profile
+     */
+    @Nonnull
+    public List<Call> getCallsForProfile(@Nonnull final ProfileId profileId) {
+        return snapshotOf(callsByProfile.get(profileId));
+    }
+
+    /**
+     * @param userId the id of a user
+     * @return the current version of every call of the user
+     */
+    @Nonnull
+    public List<Call> getCallsForUser(@Nonnull final UserId userId) {
+        return snapshotOf(callsByUser.get(userId));
+    }
+
+    /**
+     * @return the tracker of the busy state of the interests and users of the calls held, which is updated only by
+     *         the registry
+     */
+    @Nonnull
+    public BusyTracker getBusyTracker() {
+        return busyTracker;
+    }
+
+    /**
+     * @return the number of calls held
+     */
+    public int size() {
+        return calls.size();
+    }
+
+    // Called with the lock of the call held, so the views of a call are only ever updated by one thread at a time; the
+    // busy state is counted from the calls held, so the tracker keeps no state of its own per call
+    private void index(@Nonnull final CallId callId, @Nullable final Call previousCall, @Nullable final Call call) {
+        index(callsByInterest, Call::getInterestId, callId, previousCall, call);
+        index(callsByProfile, Call::getProfileId, callId, previousCall, call);
+        index(callsByUser, Call::getUserId, callId, previousCall, call);
+        busyTracker.track(previousCall, call);
+    }
+
+    private static <K> void index(
+            @Nonnull final ConcurrentMap<K, ConcurrentMap<CallId, Call>> view,
+            @Nonnull final Function<Call, Optional<K>> keyFunction,
+            @Nonnull final CallId callId,
+            @Nullable final Call previousCall,
+            @Nullable final Call call) {
+        final K previousKey = previousCall == null ? null : keyFunction.apply(previousCall).orElse(null);
+        final K key = call == null ? null : keyFunction.apply(call).orElse(null);
+        if (previousKey != null && !previousKey.equals(key)) {
+            // A view is only removed with the lock of its key held, so that a call cannot be added to a removed view
+            view.computeIfPresent(previousKey, (k, callsForKey) -> {
+                callsForKey.remove(callId);
+                return callsForKey.isEmpty() ? null : callsForKey;
+            });
+        }
+        if (key != null) {
+            if (key.equals(previousKey)) {
+                // The view holds the previous version of this call, so cannot be removed until the lock is released
+                final ConcurrentMap<CallId, Call> callsForKey = view.get(key);
+                if (callsForKey != null) {
+                    callsForKey.put(callId, call);
+                    return;
+                }
+            }
+            view.compute(key, (k, callsForKey) -> {
+                final ConcurrentMap<CallId, Call> updatedCallsForKey = callsForKey == null ? new ConcurrentHashMap<>() : callsForKey;
+                updatedCallsForKey.put(callId, call);
+                return updatedCallsForKey;
+            });
+        }
+    }
+
+    @Nonnull
+    private static List<Call> snapshotOf(@Nullable final ConcurrentMap<CallId, Call> callsForKey) {
+        return callsForKey == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(callsForKey.values()));
+    }
+}
@@ -5,32 +5,35 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.codec.CanonicalPool;
+
 public class Call {
 
+    // values() clones the constants on every call
+    private static final CallField[] CALL_FIELDS = CallField.values();
+
     public static Optional<Boolean> oneOrMoreCallsIsBusy(final Collection<Call> calls) {
-        final AtomicBoolean callBusySet = new AtomicBoolean(false);
-        final AtomicBoolean aCallIsBusy = new AtomicBoolean(false);
-        calls.forEach(call -> call.getState().ifPresent(callState -> call.getDirection().ifPresent(callDirection -> {
-            final boolean participating = callState.isParticipating(callDirection);
-            if (!callBusySet.get() || participating) {
-                callBusySet.compareAndSet(false, true);
-                aCallIsBusy.compareAndSet(false, participating);
+        Boolean busy = null;
+        for (final Call call : calls) {
+            // A delta need not carry the state or direction of the call, so the calls say nothing reliable about busy
+            if (call.isDelta()) {
+                return Optional.empty();
+            }
+            if (call.state != null && call.direction != null && !Boolean.TRUE.equals(busy)) {
+                busy = call.state.isParticipating(call.direction);
             }
-        })));
-
-        if (callBusySet.get()) {
-            return Optional.of(aCallIsBusy.get());
-        } else {
-            return Optional.empty();
         }
-
+        return Optional.ofNullable(busy);
     }
 
     @Nullable private final CallId callId;
@@ -54,31 +57,232 @@ public class Call {
     @Nullable private final Duration duration;
     @Nonnull private final List<RequestAction> actions;
     @Nonnull private final List<CallFeature> features;
+    @Nonnull private final CallFeatureIndex featureIndex;
     @Nonnull private final List<Participant> participants;
+    @Nonnull private final Set<CallField> loadedFields;
+    private final boolean delta;
+    // The hash of the content, computed on first use; as per String.hashCode, a race only computes it more than once.
+    // Transient, as it is derived from the fields, so is not part of the state compared by reflection
+    private transient int contentHash;
 
     private Call(@Nonnull final Builder builder) {
-        this.callId = builder.callId;
-        this.conferenceId = builder.conferenceId;
-        this.site = builder.site;
-        this.profileId = builder.profileId;
-        this.userId = builder.userId;
-        this.interestId = builder.interestId;
+        final CanonicalPool pool = builder.canonicalPool;
+        this.callId = pool.canonical(builder.callId);
+        this.conferenceId = pool.canonical(builder.conferenceId);
+        this.site = pool.canonical(builder.site);
+        this.profileId = pool.canonical(builder.profileId);
+        this.userId = pool.canonical(builder.userId);
+        this.interestId = pool.canonical(builder.interestId);
         this.changed = builder.changed;
         this.state = builder.state;
         this.direction = builder.direction;
-        this.callerNumber = builder.callerNumber;
-        this.callerName = builder.callerName;
-        this.callerE164Numbers = Collections.unmodifiableList(builder.callerE164Numbers);
-        this.calledNumber = builder.calledNumber;
-        this.calledName = builder.calledName;
-        this.calledDestination = builder.calledDestination;
-        this.calledE164Numbers = Collections.unmodifiableList(builder.calledE164Numbers);
+        this.callerNumber = pool.canonical(builder.callerNumber);
+        this.callerName = pool.canonical(builder.callerName);
+        this.callerE164Numbers = Collections.unmodifiableList(canonical(pool, builder.callerE164Numbers));
+        this.calledNumber = pool.canonical(builder.calledNumber);
+        this.calledName = pool.canonical(builder.calledName);
+        this.calledDestination = pool.canonical(builder.calledDestination);
+        this.calledE164Numbers = Collections.unmodifiableList(canonical(pool, builder.calledE164Numbers));
         this.originatorReferences = Collections.unmodifiableList(builder.originatorReferences);
         this.startTime = builder.startTime;
         this.duration = builder.duration;
         this.actions = Collections.unmodifiableList(builder.actions);
         this.features = Collections.unmodifiableList(builder.features);
+        this.featureIndex = CallFeatureIndex.of(features);
         this.participants = Collections.unmodifiableList(builder.participants);
+        this.loadedFields = builder.loadedFields;
+        this.delta = builder.delta;
+    }
+
+    @Nonnull
+    private static <T> List<T> canonical(@Nonnull final CanonicalPool pool, @Nonnull final List<T> values) {
+        if (pool != CanonicalPool.NONE) {
+            values.replaceAll(pool::canonical);
+        }
+        return values;
+    }
+
+    /**
+     * Indicates if a field was loaded when the call was decoded. A call that was decoded with a restricted set of
+     * fields will report any other fields as empty, regardless of the content of the original stanza.
+     *
+     * @param field the field to check
+     * @return {@code true} if the field was loaded, otherwise {@code false}
+     */
+    public boolean isLoaded(@Nonnull final CallField field) {
+        return loadedFields.contains(field);
+    }
+
+    /**
+     * @return the fields that were loaded when the call was decoded; by default, all fields
+     */
+    @Nonnull
+    public Set<CallField> getLoadedFields() {
+        return loadedFields;
+    }
+
+    /**
+     * Indicates if the call is a delta; a delta carries only the fields of a call that have changed since it was last
+     * published, along with its id, and reports every other field as not loaded. A delta is encoded with only its
+     * loaded fields, and should only be sent to a peer that supports
+     * {@link com.bt.openlink.OpenlinkXmppNamespace#OPENLINK_CALL_STATUS_DELTA call status deltas}.
+     *
+     * @return {@code true} if the call is a delta, otherwise {@code false}
+     * @see com.bt.openlink.codec.CallDeltaEncoder
+     * @see com.bt.openlink.codec.CallDeltaDecoder
+     */
+    public boolean isDelta() {
+        return delta;
+    }
+
+    /**
+     * Compares a field of this call with the same field of another call, regardless of whether it was loaded.
+     *
+     * @param field     the field to compare
+     * @param otherCall the other call
+     * @return {@code true} if the field has the same value in both calls, otherwise {@code false}
+     */
+    public boolean hasSameValue(@Nonnull final CallField field, @Nonnull final Call otherCall) {
+        switch (field) {
+        case ID:
+            return Objects.equals(callId, otherCall.callId);
+        case CONFERENCE_ID:
+            return Objects.equals(conferenceId, otherCall.conferenceId);
+        case SITE:
+            return Objects.equals(site, otherCall.site);
+        case PROFILE_ID:
+            return Objects.equals(profileId, otherCall.profileId);
+        case USER_ID:
+            return Objects.equals(userId, otherCall.userId);
+        case INTEREST_ID:
+            return Objects.equals(interestId, otherCall.interestId);
+        case CHANGED:
+            return changed == otherCall.changed;
+        case STATE:
+            return state == otherCall.state;
+        case DIRECTION:
+            return direction == otherCall.direction;
+        case CALLER:
+            return Objects.equals(callerNumber, otherCall.callerNumber)
+                    && Objects.equals(callerName, otherCall.callerName)
+                    && sameElements(callerE164Numbers, otherCall.callerE164Numbers);
+        case CALLED:
+            return Objects.equals(calledNumber, otherCall.calledNumber)
+                    && Objects.equals(calledName, otherCall.calledName)
+                    && Objects.equals(calledDestination, otherCall.calledDestination)
+                    && sameElements(calledE164Numbers, otherCall.calledE164Numbers);
+        case ORIGINATOR_REFERENCES:
+            return sameElements(originatorReferences, otherCall.originatorReferences);
+        case START_TIME:
+            return Objects.equals(startTime, otherCall.startTime);
+        case DURATION:
+            return Objects.equals(duration, otherCall.duration);
+        case ACTIONS:
+            return sameElements(actions, otherCall.actions);
+        case FEATURES:
+            return sameElements(features, otherCall.features);
+        case PARTICIPANTS:
+            return sameElements(participants, otherCall.participants);
+        default:
+            throw new IllegalArgumentException("Unknown call field " + field);
+        }
+    }
+
+    /**
+     * Compares the content of this call with another call: whether each is a delta, the fields loaded, and the value of
+     * each field loaded. Calls with the same content are encoded identically. The {@link #contentHash() hashes} of the
+     * calls are compared first, so calls with different content are usually told apart without comparing any field.
+     *
+     * @param otherCall the other call
+     * @return {@code true} if the calls have the same content, otherwise {@code false}
+     */
+    public boolean hasSameContent(@Nonnull final Call otherCall) {
+        if (otherCall == this) {
+            return true;
+        }
+        if (delta != otherCall.delta || contentHash() != otherCall.contentHash() || !loadedFields.equals(otherCall.loadedFields)) {
+            return false;
+        }
+        for (final CallField field : CALL_FIELDS) {
+            if (isLoaded(field) && !hasSameValue(field, otherCall)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash of the content of the call, consistent with {@link #hasSameContent(Call)}. The hash is computed
+     * once, when first needed, so is cheap to use as the version of an immutable call.
+     *
+     * @return the hash of the content of the call
+     */
+    public int contentHash() {
+        int hash = contentHash;
+        if (hash == 0) {
+            hash = Boolean.hashCode(delta);
+            for (final CallField field : CALL_FIELDS) {
+                hash = 31 * hash + (isLoaded(field) ? 1 + valueHash(field) : 0);
+            }
+            contentHash = hash;
+        }
+        return hash;
+    }
+
+    private int valueHash(@Nonnull final CallField field) {
+        switch (field) {
+        case ID:
+            return Objects.hashCode(callId);
+        case CONFERENCE_ID:
+            return Objects.hashCode(conferenceId);
+        case SITE:
+            return Objects.hashCode(site);
+        case PROFILE_ID:
+            return Objects.hashCode(profileId);
+        case USER_ID:
+            return Objects.hashCode(userId);
+        case INTEREST_ID:
+            return Objects.hashCode(interestId);
+        case CHANGED:
+            return Objects.hashCode(changed);
+        case STATE:
+            return Objects.hashCode(state);
+        case DIRECTION:
+            return Objects.hashCode(direction);
+        case CALLER:
+            return (31 * Objects.hashCode(callerNumber) + Objects.hashCode(callerName)) * 31 + callerE164Numbers.hashCode();
+        case CALLED:
+            return ((31 * Objects.hashCode(calledNumber) + Objects.hashCode(calledName)) * 31 + Objects.hashCode(calledDestination)) * 31
+                    + calledE164Numbers.hashCode();
+        case ORIGINATOR_REFERENCES:
+            return originatorReferences.hashCode();
+        case START_TIME:
+            return Objects.hashCode(startTime);
+        case DURATION:
+            return Objects.hashCode(duration);
+        case ACTIONS:
+            return actions.hashCode();
+        case FEATURES:
+            return features.hashCode();
+        case PARTICIPANTS:
+            return participants.hashCode();
+        default:
+            throw new IllegalArgumentException("Unknown call field " + field);
+        }
+    }
+
+    // As per List.equals, but without the iterators it creates; the lists of a call are all array lists
+    private static boolean sameElements(@Nonnull final List<?> list, @Nonnull final List<?> otherList) {
+        final int size = list.size();
+        if (size != otherList.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!Objects.equals(list.get(i), otherList.get(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Nonnull
@@ -192,56 +396,63 @@ public class Call {
     }
 
     /**
-     * Determines the id, if any, of the active handset. Note, if two or more handsets are active, one of them is
-     * selected in a nondeterministic manner.
+     * @param featureType the type of feature
+     * @return the features of the call of that type
+     */
+    @Nonnull
+    public List<CallFeature> getFeatures(@Nonnull final FeatureType featureType) {
+        return featureIndex.getFeatures(featureType);
+    }
+
+    /**
+     * @param featureType the type of feature
+     * @return the features of the call of that type that are enabled, i.e. are {@link CallFeatureBoolean boolean}
+     *         features that are switched on
+     */
+    @Nonnull
+    public List<CallFeature> getEnabledFeatures(@Nonnull final FeatureType featureType) {
+        return featureIndex.getEnabledFeatures(featureType);
+    }
+
+    /**
+     * @param featureType the type of feature
+     * @return {@code true} if the call has an enabled feature of that type, otherwise {@code false}
+     */
+    public boolean hasEnabledFeature(@Nonnull final FeatureType featureType) {
+        return featureIndex.hasEnabledFeature(featureType);
+    }
+
+    /**
+     * Determines the id, if any, of the active handset. Note, if two or more handsets are active, the first is
+     * selected.
      * 
      * @return the id of an active handset
      */
     @Nonnull
     public Optional<FeatureId> getActiveHandset() {
-        return getFeatures().stream()
-                .filter(feature -> feature instanceof CallFeatureBoolean)
-                .map(feature -> (CallFeatureBoolean) feature)
-                .filter(feature -> {
-                    final Optional<FeatureType> type = feature.getType();
-                    return type.isPresent() && type.get() == FeatureType.HANDSET && feature.isEnabled().orElse(false);
-                })
-                .findAny()
-                .flatMap(Feature::getId);
+        return featureIndex.getActiveHandset();
     }
 
     /**
-     * Determines the id, if any, of the active headset. Note, if two or more headsets are active, one of them is
-     * selected in a nondeterministic manner.
+     * Determines the id, if any, of the active headset. Note, if two or more headsets are active, the first is
+     * selected.
      *
      * @return the id of an active handset
      */
     @Nonnull
     public Optional<FeatureId> getActiveHeadset() {
-        return getFeatures().stream()
-                .filter(feature -> feature instanceof CallFeatureBoolean)
-                .map(feature -> (CallFeatureBoolean) feature)
-                .filter(feature -> {
-                    final Optional<FeatureType> type = feature.getType();
-                    return type.isPresent() && type.get() == FeatureType.HEADSET && feature.isEnabled().orElse(false);
-                })
-                .findAny()
-                .flatMap(Feature::getId);
+        return featureIndex.getActiveHeadset();
     }
 
     /**
-     * Determines the channel, if any, of the active speaker. Note, if two or more speakers are active, one of them is
-     * selected in a nondeterministic manner.
+     * Determines the channel, if any, of the active speaker. Note, if two or more speakers are active, the first is
+     * selected.
      * 
      * @return the id of an active speaker
      */
     @Nonnull
     public Optional<Long> getActiveSpeakerChannel() {
-        return getFeatures().stream()
-                .filter(feature -> feature instanceof CallFeatureSpeakerChannel)
-                .map(feature -> (CallFeatureSpeakerChannel) feature)
-                .findAny()
-                .flatMap(CallFeatureSpeakerChannel::getChannel);
+        return featureIndex.getActiveSpeakerChannel();
     }
 
     /**
@@ -251,15 +462,7 @@ public class Call {
      */
     @Nonnull
     public Optional<Boolean> isPrivate() {
-        return getFeatures().stream()
-                .filter(feature->feature instanceof CallFeatureBoolean)
-                .map(feature->(CallFeatureBoolean)feature)
-                .filter(feature -> {
-                    final Optional<FeatureType> type = feature.getType();
-                    return type.isPresent() && type.get() == FeatureType.PRIVACY && feature.isEnabled().isPresent();
-                })
-                .findAny()
-                .flatMap(CallFeatureBoolean::isEnabled);
+        return featureIndex.isPrivate();
     }
 
     /**
@@ -299,6 +502,9 @@ public class Call {
         @Nonnull private final List<RequestAction> actions = new ArrayList<>();
         @Nonnull private final List<CallFeature> features = new ArrayList<>();
         @Nonnull private final List<Participant> participants = new ArrayList<>();
+        @Nonnull private Set<CallField> loadedFields = CallField.ALL;
+        private boolean delta;
+        @Nonnull private CanonicalPool canonicalPool = CanonicalPool.NONE;
 
         private Builder() {
         }
@@ -310,28 +516,28 @@ public class Call {
 
         @Nonnull
         public Call build() {
-            if (callId == null) {
+            if (callId == null && loadedFields.contains(CallField.ID)) {
                 throw new IllegalStateException("The call id has not been set");
             }
-            if (site == null) {
+            if (site == null && loadedFields.contains(CallField.SITE)) {
                 throw new IllegalStateException("The call site has not been set");
             }
-            if (profileId == null) {
+            if (profileId == null && loadedFields.contains(CallField.PROFILE_ID)) {
                 throw new IllegalStateException("The profile id has not been set");
             }
-            if (interestId == null) {
+            if (interestId == null && loadedFields.contains(CallField.INTEREST_ID)) {
                 throw new IllegalStateException("The interest id has not been set");
             }
-            if (state == null) {
+            if (state == null && loadedFields.contains(CallField.STATE)) {
                 throw new IllegalStateException("The call state has not been set");
             }
-            if (direction == null) {
+            if (direction == null && loadedFields.contains(CallField.DIRECTION)) {
                 throw new IllegalStateException("The call direction has not been set");
             }
-            if (startTime == null) {
+            if (startTime == null && loadedFields.contains(CallField.START_TIME)) {
                 throw new IllegalStateException("The call start time has not been set");
             }
-            if (duration == null) {
+            if (duration == null && loadedFields.contains(CallField.DURATION)) {
                 throw new IllegalStateException("The call duration has not been set");
             }
 
@@ -340,33 +546,161 @@ public class Call {
 
         @Nonnull
         public Call build(@Nonnull final List<String> errors) {
-            if (callId == null) {
+            if (!ParseDiagnostics.isValidating(errors)) {
+                return new Call(this);
+            }
+            if (callId == null && loadedFields.contains(CallField.ID)) {
                 errors.add("Invalid call status; missing call id is mandatory");
             }
-            if (site == null) {
+            if (site == null && loadedFields.contains(CallField.SITE)) {
                 errors.add("Invalid call status; missing call site is mandatory");
             }
-            if (profileId == null) {
+            if (profileId == null && loadedFields.contains(CallField.PROFILE_ID)) {
                 errors.add("Invalid call status; missing profile id is mandatory");
             }
-            if (interestId == null) {
+            if (interestId == null && loadedFields.contains(CallField.INTEREST_ID)) {
                 errors.add("Invalid call status; missing interest id is mandatory");
             }
-            if (state == null) {
+            if (state == null && loadedFields.contains(CallField.STATE)) {
                 errors.add("Invalid call status; missing call state is mandatory");
             }
-            if (direction == null) {
+            if (direction == null && loadedFields.contains(CallField.DIRECTION)) {
                 errors.add("Invalid call status; missing call direction is mandatory");
             }
-            if (startTime == null) {
+            if (startTime == null && loadedFields.contains(CallField.START_TIME)) {
                 errors.add("Invalid call status; missing call start time is mandatory");
             }
-            if (duration == null) {
+            if (duration == null && loadedFields.contains(CallField.DURATION)) {
                 errors.add("Invalid call status; missing call duration is mandatory");
             }
             return new Call(this);
         }
 
+        /**
+         * Indicates that only some fields of the call have been loaded; any mandatory field that was not loaded is not
+         * required to be set.
+         *
+         * @param loadedFields the fields that have been loaded
+         * @return this builder
+         */
+        @Nonnull
+        public Builder setLoadedFields(@Nonnull final Set<CallField> loadedFields) {
+            this.loadedFields = loadedFields.size() == CallField.ALL.size()
+                    ? CallField.ALL
+                    : Collections.unmodifiableSet(loadedFields.isEmpty() ? EnumSet.noneOf(CallField.class) : EnumSet.copyOf(loadedFields));
+            return this;
+        }
+
+        /**
+         * Indicates that the call is a delta, carrying only the fields that have changed; see {@link Call#isDelta()}.
+         * The fields of the delta should also be set as the loaded fields.
+         *
+         * @param delta {@code true} if the call is a delta
+         * @return this builder
+         */
+        @Nonnull
+        public Builder setDelta(final boolean delta) {
+            this.delta = delta;
+            return this;
+        }
+
+        /**
+         * Copies fields of a call to this builder, replacing any value already set for those fields; the loaded fields
+         * of this builder are unchanged.
+         *
+         * @param call   the call from which to copy
+         * @param fields the fields to copy
+         * @return this builder
+         */
+        @Nonnull
+        public Builder copyFields(@Nonnull final Call call, @Nonnull final Set<CallField> fields) {
+            for (final CallField field : fields) {
+                copyField(call, field);
+            }
+            return this;
+        }
+
+        private void copyField(@Nonnull final Call call, @Nonnull final CallField field) {
+            switch (field) {
+            case ID:
+                callId = call.callId;
+                break;
+            case CONFERENCE_ID:
+                conferenceId = call.conferenceId;
+                break;
+            case SITE:
+                site = call.site;
+                break;
+            case PROFILE_ID:
+                profileId = call.profileId;
+                break;
+            case USER_ID:
+                userId = call.userId;
+                break;
+            case INTEREST_ID:
+                interestId = call.interestId;
+                break;
+            case CHANGED:
+                changed = call.changed;
+                break;
+            case STATE:
+                state = call.state;
+                break;
+            case DIRECTION:
+                direction = call.direction;
+                break;
+            case CALLER:
+                callerNumber = call.callerNumber;
+                callerName = call.callerName;
+                replace(callerE164Numbers, call.callerE164Numbers);
+                break;
+            case CALLED:
+                calledNumber = call.calledNumber;
+                calledName = call.calledName;
+                calledDestination = call.calledDestination;
+                replace(calledE164Numbers, call.calledE164Numbers);
+                break;
+            case ORIGINATOR_REFERENCES:
+                replace(originatorReferences, call.originatorReferences);
+                break;
+            case START_TIME:
+                startTime = call.startTime;
+                break;
+            case DURATION:
+                duration = call.duration;
+                break;
+            case ACTIONS:
+                replace(actions, call.actions);
+                break;
+            case FEATURES:
+                replace(features, call.features);
+                break;
+            case PARTICIPANTS:
+                replace(participants, call.participants);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown call field " + field);
+            }
+        }
+
+        private static <T> void replace(@Nonnull final List<T> values, @Nonnull final List<T> newValues) {
+            values.clear();
+            values.addAll(newValues);
+        }
+
+        /**
+         * Sets the pool from which the ids, phone numbers, site and names of the call are taken when it is built, so
+         * that equal values are shared between calls.
+         *
+         * @param canonicalPool the pool to use
+         * @return this builder
+         */
+        @Nonnull
+        public Builder setCanonicalPool(@Nonnull final CanonicalPool canonicalPool) {
+            this.canonicalPool = canonicalPool;
+            return this;
+        }
+
         @Nonnull
         public Builder setId(@Nonnull final CallId callId) {
             this.callId = callId;
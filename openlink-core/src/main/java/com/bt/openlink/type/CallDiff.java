@@ -0,0 +1,303 @@
+package com.bt.openlink.type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The changes between two versions of a call: the fields whose values differ, the participants, features and actions
+ * that were added, removed or updated, and the {@link Changed} value that best describes them, as would be published
+ * in the {@code changed} element of the later version.
+ * <p>
+ * Only the fields loaded in both versions are compared, so a {@link Call#isDelta() delta} is compared only on the
+ * fields it carries. Participants are matched by JID and features by id, so that, e.g., a participant whose duration
+ * has increased is reported as updated rather than as removed and added. Comparing two versions with the same values
+ * returns {@link #NONE} without allocating, so publishers can cheaply suppress a call status that would change nothing.
+ */
+public final class CallDiff {
+
+    /**
+     * The changes between two versions of a call with the same values.
+     */
+    public static final CallDiff NONE = new CallDiff();
+
+    // values() clones the constants on every call
+    private static final CallField[] CALL_FIELDS = CallField.values();
+
+    @Nonnull private final Set<CallField> changedFields;
+    @Nullable private final Changed changed;
+    @Nonnull private final List<Participant> addedParticipants;
+    @Nonnull private final List<Participant> removedParticipants;
+    @Nonnull private final List<Participant> updatedParticipants;
+    @Nonnull private final List<CallFeature> addedFeatures;
+    @Nonnull private final List<CallFeature> removedFeatures;
+    @Nonnull private final List<CallFeature> updatedFeatures;
+    @Nonnull private final List<RequestAction> addedActions;
+    @Nonnull private final List<RequestAction> removedActions;
+
+    private CallDiff() {
+        this.changedFields = Collections.unmodifiableSet(EnumSet.noneOf(CallField.class));
+        this.changed = null;
+        this.addedParticipants = Collections.emptyList();
+        this.removedParticipants = Collections.emptyList();
+        this.updatedParticipants = Collections.emptyList();
+        this.addedFeatures = Collections.emptyList();
+        this.removedFeatures = Collections.emptyList();
+        this.updatedFeatures = Collections.emptyList();
+        this.addedActions = Collections.emptyList();
+        this.removedActions = Collections.emptyList();
+    }
+
+    private CallDiff(@Nonnull final Call previousCall, @Nonnull final Call call, @Nonnull final Set<CallField> changedFields) {
+        this.changedFields = Collections.unmodifiableSet(changedFields);
+        final List<Participant> previousParticipants = changedFields.contains(CallField.PARTICIPANTS) ? previousCall.getParticipants() : Collections.emptyList();
+        final List<Participant> participants = changedFields.contains(CallField.PARTICIPANTS) ? call.getParticipants() : Collections.emptyList();
+        this.addedParticipants = added(previousParticipants, participants, Participant::getJID);
+        this.removedParticipants = added(participants, previousParticipants, Participant::getJID);
+        this.updatedParticipants = updated(previousParticipants, participants, Participant::getJID);
+        final List<CallFeature> previousFeatures = changedFields.contains(CallField.FEATURES) ? previousCall.getFeatures() : Collections.emptyList();
+        final List<CallFeature> features = changedFields.contains(CallField.FEATURES) ? call.getFeatures() : Collections.emptyList();
+        this.addedFeatures = added(previousFeatures, features, Feature::getId);
+        this.removedFeatures = added(features, previousFeatures, Feature::getId);
+        this.updatedFeatures = updated(previousFeatures, features, Feature::getId);
+        final List<RequestAction> previousActions = changedFields.contains(CallField.ACTIONS) ? previousCall.getActions() : Collections.emptyList();
+        final List<RequestAction> actions = changedFields.contains(CallField.ACTIONS) ? call.getActions() : Collections.emptyList();
+        this.addedActions = added(previousActions, actions, Optional::of);
+        this.removedActions = added(actions, previousActions, Optional::of);
+        this.changed = deriveChanged();
+    }
+
+    /**
+     * Compares two versions of a call.
+     *
+     * @param previousCall the earlier version of the call
+     * @param call         the later version of the call
+     * @return the changes between the versions, or {@link #NONE} if there are none
+     */
+    @Nonnull
+    public static CallDiff between(@Nonnull final Call previousCall, @Nonnull final Call call) {
+        if (previousCall == call) {
+            return NONE;
+        }
+        Set<CallField> changedFields = null;
+        for (final CallField field : CALL_FIELDS) {
+            if (previousCall.isLoaded(field) && call.isLoaded(field) && !call.hasSameValue(field, previousCall)) {
+                if (changedFields == null) {
+                    changedFields = EnumSet.noneOf(CallField.class);
+                }
+                changedFields.add(field);
+            }
+        }
+        return changedFields == null ? NONE : new CallDiff(previousCall, call, changedFields);
+    }
+
+    /**
+     * @return {@code true} if nothing has changed, otherwise {@code false}
+     */
+    public boolean isEmpty() {
+        return changedFields.isEmpty();
+    }
+
+    /**
+     * @return the fields whose values differ between the two versions
+     */
+    @Nonnull
+    public Set<CallField> getChangedFields() {
+        return changedFields;
+    }
+
+    /**
+     * @param field a field of a call
+     * @return {@code true} if the field differs between the two versions, otherwise {@code false}
+     */
+    public boolean hasChanged(@Nonnull final CallField field) {
+        return changedFields.contains(field);
+    }
+
+    /**
+     * Derives what has changed from the changes, selecting the highest priority value as per {@link Changed#or}.
+     * Changes to fields that have no corresponding value, such as the duration, are ignored.
+     *
+     * @return the highest priority value, if any
+     */
+    @Nonnull
+    public Optional<Changed> getChanged() {
+        return Optional.ofNullable(changed);
+    }
+
+    /**
+     * @return the participants of the later version whose JIDs are not in the earlier version
+     */
+    @Nonnull
+    public List<Participant> getAddedParticipants() {
+        return addedParticipants;
+    }
+
+    /**
+     * @return the participants of the earlier version whose JIDs are not in the later version
+     */
+    @Nonnull
+    public List<Participant> getRemovedParticipants() {
+        return removedParticipants;
+    }
+
+    /**
+     * @return the participants of the later version that differ from the participant with the same JID in the earlier
+     *         version
+     */
+    @Nonnull
+    public List<Participant> getUpdatedParticipants() {
+        return updatedParticipants;
+    }
+
+    /**
+     * @return the features of the later version whose ids are not in the earlier version
+     */
+    @Nonnull
+    public List<CallFeature> getAddedFeatures() {
+        return addedFeatures;
+    }
+
+    /**
+     * @return the features of the earlier version whose ids are not in the later version
+     */
+    @Nonnull
+    public List<CallFeature> getRemovedFeatures() {
+        return removedFeatures;
+    }
+
+    /**
+     * @return the features of the later version that differ from the feature with the same id in the earlier version
+     */
+    @Nonnull
+    public List<CallFeature> getUpdatedFeatures() {
+        return updatedFeatures;
+    }
+
+    /**
+     * @return the actions of the later version that are not in the earlier version
+     */
+    @Nonnull
+    public List<RequestAction> getAddedActions() {
+        return addedActions;
+    }
+
+    /**
+     * @return the actions of the earlier version that are not in the later version
+     */
+    @Nonnull
+    public List<RequestAction> getRemovedActions() {
+        return removedActions;
+    }
+
+    @Override
+    public String toString() {
+        return "CallDiff[" +
+                "changedFields=" + changedFields +
+                ", changed=" + changed +
+                ']';
+    }
+
+    @Nullable
+    private Changed deriveChanged() {
+        Changed derivedChanged = null;
+        if (changedFields.contains(CallField.STATE)) {
+            derivedChanged = Changed.STATE.or(derivedChanged);
+        }
+        if (changedFields.contains(CallField.CALLER)) {
+            derivedChanged = Changed.CALLER.or(derivedChanged);
+        }
+        if (changedFields.contains(CallField.CALLED)) {
+            derivedChanged = Changed.CALLED.or(derivedChanged);
+        }
+        if (changedFields.contains(CallField.PARTICIPANTS)) {
+            derivedChanged = Changed.PARTICIPANT.or(derivedChanged);
+        }
+        if (changedFields.contains(CallField.ACTIONS)) {
+            derivedChanged = Changed.ACTIONS.or(derivedChanged);
+        }
+        derivedChanged = deriveChanged(derivedChanged, addedFeatures);
+        derivedChanged = deriveChanged(derivedChanged, removedFeatures);
+        return deriveChanged(derivedChanged, updatedFeatures);
+    }
+
+    @Nullable
+    private static Changed deriveChanged(@Nullable final Changed derivedChanged, @Nonnull final List<CallFeature> changedFeatures) {
+        Changed featuresChanged = derivedChanged;
+        for (final CallFeature feature : changedFeatures) {
+            final Changed featureChanged = feature.getType().map(CallDiff::changedFor).orElse(null);
+            if (featureChanged != null) {
+                featuresChanged = featureChanged.or(featuresChanged);
+            }
+        }
+        return featuresChanged;
+    }
+
+    @Nullable
+    private static Changed changedFor(@Nonnull final FeatureType featureType) {
+        switch (featureType) {
+        case PRIVACY:
+            return Changed.PRIVACY;
+        case VOICE_MESSAGE:
+        case VOICE_MESSAGE_PLAYLIST:
+        case VOICE_RECORDER:
+            return Changed.VOICE_MESSAGE;
+        case MICROPHONE_GAIN:
+        case MICROPHONE_MUTE:
+        case SPEAKER_CHANNEL:
+            return Changed.MICROPHONE;
+        case HANDSET:
+        case HEADSET:
+            return Changed.HANDSET;
+        default:
+            return null;
+        }
+    }
+
+    // The values of the later list with no value in the earlier list with the same key or, if they have no key, equal
+    @Nonnull
+    private static <T, K> List<T> added(@Nonnull final List<T> earlierValues, @Nonnull final List<T> laterValues, @Nonnull final Function<T, Optional<K>> keyFunction) {
+        List<T> addedValues = null;
+        for (final T value : laterValues) {
+            if (!containsMatch(earlierValues, value, keyFunction)) {
+                if (addedValues == null) {
+                    addedValues = new ArrayList<>();
+                }
+                addedValues.add(value);
+            }
+        }
+        return addedValues == null ? Collections.emptyList() : Collections.unmodifiableList(addedValues);
+    }
+
+    // The values of the later list that differ from the value with the same key in the earlier list
+    @Nonnull
+    private static <T, K> List<T> updated(@Nonnull final List<T> earlierValues, @Nonnull final List<T> laterValues, @Nonnull final Function<T, Optional<K>> keyFunction) {
+        List<T> updatedValues = null;
+        for (final T value : laterValues) {
+            if (keyFunction.apply(value).isPresent() && !earlierValues.contains(value) && containsMatch(earlierValues, value, keyFunction)) {
+                if (updatedValues == null) {
+                    updatedValues = new ArrayList<>();
+                }
+                updatedValues.add(value);
+            }
+        }
+        return updatedValues == null ? Collections.emptyList() : Collections.unmodifiableList(updatedValues);
+    }
+
+    private static <T, K> boolean containsMatch(@Nonnull final List<T> values, @Nonnull final T value, @Nonnull final Function<T, Optional<K>> keyFunction) {
+        final Optional<K> key = keyFunction.apply(value);
+        for (final T otherValue : values) {
+            if (key.isPresent() ? key.equals(keyFunction.apply(otherValue)) : value.equals(otherValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -4,11 +4,15 @@ import java.util.Optional;
 
 import javax.annotation.Nonnull;
 
+import com.bt.openlink.codec.SymbolTable;
+
 public enum CallDirection {
 
     OUTGOING("Outgoing"),
     INCOMING("Incoming");
 
+    private static final SymbolTable<CallDirection> SYMBOLS = SymbolTable.caseInsensitive(values(), CallDirection::getLabel);
+
     @Nonnull private final String label;
 
     CallDirection(@Nonnull final String label) {
@@ -21,12 +25,20 @@ public enum CallDirection {
     }
 
     public static Optional<CallDirection> from(final String value) {
-        for (CallDirection callDirection : CallDirection.values()) {
-            if (callDirection.label.equalsIgnoreCase(value)) {
-                return Optional.of(callDirection);
-            }
-        }
-        return Optional.empty();
+        return SYMBOLS.lookup(value);
+    }
+
+    /**
+     * Looks up a value without first creating a {@link String}.
+     *
+     * @param chars the characters containing the value
+     * @param offset the offset of the value in the characters
+     * @param length the length of the value
+     * @return the matching value, if any
+     */
+    @Nonnull
+    public static Optional<CallDirection> from(@Nonnull final char[] chars, final int offset, final int length) {
+        return SYMBOLS.lookup(chars, offset, length);
     }
 
 }
@@ -1,11 +1,14 @@
 package com.bt.openlink.type;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
+
 public class CallFeatureBoolean extends CallFeature {
     @Nullable private final Boolean enabled;
 
@@ -19,6 +22,16 @@ public class CallFeatureBoolean extends CallFeature {
         return Optional.ofNullable(enabled);
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        return super.equals(o) && Objects.equals(enabled, ((CallFeatureBoolean) o).enabled);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(enabled);
+    }
+
     public static final class Builder extends CallFeature.AbstractCallFeatureBuilder<Builder> {
 
         @Nullable private Boolean enabled = null;
@@ -58,6 +71,9 @@ public class CallFeatureBoolean extends CallFeature {
 
         @Override
         public void validate(final List<String> errors) {
+            if (!ParseDiagnostics.isValidating(errors)) {
+                return;
+            }
             super.validate(errors);
             if (enabled == null ) {
                 errors.add("Invalid feature; the enabled flag must be set");
@@ -1,11 +1,14 @@
 package com.bt.openlink.type;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
+
 public class CallFeatureDeviceKey extends CallFeature {
     @Nullable private final DeviceKey deviceKey;
 
@@ -19,6 +22,16 @@ public class CallFeatureDeviceKey extends CallFeature {
         return Optional.ofNullable(deviceKey);
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        return super.equals(o) && Objects.equals(deviceKey, ((CallFeatureDeviceKey) o).deviceKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(deviceKey);
+    }
+
     public static final class Builder extends AbstractCallFeatureBuilder<Builder> {
 
         @Nullable private DeviceKey deviceKey = null;
@@ -58,6 +71,9 @@ public class CallFeatureDeviceKey extends CallFeature {
 
         @Override
         public void validate(final List<String> errors) {
+            if (!ParseDiagnostics.isValidating(errors)) {
+                return;
+            }
             super.validate(errors);
             if (deviceKey == null) {
                 errors.add("Invalid feature; the device key must be set");
@@ -0,0 +1,118 @@
+package com.bt.openlink.type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The features of a call indexed by type and kind, built once when the call is built so that the feature queries of
+ * {@link Call} need neither scan the features nor allocate.
+ */
+final class CallFeatureIndex {
+
+    static final CallFeatureIndex EMPTY = new CallFeatureIndex(Collections.emptyList());
+
+    // A bit per FeatureType, by ordinal - there are fewer than 64 - set if the call has a feature of that type
+    private final long types;
+    // A bit per FeatureType, by ordinal, set if the call has an enabled feature of that type
+    private final long enabledTypes;
+    @Nonnull private final Map<FeatureType, List<CallFeature>> featuresByType = new EnumMap<>(FeatureType.class);
+    @Nonnull private final Map<FeatureType, List<CallFeature>> enabledFeaturesByType = new EnumMap<>(FeatureType.class);
+    @Nonnull private final Optional<FeatureId> activeHandset;
+    @Nonnull private final Optional<FeatureId> activeHeadset;
+    @Nonnull private final Optional<Long> activeSpeakerChannel;
+    @Nonnull private final Optional<Boolean> privacy;
+
+    private CallFeatureIndex(@Nonnull final List<CallFeature> features) {
+        long typesFound = 0;
+        long enabledTypesFound = 0;
+        CallFeatureBoolean handset = null;
+        CallFeatureBoolean headset = null;
+        CallFeatureSpeakerChannel speaker = null;
+        CallFeatureBoolean privacyFeature = null;
+        for (final CallFeature feature : features) {
+            if (speaker == null && feature instanceof CallFeatureSpeakerChannel) {
+                speaker = (CallFeatureSpeakerChannel) feature;
+            }
+            final FeatureType type = feature.getType().orElse(null);
+            if (type == null) {
+                continue;
+            }
+            typesFound |= 1L << type.ordinal();
+            featuresByType.computeIfAbsent(type, t -> new ArrayList<>()).add(feature);
+            if (!(feature instanceof CallFeatureBoolean)) {
+                continue;
+            }
+            final CallFeatureBoolean booleanFeature = (CallFeatureBoolean) feature;
+            final Boolean enabled = booleanFeature.isEnabled().orElse(null);
+            if (type == FeatureType.PRIVACY && privacyFeature == null && enabled != null) {
+                privacyFeature = booleanFeature;
+            }
+            if (Boolean.TRUE.equals(enabled)) {
+                enabledTypesFound |= 1L << type.ordinal();
+                enabledFeaturesByType.computeIfAbsent(type, t -> new ArrayList<>()).add(feature);
+                if (type == FeatureType.HANDSET && handset == null) {
+                    handset = booleanFeature;
+                } else if (type == FeatureType.HEADSET && headset == null) {
+                    headset = booleanFeature;
+                }
+            }
+        }
+        featuresByType.replaceAll((type, featuresOfType) -> Collections.unmodifiableList(featuresOfType));
+        enabledFeaturesByType.replaceAll((type, featuresOfType) -> Collections.unmodifiableList(featuresOfType));
+        this.types = typesFound;
+        this.enabledTypes = enabledTypesFound;
+        this.activeHandset = handset == null ? Optional.empty() : handset.getId();
+        this.activeHeadset = headset == null ? Optional.empty() : headset.getId();
+        this.activeSpeakerChannel = speaker == null ? Optional.empty() : speaker.getChannel();
+        this.privacy = privacyFeature == null ? Optional.empty() : privacyFeature.isEnabled();
+    }
+
+    @Nonnull
+    static CallFeatureIndex of(@Nonnull final List<CallFeature> features) {
+        return features.isEmpty() ? EMPTY : new CallFeatureIndex(features);
+    }
+
+    boolean hasFeature(@Nonnull final FeatureType type) {
+        return (types & 1L << type.ordinal()) != 0;
+    }
+
+    boolean hasEnabledFeature(@Nonnull final FeatureType type) {
+        return (enabledTypes & 1L << type.ordinal()) != 0;
+    }
+
+    @Nonnull
+    List<CallFeature> getFeatures(@Nonnull final FeatureType type) {
+        return hasFeature(type) ? featuresByType.get(type) : Collections.emptyList();
+    }
+
+    @Nonnull
+    List<CallFeature> getEnabledFeatures(@Nonnull final FeatureType type) {
+        return hasEnabledFeature(type) ? enabledFeaturesByType.get(type) : Collections.emptyList();
+    }
+
+    @Nonnull
+    Optional<FeatureId> getActiveHandset() {
+        return activeHandset;
+    }
+
+    @Nonnull
+    Optional<FeatureId> getActiveHeadset() {
+        return activeHeadset;
+    }
+
+    @Nonnull
+    Optional<Long> getActiveSpeakerChannel() {
+        return activeSpeakerChannel;
+    }
+
+    @Nonnull
+    Optional<Boolean> isPrivate() {
+        return privacy;
+    }
+}
@@ -1,11 +1,14 @@
 package com.bt.openlink.type;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
+
 public final class CallFeatureSpeakerChannel extends CallFeature {
 
     @Nullable private final Long channel;
@@ -34,6 +37,22 @@ public final class CallFeatureSpeakerChannel extends CallFeature {
         return Optional.ofNullable(muteRequested);
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        final CallFeatureSpeakerChannel that = (CallFeatureSpeakerChannel) o;
+        return Objects.equals(channel, that.channel)
+                && Objects.equals(microphoneActive, that.microphoneActive)
+                && Objects.equals(muteRequested, that.muteRequested);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), channel, microphoneActive, muteRequested);
+    }
+
     public static final class Builder extends AbstractCallFeatureBuilder<Builder> {
 
         @Nullable private Long channel;
@@ -64,7 +83,7 @@ public final class CallFeatureSpeakerChannel extends CallFeature {
             setType(FeatureType.SPEAKER_CHANNEL);
             setLabel("ignored");
             super.validate(errors);
-            if (channel == null) {
+            if (channel == null && ParseDiagnostics.isValidating(errors)) {
                 errors.add("Invalid speaker channel feature; the speaker channel number has not been set");
             }
             return new CallFeatureSpeakerChannel(this);
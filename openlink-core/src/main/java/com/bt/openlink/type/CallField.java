@@ -0,0 +1,111 @@
+package com.bt.openlink.type;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.bt.openlink.codec.SymbolTable;
+
+/**
+ * The fields of a {@link Call}. A set of fields can be passed to a decoder so that only those fields are decoded; the
+ * remainder of each {@code <call>} element is skipped, and the resulting call reports the skipped fields as not loaded
+ * - see {@link Call#isLoaded(CallField)}.
+ */
+public enum CallField {
+
+    ID("id"),
+    CONFERENCE_ID("conference"),
+    SITE("site"),
+    PROFILE_ID("profile"),
+    USER_ID("user"),
+    INTEREST_ID("interest"),
+    CHANGED("changed"),
+    STATE("state"),
+    DIRECTION("direction"),
+    /**
+     * The caller number, name and E.164 numbers
+     */
+    CALLER("caller"),
+    /**
+     * The called number, name, destination and E.164 numbers
+     */
+    CALLED("called"),
+    ORIGINATOR_REFERENCES("originator-ref"),
+    START_TIME("start"),
+    DURATION("duration"),
+    ACTIONS("actions"),
+    FEATURES("features"),
+    PARTICIPANTS("participants");
+
+    /**
+     * Every field of a call.
+     */
+    public static final Set<CallField> ALL = Collections.unmodifiableSet(EnumSet.allOf(CallField.class));
+
+    /**
+     * The fields needed to track the state of a call; its id, state, direction and what has changed.
+     */
+    public static final Set<CallField> STATE_ONLY = Collections.unmodifiableSet(EnumSet.of(ID, CHANGED, STATE, DIRECTION));
+
+    private static final SymbolTable<CallField> SYMBOLS = SymbolTable.caseSensitive(values(), CallField::getElementName);
+
+    @Nonnull private final String elementName;
+
+    CallField(@Nonnull final String elementName) {
+        this.elementName = elementName;
+    }
+
+    /**
+     * @return the name of the child element of a {@code <call>} element that holds the field
+     */
+    @Nonnull
+    public String getElementName() {
+        return elementName;
+    }
+
+    @Nonnull
+    public static Optional<CallField> fromElementName(@Nullable final String elementName) {
+        return SYMBOLS.lookup(elementName);
+    }
+
+    /**
+     * Lists a set of fields by the names of their elements, for example as the {@code fields} attribute of a
+     * {@link Call#isDelta() delta} call.
+     *
+     * @param fields the fields
+     * @return the element names of the fields, in the order of the fields, separated by spaces
+     */
+    @Nonnull
+    public static String toElementNames(@Nonnull final Set<CallField> fields) {
+        final StringBuilder elementNames = new StringBuilder();
+        for (final CallField field : values()) {
+            if (fields.contains(field)) {
+                if (elementNames.length() > 0) {
+                    elementNames.append(' ');
+                }
+                elementNames.append(field.elementName);
+            }
+        }
+        return elementNames.toString();
+    }
+
+    /**
+     * Reads a list of fields written by {@link #toElementNames(Set)}; unknown names are ignored.
+     *
+     * @param elementNames the element names of the fields, separated by whitespace
+     * @return the fields
+     */
+    @Nonnull
+    public static Set<CallField> fromElementNames(@Nonnull final String elementNames) {
+        final Set<CallField> fields = EnumSet.noneOf(CallField.class);
+        for (final String elementName : elementNames.trim().split("\\s+")) {
+            fromElementName(elementName).ifPresent(fields::add);
+        }
+        return fields;
+    }
+
+}
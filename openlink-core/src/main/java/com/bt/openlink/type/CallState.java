@@ -5,39 +5,45 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.codec.SymbolTable;
+
 /**
  * List of recommended call state names.<br>
  * Reference: Openlink Specification xep-xxx-openlink_15-12, section 4.7.2, Table 3.
  */
 public enum CallState {
 
-    CALL_ORIGINATED("CallOriginated", false, true),
-    CALL_DELIVERED("CallDelivered", false, true),
-    CALL_ESTABLISHED("CallEstablished", true, true),
-    CALL_FAILED("CallFailed", false, false),
-    CALL_CONFERENCED("CallConferenced", true, true),
-    CALL_BUSY("CallBusy", false, false),
-    CALL_HELD("CallHeld", false, false),
-    CALL_HELD_ELSEWHERE("CallHeldElsewhere", false, false),
-    CALL_TRANSFERRING("CallTransferring", true, true),
-    CALL_TRANSFERRED("CallTransferred", true, true),
+    CALL_ORIGINATED("CallOriginated", false, true, false),
+    CALL_DELIVERED("CallDelivered", false, true, false),
+    CALL_ESTABLISHED("CallEstablished", true, true, false),
+    CALL_FAILED("CallFailed", false, false, true),
+    CALL_CONFERENCED("CallConferenced", true, true, false),
+    CALL_BUSY("CallBusy", false, false, true),
+    CALL_HELD("CallHeld", false, false, false),
+    CALL_HELD_ELSEWHERE("CallHeldElsewhere", false, false, false),
+    CALL_TRANSFERRING("CallTransferring", true, true, false),
+    CALL_TRANSFERRED("CallTransferred", true, true, false),
     /**
      * TransferCompleted is undocumented, currently only used by ITSCall, and should not be used. Eventually the only
      * use of it will be removed.
      */
-    @Deprecated TRANSFER_COMPLETED("TransferCompleted", false, false),
-    CONNECTION_BUSY("ConnectionBusy", false, false),
-    CONNECTION_CLEARED("ConnectionCleared", false, false),
-    CALL_MISSED("CallMissed", false, false);
+    @Deprecated TRANSFER_COMPLETED("TransferCompleted", false, false, true),
+    CONNECTION_BUSY("ConnectionBusy", false, false, false),
+    CONNECTION_CLEARED("ConnectionCleared", false, false, true),
+    CALL_MISSED("CallMissed", false, false, true);
+
+    private static final SymbolTable<CallState> SYMBOLS = SymbolTable.caseInsensitive(values(), CallState::getLabel);
 
     @Nonnull private final String label;
     private final boolean inboundCallParticipant;
     private final boolean outboundCallParticipant;
+    private final boolean terminal;
 
-    CallState(@Nonnull final String label, final boolean inboundCallParticipant, final boolean outboundCallParticipant) {
+    CallState(@Nonnull final String label, final boolean inboundCallParticipant, final boolean outboundCallParticipant, final boolean terminal) {
         this.label = label;
         this.inboundCallParticipant = inboundCallParticipant;
         this.outboundCallParticipant = outboundCallParticipant;
+        this.terminal = terminal;
     }
 
     @Nonnull
@@ -47,12 +53,20 @@ public enum CallState {
 
     @Nonnull
     public static Optional<CallState> from(@Nullable final String value) {
-        for (final CallState callState : CallState.values()) {
-            if (callState.label.equalsIgnoreCase(value)) {
-                return Optional.of(callState);
-            }
-        }
-        return Optional.empty();
+        return SYMBOLS.lookup(value);
+    }
+
+    /**
+     * Looks up a value without first creating a {@link String}.
+     *
+     * @param chars the characters containing the value
+     * @param offset the offset of the value in the characters
+     * @param length the length of the value
+     * @return the matching value, if any
+     */
+    @Nonnull
+    public static Optional<CallState> from(@Nonnull final char[] chars, final int offset, final int length) {
+        return SYMBOLS.lookup(chars, offset, length);
     }
 
     /**
@@ -70,4 +84,13 @@ public enum CallState {
         }
     }
 
+    /**
+     * Determine if a call in this state has ended, so that no further call status will be published for it
+     *
+     * @return true if the call has ended
+     */
+    public boolean isTerminal() {
+        return terminal;
+    }
+
 }
@@ -5,6 +5,8 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.codec.SymbolTable;
+
 /**
  * List of call types.<br>
  * Reference: Openlink Specification xep-xxx-openlink_15-12, section 4.16.1.2
@@ -15,6 +17,8 @@ public enum CallType {
     OUTBOUND("out"),
     MISSED("missed");
 
+    private static final SymbolTable<CallType> SYMBOLS = SymbolTable.caseInsensitive(values(), CallType::getLabel);
+
     @Nonnull private final String label;
 
     CallType(@Nonnull final String label) {
@@ -28,12 +32,20 @@ public enum CallType {
 
     @Nonnull
     public static Optional<CallType> from(@Nullable final String value) {
-        for (final CallType featureType : CallType.values()) {
-            if (featureType.label.equalsIgnoreCase(value)) {
-                return Optional.of(featureType);
-            }
-        }
-        return Optional.empty();
+        return SYMBOLS.lookup(value);
+    }
+
+    /**
+     * Looks up a value without first creating a {@link String}.
+     *
+     * @param chars the characters containing the value
+     * @param offset the offset of the value in the characters
+     * @param length the length of the value
+     * @return the matching value, if any
+     */
+    @Nonnull
+    public static Optional<CallType> from(@Nonnull final char[] chars, final int offset, final int length) {
+        return SYMBOLS.lookup(chars, offset, length);
     }
 
 }
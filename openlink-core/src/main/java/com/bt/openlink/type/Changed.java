@@ -5,6 +5,8 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.codec.SymbolTable;
+
 /**
  * List of recommended "Changed" values.<br>
  * Reference: Openlink Specification xep-xxx-openlink_15-12, section 4.7.2<br>
@@ -26,6 +28,8 @@ public enum Changed {
     MICROPHONE("Microphone", 8),
     HANDSET("Handset", 9);
 
+    private static final SymbolTable<Changed> SYMBOLS = SymbolTable.caseInsensitive(values(), Changed::getId);
+
     @Nonnull private final String id;
     private final int priority;
 
@@ -41,12 +45,20 @@ public enum Changed {
 
     @Nonnull
     public static Optional<Changed> from(@Nullable final String value) {
-        for (final Changed featureType : Changed.values()) {
-            if (featureType.id.equalsIgnoreCase(value)) {
-                return Optional.of(featureType);
-            }
-        }
-        return Optional.empty();
+        return SYMBOLS.lookup(value);
+    }
+
+    /**
+     * Looks up a value without first creating a {@link String}.
+     *
+     * @param chars the characters containing the value
+     * @param offset the offset of the value in the characters
+     * @param length the length of the value
+     * @return the matching value, if any
+     */
+    @Nonnull
+    public static Optional<Changed> from(@Nonnull final char[] chars, final int offset, final int length) {
+        return SYMBOLS.lookup(chars, offset, length);
     }
 
     /**
@@ -5,6 +5,8 @@ import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Optional;
 
+import com.bt.openlink.ParseDiagnostics;
+
 public final class DeviceStatus {
     @Nullable private final Boolean online;
     @Nullable private final ProfileId profileId;
@@ -47,6 +49,9 @@ public final class DeviceStatus {
 
         @Nonnull
         public DeviceStatus build(final List<String> errors) {
+            if (!ParseDiagnostics.isValidating(errors)) {
+                return new DeviceStatus(this);
+            }
             if (profileId == null) {
                 errors.add("Invalid device status; missing profile is mandatory");
             }
@@ -1,11 +1,14 @@
 package com.bt.openlink.type;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
+
 public class Feature {
     @Nullable private final FeatureId featureId;
     @Nullable private final FeatureType featureType;
@@ -32,6 +35,25 @@ public class Feature {
         return Optional.ofNullable(label);
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Feature that = (Feature) o;
+        return Objects.equals(featureId, that.featureId)
+                && featureType == that.featureType
+                && Objects.equals(label, that.label);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(featureId, featureType, label);
+    }
+
     public abstract static class AbstractFeatureBuilder<B extends AbstractFeatureBuilder> {
 
         @Nullable private FeatureId featureId = null;
@@ -51,6 +73,9 @@ public class Feature {
         }
 
         public void validate(final List<String> errors) {
+            if (!ParseDiagnostics.isValidating(errors)) {
+                return;
+            }
             if (featureId == null) {
                 errors.add("Invalid feature; missing feature id is mandatory");
             }
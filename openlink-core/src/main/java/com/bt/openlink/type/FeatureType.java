@@ -5,6 +5,8 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.codec.SymbolTable;
+
 /**
  * List of recommended feature types.<br>
  * Reference: Openlink Specification xep-xxx-openlink_15-12, section 4.5.2<br>
@@ -34,6 +36,8 @@ public enum FeatureType {
     MEDIA_STREAM("MediaStream"),
     DEVICE_KEYS("DeviceKeys");
 
+    private static final SymbolTable<FeatureType> SYMBOLS = SymbolTable.caseInsensitive(values(), FeatureType::getId);
+
     @Nonnull private final String id;
 
     FeatureType(@Nonnull final String id) {
@@ -47,12 +51,20 @@ public enum FeatureType {
 
     @Nonnull
     public static Optional<FeatureType> from(@Nullable final String value) {
-        for (final FeatureType featureType : FeatureType.values()) {
-            if (featureType.id.equalsIgnoreCase(value)) {
-                return Optional.of(featureType);
-            }
-        }
-        return Optional.empty();
+        return SYMBOLS.lookup(value);
+    }
+
+    /**
+     * Looks up a value without first creating a {@link String}.
+     *
+     * @param chars the characters containing the value
+     * @param offset the offset of the value in the characters
+     * @param length the length of the value
+     * @return the matching value, if any
+     */
+    @Nonnull
+    public static Optional<FeatureType> from(@Nonnull final char[] chars, final int offset, final int length) {
+        return SYMBOLS.lookup(chars, offset, length);
     }
 
 }
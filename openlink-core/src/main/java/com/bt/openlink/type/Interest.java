@@ -6,6 +6,8 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
+
 public final class Interest {
     @Nullable private final InterestId interestId;
     @Nullable private final InterestType interestType;
@@ -83,6 +85,9 @@ public final class Interest {
 
         @Nonnull
         public Interest build(final List<String> errors) {
+            if (!ParseDiagnostics.isValidating(errors)) {
+                return new Interest(this);
+            }
             if (interestId == null) {
                 errors.add("Invalid interest; missing interest id is mandatory");
             }
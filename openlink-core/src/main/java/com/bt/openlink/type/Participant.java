@@ -3,11 +3,14 @@ package com.bt.openlink.type;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
+
 public final class Participant {
     @Nullable private final String jid;
     @Nullable private final ParticipantType participantType;
@@ -48,6 +51,27 @@ public final class Participant {
         return Optional.ofNullable(duration);
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Participant that = (Participant) o;
+        return Objects.equals(jid, that.jid)
+                && participantType == that.participantType
+                && direction == that.direction
+                && Objects.equals(startTime, that.startTime)
+                && Objects.equals(duration, that.duration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jid, participantType, direction, startTime, duration);
+    }
+
     public static final class Builder {
 
         @Nullable private String jid;
@@ -86,6 +110,9 @@ public final class Participant {
 
         @Nonnull
         public Participant build(final List<String> errors) {
+            if (!ParseDiagnostics.isValidating(errors)) {
+                return new Participant(this);
+            }
             if (jid == null) {
                 errors.add("Invalid participant; missing participation jid is mandatory");
             }
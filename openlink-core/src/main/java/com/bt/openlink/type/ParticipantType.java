@@ -5,11 +5,15 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.codec.SymbolTable;
+
 public enum ParticipantType {
 
     ACTIVE("Active"),
     INACTIVE("Inactive");
 
+    private static final SymbolTable<ParticipantType> SYMBOLS = SymbolTable.caseInsensitive(values(), ParticipantType::getId);
+
     @Nonnull private final String id;
 
     ParticipantType(@Nonnull final String id) {
@@ -23,12 +27,20 @@ public enum ParticipantType {
 
     @Nonnull
     public static Optional<ParticipantType> from(@Nullable final String value) {
-        for (final ParticipantType featureType : ParticipantType.values()) {
-            if (featureType.id.equalsIgnoreCase(value)) {
-                return Optional.of(featureType);
-            }
-        }
-        return Optional.empty();
+        return SYMBOLS.lookup(value);
+    }
+
+    /**
+     * Looks up a value without first creating a {@link String}.
+     *
+     * @param chars the characters containing the value
+     * @param offset the offset of the value in the characters
+     * @param length the length of the value
+     * @return the matching value, if any
+     */
+    @Nonnull
+    public static Optional<ParticipantType> from(@Nonnull final char[] chars, final int offset, final int length) {
+        return SYMBOLS.lookup(chars, offset, length);
     }
 
 }
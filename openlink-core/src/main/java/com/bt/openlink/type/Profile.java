@@ -7,6 +7,8 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
+
 public final class Profile {
     @Nullable private final ProfileId profileId;
     @Nullable private final Boolean isDefault;
@@ -113,6 +115,9 @@ public final class Profile {
 
         @Nonnull
         public Profile build(@Nonnull final List<String> errors) {
+            if (!ParseDiagnostics.isValidating(errors)) {
+                return new Profile(this);
+            }
             if (profileId == null) {
                 errors.add("Invalid profile; missing profile id is mandatory");
             }
@@ -4,6 +4,8 @@ import java.util.Optional;
 
 import javax.annotation.Nonnull;
 
+import com.bt.openlink.codec.SymbolTable;
+
 public enum RequestAction {
     ANSWER_CALL("AnswerCall", "Answer a ringing call", 0, 1),
     HOLD_CALL("HoldCall", "Place a call on hold", 0),
@@ -28,6 +30,8 @@ public enum RequestAction {
     CONNECT_SPEAKER("ConnectSpeaker", "Put a call on a speaker channel", 1),
     DISCONNECT_SPEAKER("DisconnectSpeaker", "Remove a call from a speaker channel", 1);
 
+    private static final SymbolTable<RequestAction> SYMBOLS = SymbolTable.caseInsensitive(values(), RequestAction::getId);
+
     @Nonnull private final String id;
     @Nonnull private final String label;
     private final int minValueCount;
@@ -63,12 +67,20 @@ public enum RequestAction {
     }
 
     public static Optional<RequestAction> from(final String value) {
-        for (final RequestAction requestAction : RequestAction.values()) {
-            if (requestAction.id.equalsIgnoreCase(value)) {
-                return Optional.of(requestAction);
-            }
-        }
-        return Optional.empty();
+        return SYMBOLS.lookup(value);
+    }
+
+    /**
+     * Looks up a value without first creating a {@link String}.
+     *
+     * @param chars the characters containing the value
+     * @param offset the offset of the value in the characters
+     * @param length the length of the value
+     * @return the matching value, if any
+     */
+    @Nonnull
+    public static Optional<RequestAction> from(@Nonnull final char[] chars, final int offset, final int length) {
+        return SYMBOLS.lookup(chars, offset, length);
     }
 
 }
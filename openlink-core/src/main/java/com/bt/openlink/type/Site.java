@@ -1,23 +1,37 @@
 package com.bt.openlink.type;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.codec.SymbolTable;
+
 public class Site {
 
     public enum Type {
         BTSM, CISCO, IPT, ITS;
 
+        private static final SymbolTable<Type> SYMBOLS = SymbolTable.caseSensitive(values(), Type::name);
+
         public static Optional<Type> from(@Nullable final String value) {
-            for (final Type type : Type.values()) {
-                if (type.name().equals(value)) {
-                    return Optional.of(type);
-                }
-            }
-            return Optional.empty();
+            return SYMBOLS.lookup(value);
+        }
+
+        /**
+         * Looks up a value without first creating a {@link String}.
+         *
+         * @param chars the characters containing the value
+         * @param offset the offset of the value in the characters
+         * @param length the length of the value
+         * @return the matching value, if any
+         */
+        @Nonnull
+        public static Optional<Type> from(@Nonnull final char[] chars, final int offset, final int length) {
+            return SYMBOLS.lookup(chars, offset, length);
         }
     }
 
@@ -53,6 +67,26 @@ public class Site {
         return Optional.ofNullable(name);
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Site that = (Site) o;
+        return Objects.equals(id, that.id)
+                && Objects.equals(isDefault, that.isDefault)
+                && type == that.type
+                && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, isDefault, type, name);
+    }
+
     public static final class Builder {
 
         @Nullable private Long id = null;
@@ -82,6 +116,9 @@ public class Site {
 
         @Nonnull
         public Site build(@Nonnull final List<String> errors) {
+            if (!ParseDiagnostics.isValidating(errors)) {
+                return new Site(this);
+            }
             if (id == null) {
                 errors.add("Invalid site; missing site id is mandatory");
             }
@@ -5,6 +5,8 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.bt.openlink.codec.SymbolTable;
+
 /**
  * List of recommended subscription status.<br>
  * Reference: XEP-0060 Publish-Subscribe Subscription States https://xmpp.org/extensions/xep-0060.html#substates
@@ -16,6 +18,8 @@ public enum SubscriptionState {
     UNCONFIGURED("unconfigured"),
     SUBSCRIBED("subscribed");
 
+    private static final SymbolTable<SubscriptionState> SYMBOLS = SymbolTable.caseInsensitive(values(), SubscriptionState::getId);
+
     @Nonnull private final String id;
 
     SubscriptionState(@Nonnull final String id) {
@@ -29,12 +33,20 @@ public enum SubscriptionState {
 
     @Nonnull
     public static Optional<SubscriptionState> from(@Nullable final String value) {
-        for (final SubscriptionState featureType : SubscriptionState.values()) {
-            if (featureType.id.equalsIgnoreCase(value)) {
-                return Optional.of(featureType);
-            }
-        }
-        return Optional.empty();
+        return SYMBOLS.lookup(value);
+    }
+
+    /**
+     * Looks up a value without first creating a {@link String}.
+     *
+     * @param chars the characters containing the value
+     * @param offset the offset of the value in the characters
+     * @param length the length of the value
+     * @return the matching value, if any
+     */
+    @Nonnull
+    public static Optional<SubscriptionState> from(@Nonnull final char[] chars, final int offset, final int length) {
+        return SYMBOLS.lookup(chars, offset, length);
     }
 
 }
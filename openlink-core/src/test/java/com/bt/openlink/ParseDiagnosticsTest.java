@@ -0,0 +1,142 @@
+package com.bt.openlink;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ParseDiagnosticsTest {
+
+    @Test
+    public void willFormatAnErrorWhenItIsRead() {
+
+        final StringBuilder argument = new StringBuilder("before");
+        final ParseDiagnostics diagnostics = new ParseDiagnostics();
+
+        ParseDiagnostics.report(diagnostics, "Invalid %s; invalid value '%s'", "stanza", argument);
+        argument.replace(0, argument.length(), "after");
+
+        assertThat(diagnostics, contains("Invalid stanza; invalid value 'after'"));
+    }
+
+    @Test
+    public void willFormatAnErrorImmediatelyForAnyOtherList() {
+
+        final StringBuilder argument = new StringBuilder("before");
+        final List<String> errors = new ArrayList<>();
+
+        ParseDiagnostics.report(errors, "Invalid %s; invalid value '%s'", "stanza", argument);
+        argument.replace(0, argument.length(), "after");
+
+        assertThat(errors, contains("Invalid stanza; invalid value 'before'"));
+    }
+
+    @Test
+    public void willRecordTheTemplateAndArgumentsOfAnError() {
+
+        final ParseDiagnostics diagnostics = new ParseDiagnostics();
+
+        diagnostics.report("Invalid %s; missing '%s' attribute is mandatory", "stanza", "to");
+        diagnostics.add("Invalid stanza; missing 'from' attribute is mandatory");
+
+        assertThat(diagnostics.get(0), is("Invalid stanza; missing 'to' attribute is mandatory"));
+        assertThat(diagnostics.getTemplate(0), is("Invalid %s; missing '%s' attribute is mandatory"));
+        assertThat(diagnostics.getArguments(0), is(new Object[]{"stanza", "to"}));
+        assertThat(diagnostics.getTemplate(1), is("Invalid stanza; missing 'from' attribute is mandatory"));
+        assertThat(diagnostics.getArguments(1), is(new Object[0]));
+    }
+
+    @Test
+    public void willBeEqualToAListOfTheSameMessages() {
+
+        final ParseDiagnostics diagnostics = new ParseDiagnostics();
+        diagnostics.report("Invalid %s", "stanza");
+        diagnostics.add("Invalid call");
+        final List<String> errors = new ArrayList<>();
+        errors.add("Invalid stanza");
+        errors.add("Invalid call");
+
+        assertThat(diagnostics, is(errors));
+        assertThat(diagnostics.hashCode(), is(errors.hashCode()));
+        assertThat(diagnostics.toString(), is(errors.toString()));
+    }
+
+    @Test
+    public void willNotIncludeLaterErrorsInASnapshot() {
+
+        final ParseDiagnostics diagnostics = new ParseDiagnostics();
+        diagnostics.report("Invalid %s", "stanza");
+
+        final List<String> snapshot = diagnostics.snapshot();
+        diagnostics.report("Invalid %s", "call");
+        diagnostics.clear();
+        diagnostics.report("Invalid %s", "participant");
+
+        assertThat(snapshot, contains("Invalid stanza"));
+        assertThat(diagnostics, contains("Invalid participant"));
+    }
+
+    @Test
+    public void willCopyTheErrorsOfAnotherSink() {
+
+        final ParseDiagnostics first = new ParseDiagnostics();
+        first.report("Invalid %s", "stanza");
+        final ParseDiagnostics second = new ParseDiagnostics();
+        second.report("Invalid %s", "call");
+
+        second.addAll(first);
+
+        assertThat(second, contains("Invalid call", "Invalid stanza"));
+        assertThat(second.getTemplate(1), is("Invalid %s"));
+    }
+
+    @Test
+    public void willDiscardErrorsReportedToTheSharedSink() {
+
+        ParseDiagnostics.report(ParseDiagnostics.IGNORED, "Invalid %s", "stanza");
+        ParseDiagnostics.IGNORED.add("Invalid call");
+
+        assertThat(ParseDiagnostics.IGNORED, is(empty()));
+    }
+
+    @Test
+    public void willReturnAnUnmodifiableCopyOfAnyList() {
+
+        final List<String> errors = new ArrayList<>();
+        errors.add("Invalid stanza");
+
+        final List<String> copy = ParseDiagnostics.unmodifiableCopyOf(errors);
+        errors.add("Invalid call");
+
+        assertThat(copy, contains("Invalid stanza"));
+        assertThat(ParseDiagnostics.unmodifiableCopyOf(null), is(empty()));
+    }
+
+    @Test
+    public void willOnlySkipValidationForATrustedSink() {
+
+        assertThat(ParseDiagnostics.isValidating(new ArrayList<>()), is(true));
+        assertThat(ParseDiagnostics.isValidating(new ParseDiagnostics()), is(true));
+        assertThat(ParseDiagnostics.isValidating(new ParseDiagnostics(ValidationMode.STRICT)), is(true));
+        assertThat(ParseDiagnostics.isValidating(new ParseDiagnostics(ValidationMode.TRUSTED)), is(false));
+        assertThat(ParseDiagnostics.isValidating(ParseDiagnostics.IGNORED), is(false));
+    }
+
+    @Test
+    public void willCreateASinkWithTheDefaultValidationMode() {
+
+        ParseDiagnostics.setDefaultValidationMode(ValidationMode.TRUSTED);
+        try {
+            assertThat(new ParseDiagnostics().getValidationMode(), is(ValidationMode.TRUSTED));
+        } finally {
+            ParseDiagnostics.setDefaultValidationMode(ValidationMode.STRICT);
+        }
+        assertThat(new ParseDiagnostics().getValidationMode(), is(ValidationMode.STRICT));
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.DeviceStatus;
+import com.bt.openlink.type.Feature;
+import com.bt.openlink.type.Interest;
+import com.bt.openlink.type.Participant;
+import com.bt.openlink.type.Profile;
+import com.bt.openlink.type.Site;
+
+@SuppressWarnings("ConstantConditions")
+public class BinaryCodecsTest {
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private final BinaryWriter writer = new BinaryWriter();
+    private final BinaryReader reader = new BinaryReader();
+
+    private <T> T roundTrip(final BinaryCodec<T> codec, final T value) {
+        writer.write(codec, value, buffer);
+        buffer.flip();
+        final T decodedValue = reader.read(codec, buffer);
+        assertThat(buffer.hasRemaining(), is(false));
+        buffer.clear();
+        return decodedValue;
+    }
+
+    private static void assertSameCall(final Call actual, final Call expected) {
+        for (final CallField field : CallField.values()) {
+            assertThat(field.name(), actual.hasSameValue(field, expected), is(true));
+        }
+        assertThat(actual.getLoadedFields(), is(expected.getLoadedFields()));
+        assertThat(actual.isDelta(), is(expected.isDelta()));
+    }
+
+    @Test
+    public void willEncodeAndDecodeACall() {
+
+        final Call call = roundTrip(BinaryCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        assertSameCall(call, CoreFixtures.CALL_INCOMING_ORIGINATED);
+    }
+
+    @Test
+    public void willEncodeAndDecodeACallWithoutMandatoryFields() {
+
+        final Call expectedCall = Call.Builder.start()
+                .setState(CallState.CALL_HELD)
+                .build(ParseDiagnostics.IGNORED);
+
+        final Call call = roundTrip(BinaryCodecs.CALL, expectedCall);
+
+        assertSameCall(call, expectedCall);
+    }
+
+    @Test
+    public void willEncodeAndDecodeADeltaOfACall() {
+
+        final Call expectedCall = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(EnumSet.of(CallField.ID, CallField.STATE))
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, EnumSet.of(CallField.ID, CallField.STATE))
+                .build();
+
+        final Call call = roundTrip(BinaryCodecs.CALL, expectedCall);
+
+        assertSameCall(call, expectedCall);
+    }
+
+    @Test
+    public void willEncodeRepeatedStringsByReference() {
+
+        writer.write(BinaryCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED, buffer);
+        final int firstLength = buffer.position();
+        writer.write(BinaryCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED, buffer);
+        final int secondLength = buffer.position() - firstLength;
+        buffer.flip();
+        reader.read(BinaryCodecs.CALL, buffer);
+        final Call call = reader.read(BinaryCodecs.CALL, buffer);
+
+        assertThat(secondLength < firstLength / 2, is(true));
+        assertSameCall(call, CoreFixtures.CALL_INCOMING_ORIGINATED);
+    }
+
+    @Test
+    public void willTakeTheValuesOfADecodedCallFromAPool() {
+
+        // The pool is two-way set-associative, so a call that carries only two pooled values, the id and the site,
+        // cannot evict either of them, wherever their hashes - the site's includes its type's identity hash - place them
+        final Call call = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(EnumSet.of(CallField.ID, CallField.SITE))
+                .setId(CoreFixtures.CALL_ID)
+                .setSite(CoreFixtures.SITE)
+                .build();
+        final BinaryReader pooledReader = new BinaryReader(new CanonicalPool(16));
+        writer.write(BinaryCodecs.CALL, call, buffer);
+        writer.write(BinaryCodecs.CALL, call, buffer);
+        buffer.flip();
+
+        final Call first = pooledReader.read(BinaryCodecs.CALL, buffer);
+        final Call second = pooledReader.read(BinaryCodecs.CALL, buffer);
+
+        assertThat(second.getId().get(), is(sameInstance(first.getId().get())));
+        assertThat(second.getSite().get(), is(sameInstance(first.getSite().get())));
+    }
+
+    @Test
+    public void willEncodeAndDecodeASite() {
+
+        final Site site = roundTrip(BinaryCodecs.SITE, CoreFixtures.SITE);
+
+        assertThat(site, is(CoreFixtures.SITE));
+    }
+
+    @Test
+    public void willEncodeAndDecodeAParticipant() {
+
+        final Participant participant = roundTrip(BinaryCodecs.PARTICIPANT, CoreFixtures.PARTICIPANT);
+
+        assertThat(participant, is(CoreFixtures.PARTICIPANT));
+    }
+
+    @Test
+    public void willEncodeAndDecodeAFeature() {
+
+        final Feature feature = roundTrip(BinaryCodecs.FEATURE, CoreFixtures.FEATURE);
+
+        assertThat(feature, is(CoreFixtures.FEATURE));
+    }
+
+    @Test
+    public void willEncodeAndDecodeACallFeature() {
+
+        assertThat(roundTrip(BinaryCodecs.CALL_FEATURE, CoreFixtures.CALL_FEATURE), is(CoreFixtures.CALL_FEATURE));
+        assertThat(roundTrip(BinaryCodecs.CALL_FEATURE, CoreFixtures.SPEAKER_FEATURE), is(CoreFixtures.SPEAKER_FEATURE));
+    }
+
+    @Test
+    public void willEncodeAndDecodeAProfile() {
+
+        final Profile profile = roundTrip(BinaryCodecs.PROFILE, CoreFixtures.PROFILE);
+
+        assertThat(profile.getId(), is(CoreFixtures.PROFILE.getId()));
+        assertThat(profile.isDefaultProfile(), is(CoreFixtures.PROFILE.isDefaultProfile()));
+        assertThat(profile.getDevice(), is(CoreFixtures.PROFILE.getDevice()));
+        assertThat(profile.getLabel(), is(CoreFixtures.PROFILE.getLabel()));
+        assertThat(profile.isOnline(), is(CoreFixtures.PROFILE.isOnline()));
+        assertThat(profile.getSite(), is(CoreFixtures.PROFILE.getSite()));
+        assertThat(profile.getActions(), is(CoreFixtures.PROFILE.getActions()));
+    }
+
+    @Test
+    public void willEncodeAndDecodeAnInterest() {
+
+        final Interest interest = roundTrip(BinaryCodecs.INTEREST, CoreFixtures.INTEREST);
+
+        assertThat(interest.getId(), is(CoreFixtures.INTEREST.getId()));
+        assertThat(interest.getType(), is(CoreFixtures.INTEREST.getType()));
+        assertThat(interest.getLabel(), is(CoreFixtures.INTEREST.getLabel()));
+        assertThat(interest.isDefaultInterest(), is(CoreFixtures.INTEREST.isDefaultInterest()));
+    }
+
+    @Test
+    public void willEncodeAndDecodeADeviceStatus() {
+
+        final DeviceStatus deviceStatus = roundTrip(BinaryCodecs.DEVICE_STATUS, CoreFixtures.DEVICE_STATUS_LOGON);
+
+        assertThat(deviceStatus.isOnline(), is(CoreFixtures.DEVICE_STATUS_LOGON.isOnline()));
+        assertThat(deviceStatus.getProfileId(), is(CoreFixtures.DEVICE_STATUS_LOGON.getProfileId()));
+    }
+
+    @Test
+    public void willNotDecodeAnUnknownSymbol() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid binary encoding; unknown symbol id 99 of CallState");
+
+        // The version, the flags of a call with only a state, and then the state
+        buffer.put(new byte[] { BinaryWriter.FORMAT_VERSION, (byte) 0x80, 0x01, 99 }).flip();
+
+        reader.read(BinaryCodecs.CALL, buffer);
+    }
+}
@@ -0,0 +1,107 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+
+public class BinaryReaderTest {
+
+    private static final BinaryCodec<String> STRING_CODEC = new BinaryCodec<String>() {
+        @Override
+        public void encode(final BinaryWriter writer, final String value) {
+            writer.writeString(value);
+        }
+
+        @Override
+        public String decode(final BinaryReader reader) {
+            return reader.readString();
+        }
+    };
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    private final BinaryReader reader = new BinaryReader();
+
+    @Test
+    public void willReadAStringByReference() {
+
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[] { BinaryWriter.FORMAT_VERSION, 0, 2, 'i', 'd', 1 });
+
+        assertThat(reader.read(STRING_CODEC, buffer), is("id"));
+        assertThat(reader.read(STRING_CODEC, buffer), is("id"));
+    }
+
+    @Test
+    public void willLeaveTheBufferAndReaderUnchangedIfAValueIsIncomplete() {
+
+        final ByteBuffer encoded = ByteBuffer.allocate(1024);
+        final BinaryWriter writer = new BinaryWriter();
+        writer.write(STRING_CODEC, "first", encoded);
+        writer.write(BinaryCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED, encoded);
+        encoded.flip();
+        final ByteBuffer buffer = ByteBuffer.allocate(encoded.remaining());
+        buffer.put((ByteBuffer) encoded.duplicate().limit(encoded.remaining() - 1)).flip();
+        reader.read(STRING_CODEC, buffer);
+        try {
+            reader.read(BinaryCodecs.CALL, buffer);
+            throw new AssertionError("The call should be incomplete");
+        } catch (final BufferUnderflowException ignored) {
+            assertThat(buffer.position(), is(1 + 1 + 1 + 5));
+        }
+
+        buffer.limit(buffer.capacity());
+        buffer.put(buffer.capacity() - 1, encoded.get(encoded.limit() - 1));
+        final Call call = reader.read(BinaryCodecs.CALL, buffer);
+
+        for (final CallField field : CallField.values()) {
+            assertThat(field.name(), call.hasSameValue(field, CoreFixtures.CALL_INCOMING_ORIGINATED), is(true));
+        }
+    }
+
+    @Test
+    public void willNotReadAnUnsupportedVersion() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Unsupported binary format version 99");
+
+        reader.read(STRING_CODEC, ByteBuffer.wrap(new byte[] { 99, 0, 0 }));
+    }
+
+    @Test
+    public void willNotReadAnUnknownStringReference() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid binary encoding; unknown string reference 1");
+
+        reader.read(STRING_CODEC, ByteBuffer.wrap(new byte[] { BinaryWriter.FORMAT_VERSION, 1 }));
+    }
+
+    @Test
+    public void willNotReadAMalformedVarInt() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid binary encoding; malformed varint");
+
+        reader.read(STRING_CODEC, ByteBuffer.wrap(new byte[] { BinaryWriter.FORMAT_VERSION, -1, -1, -1, -1, -1, 0 }));
+    }
+
+    @Test
+    public void willStartANewStreamAfterAReset() {
+
+        reader.read(STRING_CODEC, ByteBuffer.wrap(new byte[] { BinaryWriter.FORMAT_VERSION, 0, 1, 'a' }));
+
+        reader.reset();
+
+        assertThat(reader.read(STRING_CODEC, ByteBuffer.wrap(new byte[] { BinaryWriter.FORMAT_VERSION, 0, 1, 'b' })), is("b"));
+    }
+}
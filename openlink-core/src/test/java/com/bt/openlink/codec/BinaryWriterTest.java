@@ -0,0 +1,157 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.Test;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.type.Call;
+
+public class BinaryWriterTest {
+
+    private static final BinaryCodec<String> STRING_CODEC = new BinaryCodec<String>() {
+        @Override
+        public void encode(final BinaryWriter writer, final String value) {
+            writer.writeString(value);
+        }
+
+        @Override
+        public String decode(final BinaryReader reader) {
+            return reader.readString();
+        }
+    };
+
+    private static final BinaryCodec<Object[]> TIMING_CODEC = new BinaryCodec<Object[]>() {
+        @Override
+        public void encode(final BinaryWriter writer, final Object[] value) {
+            writer.writeInstant((Instant) value[0]);
+            writer.writeDuration((Duration) value[1]);
+        }
+
+        @Override
+        public Object[] decode(final BinaryReader reader) {
+            final Instant instant = reader.readInstant();
+            return new Object[] { instant, reader.readDuration() };
+        }
+    };
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+    private static byte[] bytesOf(final ByteBuffer buffer) {
+        buffer.flip();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void willWriteTheVersionAtTheStartOfTheStream() {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        writer.write(STRING_CODEC, "a", buffer);
+        writer.write(STRING_CODEC, "b", buffer);
+
+        assertThat(bytesOf(buffer), is(new byte[] { BinaryWriter.FORMAT_VERSION, 0, 1, 'a', 0, 1, 'b' }));
+    }
+
+    @Test
+    public void willWriteARepeatedStringByReference() {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        writer.write(STRING_CODEC, "test-id", buffer);
+        writer.write(STRING_CODEC, "test-id", buffer);
+
+        assertThat(buffer.position(), is(1 + 9 + 1));
+    }
+
+    @Test
+    public void willWriteAStringInFullAfterAReset() {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        writer.write(STRING_CODEC, "a", buffer);
+
+        writer.reset();
+        writer.write(STRING_CODEC, "a", buffer);
+
+        assertThat(bytesOf(buffer), is(new byte[] { BinaryWriter.FORMAT_VERSION, 0, 1, 'a', BinaryWriter.FORMAT_VERSION, 0, 1, 'a' }));
+    }
+
+    @Test
+    public void willWriteVarInts() {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        writer.write(new BinaryCodec<Integer>() {
+            @Override
+            public void encode(final BinaryWriter writer, final Integer value) {
+                writer.writeVarInt(value);
+                writer.writeVarInt(300);
+                writer.writeSignedVarLong(-1);
+            }
+
+            @Override
+            public Integer decode(final BinaryReader reader) {
+                return reader.readVarInt();
+            }
+        }, 1, buffer);
+
+        assertThat(bytesOf(buffer), is(new byte[] { BinaryWriter.FORMAT_VERSION, 1, (byte) 0xAC, 0x02, 1 }));
+    }
+
+    @Test
+    public void willWriteStringsAsUtf8() {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        final String value = "\u00e9\u20ac\ud83d\ude00";
+
+        writer.write(STRING_CODEC, value, buffer);
+        buffer.flip();
+
+        assertThat(new BinaryReader().read(STRING_CODEC, buffer), is(value));
+    }
+
+    @Test
+    public void willLeaveTheBufferAndWriterUnchangedIfAValueDoesNotFit() {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(32);
+        writer.write(STRING_CODEC, "first", buffer);
+        try {
+            writer.write(BinaryCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED, buffer);
+            throw new AssertionError("The call should not fit in the buffer");
+        } catch (final BufferOverflowException ignored) {
+            assertThat(buffer.position(), is(1 + 1 + 1 + 5));
+        }
+
+        final ByteBuffer largerBuffer = ByteBuffer.allocate(1024);
+        buffer.flip();
+        largerBuffer.put(buffer);
+        writer.write(BinaryCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED, largerBuffer);
+        largerBuffer.flip();
+        final BinaryReader reader = new BinaryReader();
+        reader.read(STRING_CODEC, largerBuffer);
+        final Call call = reader.read(BinaryCodecs.CALL, largerBuffer);
+
+        assertThat(call.getId(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getId()));
+        assertThat(call.getCalledName(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getCalledName()));
+    }
+
+    @Test
+    public void willWriteInstantsAndDurations() {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        final Instant instant = Instant.ofEpochSecond(1507536420, 123_000_000);
+        final Duration duration = Duration.ofMillis(-1500);
+
+        writer.write(TIMING_CODEC, new Object[] { instant, duration }, buffer);
+        buffer.flip();
+
+        assertThat(new BinaryReader().read(TIMING_CODEC, buffer), is(new Object[] { instant, duration }));
+    }
+}
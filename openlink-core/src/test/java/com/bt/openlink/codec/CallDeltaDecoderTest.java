@@ -0,0 +1,104 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallState;
+
+@SuppressWarnings("ConstantConditions")
+public class CallDeltaDecoderTest {
+
+    private static Call delta(final CallState state) {
+        return Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(EnumSet.of(CallField.ID, CallField.STATE, CallField.DURATION))
+                .setId(CoreFixtures.CALL_ID)
+                .setState(state)
+                .setDuration(Duration.ofMinutes(2))
+                .build();
+    }
+
+    @Test
+    public void willDecodeACallThatIsNotADelta() {
+
+        final CallDeltaDecoder decoder = new CallDeltaDecoder();
+
+        final Call call = decoder.decode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        assertThat(call, is(sameInstance(CoreFixtures.CALL_INCOMING_ORIGINATED)));
+        assertThat(decoder.getCall(CoreFixtures.CALL_ID).get(), is(sameInstance(call)));
+    }
+
+    @Test
+    public void willMergeADeltaIntoThePreviousVersionOfTheCall() {
+
+        final CallDeltaDecoder decoder = new CallDeltaDecoder();
+        decoder.decode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        final Call call = decoder.decode(delta(CallState.CALL_HELD));
+
+        assertThat(call.isDelta(), is(false));
+        assertThat(call.getLoadedFields(), is(CallField.ALL));
+        assertThat(call.getState().get(), is(CallState.CALL_HELD));
+        assertThat(call.getDuration().get(), is(Duration.ofMinutes(2)));
+        for (final CallField field : EnumSet.complementOf(EnumSet.of(CallField.STATE, CallField.DURATION))) {
+            assertThat(field.name(), call.hasSameValue(field, CoreFixtures.CALL_INCOMING_ORIGINATED), is(true));
+        }
+    }
+
+    @Test
+    public void willNotMergeADeltaOfAnUnknownCall() {
+
+        final CallDeltaDecoder decoder = new CallDeltaDecoder();
+        final Call delta = delta(CallState.CALL_HELD);
+
+        final Call call = decoder.decode(delta);
+
+        assertThat(call, is(sameInstance(delta)));
+        assertThat(call.isDelta(), is(true));
+    }
+
+    @Test
+    public void willForgetACallOnceItHasEnded() {
+
+        final CallDeltaDecoder decoder = new CallDeltaDecoder();
+        decoder.decode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        final List<Call> calls = decoder.decode(Collections.singletonList(delta(CallState.CONNECTION_CLEARED)));
+
+        assertThat(calls.get(0).getState().get(), is(CallState.CONNECTION_CLEARED));
+        assertThat(calls.get(0).getSite().get(), is(CoreFixtures.SITE));
+        assertThat(decoder.getCall(CoreFixtures.CALL_ID), is(Optional.empty()));
+    }
+
+    @Test
+    public void willDecodeTheCallsEncodedByAnEncoder() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(Collections.singleton(OpenlinkXmppNamespace.OPENLINK_CALL_STATUS_DELTA.uri()));
+        final CallDeltaDecoder decoder = new CallDeltaDecoder();
+        decoder.decode(encoder.encode(CoreFixtures.CALL_INCOMING_ORIGINATED));
+        final Call heldCall = Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.ALL)
+                .setState(CallState.CALL_HELD)
+                .build();
+
+        final Call call = decoder.decode(encoder.encode(heldCall));
+
+        for (final CallField field : CallField.values()) {
+            assertThat(field.name(), call.hasSameValue(field, heldCall), is(true));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.Changed;
+
+@SuppressWarnings("ConstantConditions")
+public class CallDeltaEncoderTest {
+
+    private static final Set<String> DELTA_PEER_FEATURES = Collections.singleton(OpenlinkXmppNamespace.OPENLINK_CALL_STATUS_DELTA.uri());
+
+    private static Call heldCall() {
+        return Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.ALL)
+                .setState(CallState.CALL_HELD)
+                .setDuration(Duration.ofMinutes(2))
+                .build();
+    }
+
+    @Test
+    public void willEncodeTheFirstVersionOfACallInFull() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(DELTA_PEER_FEATURES);
+
+        final Call call = encoder.encode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        assertThat(call, is(sameInstance(CoreFixtures.CALL_INCOMING_ORIGINATED)));
+        assertThat(call.isDelta(), is(false));
+    }
+
+    @Test
+    public void willEncodeEveryCallInFullIfThePeerDoesNotSupportDeltas() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(Collections.singleton(OpenlinkXmppNamespace.OPENLINK_CALL_STATUS.uri()));
+        encoder.encode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+        final Call heldCall = heldCall();
+
+        final Call call = encoder.encode(heldCall);
+
+        assertThat(encoder.isDeltasNegotiated(), is(false));
+        assertThat(call, is(sameInstance(heldCall)));
+        assertThat(call.isDelta(), is(false));
+    }
+
+    @Test
+    public void willEncodeOnlyTheFieldsThatHaveChanged() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(DELTA_PEER_FEATURES);
+        encoder.encode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        final Call call = encoder.encode(heldCall());
+
+        assertThat(call.isDelta(), is(true));
+        assertThat(call.getLoadedFields(), is(EnumSet.of(CallField.ID, CallField.STATE, CallField.DURATION)));
+        assertThat(call.getId().get(), is(CoreFixtures.CALL_ID));
+        assertThat(call.getState().get(), is(CallState.CALL_HELD));
+        assertThat(call.getDuration().get(), is(Duration.ofMinutes(2)));
+        assertThat(call.getSite(), is(Optional.empty()));
+        assertThat(call.getFeatures().isEmpty(), is(true));
+    }
+
+    @Test
+    public void willEncodeOnlyTheIdOfACallThatHasNotChanged() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(DELTA_PEER_FEATURES);
+        encoder.encode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        final Call call = encoder.encode(heldCall());
+        final Call unchangedCall = encoder.encode(heldCall());
+
+        assertThat(call.isDelta(), is(true));
+        assertThat(unchangedCall.getLoadedFields(), is(EnumSet.of(CallField.ID)));
+    }
+
+    @Test
+    public void willEncodeACallInFullOnceItHasEnded() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(DELTA_PEER_FEATURES);
+        encoder.encode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+        final Call clearedCall = Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.ALL)
+                .setState(CallState.CONNECTION_CLEARED)
+                .build();
+
+        assertThat(encoder.encode(clearedCall).isDelta(), is(true));
+        assertThat(encoder.encode(CoreFixtures.CALL_INCOMING_ORIGINATED).isDelta(), is(false));
+    }
+
+    @Test
+    public void willEncodeACallInFullOnceItHasBeenReset() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(DELTA_PEER_FEATURES);
+        encoder.encode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        encoder.reset(CoreFixtures.CALL_ID);
+
+        assertThat(encoder.encode(heldCall()).isDelta(), is(false));
+    }
+
+    @Test
+    public void willNotEncodeAPartiallyLoadedCall() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(DELTA_PEER_FEATURES);
+        final Call call = Call.Builder.start()
+                .setLoadedFields(CallField.STATE_ONLY)
+                .setId(CallId.from("test-call-id").get())
+                .setChanged(Changed.STATE)
+                .setState(CallState.CALL_HELD)
+                .setDirection(CoreFixtures.CALL_INCOMING_ORIGINATED.getDirection().get())
+                .build();
+        encoder.encode(call);
+
+        assertThat(encoder.encode(call), is(sameInstance(call)));
+    }
+
+    @Test
+    public void willEncodeTheCallsOfACallStatusInOrder() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(DELTA_PEER_FEATURES);
+        encoder.encode(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        final List<Call> calls = encoder.encode(Arrays.asList(heldCall(), CoreFixtures.CALL_INCOMING_ORIGINATED));
+
+        assertThat(calls.size(), is(2));
+        assertThat(calls.get(0).getState().get(), is(CallState.CALL_HELD));
+        assertThat(calls.get(1).getState().get(), is(CallState.CALL_ORIGINATED));
+    }
+}
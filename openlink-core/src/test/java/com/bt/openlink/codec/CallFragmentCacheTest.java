@@ -0,0 +1,161 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallDirection;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.Changed;
+
+@SuppressWarnings("ConstantConditions")
+public class CallFragmentCacheTest {
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    private final AtomicInteger encodeCount = new AtomicInteger();
+    private final Function<Call, String> encoder = call -> "<call>" + call.getId().get() + "/" + encodeCount.incrementAndGet() + "</call>";
+
+    private static Call call(final String callId, final CallState state) {
+        return Call.Builder.start()
+                .setLoadedFields(CallField.STATE_ONLY)
+                .setId(CallId.from(callId).get())
+                .setChanged(Changed.STATE)
+                .setState(state)
+                .setDirection(CallDirection.INCOMING)
+                .build();
+    }
+
+    @Test
+    public void willReuseTheFragmentOfTheSameCall() {
+
+        final CallFragmentCache cache = new CallFragmentCache(16);
+        final Call call = call("test-call-id", CallState.CALL_ORIGINATED);
+
+        final String fragment = cache.getFragment("test-format", call, encoder);
+
+        assertThat(fragment, is("<call>test-call-id/1</call>"));
+        assertThat(cache.getFragment("test-format", call, encoder), is(fragment));
+        assertThat(encodeCount.get(), is(1));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void willReuseTheFragmentOfACallWithTheSameContent() {
+
+        final CallFragmentCache cache = new CallFragmentCache(16);
+        final String fragment = cache.getFragment("test-format", call("test-call-id", CallState.CALL_ORIGINATED), encoder);
+
+        assertThat(cache.getFragment("test-format", call("test-call-id", CallState.CALL_ORIGINATED), encoder), is(fragment));
+        assertThat(encodeCount.get(), is(1));
+    }
+
+    @Test
+    public void willNotReuseTheFragmentOfACallWithOtherFieldsLoaded() {
+
+        final CallFragmentCache cache = new CallFragmentCache(16);
+        final Call call = call("test-call-id", CallState.CALL_ORIGINATED);
+        cache.getFragment("test-format", call, encoder);
+        final Call delta = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(CallField.STATE_ONLY)
+                .copyFields(call, CallField.STATE_ONLY)
+                .build();
+
+        assertThat(cache.getFragment("test-format", delta, encoder), is("<call>test-call-id/2</call>"));
+    }
+
+    @Test
+    public void willEncodeACallThatHasChanged() {
+
+        final CallFragmentCache cache = new CallFragmentCache(16);
+        cache.getFragment("test-format", call("test-call-id", CallState.CALL_ORIGINATED), encoder);
+
+        final String fragment = cache.getFragment("test-format", call("test-call-id", CallState.CALL_HELD), encoder);
+
+        assertThat(fragment, is("<call>test-call-id/2</call>"));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void willNotReuseAFragmentOfAnotherFormat() {
+
+        final CallFragmentCache cache = new CallFragmentCache(16);
+        final Call call = call("test-call-id", CallState.CALL_ORIGINATED);
+        cache.getFragment("test-format", call, encoder);
+
+        assertThat(cache.getFragment("another-format", call, encoder), is("<call>test-call-id/2</call>"));
+    }
+
+    @Test
+    public void willEvictTheLeastRecentlyUsedFragmentWhenFull() {
+
+        final CallFragmentCache cache = new CallFragmentCache(2);
+        final Call first = call("first-call-id", CallState.CALL_HELD);
+        final Call second = call("second-call-id", CallState.CALL_HELD);
+        cache.getFragment("test-format", first, encoder);
+        cache.getFragment("test-format", second, encoder);
+        cache.getFragment("test-format", first, encoder);
+
+        cache.getFragment("test-format", call("third-call-id", CallState.CALL_HELD), encoder);
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getFragment("test-format", first, encoder), is("<call>first-call-id/1</call>"));
+        assertThat(cache.getFragment("test-format", second, encoder), is("<call>second-call-id/4</call>"));
+    }
+
+    @Test
+    public void willHoldNoMoreFragmentsThanItsCapacity() {
+
+        final CallFragmentCache cache = new CallFragmentCache(100);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.getFragment("test-format", call("test-call-id-" + i, CallState.CALL_HELD), encoder);
+        }
+
+        assertThat(cache.size() <= 100, is(true));
+        assertThat(cache.getCapacity(), is(100));
+    }
+
+    @Test
+    public void willRemoveTheFragmentOfACall() {
+
+        final CallFragmentCache cache = new CallFragmentCache(16);
+        final Call call = call("test-call-id", CallState.CALL_ORIGINATED);
+        cache.getFragment("test-format", call, encoder);
+
+        cache.remove(call.getId().get());
+
+        assertThat(cache.size(), is(0));
+        assertThat(cache.getFragment("test-format", call, encoder), is("<call>test-call-id/2</call>"));
+    }
+
+    @Test
+    public void willNotHoldFragmentsInAnEmptyCache() {
+
+        final CallFragmentCache cache = new CallFragmentCache(0);
+        final Call call = call("test-call-id", CallState.CALL_ORIGINATED);
+        cache.getFragment("test-format", call, encoder);
+
+        assertThat(cache.getFragment("test-format", call, encoder), is("<call>test-call-id/2</call>"));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void cannotCreateACacheWithANegativeCapacity() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The capacity must not be negative");
+
+        new CallFragmentCache(-1);
+    }
+}
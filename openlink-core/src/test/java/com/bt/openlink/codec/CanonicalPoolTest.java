@@ -0,0 +1,86 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.bt.openlink.type.CallId;
+
+@SuppressWarnings("ConstantConditions")
+public class CanonicalPoolTest {
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void willReturnTheFirstEqualValue() {
+
+        final CanonicalPool pool = new CanonicalPool(16);
+        final CallId first = CallId.from("test-call-id").get();
+        final CallId second = CallId.from("test-call-id").get();
+
+        assertThat(pool.canonical(first), is(sameInstance(first)));
+        assertThat(pool.canonical(second), is(sameInstance(first)));
+    }
+
+    @Test
+    public void willNotConfuseValuesOfDifferentTypes() {
+
+        final CanonicalPool pool = new CanonicalPool(16);
+
+        pool.canonical(CallId.from("test-value").get());
+
+        assertThat(pool.canonical("test-value"), is("test-value"));
+    }
+
+    @Test
+    public void willEvictValuesWhenFull() {
+
+        final CanonicalPool pool = new CanonicalPool(2);
+        final String first = new String("value-0");
+        pool.canonical(first);
+
+        for (int i = 1; i < 100; i++) {
+            pool.canonical("value-" + i);
+        }
+
+        assertThat(pool.getCapacity(), is(2));
+        assertThat(pool.canonical(new String("value-0")), is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void willNotPoolValuesInAnEmptyPool() {
+
+        final String value = new String("test-value");
+        CanonicalPool.NONE.canonical("test-value");
+
+        assertThat(CanonicalPool.NONE.canonical(value), is(sameInstance(value)));
+        assertThat(CanonicalPool.NONE.canonical(null), is(nullValue()));
+    }
+
+    @Test
+    public void willClearThePool() {
+
+        final CanonicalPool pool = new CanonicalPool(16);
+        final String first = new String("test-value");
+        pool.canonical(first);
+
+        pool.clear();
+
+        assertThat(pool.canonical(new String("test-value")), is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void willNotCreateAPoolWithANegativeCapacity() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The capacity must not be negative");
+
+        new CanonicalPool(-1);
+    }
+}
@@ -0,0 +1,233 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallFeature;
+import com.bt.openlink.type.CallFeatureDeviceKey;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.DeviceStatus;
+import com.bt.openlink.type.Feature;
+import com.bt.openlink.type.Interest;
+import com.bt.openlink.type.Participant;
+import com.bt.openlink.type.Profile;
+import com.bt.openlink.type.Site;
+
+@SuppressWarnings("ConstantConditions")
+public class JsonCodecsTest {
+
+    private <T> T roundTrip(final JsonCodec<T> codec, final T value) {
+        final StringBuilder json = new StringBuilder();
+        JsonWriter.of(json).write(codec, value);
+        final JsonReader reader = JsonReader.of(json);
+        final T decodedValue = reader.read(codec);
+        assertThat(reader.peek(), is(JsonReader.Token.END_DOCUMENT));
+        assertThat(reader.getParseErrors().isEmpty(), is(true));
+        return decodedValue;
+    }
+
+    private static void assertSameCall(final Call actual, final Call expected) {
+        for (final CallField field : CallField.values()) {
+            assertThat(field.name(), actual.hasSameValue(field, expected), is(true));
+        }
+        assertThat(actual.getLoadedFields(), is(expected.getLoadedFields()));
+        assertThat(actual.isDelta(), is(expected.isDelta()));
+    }
+
+    @Test
+    public void willEncodeACall() {
+
+        final StringBuilder json = new StringBuilder();
+        JsonWriter.of(json).write(JsonCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        assertThat(json.toString(), containsString("\"id\":\"test-call-id\",\"conference\":\"test-conference-id\",\"site\":{\"id\":42,\"type\":\"BTSM\",\"default\":true,\"name\":\"test site name\"}"));
+        assertThat(json.toString(), containsString("\"state\":\"CallOriginated\",\"direction\":\"Incoming\""));
+        assertThat(json.toString(), containsString("\"caller\":{\"number\":\"test-caller-number\",\"name\":\"test-caller-name\",\"e164\":[\"test-caller-e164-number\"]}"));
+        assertThat(json.toString(), containsString("\"startTime\":\"" + CoreFixtures.START_TIME_ISO_8601 + "\",\"duration\":60000"));
+        assertThat(json.toString(), containsString("{\"id\":\"NetrixHiTouch_sales1\",\"type\":\"DeviceKeys\",\"label\":\"NetrixHiTouch\",\"deviceKey\":\"key_1:1:1\"}"));
+        assertThat(json.toString(), containsString("\"speakerChannel\":{\"channel\":42,\"microphoneActive\":true,\"muteRequested\":true}"));
+    }
+
+    @Test
+    public void willEncodeAndDecodeACall() {
+
+        final Call call = roundTrip(JsonCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        assertSameCall(call, CoreFixtures.CALL_INCOMING_ORIGINATED);
+    }
+
+    @Test
+    public void willEncodeAndDecodeACallAsUtf8() {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        JsonWriter.of(buffer).write(JsonCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED);
+        buffer.flip();
+
+        final Call call = JsonReader.of(buffer).read(JsonCodecs.CALL);
+
+        assertSameCall(call, CoreFixtures.CALL_INCOMING_ORIGINATED);
+    }
+
+    @Test
+    public void willEncodeAndDecodeADeltaOfACall() {
+
+        final Call expectedCall = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(EnumSet.of(CallField.ID, CallField.STATE))
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, EnumSet.of(CallField.ID, CallField.STATE))
+                .build();
+        final StringBuilder json = new StringBuilder();
+        JsonWriter.of(json).write(JsonCodecs.CALL, expectedCall);
+
+        final Call call = JsonReader.of(json).read(JsonCodecs.CALL);
+
+        assertThat(json.toString(), is("{\"id\":\"test-call-id\",\"state\":\"CallOriginated\",\"fields\":[\"id\",\"state\"],\"delta\":true}"));
+        assertSameCall(call, expectedCall);
+    }
+
+    @Test
+    public void willReportAnInvalidCall() {
+
+        final JsonReader reader = JsonReader.of("{\"id\":\"test-call-id\",\"startTime\":\"not-a-time\"}");
+
+        reader.read(JsonCodecs.CALL);
+
+        assertThat(reader.getParseErrors().contains("Invalid call; invalid startTime 'not-a-time'; format should be compliant with XEP-0082"), is(true));
+        assertThat(reader.getParseErrors().contains("Invalid call status; missing call state is mandatory"), is(true));
+    }
+
+    @Test
+    public void willSkipUnknownAndNullMembers() {
+
+        final JsonReader reader = JsonReader.of("{\"id\":\"test-call-id\",\"unknown\":{\"nested\":[1,2.5e3,true,null,\"x\"]},\"conference\":null,\"state\":\"CallHeld\"}");
+
+        final Call call = reader.read(JsonCodecs.CALL);
+
+        assertThat(call.getId(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getId()));
+        assertThat(call.getConferenceId().isPresent(), is(false));
+        assertThat(call.getState().get(), is(CallState.CALL_HELD));
+    }
+
+    @Test
+    public void willDecodeAStreamOfCalls() {
+
+        final StringBuilder json = new StringBuilder();
+        final JsonWriter writer = JsonWriter.of(json);
+        writer.write(JsonCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED);
+        json.append('\n');
+        writer.write(JsonCodecs.CALL, CoreFixtures.CALL_INCOMING_ORIGINATED);
+        final JsonReader reader = JsonReader.of(json);
+
+        int callCount = 0;
+        while (reader.hasNext()) {
+            assertSameCall(reader.read(JsonCodecs.CALL), CoreFixtures.CALL_INCOMING_ORIGINATED);
+            callCount++;
+        }
+
+        assertThat(callCount, is(2));
+    }
+
+    @Test
+    public void willEncodeAndDecodeASite() {
+
+        final Site site = roundTrip(JsonCodecs.SITE, CoreFixtures.SITE);
+
+        assertThat(site, is(CoreFixtures.SITE));
+    }
+
+    @Test
+    public void willEncodeAndDecodeAParticipant() {
+
+        final Participant participant = roundTrip(JsonCodecs.PARTICIPANT, CoreFixtures.PARTICIPANT);
+
+        assertThat(participant, is(CoreFixtures.PARTICIPANT));
+    }
+
+    @Test
+    public void willEncodeAndDecodeAFeature() {
+
+        final Feature feature = roundTrip(JsonCodecs.FEATURE, CoreFixtures.FEATURE);
+
+        assertThat(feature, is(CoreFixtures.FEATURE));
+    }
+
+    @Test
+    public void willEncodeAndDecodeACallFeature() {
+
+        final List<CallFeature> features = CoreFixtures.CALL_INCOMING_ORIGINATED.getFeatures();
+
+        for (final CallFeature feature : features) {
+            assertThat(roundTrip(JsonCodecs.CALL_FEATURE, feature), is(feature));
+        }
+        assertThat(roundTrip(JsonCodecs.CALL_FEATURE, CoreFixtures.CALL_FEATURE), is(CoreFixtures.CALL_FEATURE));
+    }
+
+    @Test
+    public void willDecodeTheKindOfACallFeatureFromItsLastMember() {
+
+        final CallFeature feature = JsonReader.of("{\"label\":\"NetrixHiTouch\",\"deviceKey\":\"key_1:1:1\",\"id\":\"NetrixHiTouch_sales1\",\"type\":\"DeviceKeys\"}")
+                .read(JsonCodecs.CALL_FEATURE);
+
+        assertThat(feature, is(instanceOf(CallFeatureDeviceKey.class)));
+        assertThat(feature, is(CoreFixtures.CALL_INCOMING_ORIGINATED.getFeatures().get(3)));
+    }
+
+    @Test
+    public void willEncodeAndDecodeAProfile() {
+
+        final Profile profile = roundTrip(JsonCodecs.PROFILE, CoreFixtures.PROFILE);
+
+        assertThat(profile.getId(), is(CoreFixtures.PROFILE.getId()));
+        assertThat(profile.isDefaultProfile(), is(CoreFixtures.PROFILE.isDefaultProfile()));
+        assertThat(profile.getDevice(), is(CoreFixtures.PROFILE.getDevice()));
+        assertThat(profile.getLabel(), is(CoreFixtures.PROFILE.getLabel()));
+        assertThat(profile.isOnline(), is(CoreFixtures.PROFILE.isOnline()));
+        assertThat(profile.getSite(), is(CoreFixtures.PROFILE.getSite()));
+        assertThat(profile.getActions(), is(CoreFixtures.PROFILE.getActions()));
+    }
+
+    @Test
+    public void willEncodeAndDecodeAnInterest() {
+
+        final Interest interest = roundTrip(JsonCodecs.INTEREST, CoreFixtures.INTEREST);
+
+        assertThat(interest.getId(), is(CoreFixtures.INTEREST.getId()));
+        assertThat(interest.getType(), is(CoreFixtures.INTEREST.getType()));
+        assertThat(interest.getLabel(), is(CoreFixtures.INTEREST.getLabel()));
+        assertThat(interest.isDefaultInterest(), is(CoreFixtures.INTEREST.isDefaultInterest()));
+    }
+
+    @Test
+    public void willEncodeAndDecodeADeviceStatus() {
+
+        final DeviceStatus deviceStatus = roundTrip(JsonCodecs.DEVICE_STATUS, CoreFixtures.DEVICE_STATUS_LOGON);
+
+        assertThat(deviceStatus.isOnline(), is(CoreFixtures.DEVICE_STATUS_LOGON.isOnline()));
+        assertThat(deviceStatus.getProfileId(), is(CoreFixtures.DEVICE_STATUS_LOGON.getProfileId()));
+    }
+
+    @Test
+    public void willEncodeAListOfValues() {
+
+        final StringBuilder site = new StringBuilder();
+        JsonWriter.of(site).write(JsonCodecs.SITE, CoreFixtures.SITE);
+        final StringBuilder json = new StringBuilder();
+
+        JsonCodecs.encodeList(JsonWriter.of(json), JsonCodecs.SITE, Arrays.asList(CoreFixtures.SITE, CoreFixtures.SITE));
+
+        assertThat(json.toString(), is("[" + site + "," + site + "]"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.bt.openlink.type.CallState;
+
+public class JsonReaderTest {
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    private enum Member {
+        NAME, VALUE
+    }
+
+    private static final SymbolTable<Member> MEMBERS = SymbolTable.caseInsensitive(Member.values(), Member::name);
+
+    @Test
+    public void willReadTheTokensOfADocument() {
+
+        final JsonReader reader = JsonReader.of(" { \"a\" : [ 1 , -2 , true , false , null , \"b\" ] , \"c\" : { } } ");
+
+        reader.beginObject();
+        assertThat(reader.nextName(), is("a"));
+        reader.beginArray();
+        assertThat(reader.nextLong(), is(1L));
+        assertThat(reader.nextLong(), is(-2L));
+        assertThat(reader.nextBoolean(), is(true));
+        assertThat(reader.nextBoolean(), is(false));
+        reader.nextNull();
+        assertThat(reader.nextString(), is("b"));
+        assertThat(reader.hasNext(), is(false));
+        reader.endArray();
+        assertThat(reader.nextName(), is("c"));
+        reader.beginObject();
+        reader.endObject();
+        reader.endObject();
+        assertThat(reader.peek(), is(JsonReader.Token.END_DOCUMENT));
+    }
+
+    @Test
+    public void willLookUpNamesAndSymbols() {
+
+        final JsonReader reader = JsonReader.of("{\"name\":\"CallHeld\",\"other\":\"CallHeld\",\"value\":\"unknown\"}");
+
+        reader.beginObject();
+        assertThat(reader.nextName(MEMBERS), is(Optional.of(Member.NAME)));
+        assertThat(reader.nextString(CallState::from), is(Optional.of(CallState.CALL_HELD)));
+        assertThat(reader.nextName(MEMBERS), is(Optional.empty()));
+        reader.skipValue();
+        assertThat(reader.nextName(MEMBERS), is(Optional.of(Member.VALUE)));
+        assertThat(reader.nextString(CallState::from), is(Optional.empty()));
+        reader.endObject();
+    }
+
+    @Test
+    public void willUnescapeStrings() {
+
+        final JsonReader reader = JsonReader.of("[\"quote \\\" slash \\/ newline \\n unicode \\u00e9 \\uD83D\\uDE00\"]");
+
+        reader.beginArray();
+
+        assertThat(reader.nextString(), is("quote \" slash / newline \n unicode \u00e9 \ud83d\ude00"));
+    }
+
+    @Test
+    public void willSkipNestedValues() {
+
+        final JsonReader reader = JsonReader.of("[{\"a\":[1,{\"b\":-2.5e-3}],\"c\":\"}\"},42]");
+
+        reader.beginArray();
+        reader.skipValue();
+
+        assertThat(reader.nextLong(), is(42L));
+    }
+
+    @Test
+    public void willReadAcrossTheBufferOfAReader() {
+
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ",").append("\"value \\\"").append(i).append("\\\"\"");
+        }
+        final JsonReader reader = JsonReader.of(new StringReader(json.append(']').toString()));
+
+        reader.beginArray();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(reader.nextString(), is("value \"" + i + "\""));
+        }
+        reader.endArray();
+    }
+
+    @Test
+    public void willReadUtf8FromAByteBuffer() {
+
+        final JsonReader reader = JsonReader.of(ByteBuffer.wrap("[\"\u00e9\u20ac\ud83d\ude00\"]".getBytes(StandardCharsets.UTF_8)));
+
+        reader.beginArray();
+
+        assertThat(reader.nextString(), is("\u00e9\u20ac\ud83d\ude00"));
+    }
+
+    @Test
+    public void willReadTheExtremesOfALong() {
+
+        final JsonReader reader = JsonReader.of("[9223372036854775807,-9223372036854775808]");
+
+        reader.beginArray();
+
+        assertThat(reader.nextLong(), is(Long.MAX_VALUE));
+        assertThat(reader.nextLong(), is(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void willNotReadALongThatIsOutOfRange() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid JSON; number out of range");
+
+        JsonReader.of("9223372036854775808").nextLong();
+    }
+
+    @Test
+    public void willNotReadAFractionAsALong() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid JSON; expected an integer at offset 1");
+
+        JsonReader.of("1.5").nextLong();
+    }
+
+    @Test
+    public void willNotReadAnUnexpectedToken() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid JSON; expected STRING but found NUMBER");
+
+        JsonReader.of("[1]").beginArray();
+        JsonReader.of("1").nextString();
+    }
+
+    @Test
+    public void willNotReadAMissingSeparator() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid JSON; expected ',' or '}' at offset 8");
+
+        final JsonReader reader = JsonReader.of("{\"a\":1 \"b\":2}");
+        reader.beginObject();
+        reader.nextName();
+        reader.nextLong();
+        reader.nextName();
+    }
+
+    @Test
+    public void willNotReadAnUnterminatedString() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid JSON; unterminated string");
+
+        JsonReader.of("\"abc").nextString();
+    }
+
+    @Test
+    public void willNotReadMalformedUtf8() {
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid JSON; malformed UTF-8");
+
+        JsonReader.of(ByteBuffer.wrap(new byte[] { '"', (byte) 0xC3, '"' })).nextString();
+    }
+}
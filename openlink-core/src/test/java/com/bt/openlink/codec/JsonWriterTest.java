@@ -0,0 +1,105 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.bt.openlink.CoreFixtures;
+
+public class JsonWriterTest {
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    private final StringBuilder json = new StringBuilder();
+    private final JsonWriter writer = JsonWriter.of(json);
+
+    @Test
+    public void willSeparateTheMembersOfObjectsAndArrays() {
+
+        writer.beginObject()
+                .name("a").value(1)
+                .name("b").beginArray().value(true).nullValue().beginObject().endObject().beginArray().endArray().endArray()
+                .name("c").value("d")
+                .endObject();
+
+        assertThat(json.toString(), is("{\"a\":1,\"b\":[true,null,{},[]],\"c\":\"d\"}"));
+    }
+
+    @Test
+    public void willEscapeStrings() {
+
+        writer.value("quote \" backslash \\ newline \n tab \t nul \u0000 unicode \u00e9");
+
+        assertThat(json.toString(), is("\"quote \\\" backslash \\\\ newline \\n tab \\t nul \\u0000 unicode \u00e9\""));
+    }
+
+    @Test
+    public void willWriteAnInstantAsAnXep0082Timestamp() {
+
+        writer.value(CoreFixtures.START_TIME);
+
+        assertThat(json.toString(), is("\"" + CoreFixtures.START_TIME_ISO_8601 + "\""));
+    }
+
+    @Test
+    public void willWriteUtf8ToAByteBuffer() {
+
+        final String value = "\u00e9\u20ac\ud83d\ude00\ud83d";
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        JsonWriter.of(buffer).beginArray().value(value).value(Long.MIN_VALUE).endArray();
+
+        buffer.flip();
+        assertThat(StandardCharsets.UTF_8.decode(buffer).toString(), is("[\"" + value.substring(0, 4) + "?\"," + Long.MIN_VALUE + "]"));
+    }
+
+    @Test
+    public void willWriteToAWriter() {
+
+        final StringWriter stringWriter = new StringWriter();
+
+        JsonWriter.of(stringWriter).beginArray().value("a").value(-1).endArray();
+
+        assertThat(stringWriter.toString(), is("[\"a\",-1]"));
+    }
+
+    @Test
+    public void willOverflowASmallByteBuffer() {
+
+        expectedException.expect(BufferOverflowException.class);
+
+        JsonWriter.of(ByteBuffer.allocate(4)).value("too long");
+    }
+
+    @Test
+    public void willRethrowAnIOException() {
+
+        expectedException.expect(UncheckedIOException.class);
+
+        JsonWriter.of(new Writer() {
+            @Override
+            public void write(final char[] chars, final int offset, final int length) throws IOException {
+                throw new IOException("closed");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        }).value("a");
+    }
+}
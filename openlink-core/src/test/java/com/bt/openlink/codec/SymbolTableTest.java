@@ -0,0 +1,77 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Optional;
+
+import org.junit.Test;
+
+@SuppressWarnings("ConstantConditions")
+public class SymbolTableTest {
+
+    private enum Colour {
+        RED("Red"), GREEN("Green"), BLUE("Blue"), ALSO_RED("RED");
+
+        private final String label;
+
+        Colour(final String label) {
+            this.label = label;
+        }
+
+        private String getLabel() {
+            return label;
+        }
+    }
+
+    private final SymbolTable<Colour> caseInsensitiveTable = SymbolTable.caseInsensitive(Colour.values(), Colour::getLabel);
+    private final SymbolTable<Colour> caseSensitiveTable = SymbolTable.caseSensitive(Colour.values(), Colour::getLabel);
+
+    @Test
+    public void willLookUpASymbolRegardlessOfCase() {
+
+        assertThat(caseInsensitiveTable.lookup("Green").get(), is(Colour.GREEN));
+        assertThat(caseInsensitiveTable.lookup("gREEN").get(), is(Colour.GREEN));
+        assertThat(caseInsensitiveTable.lookup(new StringBuilder("blue")).get(), is(Colour.BLUE));
+    }
+
+    @Test
+    public void willPreferTheFirstDeclaredConstant() {
+
+        assertThat(caseInsensitiveTable.lookup("red").get(), is(Colour.RED));
+        assertThat(caseSensitiveTable.lookup("RED").get(), is(Colour.ALSO_RED));
+    }
+
+    @Test
+    public void willOnlyLookUpASymbolOfTheSameCase() {
+
+        assertThat(caseSensitiveTable.lookup("Green").get(), is(Colour.GREEN));
+        assertThat(caseSensitiveTable.lookup("green"), is(Optional.empty()));
+    }
+
+    @Test
+    public void willNotLookUpAnUnknownSymbol() {
+
+        assertThat(caseInsensitiveTable.lookup("Purple"), is(Optional.empty()));
+        assertThat(caseInsensitiveTable.lookup("Gree"), is(Optional.empty()));
+        assertThat(caseInsensitiveTable.lookup(""), is(Optional.empty()));
+        assertThat(caseInsensitiveTable.lookup((CharSequence) null), is(Optional.empty()));
+    }
+
+    @Test
+    public void willLookUpASymbolInACharacterArray() {
+
+        final char[] chars = "<colour>blue</colour>".toCharArray();
+
+        assertThat(caseInsensitiveTable.lookup(chars, 8, 4).get(), is(Colour.BLUE));
+        assertThat(caseSensitiveTable.lookup(chars, 8, 4), is(Optional.empty()));
+        assertThat(caseInsensitiveTable.lookup(chars, 8, 3), is(Optional.empty()));
+    }
+
+    @Test
+    public void willMatchTheSameSymbolsAsEqualsIgnoreCase() {
+
+        // U+0131 (dotless i) and U+212A (Kelvin sign) are equal to 'i' and 'k' when ignoring case
+        assertThat(SymbolTable.caseInsensitive(Colour.values(), colour -> colour.getLabel() + "ik").lookup("Blue\u0131\u212A").get(), is(Colour.BLUE));
+    }
+}
@@ -0,0 +1,110 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class TimestampCodecTest {
+
+    private static final DateTimeFormatter ISO_8601_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+    private static final DateTimeFormatter LEGACY_FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH);
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void willFormatAnIso8601Timestamp() {
+
+        assertThat(TimestampCodec.formatIso8601(Instant.parse("2017-10-09T08:07:00.123456Z")), is("2017-10-09T08:07:00.123Z"));
+        assertThat(TimestampCodec.formatIso8601(Instant.parse("2017-10-09T08:07:00Z")), is("2017-10-09T08:07:00.000Z"));
+        assertThat(TimestampCodec.formatIso8601(Instant.parse("1969-12-31T23:59:59.999Z")), is("1969-12-31T23:59:59.999Z"));
+    }
+
+    @Test
+    public void willFormatALegacyTimestamp() {
+
+        assertThat(TimestampCodec.formatLegacy(Instant.parse("2017-10-09T08:07:00.123Z")), is("Mon Oct 09 08:07:00 UTC 2017"));
+        assertThat(TimestampCodec.formatLegacy(Instant.parse("2016-02-29T23:59:59Z")), is("Mon Feb 29 23:59:59 UTC 2016"));
+    }
+
+    @Test
+    public void willFormatTheSameAsADateTimeFormatter() {
+
+        for (long epochSecond = -1_000_000_000L; epochSecond < 4_000_000_000L; epochSecond += 86_399_999L) {
+            final Instant instant = Instant.ofEpochSecond(epochSecond, epochSecond & 0x3fffffff);
+            assertThat(TimestampCodec.formatIso8601(instant), is(ISO_8601_FORMATTER.format(instant.atZone(UTC))));
+            assertThat(TimestampCodec.formatLegacy(instant), is(LEGACY_FORMATTER.format(instant.atZone(UTC))));
+        }
+    }
+
+    @Test
+    public void willFormatYearsOutsideTheFixedLayout() {
+
+        final Instant instant = Instant.parse("+12017-10-09T08:07:00Z");
+
+        assertThat(TimestampCodec.formatIso8601(instant), is(ISO_8601_FORMATTER.format(instant.atZone(UTC))));
+        assertThat(TimestampCodec.formatLegacy(instant), is(LEGACY_FORMATTER.format(instant.atZone(UTC))));
+    }
+
+    @Test
+    public void willParseAnIso8601Timestamp() {
+
+        assertThat(TimestampCodec.parseIso8601("2017-10-09T08:07:00.123Z"), is(Instant.parse("2017-10-09T08:07:00.123Z")));
+        assertThat(TimestampCodec.parseIso8601("2017-10-09T08:07:00.123Z"), is(Instant.parse("2017-10-09T08:07:00.123Z")));
+        assertThat(TimestampCodec.parseIso8601("2017-10-09T08:07:00.5Z"), is(Instant.parse("2017-10-09T08:07:00.500Z")));
+        assertThat(TimestampCodec.parseIso8601("2017-10-09T08:07:00Z"), is(Instant.parse("2017-10-09T08:07:00Z")));
+        assertThat(TimestampCodec.parseIso8601("2017-10-09T08:07:00.123456789Z"), is(Instant.parse("2017-10-09T08:07:00.123456789Z")));
+    }
+
+    @Test
+    public void willParseIso8601TimestampsOutsideTheFixedLayout() {
+
+        assertThat(TimestampCodec.parseIso8601("2017-10-09t08:07:00z"), is(Instant.parse("2017-10-09T08:07:00Z")));
+        assertThat(TimestampCodec.parseIso8601("2017-10-09T23:59:60Z"), is(Instant.parse("2017-10-09T23:59:60Z")));
+        assertThat(TimestampCodec.parseIso8601("+12017-10-09T08:07:00Z"), is(Instant.parse("+12017-10-09T08:07:00Z")));
+    }
+
+    @Test
+    public void willNotParseAnInvalidIso8601Timestamp() {
+
+        expectedException.expect(DateTimeParseException.class);
+
+        TimestampCodec.parseIso8601("2017-02-30T08:07:00.000Z");
+    }
+
+    @Test
+    public void willParseALegacyTimestamp() {
+
+        assertThat(TimestampCodec.parseLegacy("Mon Oct 09 08:07:00 UTC 2017"), is(Instant.parse("2017-10-09T08:07:00Z")));
+        assertThat(TimestampCodec.parseLegacy("Mon Oct 09 08:07:00 UTC 2017"), is(Instant.parse("2017-10-09T08:07:00Z")));
+        assertThat(TimestampCodec.parseLegacy("Mon Oct 09 08:07:00 GMT 2017"), is(Instant.parse("2017-10-09T08:07:00Z")));
+        assertThat(TimestampCodec.parseLegacy("Mon Oct 09 09:07:00 CET 2017"), is(Instant.from(LEGACY_FORMATTER.parse("Mon Oct 09 09:07:00 CET 2017"))));
+    }
+
+    @Test
+    public void willNotParseALegacyTimestampWithTheWrongDayOfTheWeek() {
+
+        expectedException.expect(DateTimeParseException.class);
+
+        TimestampCodec.parseLegacy("Tue Oct 09 08:07:00 UTC 2017");
+    }
+
+    @Test
+    public void willCheckALegacyTimestampWithoutParsingIt() {
+
+        final Instant instant = Instant.parse("2017-10-09T08:07:00Z");
+
+        assertThat(TimestampCodec.isLegacyTimestampOf("Mon Oct 09 08:07:00 UTC 2017", instant), is(true));
+        assertThat(TimestampCodec.isLegacyTimestampOf("Mon Oct 09 08:07:01 UTC 2017", instant), is(false));
+        assertThat(TimestampCodec.isLegacyTimestampOf("Mon Oct 09 08:07:00 UTC 2017", instant.plusMillis(1)), is(false));
+    }
+}
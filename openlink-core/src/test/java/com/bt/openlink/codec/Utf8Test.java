@@ -0,0 +1,39 @@
+package com.bt.openlink.codec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class Utf8Test {
+
+    private static byte[] encode(final String text, final int start, final int end) {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        Utf8.encode(text, start, end, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    @Test
+    public void willEncodeAsStringGetBytesDoes() {
+
+        for (final String text : Arrays.asList("", "ascii", "caf\u00e9", "\u20ac10", "\ud83d\ude00!", "lone \ud83d high", "lone \ude00 low", "\ude00\ud83d")) {
+            final byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+
+            assertThat(text, encode(text, 0, text.length()), is(expected));
+            assertThat(text, Utf8.encodedLength(text, 0, text.length()), is(expected.length));
+        }
+    }
+
+    @Test
+    public void willNotPairASurrogateBeyondTheEnd() {
+
+        final String text = "a\ud83d\ude00";
+
+        assertThat(encode(text, 0, 2), is(new byte[]{'a', '?'}));
+        assertThat(Utf8.encodedLength(text, 0, 2), is(2));
+    }
+}
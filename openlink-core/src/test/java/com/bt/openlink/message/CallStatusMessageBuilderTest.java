@@ -58,6 +58,27 @@ public class CallStatusMessageBuilderTest {
         assertThat(calls.get(0).getId().get(), is(CoreFixtures.CALL_ID));
     }
 
+    @Test
+    public void willValidateABuilderWithoutARecipient() {
+
+        builder.setTo(null)
+                .addCall(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                .validateWithoutRecipient();
+
+        assertThat(builder.isCallStatusBusy().get(), is(false));
+    }
+
+    @Test
+    public void willNotValidateABuilderWithoutARecipient() {
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("The stanza 'to' has not been set");
+
+        builder.setTo(null)
+                .addCall(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                .validate();
+    }
+
     @Test
     public void willNotValidateABuilderWithoutAnyCalls() {
 
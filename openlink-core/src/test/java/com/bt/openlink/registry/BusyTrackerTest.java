@@ -0,0 +1,261 @@
+package com.bt.openlink.registry;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.InterestId;
+import com.bt.openlink.type.UserId;
+
+@SuppressWarnings("ConstantConditions")
+public class BusyTrackerTest {
+
+    private static final InterestId OTHER_INTEREST_ID = InterestId.from("test-other-interest-id").get();
+
+    private final BusyTracker tracker = new BusyTracker();
+    private final List<String> changes = new ArrayList<>();
+
+    private static Call call(final String callId, final InterestId interestId, final CallState state) {
+        return Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.ALL)
+                .setId(CallId.from(callId).get())
+                .setInterestId(interestId)
+                .setState(state)
+                .build();
+    }
+
+    @Before
+    public void setUp() {
+        tracker.addListener(new BusyTracker.Listener() {
+            @Override
+            public void interestBusyChanged(final InterestId interestId, final boolean busy) {
+                changes.add(interestId + "=" + busy);
+            }
+
+            @Override
+            public void userBusyChanged(final UserId userId, final boolean busy) {
+                changes.add(userId + "=" + busy);
+            }
+        });
+    }
+
+    @Test
+    public void willNotKnowTheBusyStateWithoutCalls() {
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.empty()));
+        assertThat(tracker.isUserBusy(CoreFixtures.USER_ID), is(Optional.empty()));
+    }
+
+    @Test
+    public void willTrackTheBusyStateAsCallsAreUpdated() {
+
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ORIGINATED));
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.of(false)));
+        assertThat(tracker.isUserBusy(CoreFixtures.USER_ID), is(Optional.of(false)));
+        assertThat(changes.isEmpty(), is(true));
+
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED));
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.of(true)));
+        assertThat(tracker.isUserBusy(CoreFixtures.USER_ID), is(Optional.of(true)));
+        assertThat(changes, is(Arrays.asList(CoreFixtures.INTEREST_ID + "=true", CoreFixtures.USER_ID + "=true")));
+
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_HELD));
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.of(false)));
+        assertThat(changes.size(), is(4));
+    }
+
+    @Test
+    public void willRemainBusyWhileAnyCallIsParticipating() {
+
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED));
+        tracker.update(call("call-2", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED));
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_HELD));
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.of(true)));
+        assertThat(changes.size(), is(2));
+    }
+
+    @Test
+    public void willRemoveACallThatHasEnded() {
+
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED));
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_FAILED));
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.empty()));
+        assertThat(changes, is(Arrays.asList(
+                CoreFixtures.INTEREST_ID + "=true", CoreFixtures.USER_ID + "=true",
+                CoreFixtures.INTEREST_ID + "=false", CoreFixtures.USER_ID + "=false")));
+    }
+
+    @Test
+    public void willMoveACallThatChangesInterestWithoutTheUserCeasingToBeBusy() {
+
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED));
+        changes.clear();
+
+        tracker.update(call("call-1", OTHER_INTEREST_ID, CallState.CALL_ESTABLISHED));
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.empty()));
+        assertThat(tracker.isInterestBusy(OTHER_INTEREST_ID), is(Optional.of(true)));
+        assertThat(tracker.isUserBusy(CoreFixtures.USER_ID), is(Optional.of(true)));
+        assertThat(changes, is(Arrays.asList(CoreFixtures.INTEREST_ID + "=false", OTHER_INTEREST_ID + "=true")));
+    }
+
+    @Test
+    public void willApplyADeltaToTheFieldsItCarries() {
+
+        tracker.update(CoreFixtures.CALL_INCOMING_ORIGINATED);
+        final Call delta = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(Collections.singleton(CallField.STATE))
+                .setId(CoreFixtures.CALL_ID)
+                .setState(CallState.CALL_ESTABLISHED)
+                .build();
+
+        tracker.update(delta);
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.of(true)));
+        assertThat(tracker.isUserBusy(CoreFixtures.USER_ID), is(Optional.of(true)));
+    }
+
+    @Test
+    public void willRemoveCalls() {
+
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED));
+        tracker.update(call("call-2", OTHER_INTEREST_ID, CallState.CALL_ESTABLISHED));
+
+        tracker.remove(CallId.from("call-1").get());
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.empty()));
+        assertThat(tracker.isUserBusy(CoreFixtures.USER_ID), is(Optional.of(true)));
+
+        tracker.clear();
+
+        assertThat(tracker.isInterestBusy(OTHER_INTEREST_ID), is(Optional.empty()));
+        assertThat(tracker.isUserBusy(CoreFixtures.USER_ID), is(Optional.empty()));
+    }
+
+    @Test
+    public void willAgreeWithOneOrMoreCallsIsBusy() {
+
+        final List<Call> calls = Arrays.asList(
+                call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_HELD),
+                call("call-2", CoreFixtures.INTEREST_ID, CallState.CALL_CONFERENCED),
+                call("call-3", CoreFixtures.INTEREST_ID, CallState.CALL_ORIGINATED));
+
+        calls.forEach(tracker::update);
+
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Call.oneOrMoreCallsIsBusy(calls)));
+    }
+
+    @Test
+    public void willNeverLoseTheUserWhileACallMovesBetweenInterests() throws Exception {
+
+        final Call[] moves = {
+                call("call-1", OTHER_INTEREST_ID, CallState.CALL_HELD),
+                call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED)};
+        tracker.update(moves[1]);
+        final AtomicBoolean moving = new AtomicBoolean(true);
+        final AtomicInteger inconsistentReads = new AtomicInteger();
+        final List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            readers.add(new Thread(() -> {
+                while (moving.get()) {
+                    if (!tracker.isUserBusy(CoreFixtures.USER_ID).isPresent()
+                            || tracker.isInterestBusy(CoreFixtures.INTEREST_ID).equals(Optional.of(false))) {
+                        inconsistentReads.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+
+        for (int i = 0; i < 20000; i++) {
+            tracker.update(moves[i % 2]);
+        }
+        moving.set(false);
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat(inconsistentReads.get(), is(0));
+        assertThat(tracker.isUserBusy(CoreFixtures.USER_ID), is(Optional.of(true)));
+    }
+
+    @Test
+    public void willNotifyTheChangesOfAnInterestInOrderWhileItIsUpdatedConcurrently() throws Exception {
+
+        final AtomicInteger notifying = new AtomicInteger();
+        final AtomicInteger misorderedNotifications = new AtomicInteger();
+        final AtomicBoolean interestBusy = new AtomicBoolean();
+        tracker.addListener(new BusyTracker.Listener() {
+            @Override
+            public void interestBusyChanged(final InterestId interestId, final boolean busy) {
+                if (notifying.incrementAndGet() != 1 || interestBusy.getAndSet(busy) == busy) {
+                    misorderedNotifications.incrementAndGet();
+                }
+                notifying.decrementAndGet();
+            }
+        });
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final String callId = "call-" + t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    tracker.update(call(callId, CoreFixtures.INTEREST_ID, i % 2 == 0 ? CallState.CALL_ESTABLISHED : CallState.CALL_HELD));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(misorderedNotifications.get(), is(0));
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.of(interestBusy.get())));
+    }
+
+    @Test(timeout = 10000)
+    public void willNotifyListenersOnceTheUpdateHasReleasedItsLocks() throws Exception {
+
+        final Call otherCall = call("call-2", CoreFixtures.INTEREST_ID, CallState.CALL_HELD);
+        final AtomicBoolean updated = new AtomicBoolean();
+        tracker.addListener(new BusyTracker.Listener() {
+            @Override
+            public void interestBusyChanged(final InterestId interestId, final boolean busy) {
+                // Another thread updating the same interest would block if the listener was called with it locked
+                final Thread updater = new Thread(() -> tracker.update(otherCall));
+                updater.start();
+                try {
+                    updater.join();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                updated.set(true);
+            }
+        });
+
+        tracker.update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED));
+
+        assertThat(updated.get(), is(true));
+        assertThat(tracker.isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.of(true)));
+    }
+}
@@ -0,0 +1,241 @@
+package com.bt.openlink.registry;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.InterestId;
+import com.bt.openlink.type.UserId;
+
+@SuppressWarnings("ConstantConditions")
+public class CallRegistryTest {
+
+    private static final InterestId OTHER_INTEREST_ID = InterestId.from("test-other-interest-id").get();
+
+    private final CallRegistry registry = new CallRegistry();
+
+    private static Call call(final String callId, final InterestId interestId, final CallState state) {
+        return Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.ALL)
+                .setId(CallId.from(callId).get())
+                .setInterestId(interestId)
+                .setState(state)
+                .build();
+    }
+
+    @Test
+    public void willHoldTheLatestVersionOfACall() {
+
+        registry.apply(CoreFixtures.CALL_INCOMING_ORIGINATED);
+        final Call call = call(CoreFixtures.CALL_ID.value(), CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED);
+        registry.apply(call);
+
+        assertThat(registry.getCall(CoreFixtures.CALL_ID).get(), is(sameInstance(call)));
+        assertThat(registry.getCalls(), is(Collections.singletonList(call)));
+        assertThat(registry.size(), is(1));
+    }
+
+    @Test
+    public void willListTheCallsByInterestProfileAndUser() {
+
+        final Call firstCall = call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ORIGINATED);
+        final Call secondCall = call("call-2", OTHER_INTEREST_ID, CallState.CALL_ORIGINATED);
+
+        registry.apply(Arrays.asList(firstCall, secondCall));
+
+        assertThat(registry.getCallsForInterest(CoreFixtures.INTEREST_ID), is(Collections.singletonList(firstCall)));
+        assertThat(registry.getCallsForInterest(OTHER_INTEREST_ID), is(Collections.singletonList(secondCall)));
+        assertThat(registry.getCallsForProfile(CoreFixtures.PROFILE_ID).size(), is(2));
+        assertThat(registry.getCallsForUser(CoreFixtures.USER_ID).size(), is(2));
+    }
+
+    @Test
+    public void willMoveACallThatChangesInterest() {
+
+        registry.apply(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ORIGINATED));
+        final Call call = call("call-1", OTHER_INTEREST_ID, CallState.CALL_ESTABLISHED);
+
+        registry.apply(call);
+
+        assertThat(registry.getCallsForInterest(CoreFixtures.INTEREST_ID).isEmpty(), is(true));
+        assertThat(registry.getCallsForInterest(OTHER_INTEREST_ID), is(Collections.singletonList(call)));
+        assertThat(registry.getCallsForProfile(CoreFixtures.PROFILE_ID), is(Collections.singletonList(call)));
+    }
+
+    @Test
+    public void willRemoveACallThatHasEnded() {
+
+        registry.apply(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        final Optional<Call> call = registry.apply(call(CoreFixtures.CALL_ID.value(), CoreFixtures.INTEREST_ID, CallState.CONNECTION_CLEARED));
+
+        assertThat(call.isPresent(), is(false));
+        assertThat(registry.getCall(CoreFixtures.CALL_ID).isPresent(), is(false));
+        assertThat(registry.getCallsForInterest(CoreFixtures.INTEREST_ID).isEmpty(), is(true));
+        assertThat(registry.getCallsForUser(CoreFixtures.USER_ID).isEmpty(), is(true));
+        assertThat(registry.size(), is(0));
+    }
+
+    @Test
+    public void willNotHoldAMissedCall() {
+
+        registry.apply(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_MISSED));
+
+        assertThat(registry.size(), is(0));
+    }
+
+    @Test
+    public void willMergeADeltaIntoTheCall() {
+
+        registry.apply(CoreFixtures.CALL_INCOMING_ORIGINATED);
+        final Call delta = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(EnumSet.of(CallField.ID, CallField.STATE, CallField.DURATION))
+                .setId(CoreFixtures.CALL_ID)
+                .setState(CallState.CALL_HELD)
+                .setDuration(Duration.ofMinutes(2))
+                .build();
+
+        final Call call = registry.apply(delta).get();
+
+        assertThat(call.isDelta(), is(false));
+        assertThat(call.getState().get(), is(CallState.CALL_HELD));
+        assertThat(call.getInterestId(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getInterestId()));
+        assertThat(registry.getCallsForInterest(CoreFixtures.INTEREST_ID), is(Collections.singletonList(call)));
+    }
+
+    @Test
+    public void willIgnoreACallWithoutAnId() {
+
+        final Optional<Call> call = registry.apply(Call.Builder.start().setState(CallState.CALL_HELD).build(new ArrayList<>()));
+
+        assertThat(call.isPresent(), is(false));
+        assertThat(registry.size(), is(0));
+    }
+
+    @Test
+    public void willRemoveACall() {
+
+        registry.apply(CoreFixtures.CALL_INCOMING_ORIGINATED);
+
+        final Optional<Call> call = registry.remove(CoreFixtures.CALL_ID);
+
+        assertThat(call.get(), is(sameInstance(CoreFixtures.CALL_INCOMING_ORIGINATED)));
+        assertThat(registry.getCallsForInterest(CoreFixtures.INTEREST_ID).isEmpty(), is(true));
+        assertThat(registry.remove(CoreFixtures.CALL_ID).isPresent(), is(false));
+    }
+
+    @Test
+    public void willRemoveEveryCall() {
+
+        registry.apply(Arrays.asList(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ORIGINATED), call("call-2", OTHER_INTEREST_ID, CallState.CALL_ORIGINATED)));
+
+        registry.clear();
+
+        assertThat(registry.size(), is(0));
+        assertThat(registry.getCallsForProfile(CoreFixtures.PROFILE_ID).isEmpty(), is(true));
+    }
+
+    @Test
+    public void willApplyCallsConcurrently() throws Exception {
+
+        final int threadCount = 4;
+        final int callsPerThread = 500;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < callsPerThread; i++) {
+                    final String callId = "call-" + (i % 50);
+                    final InterestId interestId = (i + thread) % 2 == 0 ? CoreFixtures.INTEREST_ID : OTHER_INTEREST_ID;
+                    registry.apply(call(callId, interestId, i % 7 == 0 ? CallState.CONNECTION_CLEARED : CallState.CALL_ESTABLISHED));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final int callsByInterest = registry.getCallsForInterest(CoreFixtures.INTEREST_ID).size() + registry.getCallsForInterest(OTHER_INTEREST_ID).size();
+        assertThat(callsByInterest, is(registry.size()));
+        assertThat(registry.getCallsForUser(CoreFixtures.USER_ID).size(), is(registry.size()));
+        for (final Call call : registry.getCallsForInterest(OTHER_INTEREST_ID)) {
+            assertThat(registry.getCall(call.getId().get()).get(), is(sameInstance(call)));
+        }
+    }
+
+    @Test
+    public void willTrackTheBusyStateOfTheCallsHeld() {
+
+        registry.apply(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED));
+
+        assertThat(registry.getBusyTracker().isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.of(true)));
+
+        registry.remove(CallId.from("call-1").get());
+
+        assertThat(registry.getBusyTracker().isInterestBusy(CoreFixtures.INTEREST_ID), is(Optional.empty()));
+    }
+
+    @Test
+    public void willNeverLoseTheInterestWhileACallMovesBetweenUsers() throws Exception {
+
+        final UserId otherUserId = UserId.from("test-other-user-id").get();
+        final Call[] moves = {
+                Call.Builder.start().copyFields(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_HELD), CallField.ALL).setUserId(otherUserId).build(),
+                call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED)};
+        registry.apply(moves[1]);
+        final AtomicBoolean moving = new AtomicBoolean(true);
+        final AtomicInteger inconsistentReads = new AtomicInteger();
+        final Thread reader = new Thread(() -> {
+            while (moving.get()) {
+                if (!registry.getBusyTracker().isInterestBusy(CoreFixtures.INTEREST_ID).isPresent()
+                        || registry.getBusyTracker().isUserBusy(CoreFixtures.USER_ID).equals(Optional.of(false))) {
+                    inconsistentReads.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 20000; i++) {
+            registry.apply(moves[i % 2]);
+        }
+        moving.set(false);
+        reader.join();
+
+        assertThat(inconsistentReads.get(), is(0));
+        assertThat(registry.getBusyTracker().isUserBusy(CoreFixtures.USER_ID), is(Optional.of(true)));
+        assertThat(registry.getBusyTracker().isUserBusy(otherUserId), is(Optional.empty()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void willNotAllowTheBusyTrackerToBeUpdatedOtherThanByTheRegistry() {
+
+        registry.getBusyTracker().update(call("call-1", CoreFixtures.INTEREST_ID, CallState.CALL_ESTABLISHED));
+    }
+}
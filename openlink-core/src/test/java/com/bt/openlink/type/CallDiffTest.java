@@ -0,0 +1,142 @@
+package com.bt.openlink.type;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.bt.openlink.CoreFixtures;
+
+@SuppressWarnings("ConstantConditions")
+public class CallDiffTest {
+
+    private static Call.Builder copyOf(final Call call) {
+        return Call.Builder.start().copyFields(call, CallField.ALL);
+    }
+
+    @Test
+    public void willReportNoChangesBetweenCallsWithTheSameValues() {
+
+        final CallDiff diff = CallDiff.between(CoreFixtures.CALL_INCOMING_ORIGINATED, copyOf(CoreFixtures.CALL_INCOMING_ORIGINATED).build());
+
+        assertThat(diff, is(sameInstance(CallDiff.NONE)));
+        assertThat(diff.isEmpty(), is(true));
+        assertThat(diff.getChanged(), is(Optional.empty()));
+    }
+
+    @Test
+    public void willReportTheChangedFields() {
+
+        final Call call = copyOf(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                .setState(CallState.CALL_ESTABLISHED)
+                .setDuration(Duration.ofMinutes(2))
+                .build();
+
+        final CallDiff diff = CallDiff.between(CoreFixtures.CALL_INCOMING_ORIGINATED, call);
+
+        assertThat(diff.isEmpty(), is(false));
+        assertThat(diff.getChangedFields(), is(EnumSet.of(CallField.STATE, CallField.DURATION)));
+        assertThat(diff.hasChanged(CallField.STATE), is(true));
+        assertThat(diff.hasChanged(CallField.CALLER), is(false));
+        assertThat(diff.getChanged().get(), is(Changed.STATE));
+    }
+
+    @Test
+    public void willReportTheAddedRemovedAndUpdatedParticipants() {
+
+        final Participant updatedParticipant = Participant.Builder.start()
+                .setJID(CoreFixtures.USER_BARE_JID_STRING)
+                .setType(ParticipantType.INACTIVE)
+                .setDirection(CallDirection.INCOMING)
+                .setStartTime(CoreFixtures.START_TIME)
+                .setDuration(CoreFixtures.DURATION)
+                .build();
+        final Participant addedParticipant = Participant.Builder.start()
+                .setJID("another-user@test-domain")
+                .setType(ParticipantType.ACTIVE)
+                .setDirection(CallDirection.OUTGOING)
+                .setStartTime(CoreFixtures.START_TIME)
+                .setDuration(CoreFixtures.DURATION)
+                .build();
+        final Call previousCall = copyOf(CoreFixtures.CALL_INCOMING_ORIGINATED).addParticipant(addedParticipant).build();
+        final Call call = Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, EnumSet.complementOf(EnumSet.of(CallField.PARTICIPANTS)))
+                .addParticipant(updatedParticipant)
+                .build();
+
+        final CallDiff diff = CallDiff.between(previousCall, call);
+
+        assertThat(diff.getChangedFields(), is(EnumSet.of(CallField.PARTICIPANTS)));
+        assertThat(diff.getAddedParticipants().isEmpty(), is(true));
+        assertThat(diff.getRemovedParticipants(), is(Collections.singletonList(addedParticipant)));
+        assertThat(diff.getUpdatedParticipants(), is(Collections.singletonList(updatedParticipant)));
+        assertThat(diff.getChanged().get(), is(Changed.PARTICIPANT));
+    }
+
+    @Test
+    public void willReportTheAddedAndRemovedActions() {
+
+        final Call call = Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, EnumSet.complementOf(EnumSet.of(CallField.ACTIONS)))
+                .addAction(RequestAction.CLEAR_CALL)
+                .build();
+
+        final CallDiff diff = CallDiff.between(CoreFixtures.CALL_INCOMING_ORIGINATED, call);
+
+        assertThat(diff.getAddedActions(), is(Collections.singletonList(RequestAction.CLEAR_CALL)));
+        assertThat(diff.getRemovedActions(), is(Collections.singletonList(RequestAction.ANSWER_CALL)));
+        assertThat(diff.getChanged().get(), is(Changed.ACTIONS));
+    }
+
+    @Test
+    public void willDeriveWhatHasChangedFromTheFeatures() {
+
+        final CallFeature privacy = CallFeatureBoolean.Builder.start().setId(FeatureId.from("priv_1").get()).setType(FeatureType.PRIVACY).setLabel("Privacy").setEnabled(true).build();
+        final Call.Builder builder = Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, EnumSet.complementOf(EnumSet.of(CallField.FEATURES)));
+        for (final CallFeature feature : CoreFixtures.CALL_INCOMING_ORIGINATED.getFeatures()) {
+            builder.addFeature(feature.getType().equals(Optional.of(FeatureType.PRIVACY)) ? privacy : feature);
+        }
+
+        final CallDiff diff = CallDiff.between(CoreFixtures.CALL_INCOMING_ORIGINATED, builder.build());
+
+        assertThat(diff.getUpdatedFeatures(), is(Collections.singletonList(privacy)));
+        assertThat(diff.getAddedFeatures().isEmpty(), is(true));
+        assertThat(diff.getRemovedFeatures().isEmpty(), is(true));
+        assertThat(diff.getChanged().get(), is(Changed.PRIVACY));
+    }
+
+    @Test
+    public void willSelectTheHighestPriorityChange() {
+
+        final Call call = copyOf(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                .setCalledName("another-called-name")
+                .setCallerName("another-caller-name")
+                .build();
+
+        final CallDiff diff = CallDiff.between(CoreFixtures.CALL_INCOMING_ORIGINATED, call);
+
+        assertThat(diff.getChanged().get(), is(Changed.CALLER));
+    }
+
+    @Test
+    public void willOnlyCompareTheFieldsOfADelta() {
+
+        final Call delta = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(EnumSet.of(CallField.ID, CallField.STATE))
+                .setId(CoreFixtures.CALL_ID)
+                .setState(CallState.CALL_ORIGINATED)
+                .build();
+
+        final CallDiff diff = CallDiff.between(CoreFixtures.CALL_INCOMING_ORIGINATED, delta);
+
+        assertThat(diff, is(sameInstance(CallDiff.NONE)));
+    }
+}
@@ -17,6 +17,23 @@ public class CallStateTest {
         assertThat(CallState.from(null), is(Optional.empty()));
     }
 
+    @Test
+    public void willParseCallTypesRegardlessOfCase() throws Exception {
+
+        assertThat(CallState.from("callbusy").get(), is(CallState.CALL_BUSY));
+        assertThat(CallState.from("CALLESTABLISHED").get(), is(CallState.CALL_ESTABLISHED));
+        assertThat(CallState.from("CallBusyX"), is(Optional.empty()));
+    }
+
+    @Test
+    public void willParseCallTypesFromACharacterArray() throws Exception {
+
+        final char[] chars = "<state>CallHeld</state>".toCharArray();
+
+        assertThat(CallState.from(chars, 7, 8).get(), is(CallState.CALL_HELD));
+        assertThat(CallState.from(chars, 7, 7), is(Optional.empty()));
+    }
+
 
     @Test
     public void aUserIsParticipatingInAnOutboundCalLDelivered() throws Exception {
@@ -27,4 +44,15 @@ public class CallStateTest {
     public void aUserIsNotParticipatingInAnInboundCalLDelivered() throws Exception {
         assertThat(CallState.CALL_DELIVERED.isParticipating(CallDirection.INCOMING), is(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void aClearedCallIsTerminal() throws Exception {
+        assertThat(CallState.CONNECTION_CLEARED.isTerminal(), is(true));
+        assertThat(CallState.CALL_MISSED.isTerminal(), is(true));
+    }
+
+    @Test
+    public void aHeldCallIsNotTerminal() throws Exception {
+        assertThat(CallState.CALL_HELD.isTerminal(), is(false));
+    }
+}
@@ -1,6 +1,7 @@
 package com.bt.openlink.type;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.junit.Assert.assertThat;
@@ -9,6 +10,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +19,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.codec.CanonicalPool;
 
 @SuppressWarnings("ConstantConditions")
 public class CallTest {
@@ -276,6 +279,48 @@ public class CallTest {
                 ));
     }
 
+    @Test
+    public void willCreateAPartiallyLoadedCallWithoutTheMandatoryFieldsThatWereNotLoaded() {
+
+        final Call call = Call.Builder.start()
+                .setLoadedFields(CallField.STATE_ONLY)
+                .setId(CoreFixtures.CALL_ID)
+                .setChanged(Changed.STATE)
+                .setState(CallState.CALL_ORIGINATED)
+                .setDirection(CallDirection.INCOMING)
+                .build();
+
+        assertThat(call.getId(), is(Optional.of(CoreFixtures.CALL_ID)));
+        assertThat(call.getState(), is(Optional.of(CallState.CALL_ORIGINATED)));
+        assertThat(call.getSite(), is(Optional.empty()));
+        assertThat(call.isLoaded(CallField.STATE), is(true));
+        assertThat(call.isLoaded(CallField.SITE), is(false));
+        assertThat(call.getLoadedFields(), is(CallField.STATE_ONLY));
+    }
+
+    @Test
+    public void willOnlyReportTheMandatoryFieldsThatWereLoaded() {
+        final List<String> errors = new ArrayList<>();
+
+        Call.Builder.start()
+                .setLoadedFields(CallField.STATE_ONLY)
+                .build(errors);
+
+        assertThat(errors, contains(
+                "Invalid call status; missing call id is mandatory",
+                "Invalid call status; missing call state is mandatory",
+                "Invalid call status; missing call direction is mandatory"
+                ));
+    }
+
+    @Test
+    public void aFullyLoadedCallHasEveryField() {
+
+        final Call call = Call.Builder.start().build(new ArrayList<>());
+
+        assertThat(call.getLoadedFields(), is(CallField.ALL));
+    }
+
     @Test
     public void aCallHasAnActiveHandset() {
         final Optional<FeatureId> activeHS = FeatureId.from("HS1");
@@ -325,6 +370,44 @@ public class CallTest {
         assertThat(call.getActiveHeadset(), is(activeHD));
     }
 
+    @Test
+    public void aCallWillIndexItsFeaturesByType() {
+        final CallFeature disabledHandset = CallFeatureBoolean.Builder.start()
+                .setType(FeatureType.HANDSET)
+                .setEnabled(false)
+                .setLabel("Handset 1")
+                .setId(FeatureId.from("HS1").get())
+                .build();
+        final CallFeature enabledHandset = CallFeatureBoolean.Builder.start()
+                .setType(FeatureType.HANDSET)
+                .setEnabled(true)
+                .setLabel("Handset 2")
+                .setId(FeatureId.from("HS2").get())
+                .build();
+        final CallFeature anotherEnabledHandset = CallFeatureBoolean.Builder.start()
+                .setType(FeatureType.HANDSET)
+                .setEnabled(true)
+                .setLabel("Handset 3")
+                .setId(FeatureId.from("HS3").get())
+                .build();
+        final Call call = Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, EnumSet.complementOf(EnumSet.of(CallField.FEATURES)))
+                .addFeature(disabledHandset)
+                .addFeature(CoreFixtures.SPEAKER_FEATURE)
+                .addFeature(enabledHandset)
+                .addFeature(anotherEnabledHandset)
+                .build();
+
+        assertThat(call.getFeatures(FeatureType.HANDSET), contains(disabledHandset, enabledHandset, anotherEnabledHandset));
+        assertThat(call.getEnabledFeatures(FeatureType.HANDSET), contains(enabledHandset, anotherEnabledHandset));
+        assertThat(call.getFeatures(FeatureType.HEADSET), is(empty()));
+        assertThat(call.hasEnabledFeature(FeatureType.HANDSET), is(true));
+        assertThat(call.hasEnabledFeature(FeatureType.HEADSET), is(false));
+        assertThat(call.getActiveHandset().get(), is(FeatureId.from("HS2").get()));
+        assertThat(call.getActiveHandset(), is(sameInstance(call.getActiveHandset())));
+        assertThat(call.getActiveSpeakerChannel().get(), is(CoreFixtures.SPEAKER_CHANNEL_NUMBER));
+    }
+
     @Test
     public void aCallHasAnActiveSpeakerChannel() {
         final Call call = Call.Builder.start()
@@ -390,4 +473,95 @@ public class CallTest {
         assertThat(call.isPrivate().get(), is(false));
         assertThat(call.isPublic().get(), is(true));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void willTakeTheValuesOfACallFromAPool() {
+        final CanonicalPool pool = new CanonicalPool(16);
+        final Call first = Call.Builder.start()
+                .setCanonicalPool(pool)
+                .setId(CallId.from("test-call-id").get())
+                .setCallerNumber(PhoneNumber.from("test-caller-number").get())
+                .addCallerE164Number(PhoneNumber.from("test-caller-number").get())
+                .setCalledName(new String("test-called-name"))
+                .build(new ArrayList<>());
+
+        final Call second = Call.Builder.start()
+                .setCanonicalPool(pool)
+                .setId(CallId.from("test-call-id").get())
+                .setCallerNumber(PhoneNumber.from("test-caller-number").get())
+                .addCallerE164Number(PhoneNumber.from("test-caller-number").get())
+                .setCalledName(new String("test-called-name"))
+                .build(new ArrayList<>());
+
+        assertThat(second.getId().get(), is(sameInstance(first.getId().get())));
+        assertThat(second.getCallerNumber().get(), is(sameInstance(first.getCallerNumber().get())));
+        assertThat(second.getCallerE164Numbers().get(0), is(sameInstance(first.getCallerNumber().get())));
+        assertThat(second.getCalledName().get(), is(sameInstance(first.getCalledName().get())));
+    }
+
+    @Test
+    public void willCopyTheFieldsOfACall() {
+
+        final Call call = Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.ALL)
+                .build();
+
+        for (final CallField field : CallField.values()) {
+            assertThat(field.name(), call.hasSameValue(field, CoreFixtures.CALL_INCOMING_ORIGINATED), is(true));
+        }
+    }
+
+    @Test
+    public void willOnlyCopyTheRequestedFieldsOfACall() {
+
+        final Call call = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(EnumSet.of(CallField.ID, CallField.STATE))
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, EnumSet.of(CallField.ID, CallField.STATE))
+                .build();
+
+        assertThat(call.isDelta(), is(true));
+        assertThat(call.getId().get(), is(CoreFixtures.CALL_ID));
+        assertThat(call.getState().get(), is(CallState.CALL_ORIGINATED));
+        assertThat(call.getSite(), is(Optional.empty()));
+        assertThat(call.hasSameValue(CallField.SITE, CoreFixtures.CALL_INCOMING_ORIGINATED), is(false));
+    }
+
+    @Test
+    public void willNotDeriveBusyFromADelta() {
+
+        final Call call = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(CallField.STATE_ONLY)
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.STATE_ONLY)
+                .build();
+
+        assertThat(Call.oneOrMoreCallsIsBusy(Collections.singletonList(call)), is(Optional.empty()));
+    }
+
+    @Test
+    public void callsWithTheSameValuesHaveTheSameContent() {
+
+        final Call call = Call.Builder.start().copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.ALL).build();
+
+        assertThat(call.hasSameContent(CoreFixtures.CALL_INCOMING_ORIGINATED), is(true));
+        assertThat(call.contentHash(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.contentHash()));
+    }
+
+    @Test
+    public void callsWithDifferentValuesOrFieldsHaveDifferentContent() {
+
+        final Call heldCall = Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.ALL)
+                .setState(CallState.CALL_HELD)
+                .build();
+        final Call delta = Call.Builder.start()
+                .setDelta(true)
+                .setLoadedFields(CallField.STATE_ONLY)
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.STATE_ONLY)
+                .build();
+
+        assertThat(heldCall.hasSameContent(CoreFixtures.CALL_INCOMING_ORIGINATED), is(false));
+        assertThat(delta.hasSameContent(CoreFixtures.CALL_INCOMING_ORIGINATED), is(false));
+    }
+}
@@ -1,6 +1,7 @@
 package com.bt.openlink.type;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertThat;
 
@@ -97,4 +98,16 @@ public class SiteTest {
         assertThat(Site.Type.from("BTSM").get(), is(Site.Type.BTSM));
         assertThat(Site.Type.from(null), is(Optional.empty()));
     }
+
+    @Test
+    public void sitesWithTheSameValuesAreEqual() throws Exception {
+
+        final Site site = Site.Builder.start().setName("test-site-name").setType(Site.Type.BTSM).setId(42).setDefault(true).build();
+        final Site sameSite = Site.Builder.start().setName("test-site-name").setType(Site.Type.BTSM).setId(42).setDefault(true).build();
+        final Site otherSite = Site.Builder.start().setName("test-site-name").setType(Site.Type.BTSM).setId(43).setDefault(true).build();
+
+        assertThat(sameSite, is(site));
+        assertThat(sameSite.hashCode(), is(site.hashCode()));
+        assertThat(otherSite, is(not(site)));
+    }
 }
\ No newline at end of file
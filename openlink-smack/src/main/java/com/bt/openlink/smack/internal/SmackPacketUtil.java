@@ -3,23 +3,23 @@ package com.bt.openlink.smack.internal;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.TimeZone;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import org.jivesoftware.smack.packet.IQ.IQChildElementXmlStringBuilder;
 import org.jivesoftware.smack.util.ParserUtils;
+import org.jivesoftware.smack.util.XmlStringBuilder;
 import org.jxmpp.jid.Jid;
 import org.jxmpp.jid.impl.JidCreate;
 import org.jxmpp.stringprep.XmppStringprepException;
@@ -27,17 +27,23 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.codec.CallFragmentCache;
+import com.bt.openlink.codec.CanonicalPool;
+import com.bt.openlink.codec.TimestampCodec;
 import com.bt.openlink.type.Call;
 import com.bt.openlink.type.CallDirection;
 import com.bt.openlink.type.CallFeature;
 import com.bt.openlink.type.CallFeatureBoolean;
 import com.bt.openlink.type.CallFeatureDeviceKey;
 import com.bt.openlink.type.CallFeatureSpeakerChannel;
+import com.bt.openlink.type.CallField;
 import com.bt.openlink.type.CallId;
 import com.bt.openlink.type.CallState;
 import com.bt.openlink.type.Changed;
 import com.bt.openlink.type.ConferenceId;
 import com.bt.openlink.type.DeviceKey;
+import com.bt.openlink.type.DeviceStatus;
 import com.bt.openlink.type.FeatureId;
 import com.bt.openlink.type.FeatureType;
 import com.bt.openlink.type.InterestId;
@@ -57,12 +63,96 @@ public final class SmackPacketUtil {
     private static final String ATTRIBUTE_TIMESTAMP = "timestamp";
     private static final String ATTRIBUTE_DURATION = "duration";
     private static final String ELEMENT_NUMBER = "number";
-    private static final DateTimeFormatter JAVA_UTIL_DATE_FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy");
-    private static final DateTimeFormatter ISO_8601_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+    private static final String ELEMENT_PROFILE = "profile";
+    private static final String CALL_DESCRIPTION = "call status";
+    // Identifies the fragments of calls encoded by this library in a CallFragmentCache
+    private static final String CALL_FRAGMENT_FORMAT = "smack";
+    private static final Map<OpenlinkXmppNamespace, String> COMMAND_IO_INPUT_START_TAGS = commandIOStartTags("action", "execute", "input", OpenlinkXmppNamespace.TAG_IN);
+    private static final Map<OpenlinkXmppNamespace, String> COMMAND_IO_OUTPUT_START_TAGS = commandIOStartTags("status", "completed", "output", OpenlinkXmppNamespace.TAG_OUT);
+    private static final String COMMAND_IO_INPUT_END_TAGS = new XmlStringBuilder().closeElement(OpenlinkXmppNamespace.TAG_IN).closeElement(OpenlinkXmppNamespace.TAG_IODATA).toString();
+    private static final String COMMAND_IO_OUTPUT_END_TAGS = new XmlStringBuilder().closeElement(OpenlinkXmppNamespace.TAG_OUT).closeElement(OpenlinkXmppNamespace.TAG_IODATA).toString();
 
     private SmackPacketUtil() {
     }
 
+    /**
+     * Completes the start tag of an ad-hoc command request, and starts its io-data input element. The text is compiled
+     * once for each command node, rather than escaped and written attribute by attribute for every request.
+     *
+     * @param xml  the builder of the command element, whose start tag is still open
+     * @param node the command node
+     * @param <X>  the type of the builder
+     * @return the builder
+     */
+    @Nonnull
+    public static <X extends XmlStringBuilder> X openCommandIOInput(@Nonnull final X xml, @Nonnull final OpenlinkXmppNamespace node) {
+        xml.append(COMMAND_IO_INPUT_START_TAGS.get(node));
+        return xml;
+    }
+
+    /**
+     * Ends the io-data input element started by {@link #openCommandIOInput(XmlStringBuilder, OpenlinkXmppNamespace)}.
+     *
+     * @param xml the builder of the command element
+     * @param <X> the type of the builder
+     * @return the builder
+     */
+    @Nonnull
+    public static <X extends XmlStringBuilder> X closeCommandIOInput(@Nonnull final X xml) {
+        xml.append(COMMAND_IO_INPUT_END_TAGS);
+        return xml;
+    }
+
+    /**
+     * Completes the start tag of a completed ad-hoc command result, and starts its io-data output element. The text is
+     * compiled once for each command node.
+     *
+     * @param xml  the builder of the command element, whose start tag is still open
+     * @param node the command node
+     * @param <X>  the type of the builder
+     * @return the builder
+     */
+    @Nonnull
+    public static <X extends XmlStringBuilder> X openCommandIOOutput(@Nonnull final X xml, @Nonnull final OpenlinkXmppNamespace node) {
+        xml.append(COMMAND_IO_OUTPUT_START_TAGS.get(node));
+        return xml;
+    }
+
+    /**
+     * Ends the io-data output element started by {@link #openCommandIOOutput(XmlStringBuilder, OpenlinkXmppNamespace)}.
+     *
+     * @param xml the builder of the command element
+     * @param <X> the type of the builder
+     * @return the builder
+     */
+    @Nonnull
+    public static <X extends XmlStringBuilder> X closeCommandIOOutput(@Nonnull final X xml) {
+        xml.append(COMMAND_IO_OUTPUT_END_TAGS);
+        return xml;
+    }
+
+    @Nonnull
+    private static Map<OpenlinkXmppNamespace, String> commandIOStartTags(
+            @Nonnull final String commandAttribute,
+            @Nonnull final String commandAttributeValue,
+            @Nonnull final String ioDataType,
+            @Nonnull final String ioElement) {
+        final Map<OpenlinkXmppNamespace, String> startTags = new EnumMap<>(OpenlinkXmppNamespace.class);
+        for (final OpenlinkXmppNamespace node : OpenlinkXmppNamespace.values()) {
+            final XmlStringBuilder xml = new XmlStringBuilder();
+            xml.attribute(commandAttribute, commandAttributeValue)
+                    .attribute("node", node.uri())
+                    .rightAngleBracket();
+            xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
+                    .attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri())
+                    .attribute("type", ioDataType)
+                    .rightAngleBracket();
+            xml.halfOpenElement(ioElement).rightAngleBracket();
+            startTags.put(node, xml.toString());
+        }
+        return startTags;
+    }
+
     @Nonnull
     public static Optional<Jid> getSmackJid(@Nullable String jidString) {
         try {
@@ -104,136 +194,185 @@ public final class SmackPacketUtil {
 
     public static Optional<Site> getSite(final XmlPullParser parser, final List<String> errors) throws IOException, XmlPullParserException {
         if (parser.getName().equals("site")) {
-            final Site.Builder siteBuilder = Site.Builder.start();
-            final Optional<Long> siteId = SmackPacketUtil.getLongAttribute(parser, "id");
-            siteId.ifPresent(siteBuilder::setId);
-            final Optional<Boolean> isDefaultSite = SmackPacketUtil.getBooleanAttribute(parser, OpenlinkXmppNamespace.TAG_DEFAULT);
-            isDefaultSite.ifPresent(siteBuilder::setDefault);
-            final Optional<Site.Type> siteType = Site.Type.from(SmackPacketUtil.getStringAttribute(parser, "type").orElse(null));
-            siteType.ifPresent(siteBuilder::setType);
-            parser.next();
-            final Optional<String> siteName = Optional.ofNullable(parser.getText());
-            siteName.ifPresent(siteBuilder::setName);
-            ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
+            final Site site = getSiteElement(parser, errors);
             parser.nextTag();
-            return Optional.of(siteBuilder.build(errors));
+            return Optional.of(site);
         } else {
             return Optional.empty();
         }
     }
-    
-    public static IQChildElementXmlStringBuilder addCalls(IQChildElementXmlStringBuilder xml,  @Nonnull final Collection<Call> calls) {
-		xml.openElement("call");
-		for (final Call call : calls) {
-			xml.optElement("id", call.getId().orElse(null));
-			xml.optElement("conference", call.getConferenceId().orElse(null));
-			call.getSite().ifPresent(site -> {
-				xml.halfOpenElement("site");
-				site.getId().ifPresent(id -> xml.attribute("id", String.valueOf(id)));
-				site.isDefault().ifPresent(
-						isDefault -> xml.attribute(OpenlinkXmppNamespace.TAG_DEFAULT, String.valueOf(isDefault)));
-				site.getType().ifPresent(type -> xml.attribute("type", type.name()));
-				xml.rightAngleBracket();
-				site.getName().ifPresent(xml::escape);
-				xml.closeElement("site");
-
-			});
-			xml.optElement("profile", call.getProfileId().orElse(null));
-			xml.optElement("user", call.getUserId().orElse(null));
-			xml.optElement("interest", call.getInterestId().orElse(null));
-			String changed=null;
-			if(call.getChanged().isPresent())
-				changed = call.getChanged().get().getId();
-			xml.optElement("changed", changed);
-			
-			String state=null;
-			if(call.getState().isPresent())
-				state =  call.getState().get().getLabel();
-			xml.optElement("state", state);
-			
-			String direction=null;
-			if(call.getDirection().isPresent())
-				direction = call.getDirection().get().getLabel();
-			xml.optElement("direction", direction);
-
-			xml.openElement("caller");
-			xml.halfOpenElement("number");
-			final String callerE164Numbers = String.join(",",
-					call.getCallerE164Numbers().stream().map(PhoneNumber::value).collect(Collectors.toList()));
-			xml.attribute("e164", callerE164Numbers);
-			xml.rightAngleBracket();
-			xml.escape(call.getCallerNumber().get().value());
-			xml.closeElement("number");
-			xml.optElement("name", call.getCallerName().get());
-			xml.closeElement("caller");
-
-			xml.openElement("called");
-			xml.halfOpenElement("number");
-			xml.attribute("destination", call.getCalledDestination().get().value());
-			final String calledE164Numbers = String.join(",",
-					call.getCalledE164Numbers().stream().map(PhoneNumber::value).collect(Collectors.toList()));
-			xml.attribute("e164", calledE164Numbers);
-			xml.rightAngleBracket();
-			xml.escape(call.getCalledNumber().get().value());
-			xml.closeElement("number");
-			xml.optElement("name", call.getCalledName().get());
-			xml.closeElement("called");
-
-			final List<OriginatorReference> originatorReferences = call.getOriginatorReferences();
-			if (!originatorReferences.isEmpty()) {
-				xml.openElement("originator-ref");
-				originatorReferences.forEach(originatorReference -> {
-					xml.halfOpenElement("property").attribute("id", originatorReference.getKey()).rightAngleBracket();
-					xml.optElement("value", originatorReference.getValue());
-					xml.closeElement("property");
-				});
-				xml.closeElement("originator-ref");
-			}
-
-			xml.optElement("start", (ISO_8601_FORMATTER.format(call.getStartTime().get().atZone(ZoneOffset.UTC))));
-			xml.optElement("duration", String.valueOf(call.getDuration().get().toMillis()));
-
-			final Collection<RequestAction> actions = call.getActions();
-			if (!actions.isEmpty()) {
-				xml.openElement("actions");
-				actions.forEach(action -> {xml.halfOpenElement(action.getId()).rightAngleBracket();
-				xml.closeElement(action.getId());
-				});
-				xml.closeElement("actions");
-			}
-
-			addFeatures(call, xml);
-
-			final List<Participant> participants = call.getParticipants();
-			if (!participants.isEmpty()) {
-				xml.openElement("participants");
-				participants.forEach(participant -> {
-					xml.halfOpenElement("participant");
-					xml.attribute("jid", participant.getJID().get());
-					xml.attribute("type", participant.getType().get().getId());
-					xml.attribute("direction", participant.getDirection().get().getLabel());
-					participant.getStartTime().ifPresent(startTime -> {
-						final ZonedDateTime startTimeInUTC = startTime.atZone(TimeZone.getTimeZone("UTC").toZoneId());
-						xml.attribute("start", ISO_8601_FORMATTER.format(startTimeInUTC));
-						// Include the legacy timestamp attribute too
-						xml.attribute("timestamp", JAVA_UTIL_DATE_FORMATTER.format(startTimeInUTC));
-					});
-					xml.attribute("duration", String.valueOf(participant.getDuration().get().toMillis()));
-					xml.rightAngleBracket();
-					xml.closeElement("participant");
-				});
-				xml.closeElement("participants");
-			}
-
-		}
-		xml.closeElement("call");
-		xml.closeElement("callstatus");
-		xml.closeElement(OpenlinkXmppNamespace.TAG_OUT);
-		xml.closeElement(OpenlinkXmppNamespace.TAG_IODATA);
-		return xml;
-	}
 
-	private static void addFeatures(final Call call, final IQChildElementXmlStringBuilder xml) {
+    /**
+     * Decodes a {@code <devicestatus>} element, leaving the parser on its end tag.
+     */
+    @Nonnull
+    public static Optional<DeviceStatus> getDeviceStatus(@Nonnull final XmlPullParser parser, @Nonnull final List<String> errors) throws IOException, XmlPullParserException {
+        DeviceStatus deviceStatus = null;
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            if (deviceStatus == null && parser.getName().equals(ELEMENT_PROFILE)) {
+                final DeviceStatus.Builder deviceStatusBuilder = DeviceStatus.Builder.start();
+                getBooleanAttribute(parser, "online").ifPresent(deviceStatusBuilder::setOnline);
+                ProfileId.from(parser.nextText().trim()).ifPresent(deviceStatusBuilder::setProfileId);
+                deviceStatus = deviceStatusBuilder.build(errors);
+            } else {
+                ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
+            }
+        }
+        return Optional.ofNullable(deviceStatus);
+    }
+
+    public static <X extends XmlStringBuilder> X addDeviceStatus(@Nonnull final X xml, @Nonnull final DeviceStatus deviceStatus) {
+        xml.halfOpenElement(ELEMENT_PROFILE);
+        deviceStatus.isOnline().ifPresent(online -> xml.attribute("online", String.valueOf(online)));
+        xml.rightAngleBracket();
+        deviceStatus.getProfileId().ifPresent(profileId -> xml.escape(profileId.value()));
+        xml.closeElement(ELEMENT_PROFILE);
+        return xml;
+    }
+
+    /**
+     * Adds a {@code <call>} element for each call; the caller is responsible for the enclosing {@code <callstatus>}
+     * element.
+     */
+    public static <X extends XmlStringBuilder> X addCalls(@Nonnull final X xml, @Nonnull final Collection<Call> calls) {
+        return addCalls(xml, calls, null);
+    }
+
+    /**
+     * Adds a {@code <call>} element for each call, reusing the element of any call that is already held by a cache;
+     * the caller is responsible for the enclosing {@code <callstatus>} element.
+     */
+    public static <X extends XmlStringBuilder> X addCalls(@Nonnull final X xml, @Nonnull final Collection<Call> calls, @Nullable final CallFragmentCache fragmentCache) {
+        for (final Call call : calls) {
+            if (fragmentCache == null) {
+                addCall(xml, call);
+            } else {
+                xml.append(fragmentCache.getFragment(CALL_FRAGMENT_FORMAT, call, SmackPacketUtil::encodeCall));
+            }
+        }
+        return xml;
+    }
+
+    @Nonnull
+    private static String encodeCall(@Nonnull final Call call) {
+        return addCall(new XmlStringBuilder(), call).toString();
+    }
+
+    private static <X extends XmlStringBuilder> X addCall(@Nonnull final X xml, @Nonnull final Call call) {
+        xml.halfOpenElement("call");
+        if (call.isDelta()) {
+            xml.attribute(OpenlinkXmppNamespace.TAG_FIELDS, CallField.toElementNames(call.getLoadedFields()));
+        }
+        xml.rightAngleBracket();
+        xml.optElement("id", call.getId().orElse(null));
+        xml.optElement("conference", call.getConferenceId().orElse(null));
+        call.getSite().ifPresent(site -> {
+            xml.halfOpenElement("site");
+            site.getId().ifPresent(id -> xml.attribute("id", String.valueOf(id)));
+            site.isDefault().ifPresent(
+                    isDefault -> xml.attribute(OpenlinkXmppNamespace.TAG_DEFAULT, String.valueOf(isDefault)));
+            site.getType().ifPresent(type -> xml.attribute("type", type.name()));
+            xml.rightAngleBracket();
+            site.getName().ifPresent(xml::escape);
+            xml.closeElement("site");
+
+        });
+        xml.optElement("profile", call.getProfileId().orElse(null));
+        xml.optElement("user", call.getUserId().orElse(null));
+        xml.optElement("interest", call.getInterestId().orElse(null));
+        String changed=null;
+        if(call.getChanged().isPresent())
+            changed = call.getChanged().get().getId();
+        xml.optElement("changed", changed);
+
+        String state=null;
+        if(call.getState().isPresent())
+            state =  call.getState().get().getLabel();
+        xml.optElement("state", state);
+
+        String direction=null;
+        if(call.getDirection().isPresent())
+            direction = call.getDirection().get().getLabel();
+        xml.optElement("direction", direction);
+
+        // A delta omits every field it does not carry, including the caller and called that are otherwise always written
+        if (!call.isDelta() || call.isLoaded(CallField.CALLER)) {
+            xml.openElement("caller");
+            xml.halfOpenElement("number");
+            final String callerE164Numbers = String.join(",",
+                    call.getCallerE164Numbers().stream().map(PhoneNumber::value).collect(Collectors.toList()));
+            xml.attribute("e164", callerE164Numbers);
+            xml.rightAngleBracket();
+            call.getCallerNumber().ifPresent(number -> xml.escape(number.value()));
+            xml.closeElement("number");
+            xml.optElement("name", call.getCallerName().orElse(null));
+            xml.closeElement("caller");
+        }
+
+        if (!call.isDelta() || call.isLoaded(CallField.CALLED)) {
+            xml.openElement("called");
+            xml.halfOpenElement("number");
+            call.getCalledDestination().ifPresent(destination -> xml.attribute("destination", destination.value()));
+            final String calledE164Numbers = String.join(",",
+                    call.getCalledE164Numbers().stream().map(PhoneNumber::value).collect(Collectors.toList()));
+            xml.attribute("e164", calledE164Numbers);
+            xml.rightAngleBracket();
+            call.getCalledNumber().ifPresent(number -> xml.escape(number.value()));
+            xml.closeElement("number");
+            xml.optElement("name", call.getCalledName().orElse(null));
+            xml.closeElement("called");
+        }
+
+        final List<OriginatorReference> originatorReferences = call.getOriginatorReferences();
+        if (!originatorReferences.isEmpty()) {
+            xml.openElement("originator-ref");
+            originatorReferences.forEach(originatorReference -> {
+                xml.halfOpenElement("property").attribute("id", originatorReference.getKey()).rightAngleBracket();
+                xml.optElement("value", originatorReference.getValue());
+                xml.closeElement("property");
+            });
+            xml.closeElement("originator-ref");
+        }
+
+        xml.optElement("start", call.getStartTime().map(TimestampCodec::formatIso8601).orElse(null));
+        xml.optElement("duration", call.getDuration().map(duration -> String.valueOf(duration.toMillis())).orElse(null));
+
+        final Collection<RequestAction> actions = call.getActions();
+        if (!actions.isEmpty()) {
+            xml.openElement("actions");
+            actions.forEach(action -> {xml.halfOpenElement(action.getId()).rightAngleBracket();
+            xml.closeElement(action.getId());
+            });
+            xml.closeElement("actions");
+        }
+
+        addFeatures(call, xml);
+
+        final List<Participant> participants = call.getParticipants();
+        if (!participants.isEmpty()) {
+            xml.openElement("participants");
+            participants.forEach(participant -> {
+                xml.halfOpenElement("participant");
+                xml.attribute("jid", participant.getJID().get());
+                xml.attribute("type", participant.getType().get().getId());
+                xml.attribute("direction", participant.getDirection().get().getLabel());
+                participant.getStartTime().ifPresent(startTime -> {
+                    xml.attribute("start", TimestampCodec.formatIso8601(startTime));
+                    // Include the legacy timestamp attribute too
+                    xml.attribute("timestamp", TimestampCodec.formatLegacy(startTime));
+                });
+                xml.attribute("duration", String.valueOf(participant.getDuration().get().toMillis()));
+                xml.rightAngleBracket();
+                xml.closeElement("participant");
+            });
+            xml.closeElement("participants");
+        }
+
+        xml.closeElement("call");
+        return xml;
+    }
+
+	private static void addFeatures(final Call call, final XmlStringBuilder xml) {
 		final List<CallFeature> features = call.getFeatures();
 		if (!features.isEmpty()) {
             xml.openElement("features");
@@ -291,349 +430,383 @@ public final class SmackPacketUtil {
         }
 	}
 
-	@SuppressWarnings("unchecked")
-	public static List<Call> getCalls(final XmlPullParser parser, final List<String> errors)
-			throws IOException, XmlPullParserException {
-		final List<Call> calls = new ArrayList<>();
-		final Call.Builder callBuilder = Call.Builder.start();
-		if (parser.getName().equals("call")) {
-			parser.nextTag();
-			if (parser.getName().equals("id")) {
-				final String callIdString = parser.nextText();
-				final Optional<CallId> callIdOptional = CallId.from(callIdString);
-				callIdOptional.ifPresent(callBuilder::setId);
-				parser.nextTag();
-			}
-			if (parser.getName().equals("conference")) {
-				final String conferenceIdString = parser.nextText();
-				final Optional<ConferenceId> conferenceIdOptional = ConferenceId.from(conferenceIdString);
-				conferenceIdOptional.ifPresent(callBuilder::setConferenceId);
-				parser.nextTag();
-			}
-			
-			    Optional<Site> site = getSite(parser, errors);			
-				site.ifPresent(callBuilder::setSite);
-
-			
-			if (parser.getName().equals("profile")) {
-				final String profileIdString = parser.nextText();
-				final Optional<ProfileId> profileIdOptional = ProfileId.from(profileIdString);
-				profileIdOptional.ifPresent(callBuilder::setProfileId);
-				parser.nextTag();
-			}
-			if (parser.getName().equals("user")) {
-				final String userIdString = parser.nextText();
-				final Optional<UserId> userIdOptional = UserId.from(userIdString);
-				userIdOptional.ifPresent(callBuilder::setUserId);
-				parser.nextTag();
-			}
-			if (parser.getName().equals("interest")) {
-				final String interestIdString = parser.nextText();
-				final Optional<InterestId> interestIdOptional = InterestId.from(interestIdString);
-				interestIdOptional.ifPresent(callBuilder::setInterestId);
-				parser.nextTag();
-			}
-			if (parser.getName().equals("changed")) {
-				final String changedString = parser.nextText();
-				final Optional<Changed> changedOptional = Changed.from(changedString);
-				changedOptional.ifPresent(callBuilder::setChanged);
-				parser.nextTag();
-			}
-			if (parser.getName().equals("state")) {
-				final String callStateString = parser.nextText();
-				final Optional<CallState> callStateOptional = CallState.from(callStateString);
-				callStateOptional.ifPresent(callBuilder::setState);
-				parser.nextTag();
-			}
-			if (parser.getName().equals(ATTRIBUTE_DIRECTION)) {
-				final String callDirectionString = parser.nextText();
-				final Optional<CallDirection> callDirectionOptional = CallDirection.from(callDirectionString);
-				callDirectionOptional.ifPresent(callBuilder::setDirection);
-				parser.nextTag();
-			}
-			if (parser.getName().equals("caller")) {
-				parser.nextTag();
-				if (parser.getName().equals(ELEMENT_NUMBER)) {
-					callBuilder.addCallerE164Numbers(getPhoneNumbers(parser));
-					final String callerNumberString = parser.nextText();
-					final Optional<PhoneNumber> callerNumberOptional = PhoneNumber.from(callerNumberString);
-					callerNumberOptional.ifPresent(callBuilder::setCallerNumber);
-					parser.nextTag();
-				}
-				if (parser.getName().equals("name")) {
-					final Optional<String> callerName = Optional.ofNullable(parser.nextText());
-					callerName.ifPresent(callBuilder::setCallerName);
-					parser.nextTag(); // moves to end of caller tag
-					parser.nextTag(); // moves to start of next tag
-				}
-			}
-			if (parser.getName().equals("called")) {
-				parser.nextTag();
-				if (parser.getName().equals(ELEMENT_NUMBER)) {
-					callBuilder.addCalledE164Numbers(getPhoneNumbers(parser));
-					final Optional<PhoneNumber> destination = PhoneNumber.from(SmackPacketUtil.getStringAttribute(parser, "destination").get());
-					destination.ifPresent(callBuilder::setCalledDestination);	
-					final String calledNumberString = parser.nextText();
-					final Optional<PhoneNumber> calledNumberOptional = PhoneNumber.from(calledNumberString);
-					calledNumberOptional.ifPresent(callBuilder::setCalledNumber);				 
-					parser.nextTag();
-				}
-				if (parser.getName().equals("name")) {
-					final Optional<String> callerName = Optional.ofNullable(parser.nextText());
-					callerName.ifPresent(callBuilder::setCalledName);
-					parser.nextTag();  // moves to end of caller tag
-					parser.nextTag();  // moves to start of next tag
-				}
-			}
-
-			getOriginatorReferences(parser, callBuilder);
-			getChildElementISO8601(ATTRIBUTE_START_TIME, parser, errors).ifPresent(callBuilder::setStartTime);
-			getChildElementLong(ATTRIBUTE_DURATION, parser, errors).map(Duration::ofMillis)
-					.ifPresent(callBuilder::setDuration);
-			getActions(callBuilder, parser, errors);
-			getFeatures(callBuilder, parser, errors);
-			getParticipants(callBuilder, parser, errors);
-			calls.add(callBuilder.build(errors));
-		}
-
-		return calls;
-	}
+    public static List<Call> getCalls(final XmlPullParser parser, final List<String> errors) throws IOException, XmlPullParserException {
+        return getCalls(parser, CallField.ALL, errors);
+    }
 
-	private static List<PhoneNumber> getPhoneNumbers(final XmlPullParser parser) {
-		final Optional<String> e164String = SmackPacketUtil.getStringAttribute(parser, "e164");
-		final List<PhoneNumber> phoneNumbers = new ArrayList<>();
-		e164String.ifPresent(string -> Arrays.stream(string.split(",")).map(String::trim).map(PhoneNumber::from)
-				.filter(Optional::isPresent).map(Optional::get).forEach(phoneNumbers::add));
-		return phoneNumbers;
-	}
+    /**
+     * Decodes each consecutive {@code <call>} element, starting at the current one, leaving the parser on the tag that
+     * follows the last call. The child elements of a call may appear in any order; each is dispatched on its name, and
+     * any that are unknown or hold a field that was not requested are skipped. Calls report the fields that were not
+     * requested as not loaded.
+     */
+    public static List<Call> getCalls(final XmlPullParser parser, final Set<CallField> fields, final List<String> errors) throws IOException, XmlPullParserException {
+        return getCalls(parser, fields, CanonicalPool.NONE, errors);
+    }
 
-	@SuppressWarnings("unchecked")
-	private static void getParticipants(@Nonnull final Call.Builder callBuilder, final XmlPullParser parser,
-			@Nonnull final List<String> parseErrors) throws IOException, XmlPullParserException {
-
-		parser.nextTag();
-		if (parser.getName().equals("participants")) {
-			parser.nextTag();
-			while (parser.getName().equals("participant")) {
-				final Participant.Builder participantBuilder = Participant.Builder.start();
-				SmackPacketUtil.getStringAttribute(parser, "jid").ifPresent(participantBuilder::setJID);
-				ParticipantType.from(SmackPacketUtil.getStringAttribute(parser, "type").orElse(null))
-						.ifPresent(participantBuilder::setType);
-				CallDirection.from(SmackPacketUtil.getStringAttribute(parser, ATTRIBUTE_DIRECTION).orElse(null))
-						.ifPresent(participantBuilder::setDirection);
-				final Optional<Instant> participantTimestamp = getJavaUtilDateAttribute(parser, ATTRIBUTE_TIMESTAMP,
-						parseErrors);
-				participantTimestamp.ifPresent(participantBuilder::setStartTime);
-				final Optional<Instant> participantStartTime = getISO8601Attribute(parser, ATTRIBUTE_START_TIME,
-						parseErrors);
-				participantStartTime.ifPresent(participantBuilder::setStartTime);
-				if (participantStartTime.isPresent() && participantTimestamp.isPresent()
-						&& !participantStartTime.equals(participantTimestamp)) {
-					parseErrors
-							.add("Invalid participant; the legacy timestamp field does not match the start time field");
-				}
-				final Optional<Long> participantDuration = SmackPacketUtil.getLongAttribute(parser, ATTRIBUTE_DURATION);
-				participantDuration.ifPresent(millis -> participantBuilder.setDuration(Duration.ofMillis(millis)));
-				callBuilder.addParticipant(participantBuilder.build(parseErrors));
-				ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
-				parser.nextTag();
-			}
-		}
-	}
+    /**
+     * As {@link #getCalls(XmlPullParser, Set, List)}, taking the ids, phone numbers, sites and names of each call from
+     * a pool.
+     */
+    public static List<Call> getCalls(final XmlPullParser parser, final Set<CallField> fields, final CanonicalPool pool, final List<String> errors) throws IOException, XmlPullParserException {
+        return getCalls(parser, fields, pool, false, errors);
+    }
 
-	private static Optional<Instant> getJavaUtilDateAttribute(final XmlPullParser parser, final String attributeName,
-			final List<String> parseErrors) {
-		final Optional<String> stringValue = SmackPacketUtil.getStringAttribute(parser, attributeName);
-		try {
-			return stringValue.map(string -> Instant.from(JAVA_UTIL_DATE_FORMATTER.parse(string)));
-		} catch (final DateTimeParseException ignored) {
-			parseErrors.add(String.format(
-					"Invalid %s; invalid %s '%s'; format should be 'dow mon dd hh:mm:ss zzz yyyy'", attributeName));
-			return Optional.empty();
-		}
-	}
+    /**
+     * As {@link #getCalls(XmlPullParser, Set, CanonicalPool, List)}, decoding calls that are deltas as such only if the
+     * receiver has advertised the {@link OpenlinkXmppNamespace#OPENLINK_CALL_STATUS_DELTA call status delta} feature;
+     * otherwise each is decoded as a full call, and reported as a parse error.
+     */
+    public static List<Call> getCalls(
+            final XmlPullParser parser,
+            final Set<CallField> fields,
+            final CanonicalPool pool,
+            final boolean deltasNegotiated,
+            final List<String> errors) throws IOException, XmlPullParserException {
+        final List<Call> calls = new ArrayList<>();
+        while (parser.getEventType() == XmlPullParser.START_TAG && parser.getName().equals("call")) {
+            calls.add(getCall(parser, fields, pool, deltasNegotiated, errors));
+            parser.nextTag();
+        }
+        return calls;
+    }
 
-	private static Optional<Instant> getISO8601Attribute(final XmlPullParser parser, final String attributeName,
-			@Nonnull final List<String> parseErrors) {
-
-		final Optional<String> stringValue = SmackPacketUtil.getStringAttribute(parser, attributeName);
-		try {
-			return stringValue.map(Instant::parse);
-		} catch (final DateTimeParseException ignored) {
-			parseErrors.add(String.format("Invalid %s; invalid %s '%s'; format should be compliant with XEP-0082",
-					attributeName));
-			return Optional.empty();
-		}
-	}
+    /**
+     * Decodes the child element of a {@code <call>} on which the parser is positioned, leaving the parser on the
+     * corresponding end tag.
+     */
+    @FunctionalInterface
+    private interface CallElementParser {
+        void parse(XmlPullParser parser, Call.Builder callBuilder, List<String> errors) throws IOException, XmlPullParserException;
+    }
 
-	@SuppressWarnings("unchecked")
-	private static void getActions(@Nonnull final Call.Builder callBuilder, final XmlPullParser parser,
-			@Nonnull final List<String> parseErrors) throws IOException, XmlPullParserException {
-		parser.nextTag();
-		if (parser.getName().equals("actions")) {
-			do {
-				parser.nextTag();
-				if (parser.getName().equals(OpenlinkXmppNamespace.TAG_ACTION)) {
-					final String actionString = parser.nextText();
-					final Optional<RequestAction> requestAction = RequestAction.from(actionString);
-					if (requestAction.isPresent()) {
-						callBuilder.addAction(requestAction.get());
-					} else {
-						parseErrors.add("Invalid %s: %s is not a valid action");
-					}
-				}
-				ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
-			} while (parser.getName().equals(OpenlinkXmppNamespace.TAG_ACTION));
-			ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
-			parser.nextTag();
+    private static final class CallElement {
+        @Nonnull private final CallField field;
+        @Nonnull private final CallElementParser elementParser;
 
-		}
-	}
+        private CallElement(@Nonnull final CallField field, @Nonnull final CallElementParser elementParser) {
+            this.field = field;
+            this.elementParser = elementParser;
+        }
+    }
 
-	@SuppressWarnings("unchecked")
-	private static void getFeatures(@Nonnull final Call.Builder callBuilder, final XmlPullParser parser,
-			@Nonnull final List<String> parseErrors) throws IOException, XmlPullParserException {
-		parser.nextTag();
+    private static final Map<String, CallElement> CALL_ELEMENTS = new HashMap<>();
+
+    static {
+        addCallElement("id", CallField.ID, (parser, callBuilder, errors) -> CallId.from(parser.nextText()).ifPresent(callBuilder::setId));
+        addCallElement("conference", CallField.CONFERENCE_ID, (parser, callBuilder, errors) -> ConferenceId.from(parser.nextText()).ifPresent(callBuilder::setConferenceId));
+        addCallElement("site", CallField.SITE, (parser, callBuilder, errors) -> callBuilder.setSite(getSiteElement(parser, errors)));
+        addCallElement(ELEMENT_PROFILE, CallField.PROFILE_ID, (parser, callBuilder, errors) -> ProfileId.from(parser.nextText()).ifPresent(callBuilder::setProfileId));
+        addCallElement("user", CallField.USER_ID, (parser, callBuilder, errors) -> UserId.from(parser.nextText()).ifPresent(callBuilder::setUserId));
+        addCallElement("interest", CallField.INTEREST_ID, (parser, callBuilder, errors) -> InterestId.from(parser.nextText()).ifPresent(callBuilder::setInterestId));
+        addCallElement("changed", CallField.CHANGED, (parser, callBuilder, errors) -> Changed.from(parser.nextText()).ifPresent(callBuilder::setChanged));
+        addCallElement("state", CallField.STATE, (parser, callBuilder, errors) -> CallState.from(parser.nextText()).ifPresent(callBuilder::setState));
+        addCallElement(ATTRIBUTE_DIRECTION, CallField.DIRECTION, (parser, callBuilder, errors) -> CallDirection.from(parser.nextText()).ifPresent(callBuilder::setDirection));
+        addCallElement("caller", CallField.CALLER, SmackPacketUtil::getCaller);
+        addCallElement("called", CallField.CALLED, SmackPacketUtil::getCalled);
+        addCallElement("originator-ref", CallField.ORIGINATOR_REFERENCES, SmackPacketUtil::getOriginatorReferences);
+        addCallElement(ATTRIBUTE_START_TIME, CallField.START_TIME, (parser, callBuilder, errors) -> getISO8601(ATTRIBUTE_START_TIME, parser.nextText(), errors).ifPresent(callBuilder::setStartTime));
+        addCallElement(ATTRIBUTE_DURATION, CallField.DURATION, (parser, callBuilder, errors) -> getLong(ATTRIBUTE_DURATION, parser.nextText(), errors).map(Duration::ofMillis).ifPresent(callBuilder::setDuration));
+        addCallElement(OpenlinkXmppNamespace.TAG_ACTIONS, CallField.ACTIONS, SmackPacketUtil::getActions);
+        addCallElement(OpenlinkXmppNamespace.TAG_FEATURES, CallField.FEATURES, SmackPacketUtil::getFeatures);
+        addCallElement("participants", CallField.PARTICIPANTS, SmackPacketUtil::getParticipants);
+    }
 
-		if (parser.getName().equals("features")) {
+    private static void addCallElement(final String elementName, final CallField field, final CallElementParser elementParser) {
+        CALL_ELEMENTS.put(elementName, new CallElement(field, elementParser));
+    }
 
-			parser.nextTag();
-			while (OpenlinkXmppNamespace.TAG_FEATURE.equals(parser.getName())) {
-				final CallFeature.AbstractCallFeatureBuilder callFeatureBuilder;
+    private static Call getCall(
+            final XmlPullParser parser,
+            final Set<CallField> fields,
+            final CanonicalPool pool,
+            final boolean deltasNegotiated,
+            final List<String> errors) throws IOException, XmlPullParserException {
+        // A delta lists the fields it carries; any other field is not loaded
+        String deltaFields = parser.getAttributeValue("", OpenlinkXmppNamespace.TAG_FIELDS);
+        if (deltaFields != null && !deltasNegotiated) {
+            errors.add("Invalid call; the call is a delta, but call status deltas have not been negotiated");
+            deltaFields = null;
+        }
+        final Set<CallField> loadedFields;
+        if (deltaFields == null) {
+            loadedFields = fields;
+        } else {
+            loadedFields = CallField.fromElementNames(deltaFields);
+            loadedFields.retainAll(fields);
+        }
+        final Call.Builder callBuilder = Call.Builder.start().setLoadedFields(loadedFields).setDelta(deltaFields != null).setCanonicalPool(pool);
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            final CallElement callElement = CALL_ELEMENTS.get(parser.getName());
+            if (callElement != null && loadedFields.contains(callElement.field)) {
+                callElement.elementParser.parse(parser, callBuilder, errors);
+            } else {
+                skipElement(parser);
+            }
+        }
+        return callBuilder.build(errors);
+    }
 
-				final Optional<FeatureId> featureId = FeatureId.from(parser.getAttributeValue("", "id"));
-				final Optional<String> featureTypeString = SmackPacketUtil.getStringAttribute(parser, "type");
-				final Optional<String> label = SmackPacketUtil.getStringAttribute(parser, OpenlinkXmppNamespace.TAG_LABEL);
-				String text = "";
-				while(parser.next() == XmlPullParser.TEXT) {
-					text = parser.getText();
-				}
-				if(parser.getEventType() == XmlPullParser.START_TAG) {
-					switch (parser.getName()) {
-						case "devicekeys":
-							final CallFeatureDeviceKey.Builder deviceKeyBuilder = CallFeatureDeviceKey.Builder.start();
-							if (parser.nextTag() == XmlPullParser.START_TAG && "key".equals(parser.getName())) {
-								DeviceKey.from(parser.nextText()).ifPresent(deviceKeyBuilder::setDeviceKey);
-							}
-							callFeatureBuilder = deviceKeyBuilder;
-							break;
-
-						case "speakerchannel":
-							final CallFeatureSpeakerChannel.Builder speakerChannelBuilder = CallFeatureSpeakerChannel.Builder.start();
-							getChildElementLong("channel", parser, parseErrors).ifPresent(speakerChannelBuilder::setChannel);
-							getChildElementBoolean("microphone", parser, parseErrors).ifPresent(speakerChannelBuilder::setMicrophoneActive);
-							getChildElementBoolean("mute", parser, parseErrors).ifPresent(speakerChannelBuilder::setMuteRequested);
-							callFeatureBuilder = speakerChannelBuilder;
-							break;
-
-						default:
-							// Assume a simple true/false feature
-							final CallFeatureBoolean.Builder booleanBuilder = CallFeatureBoolean.Builder.start();
-							getBoolean(text).ifPresent(booleanBuilder::setEnabled);
-							callFeatureBuilder = booleanBuilder;
-							break;
-					}
-				} else {
-					// Assume a simple true/false feature
-					final CallFeatureBoolean.Builder booleanBuilder = CallFeatureBoolean.Builder.start();
-					getBoolean(text).ifPresent(booleanBuilder::setEnabled);
-					callFeatureBuilder = booleanBuilder;
-					break;
-				}
-				featureId.ifPresent(callFeatureBuilder::setId);
-				featureTypeString.ifPresent(featureType -> {
-					final Optional<FeatureType> type = FeatureType.from(featureType);
-					if (type.isPresent())
-						callFeatureBuilder.setType(type.get());
-					else
-						parseErrors.add("Invalid %s; invalid feature type - '%s'");
-				});
-				label.ifPresent(callFeatureBuilder::setLabel);
-				callBuilder.addFeature(callFeatureBuilder.build(parseErrors));
-				ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
-				parser.nextTag();
-			}
-
-		}
-	}
+    private static void skipElement(final XmlPullParser parser) throws IOException, XmlPullParserException {
+        ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
+    }
 
-	private static Optional<Boolean> getBoolean(String featureText) {
-		if ("true".equals(featureText)) {
-			return Optional.of(Boolean.TRUE);
-		} else if ("false".equals(featureText)) {
-			return Optional.of(Boolean.FALSE);
-		} else {
-			return Optional.empty();
-		}
-	}
+    @Nonnull
+    private static Site getSiteElement(final XmlPullParser parser, final List<String> errors) throws IOException, XmlPullParserException {
+        final Site.Builder siteBuilder = Site.Builder.start();
+        getLongAttribute(parser, "id").ifPresent(siteBuilder::setId);
+        getBooleanAttribute(parser, OpenlinkXmppNamespace.TAG_DEFAULT).ifPresent(siteBuilder::setDefault);
+        Site.Type.from(getStringAttribute(parser, "type").orElse(null)).ifPresent(siteBuilder::setType);
+        final String siteName = parser.nextText();
+        if (!siteName.isEmpty()) {
+            siteBuilder.setName(siteName);
+        }
+        return siteBuilder.build(errors);
+    }
 
-	@SuppressWarnings("unchecked")
-	private static void getOriginatorReferences(final XmlPullParser parser, final Call.Builder callBuilder)
-			throws XmlPullParserException, IOException {
-
-		//parser.nextTag();
-		if (!parser.getName().equals("originator-ref")) {
-			return;
-		}
-		parser.nextTag();
-
-		while (parser.getName().equals("property")) {
-			final String key = SmackPacketUtil.getStringAttribute(parser, "id").orElse("");
-			parser.nextTag();
-			String value = "";
-			if (parser.getName().equals("value"))
-				value = parser.nextText();
-			callBuilder.addOriginatorReference(key, value);
-			ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
-			parser.nextTag();  // end of property tag
-			parser.nextTag();  // start of next tag
-		}
+    private static void getCaller(final XmlPullParser parser, final Call.Builder callBuilder, final List<String> errors) throws IOException, XmlPullParserException {
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            switch (parser.getName()) {
+            case ELEMENT_NUMBER:
+                callBuilder.addCallerE164Numbers(getPhoneNumbers(parser));
+                PhoneNumber.from(parser.nextText()).ifPresent(callBuilder::setCallerNumber);
+                break;
+            case "name":
+                callBuilder.setCallerName(parser.nextText());
+                break;
+            default:
+                skipElement(parser);
+                break;
+            }
+        }
+    }
 
-	}
+    private static void getCalled(final XmlPullParser parser, final Call.Builder callBuilder, final List<String> errors) throws IOException, XmlPullParserException {
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            switch (parser.getName()) {
+            case ELEMENT_NUMBER:
+                callBuilder.addCalledE164Numbers(getPhoneNumbers(parser));
+                PhoneNumber.from(parser.getAttributeValue("", "destination")).ifPresent(callBuilder::setCalledDestination);
+                PhoneNumber.from(parser.nextText()).ifPresent(callBuilder::setCalledNumber);
+                break;
+            case "name":
+                callBuilder.setCalledName(parser.nextText());
+                break;
+            default:
+                skipElement(parser);
+                break;
+            }
+        }
+    }
 
-	@Nonnull
-	private static Optional<Instant> getChildElementISO8601(@Nonnull final String childElementName,
-			final XmlPullParser parser, @Nonnull final List<String> parseErrors)
-			throws XmlPullParserException, IOException {
-		parser.nextTag();
-		if (parser.getName().equals(childElementName)) {
-			try {
-				return Optional.of(Instant.parse(parser.nextText()));
-			} catch (final DateTimeParseException ignored) {
-				parseErrors.add(String.format("Invalid %s; invalid %s '%s'; format should be compliant with XEP-0082",
-						childElementName));
-			}
-		}
-		return Optional.empty();
-	}
+    private static List<PhoneNumber> getPhoneNumbers(final XmlPullParser parser) {
+        final Optional<String> e164String = SmackPacketUtil.getStringAttribute(parser, "e164");
+        final List<PhoneNumber> phoneNumbers = new ArrayList<>();
+        e164String.ifPresent(string -> Arrays.stream(string.split(",")).map(String::trim).map(PhoneNumber::from)
+                .filter(Optional::isPresent).map(Optional::get).forEach(phoneNumbers::add));
+        return phoneNumbers;
+    }
 
-	@Nonnull
-	public static Optional<Long> getChildElementLong(@Nonnull final String childElementName, final XmlPullParser parser,
-			@Nonnull final List<String> parseErrors) throws XmlPullParserException, IOException {
-		parser.nextTag();
-		if (parser.getName().equals(childElementName)) {
-			try {
-				return Optional.of(Long.parseLong(parser.nextText()));
-			} catch (final NumberFormatException ignored) {
-				parseErrors
-						.add(String.format("Invalid %s; invalid %s '%s'; please supply an integer", childElementName));
-			}
-		}
-		return Optional.empty();
-	}
+    private static void getOriginatorReferences(final XmlPullParser parser, final Call.Builder callBuilder, final List<String> errors) throws IOException, XmlPullParserException {
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            if (parser.getName().equals("property")) {
+                final String key = getStringAttribute(parser, "id").orElse("");
+                String value = "";
+                while (parser.nextTag() == XmlPullParser.START_TAG) {
+                    if (parser.getName().equals("value")) {
+                        value = parser.nextText();
+                    } else {
+                        skipElement(parser);
+                    }
+                }
+                callBuilder.addOriginatorReference(key, value);
+            } else {
+                skipElement(parser);
+            }
+        }
+    }
 
-	@Nonnull
-	public static Optional<Boolean> getChildElementBoolean(@Nonnull final String childElementName, final XmlPullParser parser,
-			@Nonnull final List<String> parseErrors) throws XmlPullParserException, IOException {
-		parser.nextTag();
-		if (parser.getName().equals(childElementName)) {
-			try {
-				return getBoolean(parser.nextText());
-			} catch (final NumberFormatException ignored) {
-				parseErrors
-						.add(String.format("Invalid %s; invalid %s '%s'; please supply an integer", childElementName));
-			}
-		}
-		return Optional.empty();
-	}
+    private static void getActions(final XmlPullParser parser, final Call.Builder callBuilder, final List<String> errors) throws IOException, XmlPullParserException {
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            final String actionName = parser.getName();
+            final Optional<RequestAction> requestAction = RequestAction.from(actionName);
+            if (requestAction.isPresent()) {
+                callBuilder.addAction(requestAction.get());
+            } else {
+                ParseDiagnostics.report(errors, "Invalid %s: %s is not a valid action", CALL_DESCRIPTION, actionName);
+            }
+            skipElement(parser);
+        }
+    }
+
+    private static void getFeatures(final XmlPullParser parser, final Call.Builder callBuilder, final List<String> errors) throws IOException, XmlPullParserException {
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            if (OpenlinkXmppNamespace.TAG_FEATURE.equals(parser.getName())) {
+                callBuilder.addFeature(getFeature(parser, errors));
+            } else {
+                skipElement(parser);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CallFeature getFeature(final XmlPullParser parser, final List<String> errors) throws IOException, XmlPullParserException {
+        final Optional<FeatureId> featureId = FeatureId.from(parser.getAttributeValue("", "id"));
+        final Optional<String> featureType = getStringAttribute(parser, "type");
+        final Optional<String> label = getStringAttribute(parser, OpenlinkXmppNamespace.TAG_LABEL);
+        final int featureDepth = parser.getDepth();
+        CallFeature.AbstractCallFeatureBuilder callFeatureBuilder = null;
+        String text = null;
+        int eventType;
+        while ((eventType = parser.next()) != XmlPullParser.END_TAG || parser.getDepth() != featureDepth) {
+            if (eventType == XmlPullParser.TEXT) {
+                text = parser.getText();
+            } else if (eventType == XmlPullParser.START_TAG) {
+                if (callFeatureBuilder == null && "devicekeys".equals(parser.getName())) {
+                    callFeatureBuilder = getDeviceKeyFeature(parser);
+                } else if (callFeatureBuilder == null && "speakerchannel".equals(parser.getName())) {
+                    callFeatureBuilder = getSpeakerChannelFeature(parser, errors);
+                } else {
+                    skipElement(parser);
+                }
+            }
+        }
+        if (callFeatureBuilder == null) {
+            // Assume a simple true/false feature
+            final CallFeatureBoolean.Builder booleanBuilder = CallFeatureBoolean.Builder.start();
+            getBoolean(text).ifPresent(booleanBuilder::setEnabled);
+            callFeatureBuilder = booleanBuilder;
+        }
+        featureId.ifPresent(callFeatureBuilder::setId);
+        if (featureType.isPresent()) {
+            final Optional<FeatureType> type = FeatureType.from(featureType.get());
+            if (type.isPresent()) {
+                callFeatureBuilder.setType(type.get());
+            } else {
+                ParseDiagnostics.report(errors, "Invalid %s; invalid feature type - '%s'", CALL_DESCRIPTION, featureType.get());
+            }
+        }
+        label.ifPresent(callFeatureBuilder::setLabel);
+        return callFeatureBuilder.build(errors);
+    }
+
+    private static CallFeatureDeviceKey.Builder getDeviceKeyFeature(final XmlPullParser parser) throws IOException, XmlPullParserException {
+        final CallFeatureDeviceKey.Builder deviceKeyBuilder = CallFeatureDeviceKey.Builder.start();
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            if (parser.getName().equals("key")) {
+                DeviceKey.from(parser.nextText()).ifPresent(deviceKeyBuilder::setDeviceKey);
+            } else {
+                skipElement(parser);
+            }
+        }
+        return deviceKeyBuilder;
+    }
+
+    private static CallFeatureSpeakerChannel.Builder getSpeakerChannelFeature(final XmlPullParser parser, final List<String> errors) throws IOException, XmlPullParserException {
+        final CallFeatureSpeakerChannel.Builder speakerChannelBuilder = CallFeatureSpeakerChannel.Builder.start();
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            switch (parser.getName()) {
+            case "channel":
+                getLong("channel", parser.nextText(), errors).ifPresent(speakerChannelBuilder::setChannel);
+                break;
+            case "microphone":
+                getBoolean(parser.nextText()).ifPresent(speakerChannelBuilder::setMicrophoneActive);
+                break;
+            case "mute":
+                getBoolean(parser.nextText()).ifPresent(speakerChannelBuilder::setMuteRequested);
+                break;
+            default:
+                skipElement(parser);
+                break;
+            }
+        }
+        return speakerChannelBuilder;
+    }
+
+    private static void getParticipants(final XmlPullParser parser, final Call.Builder callBuilder, final List<String> errors) throws IOException, XmlPullParserException {
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            if (parser.getName().equals("participant")) {
+                callBuilder.addParticipant(getParticipant(parser, errors));
+            }
+            skipElement(parser);
+        }
+    }
+
+    private static Participant getParticipant(final XmlPullParser parser, final List<String> errors) {
+        final Participant.Builder participantBuilder = Participant.Builder.start();
+        getStringAttribute(parser, "jid").ifPresent(participantBuilder::setJID);
+        ParticipantType.from(getStringAttribute(parser, "type").orElse(null)).ifPresent(participantBuilder::setType);
+        CallDirection.from(getStringAttribute(parser, ATTRIBUTE_DIRECTION).orElse(null)).ifPresent(participantBuilder::setDirection);
+        // The legacy timestamp is usually exactly the one written for the start time, so only parse it if it isn't; a
+        // trusted peer's is not checked at all
+        final Optional<Instant> quietStartTime = getStringAttribute(parser, ATTRIBUTE_START_TIME).flatMap(SmackPacketUtil::parseISO8601Quietly);
+        final Optional<String> timestampValue = getStringAttribute(parser, ATTRIBUTE_TIMESTAMP);
+        final Optional<Instant> participantTimestamp;
+        if (quietStartTime.isPresent() && (!ParseDiagnostics.isValidating(errors) || timestampValue.isPresent() && TimestampCodec.isLegacyTimestampOf(timestampValue.get(), quietStartTime.get()))) {
+            participantTimestamp = quietStartTime;
+        } else {
+            participantTimestamp = getJavaUtilDateAttribute(parser, ATTRIBUTE_TIMESTAMP, errors);
+        }
+        participantTimestamp.ifPresent(participantBuilder::setStartTime);
+        final Optional<Instant> participantStartTime = quietStartTime.isPresent() ? quietStartTime : getISO8601Attribute(parser, ATTRIBUTE_START_TIME, errors);
+        participantStartTime.ifPresent(participantBuilder::setStartTime);
+        if (participantStartTime.isPresent() && participantTimestamp.isPresent() && !participantStartTime.equals(participantTimestamp)) {
+            errors.add("Invalid participant; the legacy timestamp field does not match the start time field");
+        }
+        getLongAttribute(parser, ATTRIBUTE_DURATION).ifPresent(millis -> participantBuilder.setDuration(Duration.ofMillis(millis)));
+        return participantBuilder.build(errors);
+    }
+
+    @Nonnull
+    private static Optional<Instant> parseISO8601Quietly(@Nonnull final String stringValue) {
+        try {
+            return Optional.of(TimestampCodec.parseIso8601(stringValue));
+        } catch (final DateTimeParseException ignored) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Instant> getJavaUtilDateAttribute(final XmlPullParser parser, final String attributeName, final List<String> parseErrors) {
+        final Optional<String> stringValue = getStringAttribute(parser, attributeName);
+        try {
+            return stringValue.map(TimestampCodec::parseLegacy);
+        } catch (final DateTimeParseException ignored) {
+            ParseDiagnostics.report(parseErrors, "Invalid %s; invalid %s '%s'; format should be 'dow mon dd hh:mm:ss zzz yyyy'", CALL_DESCRIPTION, attributeName, stringValue.orElse(null));
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Instant> getISO8601Attribute(final XmlPullParser parser, final String attributeName, @Nonnull final List<String> parseErrors) {
+        return getStringAttribute(parser, attributeName).flatMap(stringValue -> getISO8601(attributeName, stringValue, parseErrors));
+    }
+
+    @Nonnull
+    private static Optional<Instant> getISO8601(@Nonnull final String name, @Nonnull final String stringValue, @Nonnull final List<String> parseErrors) {
+        try {
+            return Optional.of(TimestampCodec.parseIso8601(stringValue));
+        } catch (final DateTimeParseException ignored) {
+            ParseDiagnostics.report(parseErrors, "Invalid %s; invalid %s '%s'; format should be compliant with XEP-0082", CALL_DESCRIPTION, name, stringValue);
+            return Optional.empty();
+        }
+    }
+
+    @Nonnull
+    private static Optional<Long> getLong(@Nonnull final String name, @Nonnull final String stringValue, @Nonnull final List<String> parseErrors) {
+        try {
+            return Optional.of(Long.parseLong(stringValue));
+        } catch (final NumberFormatException ignored) {
+            ParseDiagnostics.report(parseErrors, "Invalid %s; invalid %s '%s'; please supply an integer", CALL_DESCRIPTION, name, stringValue);
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Boolean> getBoolean(@Nullable final String featureText) {
+        if ("true".equals(featureText)) {
+            return Optional.of(Boolean.TRUE);
+        } else if ("false".equals(featureText)) {
+            return Optional.of(Boolean.FALSE);
+        } else {
+            return Optional.empty();
+        }
+    }
 }
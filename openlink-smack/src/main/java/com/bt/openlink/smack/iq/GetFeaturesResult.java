@@ -1,7 +1,6 @@
 package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +15,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.GetFeaturesResultBuilder;
 import com.bt.openlink.smack.internal.SmackPacketUtil;
 import com.bt.openlink.type.Feature;
@@ -50,7 +50,7 @@ public class GetFeaturesResult extends OpenlinkIQ {
 		moveToStartOfTag(parser, OpenlinkXmppNamespace.TAG_IODATA, OpenlinkXmppNamespace.TAG_OUT,
 				OpenlinkXmppNamespace.TAG_PROFILE);
 		final Builder builder = Builder.start();
-		final List<String> parseErrors = new ArrayList<>();
+		final List<String> parseErrors = new ParseDiagnostics();
 		if (!parser.getName().equals(OpenlinkXmppNamespace.TAG_PROFILE)) {
 			parseErrors.add(" Invalid get-features result; missing 'features' element is mandatory");
 		} 
@@ -77,8 +77,7 @@ public class GetFeaturesResult extends OpenlinkIQ {
 						if (type.isPresent())
 							featureBuilder.setType(type.get());
 						else
-							parseErrors.add(
-									String.format("Invalid %s; invalid feature type - '%s'", DESCRIPTION, featureType));
+							ParseDiagnostics.report(parseErrors, "Invalid %s; invalid feature type - '%s'", DESCRIPTION, featureType);
 					});
 					final Optional<String> label = SmackPacketUtil.getStringAttribute(parser,
 							OpenlinkXmppNamespace.TAG_LABEL);
@@ -95,14 +94,7 @@ public class GetFeaturesResult extends OpenlinkIQ {
 	    
 	    @Override
 	    protected IQChildElementXmlStringBuilder getIQChildElementBuilder(IQChildElementXmlStringBuilder xml) {
-	        xml.attribute("status", "completed")
-	                .attribute("node", OpenlinkXmppNamespace.OPENLINK_GET_FEATURES.uri())
-	                .rightAngleBracket();
-	        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
-	                .attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri())
-	                .attribute("type", "output")
-	                .rightAngleBracket();
-	        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_OUT).rightAngleBracket();
+	        SmackPacketUtil.openCommandIOOutput(xml, OpenlinkXmppNamespace.OPENLINK_GET_FEATURES);
 	       // xml.optElement("profile", profileId);
 	        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_PROFILE).attribute("id", profileId.value());
 	        xml.rightAngleBracket();
@@ -118,8 +110,7 @@ public class GetFeaturesResult extends OpenlinkIQ {
 	            xml.closeElement(OpenlinkXmppNamespace.TAG_FEATURE);
 	        }
 	        xml.closeElement(OpenlinkXmppNamespace.TAG_FEATURES);
-	        xml.closeElement(OpenlinkXmppNamespace.TAG_OUT);
-	        xml.closeElement(OpenlinkXmppNamespace.TAG_IODATA);
+	        SmackPacketUtil.closeCommandIOOutput(xml);
 	        return xml;
 	    }
 	    
@@ -1,7 +1,6 @@
 package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +13,9 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.GetInterestRequestBuilder;
+import com.bt.openlink.smack.internal.SmackPacketUtil;
 import com.bt.openlink.type.InterestId;
 
 public class GetInterestRequest extends OpenlinkIQ{
@@ -44,23 +45,15 @@ public class GetInterestRequest extends OpenlinkIQ{
         final Optional<InterestId> interestIdOptional = InterestId.from(interestIdString);
         final Builder builder = Builder.start();
         interestIdOptional.ifPresent(builder::setInterestId);
-        return builder.build(new ArrayList<>());
+        return builder.build(new ParseDiagnostics());
     }
     
 
     @Override
     protected IQChildElementXmlStringBuilder getIQChildElementBuilder(IQChildElementXmlStringBuilder xml) {
-        xml.attribute("action", "execute")
-                .attribute("node", OpenlinkXmppNamespace.OPENLINK_GET_INTEREST.uri())
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
-                .attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri())
-                .attribute("type", "input")
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IN).rightAngleBracket();
+        SmackPacketUtil.openCommandIOInput(xml, OpenlinkXmppNamespace.OPENLINK_GET_INTEREST);
         xml.optElement("interest", interestId); 
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IN);
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IODATA);
+        SmackPacketUtil.closeCommandIOInput(xml);
         return xml;
     }
 
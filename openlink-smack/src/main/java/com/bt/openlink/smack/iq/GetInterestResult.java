@@ -1,7 +1,6 @@
 package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +13,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.GetInterestResultBuilder;
 import com.bt.openlink.smack.internal.SmackPacketUtil;
 import com.bt.openlink.type.Interest;
@@ -44,7 +44,7 @@ public class GetInterestResult extends OpenlinkIQ{
 
 		final Builder builder = Builder.start();
 
-		final List<String> parseErrors = new ArrayList<>();
+		final List<String> parseErrors = new ParseDiagnostics();
 
 		final Interest.Builder interestBuilder = Interest.Builder.start();
 		final Optional<InterestId> interestId = InterestId.from(parser.getAttributeValue("", "id"));
@@ -64,12 +64,7 @@ public class GetInterestResult extends OpenlinkIQ{
     
     @Override
 	protected IQChildElementXmlStringBuilder getIQChildElementBuilder(IQChildElementXmlStringBuilder xml) {
-		xml.attribute("status", "completed").attribute("node", OpenlinkXmppNamespace.OPENLINK_GET_INTEREST.uri())
-				.rightAngleBracket();
-		xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
-				.attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri()).attribute("type", "output")
-				.rightAngleBracket();
-		xml.halfOpenElement(OpenlinkXmppNamespace.TAG_OUT).rightAngleBracket();
+		SmackPacketUtil.openCommandIOOutput(xml, OpenlinkXmppNamespace.OPENLINK_GET_INTEREST);
 		xml.halfOpenElement(OpenlinkXmppNamespace.TAG_INTERESTS)
 				.attribute("xmlns", "http://xmpp.org/protocol/openlink:01:00:00/interests").rightAngleBracket();
 		xml.halfOpenElement(OpenlinkXmppNamespace.TAG_INTEREST);
@@ -81,8 +76,7 @@ public class GetInterestResult extends OpenlinkIQ{
 		xml.closeElement(OpenlinkXmppNamespace.TAG_INTEREST);
 
 		xml.closeElement(OpenlinkXmppNamespace.TAG_INTERESTS);
-		xml.closeElement(OpenlinkXmppNamespace.TAG_OUT);
-		xml.closeElement(OpenlinkXmppNamespace.TAG_IODATA);
+		SmackPacketUtil.closeCommandIOOutput(xml);
 		return xml;
 	}
 
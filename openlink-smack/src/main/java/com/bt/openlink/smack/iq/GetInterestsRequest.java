@@ -1,7 +1,6 @@
 package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +13,9 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.GetInterestsRequestBuilder;
+import com.bt.openlink.smack.internal.SmackPacketUtil;
 import com.bt.openlink.type.ProfileId;
 
 public class GetInterestsRequest extends OpenlinkIQ {
@@ -44,23 +45,15 @@ public class GetInterestsRequest extends OpenlinkIQ {
         final Optional<ProfileId> profileIdOptional = ProfileId.from(profileIdString);
         final Builder builder = Builder.start();
         profileIdOptional.ifPresent(builder::setProfileId);
-        return builder.build(new ArrayList<>());
+        return builder.build(new ParseDiagnostics());
     }
     
 
     @Override
     protected IQChildElementXmlStringBuilder getIQChildElementBuilder(IQChildElementXmlStringBuilder xml) {
-        xml.attribute("action", "execute")
-                .attribute("node", OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS.uri())
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
-                .attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri())
-                .attribute("type", "input")
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IN).rightAngleBracket();
+        SmackPacketUtil.openCommandIOInput(xml, OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS);
         xml.optElement("profile", profileId); //edited
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IN);
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IODATA);
+        SmackPacketUtil.closeCommandIOInput(xml);
         return xml;
     }
 
@@ -1,7 +1,6 @@
 package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +15,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.GetInterestsResultBuilder;
 import com.bt.openlink.smack.internal.SmackPacketUtil;
 import com.bt.openlink.type.Interest;
@@ -43,7 +43,7 @@ public class GetInterestsResult extends OpenlinkIQ {
 
         final Builder builder = Builder.start();
 
-        final List<String> parseErrors = new ArrayList<>();
+        final List<String> parseErrors = new ParseDiagnostics();
 
         while (OpenlinkXmppNamespace.TAG_INTEREST.equals(parser.getName())) {
 
@@ -68,14 +68,7 @@ public class GetInterestsResult extends OpenlinkIQ {
     
     @Override
     protected IQChildElementXmlStringBuilder getIQChildElementBuilder(IQChildElementXmlStringBuilder xml) {
-        xml.attribute("status", "completed")
-                .attribute("node", OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS.uri())
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
-                .attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri())
-                .attribute("type", "output")
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_OUT).rightAngleBracket();
+        SmackPacketUtil.openCommandIOOutput(xml, OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS);
         xml.halfOpenElement(OpenlinkXmppNamespace.TAG_INTERESTS).attribute("xmlns", "http://xmpp.org/protocol/openlink:01:00:00/interests").rightAngleBracket();
         for (final Interest interest : interests) {
             xml.halfOpenElement(OpenlinkXmppNamespace.TAG_INTEREST);
@@ -88,8 +81,7 @@ public class GetInterestsResult extends OpenlinkIQ {
             }
 
         xml.closeElement(OpenlinkXmppNamespace.TAG_INTERESTS);
-        xml.closeElement(OpenlinkXmppNamespace.TAG_OUT);
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IODATA);
+        SmackPacketUtil.closeCommandIOOutput(xml);
         return xml;
     }
 
@@ -1,7 +1,6 @@
 package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +13,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.GetProfilesRequestBuilder;
 import com.bt.openlink.smack.internal.SmackPacketUtil;
 
@@ -33,7 +33,7 @@ public class GetProfilesRequest extends OpenlinkIQ {
         final Optional<Jid> jidOptional = SmackPacketUtil.getSmackJid(jidString);
         final Builder builder = Builder.start();
         jidOptional.ifPresent(builder::setJID);
-        return builder.build(new ArrayList<>());
+        return builder.build(new ParseDiagnostics());
     }
 
     private GetProfilesRequest(@Nonnull Builder builder, @Nullable List<String> parseErrors) {
@@ -43,17 +43,9 @@ public class GetProfilesRequest extends OpenlinkIQ {
 
     @Override
     protected IQChildElementXmlStringBuilder getIQChildElementBuilder(IQChildElementXmlStringBuilder xml) {
-        xml.attribute("action", "execute")
-                .attribute("node", OpenlinkXmppNamespace.OPENLINK_GET_PROFILES.uri())
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
-                .attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri())
-                .attribute("type", "input")
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IN).rightAngleBracket();
+        SmackPacketUtil.openCommandIOInput(xml, OpenlinkXmppNamespace.OPENLINK_GET_PROFILES);
         xml.optElement("jid", jid);
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IN);
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IODATA);
+        SmackPacketUtil.closeCommandIOInput(xml);
         return xml;
     }
 
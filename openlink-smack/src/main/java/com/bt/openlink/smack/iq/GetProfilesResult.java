@@ -1,7 +1,6 @@
 package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +15,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.GetProfilesResultBuilder;
 import com.bt.openlink.smack.internal.SmackPacketUtil;
 import com.bt.openlink.type.Profile;
@@ -33,7 +33,7 @@ public class GetProfilesResult extends OpenlinkIQ {
 
         final Builder builder = Builder.start();
 
-        final List<String> parseErrors = new ArrayList<>();
+        final List<String> parseErrors = new ParseDiagnostics();
         if (parser.getEventType() != XmlPullParser.START_TAG) {
             parseErrors.add("Invalid get-profiles result; no profiles present");
         }
@@ -82,14 +82,7 @@ public class GetProfilesResult extends OpenlinkIQ {
 
     @Override
     protected IQChildElementXmlStringBuilder getIQChildElementBuilder(IQChildElementXmlStringBuilder xml) {
-        xml.attribute("status", "completed")
-                .attribute("node", OpenlinkXmppNamespace.OPENLINK_GET_PROFILES.uri())
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
-                .attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri())
-                .attribute("type", "output")
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_OUT).rightAngleBracket();
+        SmackPacketUtil.openCommandIOOutput(xml, OpenlinkXmppNamespace.OPENLINK_GET_PROFILES);
         xml.halfOpenElement(OpenlinkXmppNamespace.TAG_PROFILES).attribute("xmlns", "http://xmpp.org/protocol/openlink:01:00:00/profiles").rightAngleBracket();
         for (final Profile profile : profiles) {
             xml.halfOpenElement(OpenlinkXmppNamespace.TAG_PROFILE);
@@ -123,8 +116,7 @@ public class GetProfilesResult extends OpenlinkIQ {
             xml.closeElement(OpenlinkXmppNamespace.TAG_PROFILE);
         }
         xml.closeElement(OpenlinkXmppNamespace.TAG_PROFILES);
-        xml.closeElement(OpenlinkXmppNamespace.TAG_OUT);
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IODATA);
+        SmackPacketUtil.closeCommandIOOutput(xml);
         return xml;
     }
 
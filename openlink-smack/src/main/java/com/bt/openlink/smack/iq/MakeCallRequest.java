@@ -1,7 +1,6 @@
 package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +15,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.MakeCallRequestBuilder;
 import com.bt.openlink.smack.internal.SmackPacketUtil;
 import com.bt.openlink.type.FeatureId;
@@ -103,19 +103,12 @@ public class MakeCallRequest extends OpenlinkIQ {
 			}
 
 		}
-		return builder.build(new ArrayList<>());
+		return builder.build(new ParseDiagnostics());
 	}
 
     @Override
     protected IQChildElementXmlStringBuilder getIQChildElementBuilder(IQChildElementXmlStringBuilder xml) {
-        xml.attribute("action", "execute")
-                .attribute("node", OpenlinkXmppNamespace.OPENLINK_MAKE_CALL.uri())
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
-                .attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri())
-                .attribute("type", "input")
-                .rightAngleBracket();
-        xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IN).rightAngleBracket();
+        SmackPacketUtil.openCommandIOInput(xml, OpenlinkXmppNamespace.OPENLINK_MAKE_CALL);
         xml.optElement("jid", jid);
         xml.optElement("interest", interestId);
         xml.optElement("destination", destination);
@@ -132,8 +125,7 @@ public class MakeCallRequest extends OpenlinkIQ {
             
             xml.closeElement(OpenlinkXmppNamespace.TAG_FEATURES);
         }
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IN);
-        xml.closeElement(OpenlinkXmppNamespace.TAG_IODATA);
+        SmackPacketUtil.closeCommandIOInput(xml);
         return xml;
     }
 
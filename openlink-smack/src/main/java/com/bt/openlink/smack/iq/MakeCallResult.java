@@ -2,7 +2,6 @@ package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +15,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.MakeCallResultBuilder;
 import com.bt.openlink.smack.internal.SmackPacketUtil;
 import com.bt.openlink.type.Call;
@@ -47,7 +47,7 @@ public class MakeCallResult extends OpenlinkIQ {
 					"callstatus");
 
 			final Builder builder = Builder.start();
-			final List<String> parseErrors = new ArrayList<>();
+			final List<String> parseErrors = new ParseDiagnostics();
 			if(parser.getName().equals("callstatus"))
 			{
 			final Optional<Boolean> callBusy = SmackPacketUtil.getBooleanAttribute(parser,"busy");
@@ -61,16 +61,14 @@ public class MakeCallResult extends OpenlinkIQ {
 			    
 	    @Override
 	protected IQChildElementXmlStringBuilder getIQChildElementBuilder(IQChildElementXmlStringBuilder xml) {
-		xml.attribute("status", "completed").attribute("node", OpenlinkXmppNamespace.OPENLINK_MAKE_CALL.uri())
-				.rightAngleBracket();
-		xml.halfOpenElement(OpenlinkXmppNamespace.TAG_IODATA)
-				.attribute("xmlns", OpenlinkXmppNamespace.XMPP_IO_DATA.uri()).attribute("type", "output")
-				.rightAngleBracket();
-		xml.halfOpenElement(OpenlinkXmppNamespace.TAG_OUT).rightAngleBracket();
+		SmackPacketUtil.openCommandIOOutput(xml, OpenlinkXmppNamespace.OPENLINK_MAKE_CALL);
 		xml.halfOpenElement("callstatus").attribute("xmlns", "http://xmpp.org/protocol/openlink:01:00:00#call-status")
 				.attribute("busy", String.valueOf(callStatusBusy)).rightAngleBracket();
 
-		return SmackPacketUtil.addCalls(xml, calls);
+		SmackPacketUtil.addCalls(xml, calls);
+		xml.closeElement("callstatus");
+		SmackPacketUtil.closeCommandIOOutput(xml);
+		return xml;
 	}
 
 	    public static final class Builder extends MakeCallResultBuilder<Builder, Jid, IQ.Type> {
@@ -1,8 +1,6 @@
 package com.bt.openlink.smack.iq;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import javax.annotation.Nonnull;
@@ -13,6 +11,7 @@ import org.jxmpp.jid.Jid;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.IQBuilder;
 
 abstract class OpenlinkIQ extends IQ {
@@ -44,10 +43,8 @@ abstract class OpenlinkIQ extends IQ {
         builder.getFrom().ifPresent(this::setFrom);
         builder.getId().ifPresent(this::setStanzaId);
         builder.getIqType().ifPresent(this::setType);
-        if (parseErrors == null) {
-            this.parseErrors = Collections.emptyList();
-        } else {
-            this.parseErrors = new ArrayList<>(parseErrors);
+        this.parseErrors = ParseDiagnostics.unmodifiableCopyOf(parseErrors);
+        if (parseErrors != null) {
             builder.validate(parseErrors);
         }
     }
@@ -5,63 +5,180 @@ import org.jivesoftware.smack.packet.IQ;
 import org.jivesoftware.smack.packet.UnparsedIQ;
 import org.jivesoftware.smack.provider.IQProvider;
 import org.jivesoftware.smack.util.PacketParserUtils;
+import org.jivesoftware.smack.util.ParserUtils;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Parses Openlink ad-hoc commands. The {@code node}, {@code action} and {@code status} attributes of the
+ * {@code <command>} element are read once, and the stanza factory is then found in a table keyed on the node; requests
+ * are matched on the {@code action} attribute and results on the {@code status} attribute.
+ * <p>
+ * The table can be extended at runtime with {@link #registerRequestFactory(String, String, StanzaFactory)} and
+ * {@link #registerResultFactory(String, String, StanzaFactory)}, and is safe to update and read from multiple threads
+ * concurrently.
+ * <p>
+ * Commands that are not in the table are skipped and returned as an {@link UnparsedIQ} with no content, unless the
+ * provider was created to retain the content of unknown commands.
+ */
 public class OpenlinkIQProvider extends IQProvider<IQ> {
 
-    private interface StanzaFactory {
+    /**
+     * Creates a stanza from a {@code <command>} element whose node and action or status have been matched by the
+     * provider. The parser is positioned on the start of the {@code <command>} element.
+     */
+    @FunctionalInterface
+    public interface StanzaFactory {
         IQ from(final XmlPullParser parser) throws IOException, XmlPullParserException;
     }
 
-    private static class IQMatcher {
+    private static final String ATTRIBUTE_ACTION = "action";
+    private static final String ATTRIBUTE_STATUS = "status";
 
-        @Nonnull private final OpenlinkXmppNamespace namespace;
-        @Nonnull private final String attribute;
-        @Nonnull private final String value;
-        @Nonnull private final StanzaFactory stanzaFactory;
+    // The per-node maps are copied on update and never modified once they are published, so lookups need no locking
+    private static final Map<String, Map<String, StanzaFactory>> REQUEST_FACTORIES = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, StanzaFactory>> RESULT_FACTORIES = new ConcurrentHashMap<>();
 
-        IQMatcher(@Nonnull final OpenlinkXmppNamespace namespace, @Nonnull final String attribute, @Nonnull final String value, @Nonnull final StanzaFactory stanzaFactory) {
-            this.namespace = namespace;
-            this.attribute = attribute;
-            this.value = value;
-            this.stanzaFactory = stanzaFactory;
-        }
+    static {
+        registerRequestFactory(OpenlinkXmppNamespace.OPENLINK_GET_PROFILES.uri(), "execute", GetProfilesRequest::from);
+        registerResultFactory(OpenlinkXmppNamespace.OPENLINK_GET_PROFILES.uri(), "completed", GetProfilesResult::from);
+        registerRequestFactory(OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS.uri(), "execute", GetInterestsRequest::from);
+        registerResultFactory(OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS.uri(), "completed", GetInterestsResult::from);
+        registerRequestFactory(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST.uri(), "execute", GetInterestRequest::from);
+        registerResultFactory(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST.uri(), "completed", GetInterestResult::from);
+        registerRequestFactory(OpenlinkXmppNamespace.OPENLINK_GET_FEATURES.uri(), "execute", GetFeaturesRequest::from);
+        registerResultFactory(OpenlinkXmppNamespace.OPENLINK_GET_FEATURES.uri(), "completed", GetFeaturesResult::from);
+        registerRequestFactory(OpenlinkXmppNamespace.OPENLINK_MAKE_CALL.uri(), "execute", MakeCallRequest::from);
+        registerResultFactory(OpenlinkXmppNamespace.OPENLINK_MAKE_CALL.uri(), "completed", MakeCallResult::from);
+    }
 
-        boolean matches(@Nullable final String namespace, @Nullable final String value) {
-            return this.value.equals(value) && this.namespace.uri().equals(namespace);
-        }
+    private final boolean retainUnknownCommands;
+
+    /**
+     * Creates a provider that skips the content of unknown commands.
+     */
+    public OpenlinkIQProvider() {
+        this(false);
+    }
+
+    /**
+     * @param retainUnknownCommands {@code true} if the content of unknown commands should be retained in the
+     *                              {@link UnparsedIQ} returned for them, otherwise {@code false}
+     */
+    public OpenlinkIQProvider(final boolean retainUnknownCommands) {
+        this.retainUnknownCommands = retainUnknownCommands;
+    }
+
+    /**
+     * Registers a factory for a command request, replacing any factory already registered for the same node and action.
+     *
+     * @param node          the command node URI
+     * @param action        the value of the {@code action} attribute, e.g. {@code execute}
+     * @param stanzaFactory the factory used to create the stanza
+     * @return the factory previously registered for the node and action, if any
+     */
+    @Nonnull
+    public static Optional<StanzaFactory> registerRequestFactory(@Nonnull final String node, @Nonnull final String action, @Nonnull final StanzaFactory stanzaFactory) {
+        return register(REQUEST_FACTORIES, node, action, stanzaFactory);
+    }
+
+    /**
+     * Registers a factory for a command result, replacing any factory already registered for the same node and status.
+     *
+     * @param node          the command node URI
+     * @param status        the value of the {@code status} attribute, e.g. {@code completed}
+     * @param stanzaFactory the factory used to create the stanza
+     * @return the factory previously registered for the node and status, if any
+     */
+    @Nonnull
+    public static Optional<StanzaFactory> registerResultFactory(@Nonnull final String node, @Nonnull final String status, @Nonnull final StanzaFactory stanzaFactory) {
+        return register(RESULT_FACTORIES, node, status, stanzaFactory);
+    }
+
+    /**
+     * @param node   the command node URI
+     * @param action the value of the {@code action} attribute
+     * @return the factory that was registered for the node and action, if any
+     */
+    @Nonnull
+    public static Optional<StanzaFactory> unregisterRequestFactory(@Nonnull final String node, @Nonnull final String action) {
+        return unregister(REQUEST_FACTORIES, node, action);
+    }
+
+    /**
+     * @param node   the command node URI
+     * @param status the value of the {@code status} attribute
+     * @return the factory that was registered for the node and status, if any
+     */
+    @Nonnull
+    public static Optional<StanzaFactory> unregisterResultFactory(@Nonnull final String node, @Nonnull final String status) {
+        return unregister(RESULT_FACTORIES, node, status);
     }
 
-    private static final List<IQMatcher> STANZA_TYPE_MATCHER_LIST = Arrays.asList(
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_PROFILES, "action", "execute", GetProfilesRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_PROFILES, "status","completed", GetProfilesResult::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS, "action", "execute", GetInterestsRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS, "status","completed", GetInterestsResult::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST, "action", "execute", GetInterestRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST, "status","completed", GetInterestResult::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_FEATURES, "action", "execute", GetFeaturesRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_FEATURES, "status","completed", GetFeaturesResult::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_MAKE_CALL, "action", "execute", MakeCallRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_MAKE_CALL, "status","completed", MakeCallResult::from)
-            );
+    private static Optional<StanzaFactory> register(
+            @Nonnull final Map<String, Map<String, StanzaFactory>> factoryTable,
+            @Nonnull final String node,
+            @Nonnull final String value,
+            @Nonnull final StanzaFactory stanzaFactory) {
+        final StanzaFactory[] previousFactory = new StanzaFactory[1];
+        factoryTable.compute(node, (key, factories) -> {
+            final Map<String, StanzaFactory> updatedFactories = factories == null ? new HashMap<>() : new HashMap<>(factories);
+            previousFactory[0] = updatedFactories.put(value, stanzaFactory);
+            return updatedFactories;
+        });
+        return Optional.ofNullable(previousFactory[0]);
+    }
+
+    private static Optional<StanzaFactory> unregister(
+            @Nonnull final Map<String, Map<String, StanzaFactory>> factoryTable,
+            @Nonnull final String node,
+            @Nonnull final String value) {
+        final StanzaFactory[] previousFactory = new StanzaFactory[1];
+        factoryTable.computeIfPresent(node, (key, factories) -> {
+            final Map<String, StanzaFactory> updatedFactories = new HashMap<>(factories);
+            previousFactory[0] = updatedFactories.remove(value);
+            return updatedFactories.isEmpty() ? null : updatedFactories;
+        });
+        return Optional.ofNullable(previousFactory[0]);
+    }
+
+    @Nullable
+    private static StanzaFactory lookup(@Nonnull final Map<String, Map<String, StanzaFactory>> factoryTable, @Nonnull final String node, @Nullable final String value) {
+        if (value == null) {
+            return null;
+        }
+        final Map<String, StanzaFactory> factories = factoryTable.get(node);
+        return factories == null ? null : factories.get(value);
+    }
 
     @Override
     public IQ parse(XmlPullParser xmlPullParser, int initialDepth) throws Exception {
         final String node = xmlPullParser.getAttributeValue("", "node");
-        for (final IQMatcher iqMatcher : STANZA_TYPE_MATCHER_LIST) {
-            final String value = xmlPullParser.getAttributeValue("", iqMatcher.attribute);
-            if (iqMatcher.matches(node, value)) {
-                return iqMatcher.stanzaFactory.from(xmlPullParser);
+        if (node != null) {
+            StanzaFactory stanzaFactory = lookup(REQUEST_FACTORIES, node, xmlPullParser.getAttributeValue("", ATTRIBUTE_ACTION));
+            if (stanzaFactory == null) {
+                stanzaFactory = lookup(RESULT_FACTORIES, node, xmlPullParser.getAttributeValue("", ATTRIBUTE_STATUS));
+            }
+            if (stanzaFactory != null) {
+                return stanzaFactory.from(xmlPullParser);
             }
         }
 
-        return new UnparsedIQ("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), PacketParserUtils.parseElement(xmlPullParser));
+        final CharSequence content;
+        if (retainUnknownCommands) {
+            content = PacketParserUtils.parseElement(xmlPullParser);
+        } else {
+            ParserUtils.forwardToEndTagOfDepth(xmlPullParser, initialDepth);
+            content = "";
+        }
+        return new UnparsedIQ("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), content);
     }
 }
@@ -0,0 +1,148 @@
+package com.bt.openlink.smack.message;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.jivesoftware.smack.packet.ExtensionElement;
+import org.jivesoftware.smack.util.XmlStringBuilder;
+
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.codec.CallFragmentCache;
+import com.bt.openlink.smack.internal.SmackPacketUtil;
+import com.bt.openlink.type.Call;
+
+/**
+ * The {@code <callstatus>} payload of a call status pub-sub event item. Register a {@link CallStatusExtensionProvider}
+ * to have Smack decode the payload as the event is received.
+ */
+public class CallStatusExtension implements ExtensionElement {
+
+    public static final String ELEMENT = "callstatus";
+    public static final String NAMESPACE = OpenlinkXmppNamespace.OPENLINK_CALL_STATUS.uri();
+
+    @Nullable private final Boolean callStatusBusy;
+    @Nonnull private final List<Call> calls;
+    @Nonnull private final List<String> parseErrors;
+    @Nullable private final CallFragmentCache fragmentCache;
+
+    private CallStatusExtension(@Nonnull final Builder builder, @Nullable final List<String> parseErrors) {
+        this.callStatusBusy = builder.callStatusBusy;
+        this.calls = Collections.unmodifiableList(new ArrayList<>(builder.calls));
+        this.fragmentCache = builder.fragmentCache;
+        this.parseErrors = ParseDiagnostics.unmodifiableCopyOf(parseErrors);
+    }
+
+    @Nonnull
+    public Optional<Boolean> isCallStatusBusy() {
+        return Optional.ofNullable(callStatusBusy);
+    }
+
+    @Nonnull
+    public List<Call> getCalls() {
+        return calls;
+    }
+
+    @Nonnull
+    public List<String> getParseErrors() {
+        return parseErrors;
+    }
+
+    @Override
+    public String getElementName() {
+        return ELEMENT;
+    }
+
+    @Override
+    public String getNamespace() {
+        return NAMESPACE;
+    }
+
+    @Override
+    public XmlStringBuilder toXML() {
+        final XmlStringBuilder xml = new XmlStringBuilder(this);
+        isCallStatusBusy().ifPresent(busy -> xml.attribute("busy", String.valueOf(busy)));
+        xml.rightAngleBracket();
+        SmackPacketUtil.addCalls(xml, calls, fragmentCache);
+        xml.closeElement(this);
+        return xml;
+    }
+
+    public static final class Builder {
+
+        @Nullable private Boolean callStatusBusy;
+        @Nonnull private final List<Call> calls = new ArrayList<>();
+        @Nullable private CallFragmentCache fragmentCache;
+
+        private Builder() {
+        }
+
+        @Nonnull
+        public static Builder start() {
+            return new Builder();
+        }
+
+        /**
+         * Sets the busy flag of the call status. If it is not set, it is derived from the calls, if possible, when the
+         * extension is built.
+         *
+         * @param callStatusBusy {@code true} if one or more of the calls is busy
+         * @return this builder
+         */
+        @Nonnull
+        public Builder setCallStatusBusy(final boolean callStatusBusy) {
+            this.callStatusBusy = callStatusBusy;
+            return this;
+        }
+
+        @Nonnull
+        public Builder addCall(@Nonnull final Call call) {
+            this.calls.add(call);
+            return this;
+        }
+
+        @Nonnull
+        public Builder addCalls(@Nonnull final Collection<Call> calls) {
+            this.calls.addAll(calls);
+            return this;
+        }
+
+        /**
+         * Sets a cache of the encoded elements of calls, so that calls that are unchanged since they were last encoded
+         * with the cache are not encoded again. The cache is not part of the payload.
+         *
+         * @param fragmentCache the cache, or {@code null} to encode every call
+         * @return this builder
+         */
+        @Nonnull
+        public Builder setFragmentCache(@Nullable final CallFragmentCache fragmentCache) {
+            this.fragmentCache = fragmentCache;
+            return this;
+        }
+
+        @Nonnull
+        public CallStatusExtension build() {
+            if (calls.isEmpty()) {
+                throw new IllegalStateException("The callstatus has no calls");
+            }
+            if (callStatusBusy == null) {
+                Call.oneOrMoreCallsIsBusy(calls).ifPresent(this::setCallStatusBusy);
+            }
+            return new CallStatusExtension(this, null);
+        }
+
+        @Nonnull
+        CallStatusExtension build(@Nonnull final List<String> parseErrors) {
+            if (calls.isEmpty()) {
+                parseErrors.add("Invalid callstatus; missing or invalid calls");
+            }
+            return new CallStatusExtension(this, parseErrors);
+        }
+    }
+}
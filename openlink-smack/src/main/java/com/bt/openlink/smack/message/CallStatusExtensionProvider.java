@@ -0,0 +1,104 @@
+package com.bt.openlink.smack.message;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.jivesoftware.smack.provider.ExtensionElementProvider;
+import org.jivesoftware.smack.util.ParserUtils;
+import org.xmlpull.v1.XmlPullParser;
+
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.ValidationMode;
+import com.bt.openlink.codec.CanonicalPool;
+import com.bt.openlink.smack.internal.SmackPacketUtil;
+import com.bt.openlink.type.CallField;
+
+/**
+ * Decodes the {@code <callstatus>} payload of a pub-sub event item in a single pass as the event is received, e.g.
+ * <pre>
+ * ProviderManager.addExtensionProvider(CallStatusExtension.ELEMENT, CallStatusExtension.NAMESPACE, new CallStatusExtensionProvider());
+ * </pre>
+ */
+public class CallStatusExtensionProvider extends ExtensionElementProvider<CallStatusExtension> {
+
+    @Nonnull private final Set<CallField> fields;
+    @Nonnull private final CanonicalPool pool;
+    @Nullable private final ValidationMode validationMode;
+    private final boolean deltasNegotiated;
+
+    /**
+     * Creates a provider that decodes every field of each call.
+     */
+    public CallStatusExtensionProvider() {
+        this(CallField.ALL);
+    }
+
+    /**
+     * @param fields the fields of each call to decode
+     */
+    public CallStatusExtensionProvider(@Nonnull final Set<CallField> fields) {
+        this(fields, CanonicalPool.NONE);
+    }
+
+    /**
+     * @param fields the fields of each call to decode
+     * @param pool   the pool from which to take the ids, phone numbers, sites and names of each call, so that they are
+     *               shared between events
+     */
+    public CallStatusExtensionProvider(@Nonnull final Set<CallField> fields, @Nonnull final CanonicalPool pool) {
+        this(fields, pool, null);
+    }
+
+    /**
+     * @param fields         the fields of each call to decode
+     * @param pool           the pool from which to take the ids, phone numbers, sites and names of each call
+     * @param validationMode how thoroughly to validate each event, e.g. {@link ValidationMode#TRUSTED} if the events
+     *                       are only received from a trusted peer; if {@code null} the default mode at the time each
+     *                       event is decoded is used
+     */
+    public CallStatusExtensionProvider(@Nonnull final Set<CallField> fields, @Nonnull final CanonicalPool pool, @Nullable final ValidationMode validationMode) {
+        this(fields, pool, validationMode, false);
+    }
+
+    /**
+     * @param fields           the fields of each call to decode
+     * @param pool             the pool from which to take the ids, phone numbers, sites and names of each call
+     * @param validationMode   how thoroughly to validate each event; if {@code null} the default mode at the time each
+     *                         event is decoded is used
+     * @param deltasNegotiated {@code true} if the receiver has advertised the
+     *                         {@link com.bt.openlink.OpenlinkXmppNamespace#OPENLINK_CALL_STATUS_DELTA call status delta}
+     *                         feature, so that calls that are deltas are decoded as such; otherwise each is decoded as a
+     *                         full call, and reported as a parse error
+     */
+    public CallStatusExtensionProvider(
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            @Nullable final ValidationMode validationMode,
+            final boolean deltasNegotiated) {
+        this.fields = fields;
+        this.pool = pool;
+        this.validationMode = validationMode;
+        this.deltasNegotiated = deltasNegotiated;
+    }
+
+    @Override
+    public CallStatusExtension parse(final XmlPullParser parser, final int initialDepth) throws Exception {
+        final List<String> parseErrors = validationMode == null ? new ParseDiagnostics() : new ParseDiagnostics(validationMode);
+        final CallStatusExtension.Builder builder = CallStatusExtension.Builder.start();
+        SmackPacketUtil.getBooleanAttribute(parser, "busy").ifPresent(builder::setCallStatusBusy);
+        parser.nextTag();
+        while (parser.getEventType() == XmlPullParser.START_TAG) {
+            if (parser.getName().equals("call")) {
+                builder.addCalls(SmackPacketUtil.getCalls(parser, fields, pool, deltasNegotiated, parseErrors));
+            } else {
+                ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
+                parser.nextTag();
+            }
+        }
+        ParserUtils.forwardToEndTagOfDepth(parser, initialDepth);
+        return builder.build(parseErrors);
+    }
+}
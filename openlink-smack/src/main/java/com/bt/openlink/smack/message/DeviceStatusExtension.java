@@ -0,0 +1,97 @@
+package com.bt.openlink.smack.message;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.jivesoftware.smack.packet.ExtensionElement;
+import org.jivesoftware.smack.util.XmlStringBuilder;
+
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.smack.internal.SmackPacketUtil;
+import com.bt.openlink.type.DeviceStatus;
+
+/**
+ * The {@code <devicestatus>} payload of a device status pub-sub event item. Register a
+ * {@link DeviceStatusExtensionProvider} to have Smack decode the payload as the event is received.
+ */
+public class DeviceStatusExtension implements ExtensionElement {
+
+    public static final String ELEMENT = "devicestatus";
+    public static final String NAMESPACE = OpenlinkXmppNamespace.OPENLINK_DEVICE_STATUS.uri();
+
+    @Nullable private final DeviceStatus deviceStatus;
+    @Nonnull private final List<String> parseErrors;
+
+    private DeviceStatusExtension(@Nonnull final Builder builder, @Nullable final List<String> parseErrors) {
+        this.deviceStatus = builder.deviceStatus;
+        this.parseErrors = ParseDiagnostics.unmodifiableCopyOf(parseErrors);
+    }
+
+    @Nonnull
+    public Optional<DeviceStatus> getDeviceStatus() {
+        return Optional.ofNullable(deviceStatus);
+    }
+
+    @Nonnull
+    public List<String> getParseErrors() {
+        return parseErrors;
+    }
+
+    @Override
+    public String getElementName() {
+        return ELEMENT;
+    }
+
+    @Override
+    public String getNamespace() {
+        return NAMESPACE;
+    }
+
+    @Override
+    public XmlStringBuilder toXML() {
+        final XmlStringBuilder xml = new XmlStringBuilder(this);
+        xml.rightAngleBracket();
+        getDeviceStatus().ifPresent(status -> SmackPacketUtil.addDeviceStatus(xml, status));
+        xml.closeElement(this);
+        return xml;
+    }
+
+    public static final class Builder {
+
+        @Nullable private DeviceStatus deviceStatus;
+
+        private Builder() {
+        }
+
+        @Nonnull
+        public static Builder start() {
+            return new Builder();
+        }
+
+        @Nonnull
+        public Builder setDeviceStatus(@Nonnull final DeviceStatus deviceStatus) {
+            this.deviceStatus = deviceStatus;
+            return this;
+        }
+
+        @Nonnull
+        public DeviceStatusExtension build() {
+            if (deviceStatus == null) {
+                throw new IllegalStateException("The device status has not been set");
+            }
+            return new DeviceStatusExtension(this, null);
+        }
+
+        @Nonnull
+        DeviceStatusExtension build(@Nonnull final List<String> parseErrors) {
+            if (deviceStatus == null) {
+                parseErrors.add("Invalid devicestatus; the device status has not been set");
+            }
+            return new DeviceStatusExtension(this, parseErrors);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.bt.openlink.smack.message;
+
+import java.util.List;
+
+import org.jivesoftware.smack.provider.ExtensionElementProvider;
+import org.jivesoftware.smack.util.ParserUtils;
+import org.xmlpull.v1.XmlPullParser;
+
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.smack.internal.SmackPacketUtil;
+
+/**
+ * Decodes the {@code <devicestatus>} payload of a pub-sub event item in a single pass as the event is received, e.g.
+ * <pre>
+ * ProviderManager.addExtensionProvider(DeviceStatusExtension.ELEMENT, DeviceStatusExtension.NAMESPACE, new DeviceStatusExtensionProvider());
+ * </pre>
+ */
+public class DeviceStatusExtensionProvider extends ExtensionElementProvider<DeviceStatusExtension> {
+
+    @Override
+    public DeviceStatusExtension parse(final XmlPullParser parser, final int initialDepth) throws Exception {
+        final List<String> parseErrors = new ParseDiagnostics();
+        final DeviceStatusExtension.Builder builder = DeviceStatusExtension.Builder.start();
+        SmackPacketUtil.getDeviceStatus(parser, parseErrors).ifPresent(builder::setDeviceStatus);
+        ParserUtils.forwardToEndTagOfDepth(parser, initialDepth);
+        return builder.build(parseErrors);
+    }
+}
@@ -25,6 +25,7 @@ import com.bt.openlink.type.Call;
 import com.bt.openlink.type.CallDirection;
 import com.bt.openlink.type.CallState;
 import com.bt.openlink.type.Changed;
+import com.bt.openlink.type.RequestAction;
 
 @SuppressWarnings({"ConstantConditions", "RedundantThrows"})
 public class MakeCallResultTest {
@@ -108,6 +109,9 @@ public class MakeCallResultTest {
         assertThat(theOnlyCall.getOriginatorReferences().get(1).getValue(),is("value2"));
         assertThat(theOnlyCall.getStartTime().get(), is(CoreFixtures.START_TIME));
         assertThat(theOnlyCall.getDuration().get(), is(Duration.ofMinutes(1)));
+        assertThat(theOnlyCall.getActions(), contains(RequestAction.ANSWER_CALL));
+        assertThat(theOnlyCall.getFeatures().size(), is(5));
+        assertThat(theOnlyCall.getParticipants().size(), is(1));
         assertThat(calls.size(), is(1));
         assertThat(result.getParseErrors().size(), is(0));
     }
@@ -0,0 +1,84 @@
+package com.bt.openlink.smack.iq;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.jivesoftware.smack.packet.IQ;
+import org.jivesoftware.smack.packet.UnparsedIQ;
+import org.jivesoftware.smack.provider.ProviderManager;
+import org.jivesoftware.smack.util.PacketParserUtils;
+import org.jivesoftware.smack.util.ParserUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.GetInterestFixtures;
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.RequestActionFixtures;
+
+@SuppressWarnings("ConstantConditions")
+public class OpenlinkIQProviderTest {
+
+    @After
+    public void tearDown() throws Exception {
+        ProviderManager.removeIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri());
+        OpenlinkIQProvider.unregisterRequestFactory(OpenlinkXmppNamespace.OPENLINK_REQUEST_ACTION.uri(), "execute");
+    }
+
+    @Test
+    public void willParseAKnownCommand() throws Exception {
+        ProviderManager.addIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), new OpenlinkIQProvider());
+
+        final IQ iq = PacketParserUtils.parseStanza(GetInterestFixtures.GET_INTEREST_REQUEST);
+
+        assertThat(iq, is(instanceOf(GetInterestRequest.class)));
+    }
+
+    @Test
+    public void willSkipTheContentOfAnUnknownCommand() throws Exception {
+        ProviderManager.addIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), new OpenlinkIQProvider());
+
+        final UnparsedIQ iq = PacketParserUtils.parseStanza(RequestActionFixtures.REQUEST_ACTION_REQUEST);
+
+        assertThat(iq.getStanzaId(), is(CoreFixtures.STANZA_ID));
+        assertThat(iq.getContent().toString(), is(""));
+    }
+
+    @Test
+    public void willRetainTheContentOfAnUnknownCommandIfRequested() throws Exception {
+        ProviderManager.addIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), new OpenlinkIQProvider(true));
+
+        final UnparsedIQ iq = PacketParserUtils.parseStanza(RequestActionFixtures.REQUEST_ACTION_REQUEST);
+
+        assertThat(iq.getStanzaId(), is(CoreFixtures.STANZA_ID));
+        assertThat(iq.getContent().toString(), containsString(OpenlinkXmppNamespace.OPENLINK_REQUEST_ACTION.uri()));
+    }
+
+    @Test
+    public void willUseARegisteredStanzaFactory() throws Exception {
+        ProviderManager.addIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), new OpenlinkIQProvider());
+        OpenlinkIQProvider.registerRequestFactory(OpenlinkXmppNamespace.OPENLINK_REQUEST_ACTION.uri(), "execute", parser -> {
+            ParserUtils.forwardToEndTagOfDepth(parser, parser.getDepth());
+            return new UnparsedIQ("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), "custom");
+        });
+
+        final UnparsedIQ iq = PacketParserUtils.parseStanza(RequestActionFixtures.REQUEST_ACTION_REQUEST);
+
+        assertThat(iq.getContent().toString(), is("custom"));
+    }
+
+    @Test
+    public void willNoLongerUseAnUnregisteredStanzaFactory() throws Exception {
+        ProviderManager.addIQProvider("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri(), new OpenlinkIQProvider());
+        OpenlinkIQProvider.registerRequestFactory(OpenlinkXmppNamespace.OPENLINK_REQUEST_ACTION.uri(), "execute", parser -> {
+            throw new IllegalStateException("The factory should not be used");
+        });
+
+        assertThat(OpenlinkIQProvider.unregisterRequestFactory(OpenlinkXmppNamespace.OPENLINK_REQUEST_ACTION.uri(), "execute").isPresent(), is(true));
+        final UnparsedIQ iq = PacketParserUtils.parseStanza(RequestActionFixtures.REQUEST_ACTION_REQUEST);
+
+        assertThat(iq.getContent().toString(), is(""));
+    }
+}
@@ -0,0 +1,253 @@
+package com.bt.openlink.smack.message;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.jivesoftware.smack.util.PacketParserUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ValidationMode;
+import com.bt.openlink.codec.CallDeltaDecoder;
+import com.bt.openlink.codec.CallDeltaEncoder;
+import com.bt.openlink.codec.CallFragmentCache;
+import com.bt.openlink.codec.CanonicalPool;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallState;
+
+@SuppressWarnings({ "ConstantConditions", "RedundantThrows" })
+public class CallStatusExtensionTest {
+
+    private static final String CALL = CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED.substring(
+            CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED.indexOf("<call>"),
+            CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED.indexOf("</call>") + "</call>".length());
+    private static final String CALL_STATUS_WITH_TWO_CALLS = CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED.replace("</callstatus>",
+            CALL.replace(CoreFixtures.CALL_ID.value(), "another-call-id") + "\n</callstatus>");
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void canBuildAnExtension() throws Exception {
+
+        final CallStatusExtension extension = CallStatusExtension.Builder.start()
+                .addCall(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                .build();
+
+        assertThat(extension.getElementName(), is("callstatus"));
+        assertThat(extension.getNamespace(), is("http://xmpp.org/protocol/openlink:01:00:00#call-status"));
+        assertThat(extension.getCalls(), contains(CoreFixtures.CALL_INCOMING_ORIGINATED));
+        assertThat(extension.isCallStatusBusy().get(), is(false));
+    }
+
+    @Test
+    public void willNotOverrideTheBusyFlagThatWasSet() throws Exception {
+
+        final CallStatusExtension extension = CallStatusExtension.Builder.start()
+                .setCallStatusBusy(true)
+                .addCall(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                .build();
+
+        assertThat(extension.isCallStatusBusy().get(), is(true));
+    }
+
+    @Test
+    public void willNotBuildAnExtensionWithoutACall() throws Exception {
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("The callstatus has no calls");
+
+        CallStatusExtension.Builder.start().build();
+    }
+
+    @Test
+    public void willParseTheCallStatusPayload() throws Exception {
+
+        final CallStatusExtension extension = new CallStatusExtensionProvider().parse(PacketParserUtils.getParserFor(CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED));
+
+        assertThat(extension.getParseErrors(), is(empty()));
+        assertThat(extension.isCallStatusBusy().get(), is(false));
+        final List<Call> calls = extension.getCalls();
+        assertThat(calls.size(), is(1));
+        assertThat(calls.get(0).getId(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getId()));
+        assertThat(calls.get(0).getSite().get().getId(), is(CoreFixtures.SITE.getId()));
+        assertThat(calls.get(0).getState(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getState()));
+        assertThat(calls.get(0).getCalledNumber(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getCalledNumber()));
+        assertThat(calls.get(0).getDuration(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getDuration()));
+    }
+
+    @Test
+    public void willParseEveryCallInThePayload() throws Exception {
+
+        final CallStatusExtension extension = new CallStatusExtensionProvider().parse(PacketParserUtils.getParserFor(CALL_STATUS_WITH_TWO_CALLS));
+
+        assertThat(extension.getParseErrors(), is(empty()));
+        assertThat(extension.getCalls().size(), is(2));
+        assertThat(extension.getCalls().get(0).getId(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getId()));
+        assertThat(extension.getCalls().get(1).getId().get().value(), is("another-call-id"));
+    }
+
+    @Test
+    public void willParseOnlyTheRequestedCallFields() throws Exception {
+
+        final CallStatusExtension extension = new CallStatusExtensionProvider(CallField.STATE_ONLY).parse(PacketParserUtils.getParserFor(CALL_STATUS_WITH_TWO_CALLS));
+
+        assertThat(extension.getParseErrors(), is(empty()));
+        assertThat(extension.getCalls().size(), is(2));
+        assertThat(extension.getCalls().get(1).getState(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getState()));
+        assertThat(extension.getCalls().get(1).isLoaded(CallField.SITE), is(false));
+        assertThat(extension.getCalls().get(1).getSite().isPresent(), is(false));
+    }
+
+    @Test
+    public void willShareTheValuesOfCallsParsedWithTheSamePool() throws Exception {
+
+        final CallStatusExtensionProvider provider = new CallStatusExtensionProvider(CallField.ALL, new CanonicalPool(1024));
+
+        final Call first = provider.parse(PacketParserUtils.getParserFor(CALL_STATUS_WITH_TWO_CALLS)).getCalls().get(0);
+        final Call second = provider.parse(PacketParserUtils.getParserFor(CALL_STATUS_WITH_TWO_CALLS)).getCalls().get(0);
+
+        assertThat(second.getId().get(), is(sameInstance(first.getId().get())));
+        assertThat(second.getSite().get(), is(sameInstance(first.getSite().get())));
+        assertThat(second.getCalledNumber().get(), is(sameInstance(first.getCalledNumber().get())));
+        assertThat(second.getCallerName().get(), is(sameInstance(first.getCallerName().get())));
+    }
+
+    @Test
+    public void willNotValidateAnEventFromATrustedPeer() throws Exception {
+        final String invalid = CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED
+                .replace("<id>" + CoreFixtures.CALL_ID + "</id>", "")
+                .replace(" timestamp='", " timestamp='Thu Jan 01 00:00:00 UTC 1970' ignored='");
+
+        final CallStatusExtension strictExtension = new CallStatusExtensionProvider(CallField.ALL, CanonicalPool.NONE, ValidationMode.STRICT).parse(PacketParserUtils.getParserFor(invalid));
+        final CallStatusExtension trustedExtension = new CallStatusExtensionProvider(CallField.ALL, CanonicalPool.NONE, ValidationMode.TRUSTED).parse(PacketParserUtils.getParserFor(invalid));
+
+        assertThat(strictExtension.getParseErrors(), contains(
+                "Invalid participant; the legacy timestamp field does not match the start time field",
+                "Invalid call status; missing call id is mandatory"));
+        assertThat(trustedExtension.getParseErrors(), is(empty()));
+        assertThat(trustedExtension.getCalls().get(0).getParticipants().get(0).getStartTime(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getParticipants().get(0).getStartTime()));
+    }
+
+    @Test
+    public void willParseTheCallElementsInAnyOrder() throws Exception {
+        final String reordered = CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED
+                .replace("<id>" + CoreFixtures.CALL_ID + "</id>", "")
+                .replace("</participants>", "</participants>\n<id>" + CoreFixtures.CALL_ID + "</id>");
+
+        final CallStatusExtension extension = new CallStatusExtensionProvider().parse(PacketParserUtils.getParserFor(reordered));
+
+        assertThat(extension.getParseErrors(), is(empty()));
+        assertThat(extension.getCalls().get(0).getId(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getId()));
+        assertThat(extension.getCalls().get(0).getParticipants().size(), is(1));
+    }
+
+    @Test
+    public void willSkipUnknownCallElements() throws Exception {
+        final String extended = CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED
+                .replace("<changed>", "<unknown><nested>value</nested></unknown>\n<changed>");
+
+        final CallStatusExtension extension = new CallStatusExtensionProvider().parse(PacketParserUtils.getParserFor(extended));
+
+        assertThat(extension.getParseErrors(), is(empty()));
+        assertThat(extension.getCalls().get(0).getChanged(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getChanged()));
+        assertThat(extension.getCalls().get(0).getState(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getState()));
+    }
+
+    @Test
+    public void willParseTheActionsFeaturesAndParticipantsOfACall() throws Exception {
+
+        final Call call = new CallStatusExtensionProvider().parse(PacketParserUtils.getParserFor(CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED)).getCalls().get(0);
+
+        assertThat(call.getActions(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getActions()));
+        assertThat(call.getFeatures().size(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getFeatures().size()));
+        assertThat(call.getParticipants().size(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getParticipants().size()));
+        assertThat(call.getParticipants().get(0).getStartTime(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getParticipants().get(0).getStartTime()));
+    }
+
+    @Test
+    public void willParseTheGeneratedPayload() throws Exception {
+        final CallStatusExtension extension = CallStatusExtension.Builder.start()
+                .addCall(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                .build();
+
+        final CallStatusExtension parsedExtension = new CallStatusExtensionProvider().parse(PacketParserUtils.getParserFor(extension.toXML().toString()));
+
+        assertThat(parsedExtension.getParseErrors(), is(empty()));
+        assertThat(parsedExtension.toXML().toString(), is(extension.toXML().toString()));
+    }
+
+    @Test
+    public void willWriteTheSameXmlWithACacheOfEncodedCalls() throws Exception {
+
+        final CallFragmentCache fragmentCache = new CallFragmentCache(16);
+        final String expectedXml = CallStatusExtension.Builder.start()
+                .addCall(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                .build().toXML().toString();
+
+        for (int i = 0; i < 2; i++) {
+            final CallStatusExtension extension = CallStatusExtension.Builder.start()
+                    .addCall(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                    .setFragmentCache(fragmentCache)
+                    .build();
+            assertThat(extension.toXML().toString(), is(expectedXml));
+        }
+        assertThat(fragmentCache.size(), is(1));
+    }
+
+    @Test
+    public void willParseADeltaOfACall() throws Exception {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(Collections.singleton(OpenlinkXmppNamespace.OPENLINK_CALL_STATUS_DELTA.uri()));
+        final CallStatusExtensionProvider provider = new CallStatusExtensionProvider(CallField.ALL, CanonicalPool.NONE, null, true);
+        final CallDeltaDecoder decoder = new CallDeltaDecoder();
+        final Call heldCall = Call.Builder.start()
+                .copyFields(CoreFixtures.CALL_INCOMING_ORIGINATED, CallField.ALL)
+                .setState(CallState.CALL_HELD)
+                .build();
+        for (final Call call : new Call[] { CoreFixtures.CALL_INCOMING_ORIGINATED, heldCall }) {
+            final String xml = CallStatusExtension.Builder.start()
+                    .addCall(encoder.encode(call))
+                    .build().toXML().toString();
+            decoder.decode(provider.parse(PacketParserUtils.getParserFor(xml)).getCalls());
+        }
+
+        final String xml = CallStatusExtension.Builder.start()
+                .addCall(encoder.encode(heldCall))
+                .build().toXML().toString();
+        final Call delta = provider.parse(PacketParserUtils.getParserFor(xml)).getCalls().get(0);
+        final Call call = decoder.getCall(CoreFixtures.CALL_ID).get();
+
+        assertThat(xml.contains("<call fields='id'>"), is(true));
+        assertThat(delta.isDelta(), is(true));
+        assertThat(delta.getLoadedFields(), contains(CallField.ID));
+        for (final CallField field : CallField.values()) {
+            assertThat(field.name(), call.hasSameValue(field, heldCall), is(true));
+        }
+    }
+
+    @Test
+    public void willReportADeltaIfDeltasWereNotNegotiated() throws Exception {
+
+        final String xml = CoreFixtures.CALL_STATUS_INCOMING_ORIGINATED.replace("<call>", "<call fields='id state'>");
+
+        final CallStatusExtension extension = new CallStatusExtensionProvider().parse(PacketParserUtils.getParserFor(xml));
+        final CallStatusExtension negotiatedExtension = new CallStatusExtensionProvider(CallField.ALL, CanonicalPool.NONE, null, true).parse(PacketParserUtils.getParserFor(xml));
+
+        assertThat(extension.getParseErrors(), contains("Invalid call; the call is a delta, but call status deltas have not been negotiated"));
+        assertThat(extension.getCalls().get(0).isDelta(), is(false));
+        assertThat(extension.getCalls().get(0).getLoadedFields(), is(CallField.ALL));
+        assertThat(negotiatedExtension.getParseErrors(), is(empty()));
+        assertThat(negotiatedExtension.getCalls().get(0).isDelta(), is(true));
+        assertThat(negotiatedExtension.getCalls().get(0).getLoadedFields(), contains(CallField.ID, CallField.STATE));
+    }
+}
@@ -0,0 +1,65 @@
+package com.bt.openlink.smack.message;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+import static org.xmlunit.matchers.CompareMatcher.isIdenticalTo;
+
+import org.jivesoftware.smack.util.PacketParserUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.type.DeviceStatus;
+
+@SuppressWarnings({ "ConstantConditions", "RedundantThrows" })
+public class DeviceStatusExtensionTest {
+
+    private static final String DEVICE_STATUS =
+            "<devicestatus xmlns='http://xmpp.org/protocol/openlink:01:00:00#device-status'>\n" +
+                    "  <profile online='true'>" + CoreFixtures.PROFILE_ID + "</profile>\n" +
+                    "</devicestatus>";
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void willGenerateTheDeviceStatusPayload() throws Exception {
+
+        final DeviceStatusExtension extension = DeviceStatusExtension.Builder.start()
+                .setDeviceStatus(DeviceStatus.Builder.start().setOnline(true).setProfileId(CoreFixtures.PROFILE_ID).build())
+                .build();
+
+        assertThat(extension.toXML().toString(), isIdenticalTo(DEVICE_STATUS).ignoreWhitespace());
+    }
+
+    @Test
+    public void willNotBuildAnExtensionWithoutADeviceStatus() throws Exception {
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("The device status has not been set");
+
+        DeviceStatusExtension.Builder.start().build();
+    }
+
+    @Test
+    public void willParseTheDeviceStatusPayload() throws Exception {
+
+        final DeviceStatusExtension extension = new DeviceStatusExtensionProvider().parse(PacketParserUtils.getParserFor(DEVICE_STATUS));
+
+        assertThat(extension.getParseErrors(), is(empty()));
+        assertThat(extension.getDeviceStatus().get().isOnline().get(), is(true));
+        assertThat(extension.getDeviceStatus().get().getProfileId().get(), is(CoreFixtures.PROFILE_ID));
+    }
+
+    @Test
+    public void willParseAPayloadWithoutAProfile() throws Exception {
+
+        final DeviceStatusExtension extension = new DeviceStatusExtensionProvider().parse(PacketParserUtils.getParserFor(
+                "<devicestatus xmlns='http://xmpp.org/protocol/openlink:01:00:00#device-status'/>"));
+
+        assertThat(extension.getDeviceStatus().isPresent(), is(false));
+        assertThat(extension.getParseErrors(), contains("Invalid devicestatus; the device status has not been set"));
+    }
+}
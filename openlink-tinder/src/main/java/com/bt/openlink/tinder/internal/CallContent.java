@@ -0,0 +1,302 @@
+package com.bt.openlink.tinder.internal;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.codec.CanonicalPool;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallDirection;
+import com.bt.openlink.type.CallFeature;
+import com.bt.openlink.type.CallFeatureBoolean;
+import com.bt.openlink.type.CallFeatureDeviceKey;
+import com.bt.openlink.type.CallFeatureSpeakerChannel;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallId;
+import com.bt.openlink.type.CallState;
+import com.bt.openlink.type.Changed;
+import com.bt.openlink.type.ConferenceId;
+import com.bt.openlink.type.DeviceKey;
+import com.bt.openlink.type.FeatureId;
+import com.bt.openlink.type.FeatureType;
+import com.bt.openlink.type.InterestId;
+import com.bt.openlink.type.PhoneNumber;
+import com.bt.openlink.type.ProfileId;
+import com.bt.openlink.type.UserId;
+
+/**
+ * The raw (untrimmed, unvalidated) content of a {@code <call>} element, gathered in a single pass over the element
+ * by either the DOM or the StAX decoder. The content is only decoded once the whole element has been read, so that
+ * any parse errors are always reported in the same order regardless of the order of the child elements.
+ * <p>
+ * Only the first occurrence of each single-valued child element is retained; a {@code null} field indicates that
+ * the element was not present, or was not requested.
+ */
+final class CallContent {
+
+    @Nonnull final Set<CallField> fields;
+    final boolean delta;
+
+    String id;
+    String conference;
+    String siteName;
+    String siteId;
+    String siteDefault;
+    String siteType;
+    String profile;
+    String user;
+    String interest;
+    String changed;
+    String state;
+    String direction;
+    PartyContent caller;
+    PartyContent called;
+    List<PropertyContent> originatorReferences;
+    String start;
+    String duration;
+    List<String> actions;
+    List<FeatureContent> features;
+    List<ParticipantContent> participants;
+
+    static final class PartyContent {
+        String number;
+        String e164;
+        String destination;
+        String name;
+    }
+
+    static final class PropertyContent {
+        String id;
+        String value;
+    }
+
+    static final class FeatureContent {
+        String id;
+        String label;
+        String type;
+        String text;
+        String childElementName;
+        String key;
+        String channel;
+        String microphone;
+        String mute;
+
+        @SuppressWarnings("unchecked")
+        private CallFeature toCallFeature(final String description, final List<String> parseErrors) {
+            final CallFeature.AbstractCallFeatureBuilder callFeatureBuilder;
+            switch (childElementName == null ? "" : childElementName) {
+            case "devicekeys":
+                final CallFeatureDeviceKey.Builder deviceKeyBuilder = CallFeatureDeviceKey.Builder.start();
+                DeviceKey.from(trimToNull(key)).ifPresent(deviceKeyBuilder::setDeviceKey);
+                callFeatureBuilder = deviceKeyBuilder;
+                break;
+            case "speakerchannel":
+                final CallFeatureSpeakerChannel.Builder speakerChannelBuilder = CallFeatureSpeakerChannel.Builder.start();
+                TinderPacketUtil.getLong("channel", trimToNull(channel), description, parseErrors).ifPresent(speakerChannelBuilder::setChannel);
+                TinderPacketUtil.getBoolean(trimToNull(microphone), description, parseErrors).ifPresent(speakerChannelBuilder::setMicrophoneActive);
+                TinderPacketUtil.getBoolean(trimToNull(mute), description, parseErrors).ifPresent(speakerChannelBuilder::setMuteRequested);
+                callFeatureBuilder = speakerChannelBuilder;
+                break;
+            default:
+                // Assume it's a simple true/false call feature
+                final CallFeatureBoolean.Builder booleanBuilder = CallFeatureBoolean.Builder.start();
+                TinderPacketUtil.getBoolean(text, description, parseErrors).ifPresent(booleanBuilder::setEnabled);
+                callFeatureBuilder = booleanBuilder;
+                break;
+            }
+            FeatureId.from(id).ifPresent(callFeatureBuilder::setId);
+            Optional.ofNullable(label).ifPresent(callFeatureBuilder::setLabel);
+            FeatureType.from(type).ifPresent(callFeatureBuilder::setType);
+            return callFeatureBuilder.build(parseErrors);
+        }
+    }
+
+    static final class ParticipantContent {
+        String jid;
+        String type;
+        String direction;
+        String timestamp;
+        String startTime;
+        String duration;
+    }
+
+    CallContent(@Nonnull final Set<CallField> fields) {
+        this(fields, false);
+    }
+
+    private CallContent(@Nonnull final Set<CallField> fields, final boolean delta) {
+        this.fields = fields;
+        this.delta = delta;
+    }
+
+    /**
+     * @param requestedFields  the fields requested by the decoder
+     * @param deltaFields      the {@code fields} attribute of the {@code <call>} element, which is only present if the
+     *                         call is a delta
+     * @param deltasNegotiated {@code true} if the decoder has advertised support for deltas; if not, the attribute is
+     *                         ignored and reported as a parse error
+     * @param parseErrors      the list to which any parse errors are added
+     * @return the content of a call that holds the requested fields that are present in the element
+     */
+    @Nonnull
+    static CallContent forCall(
+            @Nonnull final Set<CallField> requestedFields,
+            @Nullable final String deltaFields,
+            final boolean deltasNegotiated,
+            @Nonnull final List<String> parseErrors) {
+        if (deltaFields == null) {
+            return new CallContent(requestedFields);
+        }
+        if (!deltasNegotiated) {
+            parseErrors.add("Invalid call; the call is a delta, but call status deltas have not been negotiated");
+            return new CallContent(requestedFields);
+        }
+        final Set<CallField> fields = CallField.fromElementNames(deltaFields);
+        fields.retainAll(requestedFields);
+        return new CallContent(fields, true);
+    }
+
+    /**
+     * @param childElementName the name of a child element of a {@code <call>} element
+     * @return {@code false} if the element holds a field that was not requested, otherwise {@code true}
+     */
+    boolean isRequested(@Nonnull final String childElementName) {
+        final CallField field = getField(childElementName);
+        return field == null || fields.contains(field);
+    }
+
+    @Nullable
+    private static CallField getField(@Nonnull final String childElementName) {
+        switch (childElementName) {
+        case "id":
+            return CallField.ID;
+        case "conference":
+            return CallField.CONFERENCE_ID;
+        case "site":
+            return CallField.SITE;
+        case "profile":
+            return CallField.PROFILE_ID;
+        case "user":
+            return CallField.USER_ID;
+        case "interest":
+            return CallField.INTEREST_ID;
+        case "changed":
+            return CallField.CHANGED;
+        case "state":
+            return CallField.STATE;
+        case "direction":
+            return CallField.DIRECTION;
+        case "caller":
+            return CallField.CALLER;
+        case "called":
+            return CallField.CALLED;
+        case "originator-ref":
+            return CallField.ORIGINATOR_REFERENCES;
+        case "start":
+            return CallField.START_TIME;
+        case "duration":
+            return CallField.DURATION;
+        case "actions":
+            return CallField.ACTIONS;
+        case "features":
+            return CallField.FEATURES;
+        case "participants":
+            return CallField.PARTICIPANTS;
+        default:
+            return null;
+        }
+    }
+
+    void addOriginatorReference(@Nullable final String key, @Nullable final String value) {
+        if (originatorReferences == null) {
+            originatorReferences = new ArrayList<>();
+        }
+        final PropertyContent property = new PropertyContent();
+        property.id = key;
+        property.value = value;
+        originatorReferences.add(property);
+    }
+
+    /**
+     * @return the (trimmed) text, or {@code null} if the text is {@code null} or blank. No new string is allocated
+     * if there is no whitespace to trim.
+     */
+    @Nullable
+    static String trimToNull(@Nullable final String text) {
+        if (text == null) {
+            return null;
+        }
+        final String trimmedText = text.trim();
+        return trimmedText.isEmpty() ? null : trimmedText;
+    }
+
+    @Nonnull
+    Call toCall(@Nonnull final CanonicalPool pool, @Nonnull final String description, @Nonnull final List<String> parseErrors) {
+        final PartyContent callerContent = caller == null ? new PartyContent() : caller;
+        final PartyContent calledContent = called == null ? new PartyContent() : called;
+        final Call.Builder callBuilder = Call.Builder.start().setLoadedFields(fields).setDelta(delta).setCanonicalPool(pool);
+        CallId.from(trimToNull(id)).ifPresent(callBuilder::setId);
+        ConferenceId.from(trimToNull(conference)).ifPresent(callBuilder::setConferenceId);
+        if (siteName != null) {
+            callBuilder.setSite(TinderPacketUtil.getSite(
+                    siteName,
+                    TinderPacketUtil.getOptionalAttributeValue("id", siteId),
+                    TinderPacketUtil.getOptionalAttributeValue(OpenlinkXmppNamespace.TAG_DEFAULT, siteDefault).orElse(null),
+                    TinderPacketUtil.getOptionalAttributeValue("type", siteType).orElse(null),
+                    description,
+                    parseErrors));
+        }
+        ProfileId.from(trimToNull(profile)).ifPresent(callBuilder::setProfileId);
+        UserId.from(trimToNull(user)).ifPresent(callBuilder::setUserId);
+        InterestId.from(trimToNull(interest)).ifPresent(callBuilder::setInterestId);
+        Changed.from(trimToNull(changed)).ifPresent(callBuilder::setChanged);
+        CallState.from(trimToNull(state)).ifPresent(callBuilder::setState);
+        CallDirection.from(trimToNull(direction)).ifPresent(callBuilder::setDirection);
+        PhoneNumber.from(trimToNull(callerContent.number)).ifPresent(callBuilder::setCallerNumber);
+        Optional.ofNullable(trimToNull(callerContent.name)).ifPresent(callBuilder::setCallerName);
+        callBuilder.addCallerE164Numbers(TinderPacketUtil.getPhoneNumbers(TinderPacketUtil.getOptionalAttributeValue("e164", callerContent.e164)));
+        PhoneNumber.from(trimToNull(calledContent.number)).ifPresent(callBuilder::setCalledNumber);
+        Optional.ofNullable(trimToNull(calledContent.name)).ifPresent(callBuilder::setCalledName);
+        PhoneNumber.from(calledContent.destination).ifPresent(callBuilder::setCalledDestination);
+        callBuilder.addCalledE164Numbers(TinderPacketUtil.getPhoneNumbers(TinderPacketUtil.getOptionalAttributeValue("e164", calledContent.e164)));
+        if (originatorReferences != null) {
+            for (final PropertyContent originatorReference : originatorReferences) {
+                final String key = TinderPacketUtil.getOptionalAttributeValue("id", originatorReference.id).orElse("");
+                final String value = Optional.ofNullable(trimToNull(originatorReference.value)).orElse("");
+                callBuilder.addOriginatorReference(key, value);
+            }
+        }
+        TinderPacketUtil.getISO8601("start", trimToNull(start), description, parseErrors).ifPresent(callBuilder::setStartTime);
+        TinderPacketUtil.getLong("duration", trimToNull(duration), description, parseErrors).map(Duration::ofMillis).ifPresent(callBuilder::setDuration);
+        if (actions != null) {
+            for (final String action : actions) {
+                TinderPacketUtil.addAction(action, callBuilder, description, parseErrors);
+            }
+        }
+        if (features != null) {
+            for (final FeatureContent feature : features) {
+                callBuilder.addFeature(feature.toCallFeature(description, parseErrors));
+            }
+        }
+        if (participants != null) {
+            for (final ParticipantContent participant : participants) {
+                callBuilder.addParticipant(TinderPacketUtil.getParticipant(
+                        participant.jid,
+                        participant.type,
+                        participant.direction,
+                        participant.timestamp,
+                        participant.startTime,
+                        participant.duration,
+                        description,
+                        parseErrors));
+            }
+        }
+        return callBuilder.build(parseErrors);
+    }
+}
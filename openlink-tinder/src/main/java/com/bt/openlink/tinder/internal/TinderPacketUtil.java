@@ -3,29 +3,32 @@ package com.bt.openlink.tinder.internal;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.TimeZone;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.dom4j.Attribute;
 import org.dom4j.Element;
+import org.dom4j.Node;
 import org.xmpp.packet.IQ;
 import org.xmpp.packet.JID;
 import org.xmpp.packet.Message;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.codec.CallFragmentCache;
+import com.bt.openlink.codec.CanonicalPool;
+import com.bt.openlink.codec.TimestampCodec;
 import com.bt.openlink.message.PubSubMessageBuilder;
 import com.bt.openlink.type.Call;
 import com.bt.openlink.type.CallDirection;
@@ -33,15 +36,8 @@ import com.bt.openlink.type.CallFeature;
 import com.bt.openlink.type.CallFeatureBoolean;
 import com.bt.openlink.type.CallFeatureDeviceKey;
 import com.bt.openlink.type.CallFeatureSpeakerChannel;
-import com.bt.openlink.type.CallId;
-import com.bt.openlink.type.CallState;
-import com.bt.openlink.type.Changed;
-import com.bt.openlink.type.ConferenceId;
-import com.bt.openlink.type.DeviceKey;
+import com.bt.openlink.type.CallField;
 import com.bt.openlink.type.DeviceStatus;
-import com.bt.openlink.type.FeatureId;
-import com.bt.openlink.type.FeatureType;
-import com.bt.openlink.type.InterestId;
 import com.bt.openlink.type.ItemId;
 import com.bt.openlink.type.OriginatorReference;
 import com.bt.openlink.type.Participant;
@@ -51,21 +47,27 @@ import com.bt.openlink.type.ProfileId;
 import com.bt.openlink.type.PubSubNodeId;
 import com.bt.openlink.type.RequestAction;
 import com.bt.openlink.type.Site;
-import com.bt.openlink.type.UserId;
 
 /**
  * This class is for internal use by the library only; users of the API should not access this class directly.
  */
 public final class TinderPacketUtil {
 
-    private static final DateTimeFormatter ISO_8601_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-    private static final DateTimeFormatter JAVA_UTIL_DATE_FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy");
     private static final String ATTRIBUTE_DIRECTION = "direction";
     private static final String ATTRIBUTE_START_TIME = "start";
     private static final String ATTRIBUTE_TIMESTAMP = "timestamp";
     private static final String ATTRIBUTE_DURATION = "duration";
     private static final String ELEMENT_NUMBER = "number";
     private static final String ELEMENT_PROFILE = "profile";
+    // Identifies the fragments of calls encoded by this library in a CallFragmentCache
+    private static final String CALL_FRAGMENT_FORMAT = "tinder";
+    private static final Map<OpenlinkXmppNamespace, TinderXmlTemplate> COMMAND_IO_INPUT_TEMPLATES = commandIOTemplates("action", "execute", "input", OpenlinkXmppNamespace.TAG_IN);
+    private static final Map<OpenlinkXmppNamespace, TinderXmlTemplate> COMMAND_IO_OUTPUT_TEMPLATES = commandIOTemplates("status", "completed", "output", OpenlinkXmppNamespace.TAG_OUT);
+    private static final TinderXmlTemplate PUBSUB_EVENT_TEMPLATE = TinderXmlTemplate.start("event", OpenlinkXmppNamespace.XMPP_PUBSUB_EVENT.uri())
+            .element("items").slot("node")
+            .element("item").slot("id")
+            .build();
+    private static final TinderXmlTemplate DELAY_TEMPLATE = TinderXmlTemplate.start("delay", "urn:xmpp:delay").slot("stamp").build();
 
     private TinderPacketUtil() {
     }
@@ -80,6 +82,11 @@ public final class TinderPacketUtil {
         return getChildElement(iq.getChildElement(), OpenlinkXmppNamespace.TAG_IODATA, OpenlinkXmppNamespace.TAG_OUT);
     }
 
+    @Nullable
+    public static Element getChildElement(@Nullable final Element element, @Nonnull final String elementName) {
+        return element == null ? null : element.element(elementName);
+    }
+
     @Nullable
     public static Element getChildElement(@Nullable final Element element, final String... elementNames) {
         Element childElement = element;
@@ -143,24 +150,23 @@ public final class TinderPacketUtil {
             try {
                 return Optional.of(LocalDate.parse(dateText, dateTimeFormatter));
             } catch (final DateTimeParseException e) {
-                parseErrors.add(String.format("Invalid %s; invalid %s '%s'; date format is '%s'", stanzaDescription, childElementName, dateText, dateFormat));
+                ParseDiagnostics.report(parseErrors, "Invalid %s; invalid %s '%s'; date format is '%s'", stanzaDescription, childElementName, dateText, dateFormat);
             }
         }
         return Optional.empty();
     }
 
     @Nonnull
-    private static Optional<Instant> getChildElementISO8601(
-            @Nullable final Element parentElement,
+    static Optional<Instant> getISO8601(
             @Nonnull final String childElementName,
+            @Nullable final String childElementText,
             @Nonnull final String stanzaDescription,
             @Nonnull final List<String> parseErrors) {
-        final String childElementText = getNullableChildElementString(parentElement, childElementName);
         if (childElementText != null) {
             try {
-                return Optional.of(Instant.parse(childElementText));
+                return Optional.of(TimestampCodec.parseIso8601(childElementText));
             } catch (final DateTimeParseException ignored) {
-                parseErrors.add(String.format("Invalid %s; invalid %s '%s'; format should be compliant with XEP-0082", stanzaDescription, childElementName, childElementText));
+                ParseDiagnostics.report(parseErrors, "Invalid %s; invalid %s '%s'; format should be compliant with XEP-0082", stanzaDescription, childElementName, childElementText);
             }
         }
         return Optional.empty();
@@ -172,12 +178,20 @@ public final class TinderPacketUtil {
             @Nonnull final String childElementName,
             @Nonnull final String stanzaDescription,
             @Nonnull final List<String> parseErrors) {
-        final String childElementText = getNullableChildElementString(parentElement, childElementName);
+        return getLong(childElementName, getNullableChildElementString(parentElement, childElementName), stanzaDescription, parseErrors);
+    }
+
+    @Nonnull
+    static Optional<Long> getLong(
+            @Nonnull final String childElementName,
+            @Nullable final String childElementText,
+            @Nonnull final String stanzaDescription,
+            @Nonnull final List<String> parseErrors) {
         if (childElementText != null) {
             try {
                 return Optional.of(Long.parseLong(childElementText));
             } catch (final NumberFormatException ignored) {
-                parseErrors.add(String.format("Invalid %s; invalid %s '%s'; please supply an integer", stanzaDescription, childElementName, childElementText));
+                ParseDiagnostics.report(parseErrors, "Invalid %s; invalid %s '%s'; please supply an integer", stanzaDescription, childElementName, childElementText);
             }
         }
         return Optional.empty();
@@ -200,7 +214,7 @@ public final class TinderPacketUtil {
 
     @Nullable
     public static String getNullableStringAttribute(@Nullable final Element element, @Nonnull final String attributeName) {
-        return getNullableStringAttribute(element, attributeName, false, "", Collections.emptyList());
+        return getNullableStringAttribute(element, attributeName, false, "", ParseDiagnostics.IGNORED);
     }
 
     @Nonnull
@@ -220,46 +234,61 @@ public final class TinderPacketUtil {
             final boolean isRequired,
             @Nonnull final String stanzaDescription,
             @Nonnull final List<String> parseErrors) {
-        final String attributeValue;
-        if (element == null) {
-            attributeValue = null;
-        } else {
-            final String valueString = element.attributeValue(attributeName);
-            attributeValue = valueString == null || valueString.isEmpty() ? null : valueString;
-        }
+        return getNullableAttributeValue(attributeName, element == null ? null : element.attributeValue(attributeName), isRequired, stanzaDescription, parseErrors);
+    }
+
+    @Nonnull
+    static Optional<String> getOptionalAttributeValue(@Nonnull final String attributeName, @Nullable final String valueString) {
+        return Optional.ofNullable(getNullableAttributeValue(attributeName, valueString, false, "", ParseDiagnostics.IGNORED));
+    }
+
+    @Nullable
+    static String getNullableAttributeValue(
+            @Nonnull final String attributeName,
+            @Nullable final String valueString,
+            final boolean isRequired,
+            @Nonnull final String stanzaDescription,
+            @Nonnull final List<String> parseErrors) {
+        final String attributeValue = valueString == null || valueString.isEmpty() ? null : valueString;
         if (attributeValue == null && isRequired) {
-            parseErrors.add(String.format("Invalid %s; missing '%s' attribute is mandatory", stanzaDescription, attributeName));
+            ParseDiagnostics.report(parseErrors, "Invalid %s; missing '%s' attribute is mandatory", stanzaDescription, attributeName);
         }
         return attributeValue;
     }
 
     @Nonnull
-    private static Optional<Long> getLongAttribute(final Element parentElement, final String attributeName, final String description, final List<String> parseErrors) {
-        final Optional<String> stringValue = getStringAttribute(parentElement, attributeName);
+    static Optional<Long> getLongAttribute(final String attributeName, final Optional<String> stringValue, final String description, final List<String> parseErrors) {
         try {
             return stringValue.map(Long::valueOf);
         } catch (final NumberFormatException e) {
-            parseErrors.add(String.format("Invalid %s; Unable to parse number attribute %s: '%s'", description, attributeName, stringValue));
+            ParseDiagnostics.report(parseErrors, "Invalid %s; Unable to parse number attribute %s: '%s'", description, attributeName, stringValue);
             return Optional.empty();
         }
     }
 
-    private static Optional<Instant> getISO8601Attribute(final Element parentElement, final String attributeName, final String description, final List<String> parseErrors) {
-        final Optional<String> stringValue = getStringAttribute(parentElement, attributeName, false, description, parseErrors);
+    static Optional<Instant> getISO8601Attribute(final String attributeName, final Optional<String> stringValue, final String description, final List<String> parseErrors) {
         try {
-            return stringValue.map(Instant::parse);
+            return stringValue.map(TimestampCodec::parseIso8601);
         } catch (final DateTimeParseException ignored) {
-            parseErrors.add(String.format("Invalid %s; invalid %s '%s'; format should be compliant with XEP-0082", description, attributeName, stringValue));
+            ParseDiagnostics.report(parseErrors, "Invalid %s; invalid %s '%s'; format should be compliant with XEP-0082", description, attributeName, stringValue);
             return Optional.empty();
         }
     }
 
-    private static Optional<Instant> getJavaUtilDateAttribute(final Element parentElement, final String attributeName, final String description, final List<String> parseErrors) {
-        final Optional<String> stringValue = getStringAttribute(parentElement, attributeName, false, description, parseErrors);
+    @Nonnull
+    private static Optional<Instant> parseISO8601Quietly(@Nonnull final String stringValue) {
         try {
-            return stringValue.map(string -> Instant.from(JAVA_UTIL_DATE_FORMATTER.parse(string)));
+            return Optional.of(TimestampCodec.parseIso8601(stringValue));
         } catch (final DateTimeParseException ignored) {
-            parseErrors.add(String.format("Invalid %s; invalid %s '%s'; format should be 'dow mon dd hh:mm:ss zzz yyyy'", description, attributeName, stringValue));
+            return Optional.empty();
+        }
+    }
+
+    static Optional<Instant> getJavaUtilDateAttribute(final String attributeName, final Optional<String> stringValue, final String description, final List<String> parseErrors) {
+        try {
+            return stringValue.map(TimestampCodec::parseLegacy);
+        } catch (final DateTimeParseException ignored) {
+            ParseDiagnostics.report(parseErrors, "Invalid %s; invalid %s '%s'; format should be 'dow mon dd hh:mm:ss zzz yyyy'", description, attributeName, stringValue);
             return Optional.empty();
         }
     }
@@ -270,28 +299,32 @@ public final class TinderPacketUtil {
     }
 
     @Nonnull
-    private static Element addCommandElement(@Nonnull final IQ request) {
-        return request.getElement().addElement("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri());
+    public static Element addCommandIOInputElement(@Nonnull final IQ request, @Nonnull final OpenlinkXmppNamespace namespace) {
+        return COMMAND_IO_INPUT_TEMPLATES.get(namespace).addTo(request.getElement());
     }
 
     @Nonnull
-    public static Element addCommandIOInputElement(@Nonnull final IQ request, @Nonnull final OpenlinkXmppNamespace namespace) {
-        final Element commandElement = addCommandElement(request);
-        commandElement.addAttribute("action", "execute");
-        commandElement.addAttribute("node", namespace.uri());
-        final Element ioInputElement = commandElement.addElement(OpenlinkXmppNamespace.TAG_IODATA, OpenlinkXmppNamespace.XMPP_IO_DATA.uri());
-        ioInputElement.addAttribute("type", "input");
-        return ioInputElement.addElement(OpenlinkXmppNamespace.TAG_IN);
+    public static Element addCommandIOOutputElement(@Nonnull final IQ result, @Nonnull final OpenlinkXmppNamespace namespace) {
+        return COMMAND_IO_OUTPUT_TEMPLATES.get(namespace).addTo(result.getElement());
     }
 
     @Nonnull
-    public static Element addCommandIOOutputElement(@Nonnull final IQ result, @Nonnull final OpenlinkXmppNamespace namespace) {
-        final Element commandElement = addCommandElement(result);
-        commandElement.addAttribute("status", "completed");
-        commandElement.addAttribute("node", namespace.uri());
-        final Element ioInputElement = commandElement.addElement(OpenlinkXmppNamespace.TAG_IODATA, OpenlinkXmppNamespace.XMPP_IO_DATA.uri());
-        ioInputElement.addAttribute("type", "output");
-        return ioInputElement.addElement(OpenlinkXmppNamespace.TAG_OUT);
+    private static Map<OpenlinkXmppNamespace, TinderXmlTemplate> commandIOTemplates(
+            @Nonnull final String commandAttribute,
+            @Nonnull final String commandAttributeValue,
+            @Nonnull final String ioDataType,
+            @Nonnull final String ioElement) {
+        final Map<OpenlinkXmppNamespace, TinderXmlTemplate> templates = new EnumMap<>(OpenlinkXmppNamespace.class);
+        for (final OpenlinkXmppNamespace namespace : OpenlinkXmppNamespace.values()) {
+            templates.put(namespace, TinderXmlTemplate.start("command", OpenlinkXmppNamespace.XMPP_COMMANDS.uri())
+                    .attribute(commandAttribute, commandAttributeValue)
+                    .attribute("node", namespace.uri())
+                    .element(OpenlinkXmppNamespace.TAG_IODATA, OpenlinkXmppNamespace.XMPP_IO_DATA.uri())
+                    .attribute("type", ioDataType)
+                    .element(ioElement)
+                    .build());
+        }
+        return templates;
     }
 
     @Nonnull
@@ -300,212 +333,575 @@ public final class TinderPacketUtil {
     }
 
     public static void addCallStatusCalls(@Nonnull final Element itemElement, @Nullable final Boolean callStatusBusy, @Nonnull final Collection<Call> calls) {
-        final Element callStatusElement = itemElement.addElement("callstatus", OpenlinkXmppNamespace.OPENLINK_CALL_STATUS.uri());
+        writeCallStatusCalls(TinderXmlWriter.of(itemElement), callStatusBusy, calls);
+    }
+
+    public static void writeCallStatusCalls(@Nonnull final TinderXmlWriter writer, @Nullable final Boolean callStatusBusy, @Nonnull final Collection<Call> calls) {
+        writeCallStatusCalls(writer, callStatusBusy, calls, null);
+    }
+
+    /**
+     * Writes the calls, reusing the text of any call that is already held by a cache when writing text.
+     */
+    public static void writeCallStatusCalls(
+            @Nonnull final TinderXmlWriter writer,
+            @Nullable final Boolean callStatusBusy,
+            @Nonnull final Collection<Call> calls,
+            @Nullable final CallFragmentCache fragmentCache) {
+        writer.startElement("callstatus", OpenlinkXmppNamespace.OPENLINK_CALL_STATUS.uri());
         if (callStatusBusy != null) {
-            callStatusElement.addAttribute("busy", String.valueOf(callStatusBusy));
-        }
-        calls.forEach(call -> {
-            final Element callElement = callStatusElement.addElement("call");
-            call.getId().ifPresent(callId -> callElement.addElement("id").setText(callId.value()));
-            call.getConferenceId().ifPresent(conferenceId -> callElement.addElement("conference").setText(conferenceId.value()));
-            call.getSite().ifPresent(site -> addSite(callElement, site));
-            call.getProfileId().ifPresent(profileId -> callElement.addElement(ELEMENT_PROFILE).setText(profileId.value()));
-            call.getUserId().ifPresent(userId -> callElement.addElement("user").setText(userId.value()));
-            call.getInterestId().ifPresent(interestId -> callElement.addElement("interest").setText(interestId.value()));
-            call.getChanged().ifPresent(changed -> callElement.addElement("changed").setText(changed.getId()));
-            call.getState().ifPresent(state -> callElement.addElement("state").setText(state.getLabel()));
-            call.getDirection().ifPresent(direction -> callElement.addElement(ATTRIBUTE_DIRECTION).setText(direction.getLabel()));
-            final Element callerElement = callElement.addElement("caller");
-            final Element callerNumberElement = callerElement.addElement(ELEMENT_NUMBER);
-            call.getCallerNumber().ifPresent(callerNumber -> callerNumberElement.setText(callerNumber.value()));
-            final String callerE164Numbers = String.join(",", call.getCallerE164Numbers().stream().map(PhoneNumber::value).collect(Collectors.toList()));
-            if (!callerE164Numbers.isEmpty()) {
-                callerNumberElement.addAttribute("e164", callerE164Numbers);
-            }
-            final Element callerNameElement = callerElement.addElement("name");
-            call.getCallerName().ifPresent(callerNameElement::setText);
-            final Element calledElement = callElement.addElement("called");
-            final Element calledNumberElement = calledElement.addElement(ELEMENT_NUMBER);
-            call.getCalledNumber().ifPresent(calledNumber -> calledNumberElement.setText(calledNumber.value()));
-            call.getCalledDestination().ifPresent(calledDestination -> calledNumberElement.addAttribute("destination", calledDestination.value()));
-            final String calledE164Numbers = String.join(",", call.getCalledE164Numbers().stream().map(PhoneNumber::value).collect(Collectors.toList()));
-            if (!calledE164Numbers.isEmpty()) {
-                calledNumberElement.addAttribute("e164", calledE164Numbers);
+            writer.attribute("busy", String.valueOf(callStatusBusy));
+        }
+        for (final Call call : calls) {
+            if (fragmentCache == null) {
+                writeCall(writer, call);
+            } else {
+                writer.encodedElement(
+                        () -> fragmentCache.getFragment(CALL_FRAGMENT_FORMAT, call, TinderPacketUtil::encodeCall),
+                        elementWriter -> writeCall(elementWriter, call));
             }
-            final List<OriginatorReference> originatorReferences = call.getOriginatorReferences();
-            if (!originatorReferences.isEmpty()) {
-                final Element originatorRefElement = callElement.addElement("originator-ref");
-                originatorReferences.forEach(originatorReference -> {
-                    final Element propertyElement = originatorRefElement.addElement("property").addAttribute("id", originatorReference.getKey());
-                    propertyElement.addElement("value").setText(originatorReference.getValue());
+        }
+        writer.endElement();
+    }
 
-                });
+    @Nonnull
+    private static String encodeCall(@Nonnull final Call call) {
+        final StringBuilder xml = new StringBuilder();
+        writeCall(TinderXmlWriter.of(xml, OpenlinkXmppNamespace.OPENLINK_CALL_STATUS.uri()), call);
+        return xml.toString();
+    }
+
+    private static void writeCall(@Nonnull final TinderXmlWriter writer, @Nonnull final Call call) {
+        writer.startElement("call");
+        if (call.isDelta()) {
+            writer.attribute(OpenlinkXmppNamespace.TAG_FIELDS, CallField.toElementNames(call.getLoadedFields()));
+        }
+        call.getId().ifPresent(callId -> writer.textElement("id", callId.value()));
+        call.getConferenceId().ifPresent(conferenceId -> writer.textElement("conference", conferenceId.value()));
+        call.getSite().ifPresent(site -> writeSite(writer, site));
+        call.getProfileId().ifPresent(profileId -> writer.textElement(ELEMENT_PROFILE, profileId.value()));
+        call.getUserId().ifPresent(userId -> writer.textElement("user", userId.value()));
+        call.getInterestId().ifPresent(interestId -> writer.textElement("interest", interestId.value()));
+        call.getChanged().ifPresent(changed -> writer.textElement("changed", changed.getId()));
+        call.getState().ifPresent(state -> writer.textElement("state", state.getLabel()));
+        call.getDirection().ifPresent(direction -> writer.textElement(ATTRIBUTE_DIRECTION, direction.getLabel()));
+        // A delta omits every field it does not carry, including the caller and called that are otherwise always written
+        if (!call.isDelta() || call.isLoaded(CallField.CALLER)) {
+            writer.startElement("caller").startElement(ELEMENT_NUMBER);
+            writeE164Numbers(writer, call.getCallerE164Numbers());
+            call.getCallerNumber().ifPresent(callerNumber -> writer.text(callerNumber.value()));
+            writer.endElement().startElement("name");
+            call.getCallerName().ifPresent(writer::text);
+            writer.endElement().endElement();
+        }
+        if (!call.isDelta() || call.isLoaded(CallField.CALLED)) {
+            writer.startElement("called").startElement(ELEMENT_NUMBER);
+            call.getCalledDestination().ifPresent(calledDestination -> writer.attribute("destination", calledDestination.value()));
+            writeE164Numbers(writer, call.getCalledE164Numbers());
+            call.getCalledNumber().ifPresent(calledNumber -> writer.text(calledNumber.value()));
+            writer.endElement().startElement("name");
+            call.getCalledName().ifPresent(writer::text);
+            writer.endElement().endElement();
+        }
+        final List<OriginatorReference> originatorReferences = call.getOriginatorReferences();
+        if (!originatorReferences.isEmpty()) {
+            writer.startElement("originator-ref");
+            originatorReferences.forEach(originatorReference -> writer.startElement("property")
+                    .attribute("id", originatorReference.getKey())
+                    .textElement("value", originatorReference.getValue())
+                    .endElement());
+            writer.endElement();
+        }
+        call.getStartTime().ifPresent(startTime -> writer.textElement(ATTRIBUTE_START_TIME, TimestampCodec.formatIso8601(startTime)));
+        call.getDuration().ifPresent(duration -> writer.textElement(ATTRIBUTE_DURATION, String.valueOf(duration.toMillis())));
+        writeActions(writer, call);
+        writeFeatures(writer, call);
+        writeParticipants(writer, call);
+        writer.endElement();
+    }
+
+    private static void writeE164Numbers(@Nonnull final TinderXmlWriter writer, @Nonnull final List<PhoneNumber> e164Numbers) {
+        if (!e164Numbers.isEmpty()) {
+            final StringBuilder e164Value = new StringBuilder(e164Numbers.get(0).value());
+            for (int i = 1; i < e164Numbers.size(); i++) {
+                e164Value.append(',').append(e164Numbers.get(i).value());
+            }
+            if (e164Value.length() > 0) {
+                writer.attribute("e164", e164Value.toString());
             }
-            final Element calledNameElement = calledElement.addElement("name");
-            call.getCalledName().ifPresent(calledNameElement::setText);
-            call.getStartTime().ifPresent(startTime -> callElement.addElement(ATTRIBUTE_START_TIME).setText(ISO_8601_FORMATTER.format(startTime.atZone(ZoneOffset.UTC))));
-            call.getDuration().ifPresent(duration -> callElement.addElement(ATTRIBUTE_DURATION).setText(String.valueOf(duration.toMillis())));
-            addActions(call, callElement);
-            addFeatures(call, callElement);
-            addParticipants(call, callElement);
-        });
+        }
     }
 
     public static void addDeviceStatus(@Nonnull final Element itemElement, @Nonnull final DeviceStatus deviceStatus) {
-        final Element deviceStatusElement = itemElement.addElement("devicestatus", OpenlinkXmppNamespace.OPENLINK_DEVICE_STATUS.uri());
-        final Element profileElement = deviceStatusElement.addElement(ELEMENT_PROFILE);
-        deviceStatus.isOnline().ifPresent(online -> profileElement.addAttribute("online", String.valueOf(online)));
-        deviceStatus.getProfileId().ifPresent(profileId -> profileElement.setText(profileId.value()));
+        writeDeviceStatus(TinderXmlWriter.of(itemElement), deviceStatus);
     }
 
-    private static void addFeatures(@Nonnull final Call call, @Nonnull final Element callElement) {
+    public static void writeDeviceStatus(@Nonnull final TinderXmlWriter writer, @Nonnull final DeviceStatus deviceStatus) {
+        writer.startElement("devicestatus", OpenlinkXmppNamespace.OPENLINK_DEVICE_STATUS.uri()).startElement(ELEMENT_PROFILE);
+        deviceStatus.isOnline().ifPresent(online -> writer.attribute("online", String.valueOf(online)));
+        deviceStatus.getProfileId().ifPresent(profileId -> writer.text(profileId.value()));
+        writer.endElement().endElement();
+    }
+
+    private static void writeFeatures(@Nonnull final TinderXmlWriter writer, @Nonnull final Call call) {
         final List<CallFeature> callFeatures = call.getFeatures();
         if (!callFeatures.isEmpty()) {
-            final Element featuresElement = callElement.addElement("features");
+            writer.startElement("features");
             callFeatures.forEach(feature -> {
-                final Element featureElement = featuresElement.addElement("feature");
-                feature.getId().ifPresent(id -> featureElement.addAttribute("id", id.value()));
-                feature.getType().ifPresent(type -> featureElement.addAttribute("type", type.getId()));
-                final Optional<String> featureLabel;
+                writer.startElement("feature");
+                feature.getId().ifPresent(id -> writer.attribute("id", id.value()));
+                feature.getType().ifPresent(type -> writer.attribute("type", type.getId()));
+                if (!(feature instanceof CallFeatureSpeakerChannel)) {
+                    feature.getLabel().ifPresent(label -> writer.attribute("label", label));
+                }
                 if (feature instanceof CallFeatureBoolean) {
                     final CallFeatureBoolean callFeatureBoolean = (CallFeatureBoolean) feature;
-                    callFeatureBoolean.isEnabled().ifPresent(enabled -> featureElement.setText(String.valueOf(enabled)));
-                    featureLabel = feature.getLabel();
+                    callFeatureBoolean.isEnabled().ifPresent(enabled -> writer.text(String.valueOf(enabled)));
                 } else if (feature instanceof CallFeatureDeviceKey) {
                     final CallFeatureDeviceKey callFeatureDeviceKey = (CallFeatureDeviceKey) feature;
-                    final Element deviceKeysElement = featureElement.addElement("devicekeys", OpenlinkXmppNamespace.OPENLINK_DEVICE_KEY.uri());
-                    callFeatureDeviceKey.getDeviceKey().ifPresent(deviceKey -> deviceKeysElement.addElement("key").setText(deviceKey.value()));
-                    featureLabel = feature.getLabel();
+                    writer.startElement("devicekeys", OpenlinkXmppNamespace.OPENLINK_DEVICE_KEY.uri());
+                    callFeatureDeviceKey.getDeviceKey().ifPresent(deviceKey -> writer.textElement("key", deviceKey.value()));
+                    writer.endElement();
                 } else if (feature instanceof CallFeatureSpeakerChannel) {
                     final CallFeatureSpeakerChannel callFeatureSpeakerChannel = (CallFeatureSpeakerChannel) feature;
-                    final Element speakerChannelElement = featureElement.addElement("speakerchannel", OpenlinkXmppNamespace.OPENLINK_SPEAKER_CHANNEL.uri());
-                    callFeatureSpeakerChannel.getChannel().ifPresent(channelNumber -> speakerChannelElement.addElement("channel").setText(String.valueOf(channelNumber)));
-                    callFeatureSpeakerChannel.isMicrophoneActive().ifPresent(microphoneActive -> speakerChannelElement.addElement("microphone").setText(String.valueOf(microphoneActive)));
-                    callFeatureSpeakerChannel.isMuteRequested().ifPresent(muteRequested -> speakerChannelElement.addElement("mute").setText(String.valueOf(muteRequested)));
-                    featureLabel = Optional.empty();
-                } else {
-                    featureLabel = feature.getLabel();
+                    writer.startElement("speakerchannel", OpenlinkXmppNamespace.OPENLINK_SPEAKER_CHANNEL.uri());
+                    callFeatureSpeakerChannel.getChannel().ifPresent(channelNumber -> writer.textElement("channel", String.valueOf(channelNumber)));
+                    callFeatureSpeakerChannel.isMicrophoneActive().ifPresent(microphoneActive -> writer.textElement("microphone", String.valueOf(microphoneActive)));
+                    callFeatureSpeakerChannel.isMuteRequested().ifPresent(muteRequested -> writer.textElement("mute", String.valueOf(muteRequested)));
+                    writer.endElement();
                 }
-                featureLabel.ifPresent(label -> featureElement.addAttribute("label", label));
+                writer.endElement();
             });
+            writer.endElement();
         }
     }
 
-    private static void addActions(@Nonnull final Call call, @Nonnull final Element callElement) {
+    private static void writeActions(@Nonnull final TinderXmlWriter writer, @Nonnull final Call call) {
         final Collection<RequestAction> actions = call.getActions();
         if (!actions.isEmpty()) {
-            final Element actionsElement = callElement.addElement("actions");
-            actions.forEach(action -> actionsElement.addElement(action.getId()));
+            writer.startElement("actions");
+            actions.forEach(action -> writer.startElement(action.getId()).endElement());
+            writer.endElement();
         }
     }
 
-    private static void addParticipants(@Nonnull final Call call, @Nonnull final Element callElement) {
+    private static void writeParticipants(@Nonnull final TinderXmlWriter writer, @Nonnull final Call call) {
         final List<Participant> participants = call.getParticipants();
         if (!participants.isEmpty()) {
-            final Element participantsElement = callElement.addElement("participants");
+            writer.startElement("participants");
             participants.forEach(participant -> {
-                final Element participantElement = participantsElement.addElement("participant");
-                participant.getJID().ifPresent(jid -> participantElement.addAttribute("jid", jid));
-                participant.getType().ifPresent(type -> participantElement.addAttribute("type", type.getId()));
-                participant.getDirection().ifPresent(direction -> participantElement.addAttribute(ATTRIBUTE_DIRECTION, direction.getLabel()));
+                writer.startElement("participant");
+                participant.getJID().ifPresent(jid -> writer.attribute("jid", jid));
+                participant.getType().ifPresent(type -> writer.attribute("type", type.getId()));
+                participant.getDirection().ifPresent(direction -> writer.attribute(ATTRIBUTE_DIRECTION, direction.getLabel()));
                 participant.getStartTime().ifPresent(startTime -> {
-                    final ZonedDateTime startTimeInUTC = startTime.atZone(TimeZone.getTimeZone("UTC").toZoneId());
-                    participantElement.addAttribute(ATTRIBUTE_START_TIME, ISO_8601_FORMATTER.format(startTimeInUTC));
+                    writer.attribute(ATTRIBUTE_START_TIME, TimestampCodec.formatIso8601(startTime));
                     // Include the legacy timestamp attribute too
-                        participantElement.addAttribute(ATTRIBUTE_TIMESTAMP, JAVA_UTIL_DATE_FORMATTER.format(startTimeInUTC));
-                    });
-                participant.getDuration().ifPresent(duration -> participantElement.addAttribute(ATTRIBUTE_DURATION, String.valueOf(duration.toMillis())));
+                    writer.attribute(ATTRIBUTE_TIMESTAMP, TimestampCodec.formatLegacy(startTime));
+                });
+                participant.getDuration().ifPresent(duration -> writer.attribute(ATTRIBUTE_DURATION, String.valueOf(duration.toMillis())));
+                writer.endElement();
             });
+            writer.endElement();
         }
     }
 
     public static void addSite(final Element parentElement, final Site site) {
-        final Element siteElement = parentElement.addElement("site");
-        site.getId().ifPresent(id -> siteElement.addAttribute("id", String.valueOf(id)));
-        site.isDefault().ifPresent(isDefault -> siteElement.addAttribute("default", String.valueOf(isDefault)));
-        site.getType().ifPresent(type -> siteElement.addAttribute("type", type.name()));
-        site.getName().ifPresent(siteElement::setText);
+        writeSite(TinderXmlWriter.of(parentElement), site);
+    }
+
+    private static void writeSite(@Nonnull final TinderXmlWriter writer, @Nonnull final Site site) {
+        writer.startElement("site");
+        site.getId().ifPresent(id -> writer.attribute("id", String.valueOf(id)));
+        site.isDefault().ifPresent(isDefault -> writer.attribute("default", String.valueOf(isDefault)));
+        site.getType().ifPresent(type -> writer.attribute("type", type.name()));
+        site.getName().ifPresent(writer::text);
+        writer.endElement();
     }
 
     public static Optional<Site> getSite(@Nonnull final Element parentElement, @Nonnull final String description, @Nonnull final List<String> parseErrors) {
-        final Element siteElement = parentElement.element("site");
+        final Element siteElement = getChildElement(parentElement, "site");
         if (siteElement == null) {
             return Optional.empty();
         }
+        final CallContent siteContent = new CallContent(CallField.ALL);
+        setSiteContent(siteElement, siteContent);
+        return Optional.of(getSite(
+                siteContent.siteName,
+                getOptionalAttributeValue("id", siteContent.siteId),
+                getOptionalAttributeValue(OpenlinkXmppNamespace.TAG_DEFAULT, siteContent.siteDefault).orElse(null),
+                getOptionalAttributeValue("type", siteContent.siteType).orElse(null),
+                description,
+                parseErrors));
+    }
+
+    @Nonnull
+    static Site getSite(
+            @Nonnull final String name,
+            @Nonnull final Optional<String> id,
+            @Nullable final String isDefault,
+            @Nullable final String type,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) {
         final Site.Builder siteBuilder = Site.Builder.start()
-                .setName(siteElement.getText());
-        final Optional<Long> id = getLongAttribute(siteElement, "id", description, parseErrors);
-        id.ifPresent(siteBuilder::setId);
-        final Optional<Boolean> isDefaultSite = getBooleanAttribute(siteElement, OpenlinkXmppNamespace.TAG_DEFAULT, description, parseErrors);
-        isDefaultSite.ifPresent(siteBuilder::setDefault);
-        final Optional<Site.Type> type = Site.Type.from(getNullableStringAttribute(siteElement, "type", false, description, parseErrors));
-        type.ifPresent(siteBuilder::setType);
-        return Optional.of(siteBuilder.build(parseErrors));
-    }
-
-    private static List<PhoneNumber> getPhoneNumbers(@Nullable final Element parentElement) {
-        final Optional<String> e164String = getStringAttribute(parentElement, "e164");
+                .setName(name);
+        getLongAttribute("id", id, description, parseErrors).ifPresent(siteBuilder::setId);
+        getBoolean(isDefault, description, parseErrors).ifPresent(siteBuilder::setDefault);
+        Site.Type.from(type).ifPresent(siteBuilder::setType);
+        return siteBuilder.build(parseErrors);
+    }
+
+    @Nonnull
+    static List<PhoneNumber> getPhoneNumbers(@Nonnull final Optional<String> e164String) {
         final List<PhoneNumber> phoneNumbers = new ArrayList<>();
-        e164String.ifPresent(string -> Arrays.stream(string.split(","))
-                .map(String::trim)
-                .map(PhoneNumber::from)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .forEach(phoneNumbers::add));
+        if (e164String.isPresent()) {
+            final String string = e164String.get();
+            int start = 0;
+            while (start <= string.length()) {
+                final int comma = string.indexOf(',', start);
+                final int end = comma < 0 ? string.length() : comma;
+                PhoneNumber.from(string.substring(start, end).trim()).ifPresent(phoneNumbers::add);
+                start = end + 1;
+            }
+        }
         return phoneNumbers;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Decodes the calls in a {@code <callstatus>} element. Each {@code <call>} element is visited exactly once, with
+     * the content of every child element gathered in a single pass over its children and attributes before the call
+     * is built.
+     */
+    @Nonnull
     public static List<Call> getCalls(@Nullable final Element callStatusElement, @Nonnull final String description, @Nonnull final List<String> parseErrors) {
+        return getCalls(callStatusElement, CallField.ALL, description, parseErrors);
+    }
+
+    /**
+     * Decodes only the requested fields of the calls in a {@code <callstatus>} element. The child elements holding any
+     * other fields are not visited, and the resulting calls report those fields as not loaded.
+     */
+    @Nonnull
+    public static List<Call> getCalls(
+            @Nullable final Element callStatusElement,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) {
+        return getCalls(callStatusElement, fields, CanonicalPool.NONE, description, parseErrors);
+    }
+
+    /**
+     * Decodes only the requested fields of the calls in a {@code <callstatus>} element, taking the ids, phone numbers,
+     * sites and names of the calls from a pool.
+     */
+    @Nonnull
+    public static List<Call> getCalls(
+            @Nullable final Element callStatusElement,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) {
+        return getCalls(callStatusElement, fields, pool, false, description, parseErrors);
+    }
+
+    /**
+     * Decodes only the requested fields of the calls in a {@code <callstatus>} element, taking the values of the calls
+     * from a pool. Calls that are {@link Call#isDelta() deltas} are only decoded as such if the receiver has advertised
+     * the {@link OpenlinkXmppNamespace#OPENLINK_CALL_STATUS_DELTA call status delta} feature; otherwise each is decoded
+     * as a full call, and reported as a parse error.
+     */
+    @Nonnull
+    public static List<Call> getCalls(
+            @Nullable final Element callStatusElement,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            final boolean deltasNegotiated,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) {
         final List<Call> calls = new ArrayList<>();
         if (callStatusElement != null) {
-            final List<Element> callElements = callStatusElement.elements("call");
-            for (final Element callElement : callElements) {
-                final Element callerElement = getChildElement(callElement, "caller");
-                final Element calledElement = getChildElement(callElement, "called");
-                final Call.Builder callBuilder = Call.Builder.start();
-                CallId.from(getNullableChildElementString(callElement, "id")).ifPresent(callBuilder::setId);
-                ConferenceId.from(getNullableChildElementString(callElement, "conference")).ifPresent(callBuilder::setConferenceId);
-                getSite(callElement, description, parseErrors).ifPresent(callBuilder::setSite);
-                ProfileId.from(getNullableChildElementString(callElement, ELEMENT_PROFILE)).ifPresent(callBuilder::setProfileId);
-                UserId.from(getNullableChildElementString(callElement, "user")).ifPresent(callBuilder::setUserId);
-                InterestId.from(getNullableChildElementString(callElement, "interest")).ifPresent(callBuilder::setInterestId);
-                Changed.from(getNullableChildElementString(callElement, "changed")).ifPresent(callBuilder::setChanged);
-                CallState.from(getNullableChildElementString(callElement, "state")).ifPresent(callBuilder::setState);
-                CallDirection.from(getNullableChildElementString(callElement, ATTRIBUTE_DIRECTION)).ifPresent(callBuilder::setDirection);
-                PhoneNumber.from(getNullableChildElementString(callerElement, ELEMENT_NUMBER)).ifPresent(callBuilder::setCallerNumber);
-                getOptionalChildElementString(callerElement, "name").ifPresent(callBuilder::setCallerName);
-                callBuilder.addCallerE164Numbers(getPhoneNumbers(getChildElement(callerElement, ELEMENT_NUMBER)));
-                PhoneNumber.from(getNullableChildElementString(calledElement, ELEMENT_NUMBER)).ifPresent(callBuilder::setCalledNumber);
-                getOptionalChildElementString(calledElement, "name").ifPresent(callBuilder::setCalledName);
-                PhoneNumber.from(getNullableStringAttribute(getChildElement(calledElement, ELEMENT_NUMBER), "destination")).ifPresent(callBuilder::setCalledDestination);
-                callBuilder.addCalledE164Numbers(getPhoneNumbers(getChildElement(calledElement, ELEMENT_NUMBER)));
-                getOriginatorReferences(callElement, callBuilder);
-                getChildElementISO8601(callElement, ATTRIBUTE_START_TIME, description, parseErrors).ifPresent(callBuilder::setStartTime);
-                getChildElementLong(callElement, ATTRIBUTE_DURATION, description, parseErrors).map(Duration::ofMillis).ifPresent(callBuilder::setDuration);
-                getActions(callElement, callBuilder, description, parseErrors);
-                getFeatures(callElement, callBuilder, description, parseErrors);
-                getParticipants(callElement, callBuilder, description, parseErrors);
-                calls.add(callBuilder.build(parseErrors));
+            for (int i = 0, nodeCount = callStatusElement.nodeCount(); i < nodeCount; i++) {
+                final Node node = callStatusElement.node(i);
+                if (node instanceof Element && "call".equals(node.getName())) {
+                    calls.add(getCallContent((Element) node, fields, deltasNegotiated, parseErrors).toCall(pool, description, parseErrors));
+                }
             }
         }
         return calls;
     }
 
-    @SuppressWarnings("unchecked")
-    private static void getOriginatorReferences(final Element callElement, final Call.Builder callBuilder) {
+    @Nonnull
+    private static CallContent getCallContent(
+            @Nonnull final Element callElement,
+            @Nonnull final Set<CallField> fields,
+            final boolean deltasNegotiated,
+            @Nonnull final List<String> parseErrors) {
+        final CallContent call = CallContent.forCall(fields, callElement.attributeValue(OpenlinkXmppNamespace.TAG_FIELDS), deltasNegotiated, parseErrors);
+        for (int i = 0, nodeCount = callElement.nodeCount(); i < nodeCount; i++) {
+            final Node node = callElement.node(i);
+            if (!(node instanceof Element) || !call.isRequested(node.getName())) {
+                continue;
+            }
+            final Element childElement = (Element) node;
+            switch (childElement.getName()) {
+            case "id":
+                call.id = firstText(call.id, childElement);
+                break;
+            case "conference":
+                call.conference = firstText(call.conference, childElement);
+                break;
+            case "site":
+                if (call.siteName == null) {
+                    setSiteContent(childElement, call);
+                }
+                break;
+            case ELEMENT_PROFILE:
+                call.profile = firstText(call.profile, childElement);
+                break;
+            case "user":
+                call.user = firstText(call.user, childElement);
+                break;
+            case "interest":
+                call.interest = firstText(call.interest, childElement);
+                break;
+            case "changed":
+                call.changed = firstText(call.changed, childElement);
+                break;
+            case "state":
+                call.state = firstText(call.state, childElement);
+                break;
+            case ATTRIBUTE_DIRECTION:
+                call.direction = firstText(call.direction, childElement);
+                break;
+            case "caller":
+                if (call.caller == null) {
+                    call.caller = getPartyContent(childElement);
+                }
+                break;
+            case "called":
+                if (call.called == null) {
+                    call.called = getPartyContent(childElement);
+                }
+                break;
+            case "originator-ref":
+                if (call.originatorReferences == null) {
+                    setOriginatorReferences(childElement, call);
+                }
+                break;
+            case ATTRIBUTE_START_TIME:
+                call.start = firstText(call.start, childElement);
+                break;
+            case ATTRIBUTE_DURATION:
+                call.duration = firstText(call.duration, childElement);
+                break;
+            case "actions":
+                if (call.actions == null) {
+                    call.actions = getActionNames(childElement);
+                }
+                break;
+            case "features":
+                if (call.features == null) {
+                    call.features = getFeatureContents(childElement);
+                }
+                break;
+            case "participants":
+                if (call.participants == null) {
+                    call.participants = getParticipantContents(childElement);
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return call;
+    }
+
+    @Nullable
+    private static String firstText(@Nullable final String existingText, @Nonnull final Element element) {
+        return existingText == null ? element.getText() : existingText;
+    }
+
+    private static void setSiteContent(@Nonnull final Element siteElement, @Nonnull final CallContent content) {
+        content.siteName = siteElement.getText();
+        for (int i = 0, attributeCount = siteElement.attributeCount(); i < attributeCount; i++) {
+            final Attribute attribute = siteElement.attribute(i);
+            switch (attribute.getName()) {
+            case "id":
+                content.siteId = attribute.getValue();
+                break;
+            case OpenlinkXmppNamespace.TAG_DEFAULT:
+                content.siteDefault = attribute.getValue();
+                break;
+            case "type":
+                content.siteType = attribute.getValue();
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    @Nonnull
+    private static CallContent.PartyContent getPartyContent(@Nonnull final Element partyElement) {
+        final CallContent.PartyContent party = new CallContent.PartyContent();
+        Element numberElement = null;
+        for (int i = 0, nodeCount = partyElement.nodeCount(); i < nodeCount; i++) {
+            final Node node = partyElement.node(i);
+            if (node instanceof Element) {
+                if (numberElement == null && ELEMENT_NUMBER.equals(node.getName())) {
+                    numberElement = (Element) node;
+                } else if ("name".equals(node.getName())) {
+                    party.name = firstText(party.name, (Element) node);
+                }
+            }
+        }
+        if (numberElement != null) {
+            party.number = numberElement.getText();
+            for (int i = 0, attributeCount = numberElement.attributeCount(); i < attributeCount; i++) {
+                final Attribute attribute = numberElement.attribute(i);
+                if ("e164".equals(attribute.getName())) {
+                    party.e164 = attribute.getValue();
+                } else if ("destination".equals(attribute.getName())) {
+                    party.destination = attribute.getValue();
+                }
+            }
+        }
+        return party;
+    }
+
+    private static void setOriginatorReferences(@Nonnull final Element originatorRefElement, @Nonnull final CallContent call) {
+        call.originatorReferences = new ArrayList<>();
+        for (int i = 0, nodeCount = originatorRefElement.nodeCount(); i < nodeCount; i++) {
+            final Node node = originatorRefElement.node(i);
+            if (node instanceof Element && "property".equals(node.getName())) {
+                final Element propertyElement = (Element) node;
+                final Element valueElement = getChildElement(propertyElement, "value");
+                call.addOriginatorReference(propertyElement.attributeValue("id"), valueElement == null ? null : valueElement.getText());
+            }
+        }
+    }
+
+    @Nonnull
+    private static List<String> getActionNames(@Nonnull final Element actionsElement) {
+        final List<String> actions = new ArrayList<>();
+        for (int i = 0, nodeCount = actionsElement.nodeCount(); i < nodeCount; i++) {
+            final Node node = actionsElement.node(i);
+            if (node instanceof Element) {
+                actions.add(node.getName());
+            }
+        }
+        return actions;
+    }
+
+    @Nonnull
+    private static List<CallContent.FeatureContent> getFeatureContents(@Nonnull final Element featuresElement) {
+        final List<CallContent.FeatureContent> features = new ArrayList<>();
+        for (int i = 0, nodeCount = featuresElement.nodeCount(); i < nodeCount; i++) {
+            final Node node = featuresElement.node(i);
+            if (node instanceof Element && "feature".equals(node.getName())) {
+                features.add(getFeatureContent((Element) node));
+            }
+        }
+        return features;
+    }
+
+    @Nonnull
+    private static CallContent.FeatureContent getFeatureContent(@Nonnull final Element featureElement) {
+        final CallContent.FeatureContent feature = new CallContent.FeatureContent();
+        for (int i = 0, attributeCount = featureElement.attributeCount(); i < attributeCount; i++) {
+            final Attribute attribute = featureElement.attribute(i);
+            switch (attribute.getName()) {
+            case "id":
+                feature.id = attribute.getValue();
+                break;
+            case "label":
+                feature.label = attribute.getValue();
+                break;
+            case "type":
+                feature.type = attribute.getValue();
+                break;
+            default:
+                break;
+            }
+        }
+        feature.text = featureElement.getText();
+        Element firstChildElement = null;
+        for (int i = 0, nodeCount = featureElement.nodeCount(); i < nodeCount && firstChildElement == null; i++) {
+            final Node node = featureElement.node(i);
+            if (node instanceof Element) {
+                firstChildElement = (Element) node;
+            }
+        }
+        if (firstChildElement != null) {
+            feature.childElementName = firstChildElement.getName();
+            for (int i = 0, nodeCount = firstChildElement.nodeCount(); i < nodeCount; i++) {
+                final Node node = firstChildElement.node(i);
+                if (!(node instanceof Element)) {
+                    continue;
+                }
+                final Element element = (Element) node;
+                switch (element.getName()) {
+                case "key":
+                    feature.key = firstText(feature.key, element);
+                    break;
+                case "channel":
+                    feature.channel = firstText(feature.channel, element);
+                    break;
+                case "microphone":
+                    feature.microphone = firstText(feature.microphone, element);
+                    break;
+                case "mute":
+                    feature.mute = firstText(feature.mute, element);
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+        return feature;
+    }
 
-        final Element originatorRefElement = getChildElement(callElement, "originator-ref");
-        if (originatorRefElement == null) {
-            return;
+    @Nonnull
+    private static List<CallContent.ParticipantContent> getParticipantContents(@Nonnull final Element participantsElement) {
+        final List<CallContent.ParticipantContent> participants = new ArrayList<>();
+        for (int i = 0, nodeCount = participantsElement.nodeCount(); i < nodeCount; i++) {
+            final Node node = participantsElement.node(i);
+            if (node instanceof Element && "participant".equals(node.getName())) {
+                participants.add(getParticipantContent((Element) node));
+            }
         }
+        return participants;
+    }
 
-        final List<Element> propertyElements = originatorRefElement.elements("property");
-        propertyElements.forEach(propertyElement -> {
-            final String key = getStringAttribute(propertyElement, "id").orElse("");
-            final String value = getOptionalChildElementString(propertyElement, "value").orElse("");
-            callBuilder.addOriginatorReference(key, value);
-        });
+    @Nonnull
+    private static CallContent.ParticipantContent getParticipantContent(@Nonnull final Element participantElement) {
+        final CallContent.ParticipantContent participant = new CallContent.ParticipantContent();
+        for (int i = 0, attributeCount = participantElement.attributeCount(); i < attributeCount; i++) {
+            final Attribute attribute = participantElement.attribute(i);
+            switch (attribute.getName()) {
+            case "jid":
+                participant.jid = attribute.getValue();
+                break;
+            case "type":
+                participant.type = attribute.getValue();
+                break;
+            case ATTRIBUTE_DIRECTION:
+                participant.direction = attribute.getValue();
+                break;
+            case ATTRIBUTE_TIMESTAMP:
+                participant.timestamp = attribute.getValue();
+                break;
+            case ATTRIBUTE_START_TIME:
+                participant.startTime = attribute.getValue();
+                break;
+            case ATTRIBUTE_DURATION:
+                participant.duration = attribute.getValue();
+                break;
+            default:
+                break;
+            }
+        }
+        return participant;
     }
 
     public static Optional<DeviceStatus> getDeviceStatus(@Nullable final Element deviceStatusElement, @Nonnull final String stanzaDescription, @Nonnull final List<String> parseErrors) {
@@ -522,121 +918,97 @@ public final class TinderPacketUtil {
         return Optional.of(builder.build(parseErrors));
     }
 
-    @SuppressWarnings("unchecked")
-    private static void getFeatures(@Nonnull final Element callElement, @Nonnull final Call.Builder callBuilder, final String description, List<String> parseErrors) {
-        final Element featuresElement = callElement.element("features");
-        if (featuresElement != null) {
-            final List<Element> featureElements = featuresElement.elements("feature");
-            for (final Element featureElement : featureElements) {
-                final Optional<FeatureId> featureId = FeatureId.from(featureElement.attributeValue("id"));
-                Optional<String> label = Optional.ofNullable(featureElement.attributeValue("label"));
-                final Optional<FeatureType> featureType = FeatureType.from(featureElement.attributeValue("type"));
-                final Iterator<Element> elementIterator = featureElement.elementIterator();
-                final boolean hasChildElement = elementIterator.hasNext();
-                final CallFeature.AbstractCallFeatureBuilder callFeatureBuilder;
-                if (hasChildElement) {
-                    final Element childElement = elementIterator.next();
-                    final String childElementName = childElement.getName();
-                    switch (childElementName) {
-                    case "devicekeys":
-                        final CallFeatureDeviceKey.Builder deviceKeyBuilder = CallFeatureDeviceKey.Builder.start();
-                        DeviceKey.from(getNullableChildElementString(childElement, "key")).ifPresent(deviceKeyBuilder::setDeviceKey);
-                        callFeatureBuilder = deviceKeyBuilder;
-                        break;
-                    case "speakerchannel":
-                        final CallFeatureSpeakerChannel.Builder speakerChannelBuilder = CallFeatureSpeakerChannel.Builder.start();
-                        getChildElementLong(childElement, "channel", description, parseErrors).ifPresent(speakerChannelBuilder::setChannel);
-                        getChildElementBoolean(childElement, "microphone", description, parseErrors).ifPresent(speakerChannelBuilder::setMicrophoneActive);
-                        getChildElementBoolean(childElement, "mute", description, parseErrors).ifPresent(speakerChannelBuilder::setMuteRequested);
-                        callFeatureBuilder = speakerChannelBuilder;
-                        break;
-                    default:
-                        // Assume it's a simple true/false call feature
-                        final CallFeatureBoolean.Builder booleanBuilder = CallFeatureBoolean.Builder.start();
-                        getBoolean(featureElement.getText(), description, parseErrors).ifPresent(booleanBuilder::setEnabled);
-                        callFeatureBuilder = booleanBuilder;
-                        break;
-                    }
-                } else {
-                    // It's a simple true/false call feature
-                    final CallFeatureBoolean.Builder booleanBuilder = CallFeatureBoolean.Builder.start();
-                    getBoolean(featureElement.getText(), description, parseErrors).ifPresent(booleanBuilder::setEnabled);
-                    callFeatureBuilder = booleanBuilder;
-                }
-                featureId.ifPresent(callFeatureBuilder::setId);
-                label.ifPresent(callFeatureBuilder::setLabel);
-                featureType.ifPresent(callFeatureBuilder::setType);
-                callBuilder.addFeature(callFeatureBuilder.build(parseErrors));
-            }
-        }
-    }
-
     @Nonnull
-    private static Optional<Boolean> getBoolean(@Nullable final String value, String description, List<String> parseErrors) {
+    static Optional<Boolean> getBoolean(@Nullable final String value, String description, List<String> parseErrors) {
         if ("true".equalsIgnoreCase(value)) {
             return Optional.of(Boolean.TRUE);
         } else if ("false".equalsIgnoreCase(value)) {
             return Optional.of(Boolean.FALSE);
         }
         if (value != null) {
-            parseErrors.add(String.format("Invalid %s: %s is neither true or false", description, value));
+            ParseDiagnostics.report(parseErrors, "Invalid %s: %s is neither true or false", description, value);
         }
         return Optional.empty();
     }
 
-    @SuppressWarnings("unchecked")
-    private static void getParticipants(@Nonnull final Element callElement, @Nonnull final Call.Builder callBuilder, @Nonnull final String description, @Nonnull final List<String> parseErrors) {
-        final Element participantsElement = callElement.element("participants");
-        if (participantsElement != null) {
-            final List<Element> participantElements = participantsElement.elements("participant");
-            for (final Element participantElement : participantElements) {
-                final Participant.Builder participantBuilder = Participant.Builder.start();
-                getStringAttribute(participantElement, "jid", true, description, parseErrors).ifPresent(participantBuilder::setJID);
-                ParticipantType.from(getNullableStringAttribute(participantElement, "type")).ifPresent(participantBuilder::setType);
-                CallDirection.from(getNullableStringAttribute(participantElement, ATTRIBUTE_DIRECTION)).ifPresent(participantBuilder::setDirection);
-                final Optional<Instant> participantTimestamp = getJavaUtilDateAttribute(participantElement, ATTRIBUTE_TIMESTAMP, description, parseErrors);
-                participantTimestamp.ifPresent(participantBuilder::setStartTime);
-                final Optional<Instant> participantStartTime = getISO8601Attribute(participantElement, ATTRIBUTE_START_TIME, description, parseErrors);
-                participantStartTime.ifPresent(participantBuilder::setStartTime);
-                if (participantStartTime.isPresent() && participantTimestamp.isPresent() && !participantStartTime.equals(participantTimestamp)) {
-                    parseErrors.add("Invalid participant; the legacy timestamp field does not match the start time field");
-                }
-                final Optional<Long> participantDuration = getLongAttribute(participantElement, ATTRIBUTE_DURATION, description, parseErrors);
-                participantDuration.ifPresent(millis -> participantBuilder.setDuration(Duration.ofMillis(millis)));
-                callBuilder.addParticipant(participantBuilder.build(parseErrors));
-            }
+    @Nonnull
+    static Participant getParticipant(
+            @Nullable final String jid,
+            @Nullable final String type,
+            @Nullable final String direction,
+            @Nullable final String timestamp,
+            @Nullable final String startTime,
+            @Nullable final String duration,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) {
+        final Participant.Builder participantBuilder = Participant.Builder.start();
+        Optional.ofNullable(getNullableAttributeValue("jid", jid, true, description, parseErrors)).ifPresent(participantBuilder::setJID);
+        ParticipantType.from(type).ifPresent(participantBuilder::setType);
+        CallDirection.from(direction).ifPresent(participantBuilder::setDirection);
+        final Optional<String> timestampValue = getOptionalAttributeValue(ATTRIBUTE_TIMESTAMP, timestamp);
+        final Optional<String> startTimeValue = getOptionalAttributeValue(ATTRIBUTE_START_TIME, startTime);
+        // The legacy timestamp is usually exactly the one written for the start time, so only parse it if it isn't; a
+        // trusted peer's is not checked at all
+        final Optional<Instant> quietStartTime = startTimeValue.flatMap(TinderPacketUtil::parseISO8601Quietly);
+        final Optional<Instant> participantTimestamp;
+        if (quietStartTime.isPresent() && (!ParseDiagnostics.isValidating(parseErrors) || timestampValue.isPresent() && TimestampCodec.isLegacyTimestampOf(timestampValue.get(), quietStartTime.get()))) {
+            participantTimestamp = quietStartTime;
+        } else {
+            participantTimestamp = getJavaUtilDateAttribute(ATTRIBUTE_TIMESTAMP, timestampValue, description, parseErrors);
         }
+        participantTimestamp.ifPresent(participantBuilder::setStartTime);
+        final Optional<Instant> participantStartTime = quietStartTime.isPresent() ? quietStartTime : getISO8601Attribute(ATTRIBUTE_START_TIME, startTimeValue, description, parseErrors);
+        participantStartTime.ifPresent(participantBuilder::setStartTime);
+        if (participantStartTime.isPresent() && participantTimestamp.isPresent() && !participantStartTime.equals(participantTimestamp)) {
+            parseErrors.add("Invalid participant; the legacy timestamp field does not match the start time field");
+        }
+        final Optional<Long> participantDuration = getLongAttribute(ATTRIBUTE_DURATION, getOptionalAttributeValue(ATTRIBUTE_DURATION, duration), description, parseErrors);
+        participantDuration.ifPresent(millis -> participantBuilder.setDuration(Duration.ofMillis(millis)));
+        return participantBuilder.build(parseErrors);
     }
 
-    @SuppressWarnings("unchecked")
-    private static void getActions(@Nonnull final Element callElement, @Nonnull final Call.Builder callBuilder, @Nonnull final String description, @Nonnull final List<String> parseErrors) {
-        final Element actionsElement = callElement.element("actions");
-        if (actionsElement != null) {
-            final List<Element> actionElements = actionsElement.elements();
-            for (final Element actionElement : actionElements) {
-                final String actionString = actionElement.getName();
-                final Optional<RequestAction> action = RequestAction.from(actionString);
-                if (action.isPresent()) {
-                    callBuilder.addAction(action.get());
-                } else {
-                    parseErrors.add(String.format("Invalid %s: %s is not a valid action", description, actionString));
-                }
-            }
+    static void addAction(@Nonnull final String actionString, @Nonnull final Call.Builder callBuilder, @Nonnull final String description, @Nonnull final List<String> parseErrors) {
+        final Optional<RequestAction> action = RequestAction.from(actionString);
+        if (action.isPresent()) {
+            callBuilder.addAction(action.get());
+        } else {
+            ParseDiagnostics.report(parseErrors, "Invalid %s: %s is not a valid action", description, actionString);
         }
     }
 
+    /**
+     * Appends the text of a PubSub event message to a buffer; the text is the same as that of {@code toXML()} for the
+     * message built from the builder.
+     *
+     * @param xml        the buffer to which the message is appended
+     * @param builder    the builder of the message
+     * @param itemWriter writes the payload of the PubSub item
+     * @return the buffer
+     */
     @Nonnull
-    public static Element addPubSubMetaData(@Nonnull final Element messageElement, @Nonnull final PubSubMessageBuilder<?, ?> builder) {
-        final Element eventElement = messageElement.addElement("event", OpenlinkXmppNamespace.XMPP_PUBSUB_EVENT.uri());
-        final Element itemsElement = eventElement.addElement("items");
-        builder.getPubSubNodeId().ifPresent(nodeId -> itemsElement.addAttribute("node", nodeId.value()));
-        final Element itemElement = itemsElement.addElement("item");
-        builder.getItemId().ifPresent(id -> itemElement.addAttribute("id", id.value()));
-        return itemElement;
+    public static StringBuilder appendPubSubMessage(
+            @Nonnull final StringBuilder xml,
+            @Nonnull final PubSubMessageBuilder<?, JID> builder,
+            @Nonnull final Consumer<TinderXmlWriter> itemWriter) {
+        final TinderXmlWriter writer = TinderXmlWriter.of(xml).startElement("message");
+        builder.getTo().ifPresent(to -> writer.attribute("to", to.toString()));
+        builder.getFrom().ifPresent(from -> writer.attribute("from", from.toString()));
+        builder.getId().ifPresent(id -> writer.attribute("id", id));
+        writePubSubEvent(writer, builder, itemWriter);
+        writer.endElement();
+        return xml;
     }
 
-    public static void addDelay(@Nonnull final Element messageElement, @Nonnull final PubSubMessageBuilder<?, ?> builder) {
-        builder.getDelay().ifPresent(stamp -> messageElement.addElement("delay", "urn:xmpp:delay").addAttribute("stamp", stamp.toString()));
+    public static void writePubSubEvent(
+            @Nonnull final TinderXmlWriter writer,
+            @Nonnull final PubSubMessageBuilder<?, ?> builder,
+            @Nonnull final Consumer<TinderXmlWriter> itemWriter) {
+        writer.startElements(PUBSUB_EVENT_TEMPLATE,
+                builder.getPubSubNodeId().map(PubSubNodeId::value).orElse(null),
+                builder.getItemId().map(ItemId::value).orElse(null));
+        itemWriter.accept(writer);
+        writer.endElements(PUBSUB_EVENT_TEMPLATE);
+        builder.getDelay().ifPresent(stamp -> writer.startElements(DELAY_TEMPLATE, stamp.toString()).endElements(DELAY_TEMPLATE));
     }
 
     @Nullable
@@ -653,15 +1025,19 @@ public final class TinderPacketUtil {
         final Element delayElement = message.getChildElement("delay", "urn:xmpp:delay");
         PubSubNodeId.from(itemsElement.attributeValue("node")).ifPresent(builder::setPubSubNodeId);
         ItemId.from(TinderPacketUtil.getNullableStringAttribute(itemElement, "id")).ifPresent(builder::setItemId);
-        final Optional<String> stampOptional = TinderPacketUtil.getStringAttribute(delayElement, "stamp");
-        if (stampOptional.isPresent()) {
-            final String stamp = stampOptional.get();
-            try {
-                builder.setDelay(Instant.parse(stamp));
-            } catch (final DateTimeParseException e) {
-                parseErrors.add(String.format("Invalid %s; invalid timestamp '%s'; format should be compliant with XEP-0082", description, stamp));
-            }
-        }
+        TinderPacketUtil.getStringAttribute(delayElement, "stamp").ifPresent(stamp -> setDelay(stamp, builder, description, parseErrors));
         return itemElement;
     }
+
+    static void setDelay(
+            @Nonnull final String stamp,
+            @Nonnull PubSubMessageBuilder<?, JID> builder,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) {
+        try {
+            builder.setDelay(TimestampCodec.parseIso8601(stamp));
+        } catch (final DateTimeParseException e) {
+            ParseDiagnostics.report(parseErrors, "Invalid %s; invalid timestamp '%s'; format should be compliant with XEP-0082", description, stamp);
+        }
+    }
 }
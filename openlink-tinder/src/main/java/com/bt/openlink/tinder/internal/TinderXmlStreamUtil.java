@@ -0,0 +1,686 @@
+package com.bt.openlink.tinder.internal;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xmpp.packet.JID;
+
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.codec.CanonicalPool;
+import com.bt.openlink.message.CallStatusMessageBuilder;
+import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.ItemId;
+import com.bt.openlink.type.PubSubNodeId;
+
+/**
+ * Decodes stanzas in a single forward pass over a StAX {@link XMLStreamReader}, without first building a dom4j tree.
+ * The values decoded, and any parse errors (including their order), are identical to those of the equivalent DOM
+ * based methods in {@link TinderPacketUtil}; as there, only the first occurrence of each single-valued element is
+ * used.
+ * <p>
+ * This class is for internal use by the library only; users of the API should not access this class directly.
+ */
+public final class TinderXmlStreamUtil {
+
+    private static final String NAMESPACE_DELAY = "urn:xmpp:delay";
+    private static final String ELEMENT_NUMBER = "number";
+    private static final String ELEMENT_NAME = "name";
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private TinderXmlStreamUtil() {
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        // Stanzas never legitimately contain a DTD, so don't allow one (or any external entities) to be processed
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return xmlInputFactory;
+    }
+
+    @Nonnull
+    public static XMLStreamReader createXMLStreamReader(@Nonnull final Reader reader) {
+        try {
+            return XML_INPUT_FACTORY.createXMLStreamReader(reader);
+        } catch (final XMLStreamException e) {
+            throw new IllegalArgumentException("Unable to read stanza", e);
+        }
+    }
+
+    @Nonnull
+    public static XMLStreamReader createXMLStreamReader(@Nonnull final InputStream inputStream) {
+        try {
+            return XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+        } catch (final XMLStreamException e) {
+            throw new IllegalArgumentException("Unable to read stanza", e);
+        }
+    }
+
+    /**
+     * Decodes a call status pub-sub {@code <message>} stanza, the equivalent of
+     * {@link TinderPacketUtil#setPubSubMetaData} followed by {@link TinderPacketUtil#getCalls}.
+     *
+     * @param reader      a reader positioned at, or before, the {@code <message>} start element. The reader is closed
+     *                    once the stanza has been decoded
+     * @param builder     the builder to populate
+     * @param description the description of the stanza to use in any parse errors
+     * @param parseErrors the list to which any parse errors are added
+     * @throws IllegalArgumentException if the stanza is not well-formed, or is not a pub-sub event message
+     */
+    public static void setCallStatusMessage(
+            @Nonnull final XMLStreamReader reader,
+            @Nonnull final CallStatusMessageBuilder<?, JID> builder,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) {
+        setCallStatusMessage(reader, CallField.ALL, CanonicalPool.NONE, builder, description, parseErrors);
+    }
+
+    /**
+     * Decodes a call status pub-sub {@code <message>} stanza, decoding only the requested fields of each call.
+     *
+     * @param reader      a reader positioned at, or before, the {@code <message>} start element. The reader is closed
+     *                    once the stanza has been decoded
+     * @param fields      the fields of each call to decode
+     * @param pool        the pool from which to take the ids, phone numbers, sites and names of each call
+     * @param builder     the builder to populate
+     * @param description the description of the stanza to use in any parse errors
+     * @param parseErrors the list to which any parse errors are added
+     * @throws IllegalArgumentException if the stanza is not well-formed, or is not a pub-sub event message
+     */
+    public static void setCallStatusMessage(
+            @Nonnull final XMLStreamReader reader,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            @Nonnull final CallStatusMessageBuilder<?, JID> builder,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) {
+        setCallStatusMessage(reader, fields, pool, false, builder, description, parseErrors);
+    }
+
+    /**
+     * Decodes a call status pub-sub {@code <message>} stanza, decoding only the requested fields of each call, and
+     * decoding calls that are deltas as such only if call status deltas have been negotiated.
+     *
+     * @param reader           a reader positioned at, or before, the {@code <message>} start element. The reader is
+     *                         closed once the stanza has been decoded
+     * @param fields           the fields of each call to decode
+     * @param pool             the pool from which to take the ids, phone numbers, sites and names of each call
+     * @param deltasNegotiated {@code true} if the receiver has advertised the
+     *                         {@link OpenlinkXmppNamespace#OPENLINK_CALL_STATUS_DELTA call status delta} feature
+     * @param builder          the builder to populate
+     * @param description      the description of the stanza to use in any parse errors
+     * @param parseErrors      the list to which any parse errors are added
+     * @throws IllegalArgumentException if the stanza is not well-formed, or is not a pub-sub event message
+     */
+    public static void setCallStatusMessage(
+            @Nonnull final XMLStreamReader reader,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            final boolean deltasNegotiated,
+            @Nonnull final CallStatusMessageBuilder<?, JID> builder,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) {
+        try {
+            moveToRootElement(reader, "message");
+            builder.setId(reader.getAttributeValue(null, "id"));
+            builder.setFrom(getJID(reader.getAttributeValue(null, "from")));
+            builder.setTo(getJID(reader.getAttributeValue(null, "to")));
+            // The delay element may follow the event, but any errors with it are reported first
+            final List<String> callStatusParseErrors = new ParseDiagnostics(ParseDiagnostics.validationModeOf(parseErrors));
+            boolean eventFound = false;
+            String stamp = null;
+            boolean delayFound = false;
+            while (nextChildElement(reader)) {
+                final String localName = reader.getLocalName();
+                final String namespace = reader.getNamespaceURI();
+                if (!eventFound && "event".equals(localName) && OpenlinkXmppNamespace.XMPP_PUBSUB_EVENT.uri().equals(namespace)) {
+                    eventFound = true;
+                    readPubSubEvent(reader, fields, pool, deltasNegotiated, builder, description, callStatusParseErrors);
+                } else if (!delayFound && "delay".equals(localName) && NAMESPACE_DELAY.equals(namespace)) {
+                    delayFound = true;
+                    stamp = TinderPacketUtil.getOptionalAttributeValue("stamp", reader.getAttributeValue(null, "stamp")).orElse(null);
+                    skipElement(reader);
+                } else {
+                    skipElement(reader);
+                }
+            }
+            if (!eventFound) {
+                throw new IllegalArgumentException("The stanza does not contain a pub-sub event");
+            }
+            if (stamp != null) {
+                TinderPacketUtil.setDelay(stamp, builder, description, parseErrors);
+            }
+            parseErrors.addAll(callStatusParseErrors);
+            reader.close();
+        } catch (final XMLStreamException e) {
+            throw new IllegalArgumentException("Unable to read stanza", e);
+        }
+    }
+
+    private static void readPubSubEvent(
+            final XMLStreamReader reader,
+            final Set<CallField> fields,
+            final CanonicalPool pool,
+            final boolean deltasNegotiated,
+            final CallStatusMessageBuilder<?, JID> builder,
+            final String description,
+            final List<String> parseErrors) throws XMLStreamException {
+        boolean itemsFound = false;
+        while (nextChildElement(reader)) {
+            if (!itemsFound && "items".equals(reader.getLocalName())) {
+                itemsFound = true;
+                PubSubNodeId.from(reader.getAttributeValue(null, "node")).ifPresent(builder::setPubSubNodeId);
+                readPubSubItems(reader, fields, pool, deltasNegotiated, builder, description, parseErrors);
+            } else {
+                skipElement(reader);
+            }
+        }
+        if (!itemsFound) {
+            throw new IllegalArgumentException("The pub-sub event does not contain any items");
+        }
+    }
+
+    private static void readPubSubItems(
+            final XMLStreamReader reader,
+            final Set<CallField> fields,
+            final CanonicalPool pool,
+            final boolean deltasNegotiated,
+            final CallStatusMessageBuilder<?, JID> builder,
+            final String description,
+            final List<String> parseErrors) throws XMLStreamException {
+        boolean itemFound = false;
+        while (nextChildElement(reader)) {
+            if (!itemFound && "item".equals(reader.getLocalName())) {
+                itemFound = true;
+                ItemId.from(reader.getAttributeValue(null, "id")).ifPresent(builder::setItemId);
+                readPubSubItem(reader, fields, pool, deltasNegotiated, builder, description, parseErrors);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static void readPubSubItem(
+            final XMLStreamReader reader,
+            final Set<CallField> fields,
+            final CanonicalPool pool,
+            final boolean deltasNegotiated,
+            final CallStatusMessageBuilder<?, JID> builder,
+            final String description,
+            final List<String> parseErrors) throws XMLStreamException {
+        boolean callStatusFound = false;
+        while (nextChildElement(reader)) {
+            if (!callStatusFound && "callstatus".equals(reader.getLocalName())) {
+                callStatusFound = true;
+                final String busy = TinderPacketUtil.getOptionalAttributeValue("busy", reader.getAttributeValue(null, "busy")).orElse(null);
+                TinderPacketUtil.getBoolean(busy, "busy attribute", parseErrors).ifPresent(builder::setCallStatusBusy);
+                builder.addCalls(getCalls(reader, fields, pool, deltasNegotiated, description, parseErrors));
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    /**
+     * The equivalent of {@link TinderPacketUtil#getCalls}.
+     *
+     * @param reader      a reader positioned at the {@code <callstatus>} start element; on return it will be positioned
+     *                    at the corresponding end element
+     * @param description the description of the stanza to use in any parse errors
+     * @param parseErrors the list to which any parse errors are added
+     * @return the calls in the call status element
+     * @throws XMLStreamException if the stanza is not well-formed
+     */
+    @Nonnull
+    public static List<Call> getCalls(
+            @Nonnull final XMLStreamReader reader,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) throws XMLStreamException {
+        return getCalls(reader, CallField.ALL, description, parseErrors);
+    }
+
+    /**
+     * The equivalent of {@link TinderPacketUtil#getCalls(org.dom4j.Element, Set, String, List)}.
+     *
+     * @param reader      a reader positioned at the {@code <callstatus>} start element; on return it will be positioned
+     *                    at the corresponding end element
+     * @param fields      the fields of each call to decode; the elements holding any other fields are skipped
+     * @param description the description of the stanza to use in any parse errors
+     * @param parseErrors the list to which any parse errors are added
+     * @return the calls in the call status element
+     * @throws XMLStreamException if the stanza is not well-formed
+     */
+    @Nonnull
+    public static List<Call> getCalls(
+            @Nonnull final XMLStreamReader reader,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) throws XMLStreamException {
+        return getCalls(reader, fields, CanonicalPool.NONE, description, parseErrors);
+    }
+
+    /**
+     * The equivalent of {@link TinderPacketUtil#getCalls(org.dom4j.Element, Set, CanonicalPool, String, List)}.
+     *
+     * @param reader      a reader positioned at the {@code <callstatus>} start element; on return it will be positioned
+     *                    at the corresponding end element
+     * @param fields      the fields of each call to decode; the elements holding any other fields are skipped
+     * @param pool        the pool from which to take the ids, phone numbers, sites and names of each call
+     * @param description the description of the stanza to use in any parse errors
+     * @param parseErrors the list to which any parse errors are added
+     * @return the calls in the call status element
+     * @throws XMLStreamException if the stanza is not well-formed
+     */
+    @Nonnull
+    public static List<Call> getCalls(
+            @Nonnull final XMLStreamReader reader,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) throws XMLStreamException {
+        return getCalls(reader, fields, pool, false, description, parseErrors);
+    }
+
+    /**
+     * The equivalent of {@link TinderPacketUtil#getCalls(org.dom4j.Element, Set, CanonicalPool, boolean, String, List)}.
+     *
+     * @param reader           a reader positioned at the {@code <callstatus>} start element; on return it will be
+     *                         positioned at the corresponding end element
+     * @param fields           the fields of each call to decode; the elements holding any other fields are skipped
+     * @param pool             the pool from which to take the ids, phone numbers, sites and names of each call
+     * @param deltasNegotiated {@code true} if the receiver has advertised the
+     *                         {@link OpenlinkXmppNamespace#OPENLINK_CALL_STATUS_DELTA call status delta} feature
+     * @param description      the description of the stanza to use in any parse errors
+     * @param parseErrors      the list to which any parse errors are added
+     * @return the calls in the call status element
+     * @throws XMLStreamException if the stanza is not well-formed
+     */
+    @Nonnull
+    public static List<Call> getCalls(
+            @Nonnull final XMLStreamReader reader,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            final boolean deltasNegotiated,
+            @Nonnull final String description,
+            @Nonnull final List<String> parseErrors) throws XMLStreamException {
+        final List<Call> calls = new ArrayList<>();
+        while (nextChildElement(reader)) {
+            if ("call".equals(reader.getLocalName())) {
+                calls.add(readCallContent(reader, fields, deltasNegotiated, parseErrors).toCall(pool, description, parseErrors));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return calls;
+    }
+
+    private static CallContent readCallContent(
+            final XMLStreamReader reader,
+            final Set<CallField> fields,
+            final boolean deltasNegotiated,
+            final List<String> parseErrors) throws XMLStreamException {
+        final CallContent call = CallContent.forCall(fields, reader.getAttributeValue(null, OpenlinkXmppNamespace.TAG_FIELDS), deltasNegotiated, parseErrors);
+        while (nextChildElement(reader)) {
+            if (!call.isRequested(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+            switch (reader.getLocalName()) {
+            case "id":
+                call.id = readFirstText(reader, call.id);
+                break;
+            case "conference":
+                call.conference = readFirstText(reader, call.conference);
+                break;
+            case "site":
+                if (call.siteName == null) {
+                    call.siteId = reader.getAttributeValue(null, "id");
+                    call.siteDefault = reader.getAttributeValue(null, OpenlinkXmppNamespace.TAG_DEFAULT);
+                    call.siteType = reader.getAttributeValue(null, "type");
+                    call.siteName = readText(reader);
+                } else {
+                    skipElement(reader);
+                }
+                break;
+            case "profile":
+                call.profile = readFirstText(reader, call.profile);
+                break;
+            case "user":
+                call.user = readFirstText(reader, call.user);
+                break;
+            case "interest":
+                call.interest = readFirstText(reader, call.interest);
+                break;
+            case "changed":
+                call.changed = readFirstText(reader, call.changed);
+                break;
+            case "state":
+                call.state = readFirstText(reader, call.state);
+                break;
+            case "direction":
+                call.direction = readFirstText(reader, call.direction);
+                break;
+            case "caller":
+                if (call.caller == null) {
+                    call.caller = readPartyContent(reader);
+                } else {
+                    skipElement(reader);
+                }
+                break;
+            case "called":
+                if (call.called == null) {
+                    call.called = readPartyContent(reader);
+                } else {
+                    skipElement(reader);
+                }
+                break;
+            case "originator-ref":
+                if (call.originatorReferences == null) {
+                    readOriginatorReferences(reader, call);
+                } else {
+                    skipElement(reader);
+                }
+                break;
+            case "start":
+                call.start = readFirstText(reader, call.start);
+                break;
+            case "duration":
+                call.duration = readFirstText(reader, call.duration);
+                break;
+            case "actions":
+                if (call.actions == null) {
+                    call.actions = readActions(reader);
+                } else {
+                    skipElement(reader);
+                }
+                break;
+            case "features":
+                if (call.features == null) {
+                    call.features = readFeatures(reader);
+                } else {
+                    skipElement(reader);
+                }
+                break;
+            case "participants":
+                if (call.participants == null) {
+                    call.participants = readParticipants(reader);
+                } else {
+                    skipElement(reader);
+                }
+                break;
+            default:
+                skipElement(reader);
+                break;
+            }
+        }
+        return call;
+    }
+
+    private static CallContent.PartyContent readPartyContent(final XMLStreamReader reader) throws XMLStreamException {
+        final CallContent.PartyContent party = new CallContent.PartyContent();
+        while (nextChildElement(reader)) {
+            final String localName = reader.getLocalName();
+            if (party.number == null && ELEMENT_NUMBER.equals(localName)) {
+                party.e164 = reader.getAttributeValue(null, "e164");
+                party.destination = reader.getAttributeValue(null, "destination");
+                party.number = readText(reader);
+            } else if (ELEMENT_NAME.equals(localName)) {
+                party.name = readFirstText(reader, party.name);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return party;
+    }
+
+    private static void readOriginatorReferences(final XMLStreamReader reader, final CallContent call) throws XMLStreamException {
+        call.originatorReferences = new ArrayList<>();
+        while (nextChildElement(reader)) {
+            if ("property".equals(reader.getLocalName())) {
+                final String key = reader.getAttributeValue(null, "id");
+                String value = null;
+                while (nextChildElement(reader)) {
+                    if ("value".equals(reader.getLocalName())) {
+                        value = readFirstText(reader, value);
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+                call.addOriginatorReference(key, value);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static List<String> readActions(final XMLStreamReader reader) throws XMLStreamException {
+        final List<String> actions = new ArrayList<>();
+        while (nextChildElement(reader)) {
+            actions.add(reader.getLocalName());
+            skipElement(reader);
+        }
+        return actions;
+    }
+
+    private static List<CallContent.FeatureContent> readFeatures(final XMLStreamReader reader) throws XMLStreamException {
+        final List<CallContent.FeatureContent> features = new ArrayList<>();
+        while (nextChildElement(reader)) {
+            if ("feature".equals(reader.getLocalName())) {
+                features.add(readFeatureContent(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return features;
+    }
+
+    private static CallContent.FeatureContent readFeatureContent(final XMLStreamReader reader) throws XMLStreamException {
+        final CallContent.FeatureContent feature = new CallContent.FeatureContent();
+        feature.id = reader.getAttributeValue(null, "id");
+        feature.label = reader.getAttributeValue(null, "label");
+        feature.type = reader.getAttributeValue(null, "type");
+        // A feature has either text or a single child element; only the first child element determines the type
+        final TextBuilder text = new TextBuilder();
+        while (true) {
+            final int event = reader.next();
+            if (isText(event)) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                if (feature.childElementName == null) {
+                    feature.childElementName = reader.getLocalName();
+                    readFeatureChildElement(reader, feature);
+                } else {
+                    skipElement(reader);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                feature.text = text.toString();
+                return feature;
+            } else if (event == XMLStreamConstants.END_DOCUMENT) {
+                throw new XMLStreamException("Unexpected end of stanza");
+            }
+        }
+    }
+
+    private static void readFeatureChildElement(final XMLStreamReader reader, final CallContent.FeatureContent feature) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            switch (reader.getLocalName()) {
+            case "key":
+                feature.key = readFirstText(reader, feature.key);
+                break;
+            case "channel":
+                feature.channel = readFirstText(reader, feature.channel);
+                break;
+            case "microphone":
+                feature.microphone = readFirstText(reader, feature.microphone);
+                break;
+            case "mute":
+                feature.mute = readFirstText(reader, feature.mute);
+                break;
+            default:
+                skipElement(reader);
+                break;
+            }
+        }
+    }
+
+    private static List<CallContent.ParticipantContent> readParticipants(final XMLStreamReader reader) throws XMLStreamException {
+        final List<CallContent.ParticipantContent> participants = new ArrayList<>();
+        while (nextChildElement(reader)) {
+            if ("participant".equals(reader.getLocalName())) {
+                final CallContent.ParticipantContent participant = new CallContent.ParticipantContent();
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    final String value = reader.getAttributeValue(i);
+                    switch (reader.getAttributeLocalName(i)) {
+                    case "jid":
+                        participant.jid = value;
+                        break;
+                    case "type":
+                        participant.type = value;
+                        break;
+                    case "direction":
+                        participant.direction = value;
+                        break;
+                    case "timestamp":
+                        participant.timestamp = value;
+                        break;
+                    case "start":
+                        participant.startTime = value;
+                        break;
+                    case "duration":
+                        participant.duration = value;
+                        break;
+                    default:
+                        break;
+                    }
+                }
+                participants.add(participant);
+            }
+            skipElement(reader);
+        }
+        return participants;
+    }
+
+    @Nullable
+    private static JID getJID(@Nullable final String jid) {
+        // Mirrors Packet.getTo()/getFrom()
+        return jid == null ? null : new JID(jid);
+    }
+
+    private static void moveToRootElement(final XMLStreamReader reader, final String expectedLocalName) throws XMLStreamException {
+        while (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            if (!reader.hasNext()) {
+                throw new IllegalArgumentException("The stanza is empty");
+            }
+            reader.next();
+        }
+        if (!expectedLocalName.equals(reader.getLocalName())) {
+            throw new IllegalArgumentException(String.format("Expected a '%s' stanza, but found '%s'", expectedLocalName, reader.getLocalName()));
+        }
+    }
+
+    /**
+     * Moves to the next child element of the current element.
+     *
+     * @return {@code true} if the reader is positioned at the start of the next child element, or {@code false} if
+     * it is positioned at the end of the current element
+     */
+    private static boolean nextChildElement(final XMLStreamReader reader) throws XMLStreamException {
+        while (true) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            } else if (event == XMLStreamConstants.END_DOCUMENT) {
+                throw new XMLStreamException("Unexpected end of stanza");
+            }
+        }
+    }
+
+    private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.END_DOCUMENT) {
+                throw new XMLStreamException("Unexpected end of stanza");
+            }
+        }
+    }
+
+    /**
+     * Reads the text of the current element, the equivalent of dom4j's {@code Element.getText()}; i.e. the text of
+     * any child elements is ignored.
+     */
+    @Nonnull
+    private static String readText(final XMLStreamReader reader) throws XMLStreamException {
+        final TextBuilder text = new TextBuilder();
+        while (true) {
+            final int event = reader.next();
+            if (isText(event)) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                skipElement(reader);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return text.toString();
+            } else if (event == XMLStreamConstants.END_DOCUMENT) {
+                throw new XMLStreamException("Unexpected end of stanza");
+            }
+        }
+    }
+
+    /**
+     * @return the previously read text if the element has already been seen, otherwise the text of the current element
+     */
+    @Nonnull
+    private static String readFirstText(final XMLStreamReader reader, @Nullable final String previousText) throws XMLStreamException {
+        if (previousText == null) {
+            return readText(reader);
+        }
+        skipElement(reader);
+        return previousText;
+    }
+
+    private static boolean isText(final int event) {
+        return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE;
+    }
+
+    /**
+     * Most elements have a single text event, so avoid creating a StringBuilder unless there's more than one.
+     */
+    private static final class TextBuilder {
+        private String text = "";
+        private StringBuilder stringBuilder;
+
+        void append(final String moreText) {
+            if (stringBuilder != null) {
+                stringBuilder.append(moreText);
+            } else if (text.isEmpty()) {
+                text = moreText;
+            } else {
+                stringBuilder = new StringBuilder(text).append(moreText);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return stringBuilder == null ? text : stringBuilder.toString();
+        }
+    }
+}
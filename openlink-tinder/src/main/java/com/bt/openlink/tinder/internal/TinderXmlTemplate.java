@@ -0,0 +1,216 @@
+package com.bt.openlink.tinder.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.dom4j.QName;
+
+/**
+ * A precompiled chain of nested elements that is the same for every stanza of a type, such as the command and io-data
+ * elements of an Openlink IQ, or the event, items and item elements of a PubSub message. The names, namespaces and
+ * constant attributes of the elements are compiled once - both as a prototype tree, which is copied rather than built
+ * element by element, and as escaped text - so that only the values of the variable attributes, or slots, are
+ * supplied for each stanza.
+ * <p>
+ * The constant attributes of an element are written before its slots. A slot with a {@code null} value is omitted.
+ * <p>
+ * This class is for internal use by the library only; users of the API should not access this class directly.
+ */
+public final class TinderXmlTemplate {
+
+    @Nonnull private final Element prototype;
+    @Nonnull private final String[] names;
+    @Nonnull private final String[] namespaces;
+    // The escaped text of the constant attributes of each element, including the namespace of all but the first
+    @Nonnull private final String[] constantAttributes;
+    @Nonnull private final String[][] slots;
+    @Nonnull private final String namespaceAttribute;
+    private final int slotCount;
+
+    private TinderXmlTemplate(@Nonnull final Builder builder) {
+        final int depth = builder.names.size();
+        this.names = builder.names.toArray(new String[depth]);
+        this.namespaces = builder.namespaces.toArray(new String[depth]);
+        this.constantAttributes = new String[depth];
+        this.slots = new String[depth][];
+        this.prototype = DocumentHelper.createElement(QName.get(names[0], namespaces[0]));
+        Element element = prototype;
+        int count = 0;
+        for (int i = 0; i < depth; i++) {
+            final StringBuilder text = new StringBuilder();
+            if (i > 0) {
+                element = element.addElement(names[i], namespaces[i]);
+                if (!namespaces[i].equals(namespaces[i - 1])) {
+                    TinderXmlWriter.appendAttribute(text, "xmlns", namespaces[i]);
+                }
+            }
+            final List<String[]> attributes = builder.attributes.get(i);
+            for (final String[] attribute : attributes) {
+                element.addAttribute(attribute[0], attribute[1]);
+                TinderXmlWriter.appendAttribute(text, attribute[0], attribute[1]);
+            }
+            this.constantAttributes[i] = text.toString();
+            this.slots[i] = builder.slots.get(i).toArray(new String[0]);
+            count += slots[i].length;
+        }
+        this.namespaceAttribute = TinderXmlWriter.appendAttribute(new StringBuilder(), "xmlns", namespaces[0]).toString();
+        this.slotCount = count;
+    }
+
+    /**
+     * Starts a template.
+     *
+     * @param name      the name of the outermost element
+     * @param namespace the namespace URI of the outermost element
+     * @return a builder for the template
+     */
+    @Nonnull
+    public static Builder start(@Nonnull final String name, @Nonnull final String namespace) {
+        return new Builder(name, namespace);
+    }
+
+    /**
+     * Adds a copy of the elements to a parent element.
+     *
+     * @param parentElement the parent element
+     * @param slotValues    the values of the slots, in the order in which they were added to the template
+     * @return the innermost element that was added
+     * @throws IllegalArgumentException if the number of values does not match the number of slots
+     */
+    @Nonnull
+    public Element addTo(@Nonnull final Element parentElement, @Nonnull final String... slotValues) {
+        checkSlotValues(slotValues);
+        Element element = prototype.createCopy();
+        parentElement.add(element);
+        int slot = 0;
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                element = element.element(names[i]);
+            }
+            for (final String slotName : slots[i]) {
+                final String value = slotValues[slot++];
+                if (value != null) {
+                    element.addAttribute(slotName, value);
+                }
+            }
+        }
+        return element;
+    }
+
+    int getDepth() {
+        return names.length;
+    }
+
+    @Nonnull
+    String getName(final int level) {
+        return names[level];
+    }
+
+    @Nonnull
+    String getNamespace(final int level) {
+        return namespaces[level];
+    }
+
+    /**
+     * Appends the start tags of the elements, leaving the start tag of the innermost element open.
+     */
+    void appendStartTags(@Nonnull final StringBuilder xml, @Nonnull final String parentNamespace, @Nonnull final String[] slotValues) {
+        checkSlotValues(slotValues);
+        int slot = 0;
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                xml.append('>');
+            }
+            xml.append('<').append(names[i]);
+            if (i == 0 && !namespaces[0].equals(parentNamespace)) {
+                xml.append(namespaceAttribute);
+            }
+            xml.append(constantAttributes[i]);
+            for (final String slotName : slots[i]) {
+                final String value = slotValues[slot++];
+                if (value != null) {
+                    TinderXmlWriter.appendAttribute(xml, slotName, value);
+                }
+            }
+        }
+    }
+
+    private void checkSlotValues(@Nonnull final String[] slotValues) {
+        if (slotValues.length != slotCount) {
+            throw new IllegalArgumentException("The template for '" + names[0] + "' has " + slotCount + " slots, not " + slotValues.length);
+        }
+    }
+
+    public static final class Builder {
+
+        @Nonnull private final List<String> names = new ArrayList<>();
+        @Nonnull private final List<String> namespaces = new ArrayList<>();
+        @Nonnull private final List<List<String[]>> attributes = new ArrayList<>();
+        @Nonnull private final List<List<String>> slots = new ArrayList<>();
+
+        private Builder(@Nonnull final String name, @Nonnull final String namespace) {
+            element(name, namespace);
+        }
+
+        /**
+         * Adds an element, in the namespace of its parent, within the last element added.
+         *
+         * @param name the name of the element
+         * @return this builder
+         */
+        @Nonnull
+        public Builder element(@Nonnull final String name) {
+            return element(name, namespaces.get(namespaces.size() - 1));
+        }
+
+        /**
+         * Adds an element within the last element added.
+         *
+         * @param name      the name of the element
+         * @param namespace the namespace URI of the element
+         * @return this builder
+         */
+        @Nonnull
+        public Builder element(@Nonnull final String name, @Nonnull final String namespace) {
+            names.add(name);
+            namespaces.add(namespace);
+            attributes.add(new ArrayList<>());
+            slots.add(new ArrayList<>());
+            return this;
+        }
+
+        /**
+         * Adds an attribute with a constant value to the last element added.
+         *
+         * @param name  the name of the attribute
+         * @param value the value of the attribute
+         * @return this builder
+         */
+        @Nonnull
+        public Builder attribute(@Nonnull final String name, @Nonnull final String value) {
+            attributes.get(attributes.size() - 1).add(new String[]{name, value});
+            return this;
+        }
+
+        /**
+         * Adds an attribute whose value is supplied for each stanza to the last element added.
+         *
+         * @param name the name of the attribute
+         * @return this builder
+         */
+        @Nonnull
+        public Builder slot(@Nonnull final String name) {
+            slots.get(slots.size() - 1).add(name);
+            return this;
+        }
+
+        @Nonnull
+        public TinderXmlTemplate build() {
+            return new TinderXmlTemplate(this);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.bt.openlink.tinder.internal;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dom4j.Element;
+
+/**
+ * Writes XML either as a tree of dom4j elements, or as text straight into a {@link StringBuilder}. Stanzas are
+ * described once in terms of this class, so the text written is identical to that of {@link Element#asXML()} for the
+ * equivalent tree - i.e. of {@code toXML()} for the equivalent Tinder packet - without the tree being built.
+ * <p>
+ * Elements must be written in document order, with the attributes of each element written before its content. As with
+ * dom4j, an element without a namespace inherits that of its parent, attributes with a {@code null} value are omitted,
+ * and an element with empty text is written with an end tag rather than as an empty element.
+ * <p>
+ * This class is for internal use by the library only; users of the API should not access this class directly.
+ */
+public abstract class TinderXmlWriter {
+
+    TinderXmlWriter() {
+    }
+
+    /**
+     * @param parentElement the element to which elements are added
+     * @return a writer that adds elements to the tree
+     */
+    @Nonnull
+    public static TinderXmlWriter of(@Nonnull final Element parentElement) {
+        return new ElementWriter(parentElement);
+    }
+
+    /**
+     * @param xml the buffer to which the text is appended
+     * @return a writer that appends the text of each element to the buffer
+     */
+    @Nonnull
+    public static TinderXmlWriter of(@Nonnull final StringBuilder xml) {
+        return new TextWriter(xml, "");
+    }
+
+    /**
+     * @param xml             the buffer to which the text is appended
+     * @param parentNamespace the namespace URI of the element within which the text will be placed
+     * @return a writer that appends the text of each element to the buffer, for use as a fragment of a larger text
+     */
+    @Nonnull
+    static TinderXmlWriter of(@Nonnull final StringBuilder xml, @Nonnull final String parentNamespace) {
+        return new TextWriter(xml, parentNamespace);
+    }
+
+    /**
+     * Starts an element in the namespace of its parent.
+     *
+     * @param name the name of the element
+     * @return this writer
+     */
+    @Nonnull
+    public abstract TinderXmlWriter startElement(@Nonnull String name);
+
+    /**
+     * Starts an element in the given namespace.
+     *
+     * @param name      the name of the element
+     * @param namespace the namespace URI of the element
+     * @return this writer
+     */
+    @Nonnull
+    public abstract TinderXmlWriter startElement(@Nonnull String name, @Nonnull String namespace);
+
+    /**
+     * Writes an attribute of the element that has just been started.
+     *
+     * @param name  the name of the attribute
+     * @param value the value of the attribute; if {@code null} no attribute is written
+     * @return this writer
+     * @throws IllegalStateException if the element has content
+     */
+    @Nonnull
+    public abstract TinderXmlWriter attribute(@Nonnull String name, @Nullable String value);
+
+    /**
+     * Writes the text of the current element.
+     *
+     * @param text the text
+     * @return this writer
+     */
+    @Nonnull
+    public abstract TinderXmlWriter text(@Nonnull String text);
+
+    /**
+     * Ends the current element.
+     *
+     * @return this writer
+     */
+    @Nonnull
+    public abstract TinderXmlWriter endElement();
+
+    /**
+     * Writes an element that may already have been encoded as text, as a fragment written within a parent in the same
+     * namespace as the current element. A writer of text appends the encoded text; a writer of elements cannot use
+     * the text, so writes the element instead.
+     *
+     * @param encodedElement supplies the encoded text of the element
+     * @param elementWriter  writes the element
+     * @return this writer
+     */
+    @Nonnull
+    public abstract TinderXmlWriter encodedElement(@Nonnull Supplier<String> encodedElement, @Nonnull Consumer<TinderXmlWriter> elementWriter);
+
+    /**
+     * Starts the elements of a template, leaving the innermost element as the current element.
+     *
+     * @param template   the template
+     * @param slotValues the values of the slots of the template
+     * @return this writer
+     * @throws IllegalArgumentException if the number of values does not match the number of slots
+     */
+    @Nonnull
+    public abstract TinderXmlWriter startElements(@Nonnull TinderXmlTemplate template, @Nonnull String... slotValues);
+
+    /**
+     * Ends the elements of a template that were started by {@link #startElements(TinderXmlTemplate, String...)}.
+     *
+     * @param template the template
+     * @return this writer
+     */
+    @Nonnull
+    public TinderXmlWriter endElements(@Nonnull final TinderXmlTemplate template) {
+        for (int i = 0; i < template.getDepth(); i++) {
+            endElement();
+        }
+        return this;
+    }
+
+    /**
+     * Writes an element, in the namespace of its parent, that contains only text.
+     *
+     * @param name the name of the element
+     * @param text the text
+     * @return this writer
+     */
+    @Nonnull
+    public TinderXmlWriter textElement(@Nonnull final String name, @Nonnull final String text) {
+        return startElement(name).text(text).endElement();
+    }
+
+    private static final class ElementWriter extends TinderXmlWriter {
+
+        @Nonnull private Element currentElement;
+
+        private ElementWriter(@Nonnull final Element parentElement) {
+            this.currentElement = parentElement;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter startElement(@Nonnull final String name) {
+            currentElement = currentElement.addElement(name);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter startElement(@Nonnull final String name, @Nonnull final String namespace) {
+            currentElement = currentElement.addElement(name, namespace);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter startElements(@Nonnull final TinderXmlTemplate template, @Nonnull final String... slotValues) {
+            currentElement = template.addTo(currentElement, slotValues);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter encodedElement(@Nonnull final Supplier<String> encodedElement, @Nonnull final Consumer<TinderXmlWriter> elementWriter) {
+            elementWriter.accept(this);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter attribute(@Nonnull final String name, @Nullable final String value) {
+            if (value != null) {
+                currentElement.addAttribute(name, value);
+            }
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter text(@Nonnull final String text) {
+            currentElement.setText(text);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter endElement() {
+            currentElement = currentElement.getParent();
+            return this;
+        }
+    }
+
+    private static final class TextWriter extends TinderXmlWriter {
+
+        @Nonnull private final StringBuilder xml;
+        // The names and namespaces of the open elements, preceded by the namespace of the root's parent
+        @Nonnull private String[] names = new String[16];
+        @Nonnull private String[] namespaces = new String[17];
+        private int depth;
+        private boolean startTagOpen;
+
+        private TextWriter(@Nonnull final StringBuilder xml, @Nonnull final String parentNamespace) {
+            this.xml = xml;
+            this.namespaces[0] = parentNamespace;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter startElement(@Nonnull final String name) {
+            return startElement(name, namespaces[depth]);
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter startElement(@Nonnull final String name, @Nonnull final String namespace) {
+            closeStartTag();
+            ensureCapacity(depth + 1);
+            xml.append('<').append(name);
+            if (!namespace.equals(namespaces[depth])) {
+                xml.append(" xmlns=\"");
+                appendEscaped(xml, namespace, true);
+                xml.append('"');
+            }
+            names[depth] = name;
+            namespaces[++depth] = namespace;
+            startTagOpen = true;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter startElements(@Nonnull final TinderXmlTemplate template, @Nonnull final String... slotValues) {
+            closeStartTag();
+            final int templateDepth = template.getDepth();
+            ensureCapacity(depth + templateDepth);
+            template.appendStartTags(xml, namespaces[depth], slotValues);
+            for (int i = 0; i < templateDepth; i++) {
+                names[depth] = template.getName(i);
+                namespaces[++depth] = template.getNamespace(i);
+            }
+            startTagOpen = true;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter encodedElement(@Nonnull final Supplier<String> encodedElement, @Nonnull final Consumer<TinderXmlWriter> elementWriter) {
+            closeStartTag();
+            xml.append(encodedElement.get());
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter attribute(@Nonnull final String name, @Nullable final String value) {
+            if (!startTagOpen) {
+                throw new IllegalStateException("The attribute '" + name + "' must be written before the content of its element");
+            }
+            if (value != null) {
+                appendAttribute(xml, name, value);
+            }
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter text(@Nonnull final String text) {
+            closeStartTag();
+            appendEscaped(xml, text, false);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public TinderXmlWriter endElement() {
+            final String name = names[--depth];
+            names[depth] = null;
+            if (startTagOpen) {
+                xml.append("/>");
+                startTagOpen = false;
+            } else {
+                xml.append("</").append(name).append('>');
+            }
+            return this;
+        }
+
+        private void ensureCapacity(final int capacity) {
+            if (capacity > names.length) {
+                final int length = Math.max(capacity, names.length * 2);
+                names = Arrays.copyOf(names, length);
+                namespaces = Arrays.copyOf(namespaces, length + 1);
+            }
+        }
+
+        private void closeStartTag() {
+            if (startTagOpen) {
+                xml.append('>');
+                startTagOpen = false;
+            }
+        }
+    }
+
+    /**
+     * Appends an attribute, escaped in the same way as by dom4j, to the text of a start tag.
+     *
+     * @param xml   the buffer to which the attribute is appended
+     * @param name  the name of the attribute
+     * @param value the value of the attribute
+     * @return the buffer
+     */
+    @Nonnull
+    public static StringBuilder appendAttribute(@Nonnull final StringBuilder xml, @Nonnull final String name, @Nonnull final String value) {
+        xml.append(' ').append(name).append("=\"");
+        appendEscaped(xml, value, true);
+        return xml.append('"');
+    }
+
+    // The same escaping as the dom4j XMLWriter with its default output format
+    static void appendEscaped(@Nonnull final StringBuilder xml, @Nonnull final String text, final boolean attribute) {
+        final int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            final String entity;
+            if (c == '<') {
+                entity = "&lt;";
+            } else if (c == '>') {
+                entity = "&gt;";
+            } else if (c == '&') {
+                entity = "&amp;";
+            } else if (c == '"' && attribute) {
+                entity = "&quot;";
+            } else if (c < 32 && c != '\t' && c != '\n' && c != '\r') {
+                entity = "&#" + (int) c + ";";
+            } else {
+                continue;
+            }
+            xml.append(text, start, i).append(entity);
+            start = i + 1;
+        }
+        xml.append(text, start, length);
+    }
+}
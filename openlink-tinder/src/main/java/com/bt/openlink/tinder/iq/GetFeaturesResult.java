@@ -1,6 +1,5 @@
 package com.bt.openlink.tinder.iq;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +12,7 @@ import org.xmpp.packet.IQ;
 import org.xmpp.packet.JID;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.GetFeaturesResultBuilder;
 import com.bt.openlink.tinder.internal.TinderPacketUtil;
 import com.bt.openlink.type.Feature;
@@ -54,7 +54,7 @@ public class GetFeaturesResult extends OpenlinkIQ {
     @SuppressWarnings("unchecked")
     @Nonnull
     public static GetFeaturesResult from(@Nonnull IQ iq) {
-        final List<String> parseErrors = new ArrayList<>();
+        final List<String> parseErrors = new ParseDiagnostics();
         final GetFeaturesResult.Builder builder = GetFeaturesResult.Builder.start(iq);
         final Element outElement = TinderPacketUtil.getIOOutElement(iq);
         final Element profileElement = TinderPacketUtil.getChildElement(outElement, "profile");
@@ -73,7 +73,7 @@ public class GetFeaturesResult extends OpenlinkIQ {
                     if (type.isPresent()) {
                         featureBuilder.setType(type.get());
                     } else {
-                        parseErrors.add(String.format("Invalid %s; invalid feature type - '%s'", DESCRIPTION, featureType));
+                        ParseDiagnostics.report(parseErrors, "Invalid %s; invalid feature type - '%s'", DESCRIPTION, featureType);
                     }
                 });
                 TinderPacketUtil.getStringAttribute(featureElement, "label", true, DESCRIPTION, parseErrors).ifPresent(featureBuilder::setLabel);
@@ -1,7 +1,5 @@
 package com.bt.openlink.tinder.iq;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import javax.annotation.Nonnull;
@@ -10,6 +8,7 @@ import javax.annotation.Nullable;
 import org.xmpp.packet.IQ;
 import org.xmpp.packet.JID;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.IQBuilder;
 
 abstract class OpenlinkIQ extends IQ {
@@ -21,10 +20,8 @@ abstract class OpenlinkIQ extends IQ {
         builder.getFrom().ifPresent(this::setFrom);
         builder.getId().ifPresent(this::setID);
         builder.getIqType().ifPresent(this::setType);
-        if (parseErrors == null) {
-            this.parseErrors = Collections.emptyList();
-        } else {
-            this.parseErrors = new ArrayList<>(parseErrors);
+        this.parseErrors = ParseDiagnostics.unmodifiableCopyOf(parseErrors);
+        if (parseErrors != null) {
             builder.validate(parseErrors);
         }
     }
@@ -1,11 +1,11 @@
 package com.bt.openlink.tinder.iq;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 
 import org.dom4j.Element;
 import org.xmpp.packet.IQ;
@@ -13,80 +13,128 @@ import org.xmpp.packet.IQ;
 import com.bt.openlink.OpenlinkXmppNamespace;
 import com.bt.openlink.tinder.internal.TinderPacketUtil;
 
+/**
+ * Converts a generic Tinder {@link IQ} into the appropriate Openlink stanza. Openlink ad-hoc commands are looked up in a
+ * registry keyed on the command node and IQ type, so the cost of finding the factory for a stanza does not depend on
+ * the number of stanza types known to the parser.
+ * <p>
+ * Applications can register their own factories, for example for Openlink commands not yet modelled by this library,
+ * using {@link #register(String, IQ.Type, StanzaFactory)}. The registry is safe to update and read from multiple
+ * threads concurrently.
+ */
 public final class OpenlinkIQParser {
 
-    private OpenlinkIQParser() {
+    /**
+     * Creates a stanza from a generic IQ whose command node and type have been matched by the parser.
+     */
+    @FunctionalInterface
+    public interface StanzaFactory {
+        @Nonnull
+        IQ from(@Nonnull final IQ iq);
     }
 
-    private interface StanzaFactory {
-        IQ from(final IQ iq);
+    // Each per-node map is copied on update and never modified once it is published, so lookups need no locking
+    private static final Map<String, Map<IQ.Type, StanzaFactory>> STANZA_FACTORIES = new ConcurrentHashMap<>();
+
+    static {
+        register(OpenlinkXmppNamespace.OPENLINK_GET_PROFILES, IQ.Type.set, GetProfilesRequest::from);
+        register(OpenlinkXmppNamespace.OPENLINK_GET_PROFILES, IQ.Type.result, GetProfilesResult::from);
+        register(OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS, IQ.Type.set, GetInterestsRequest::from);
+        register(OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS, IQ.Type.result, GetInterestsResult::from);
+        register(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST, IQ.Type.set, GetInterestRequest::from);
+        register(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST, IQ.Type.result, GetInterestResult::from);
+        register(OpenlinkXmppNamespace.OPENLINK_GET_FEATURES, IQ.Type.set, GetFeaturesRequest::from);
+        register(OpenlinkXmppNamespace.OPENLINK_GET_FEATURES, IQ.Type.result, GetFeaturesResult::from);
+        register(OpenlinkXmppNamespace.OPENLINK_GET_CALL_HISTORY, IQ.Type.set, GetCallHistoryRequest::from);
+        register(OpenlinkXmppNamespace.OPENLINK_MAKE_CALL, IQ.Type.set, MakeCallRequest::from);
+        register(OpenlinkXmppNamespace.OPENLINK_MAKE_CALL, IQ.Type.result, MakeCallResult::from);
+        register(OpenlinkXmppNamespace.OPENLINK_REQUEST_ACTION, IQ.Type.set, RequestActionRequest::from);
+        register(OpenlinkXmppNamespace.OPENLINK_REQUEST_ACTION, IQ.Type.result, RequestActionResult::from);
     }
 
-    private static class IQMatcher {
-
-        private final OpenlinkXmppNamespace namespace;
-        private final IQ.Type type;
-        private final StanzaFactory stanzaFactory;
+    private OpenlinkIQParser() {
+    }
 
-        IQMatcher(final OpenlinkXmppNamespace namespace, final IQ.Type type, final StanzaFactory stanzaFactory) {
-            this.namespace = namespace;
-            this.type = type;
-            this.stanzaFactory = stanzaFactory;
-        }
+    /**
+     * Registers a factory for an Openlink ad-hoc command, replacing any factory already registered for the same node and
+     * type.
+     *
+     * @param node          the command node
+     * @param type          the type of IQ the factory should be used for
+     * @param stanzaFactory the factory used to create the stanza
+     * @return the factory previously registered for the node and type, if any
+     */
+    @Nonnull
+    public static Optional<StanzaFactory> register(@Nonnull final OpenlinkXmppNamespace node, @Nonnull final IQ.Type type, @Nonnull final StanzaFactory stanzaFactory) {
+        return register(node.uri(), type, stanzaFactory);
+    }
 
-        boolean matches(@Nullable final String namespace, @Nullable final IQ.Type type) {
-            return this.type == type && this.namespace.uri().equals(namespace);
-        }
+    /**
+     * Registers a factory for an ad-hoc command, replacing any factory already registered for the same node and type.
+     *
+     * @param node          the command node URI
+     * @param type          the type of IQ the factory should be used for
+     * @param stanzaFactory the factory used to create the stanza
+     * @return the factory previously registered for the node and type, if any
+     */
+    @Nonnull
+    public static Optional<StanzaFactory> register(@Nonnull final String node, @Nonnull final IQ.Type type, @Nonnull final StanzaFactory stanzaFactory) {
+        final StanzaFactory[] previousFactory = new StanzaFactory[1];
+        STANZA_FACTORIES.compute(node, (key, factories) -> {
+            final Map<IQ.Type, StanzaFactory> updatedFactories = factories == null ? new EnumMap<>(IQ.Type.class) : new EnumMap<>(factories);
+            previousFactory[0] = updatedFactories.put(type, stanzaFactory);
+            return updatedFactories;
+        });
+        return Optional.ofNullable(previousFactory[0]);
     }
 
-    private static final List<IQMatcher> STANZA_TYPE_MATCHER_LIST = Arrays.asList(
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_PROFILES, IQ.Type.set, GetProfilesRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_PROFILES, IQ.Type.result, GetProfilesResult::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS, IQ.Type.set, GetInterestsRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_INTERESTS, IQ.Type.result, GetInterestsResult::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST, IQ.Type.set, GetInterestRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST, IQ.Type.result, GetInterestResult::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_FEATURES, IQ.Type.set, GetFeaturesRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_FEATURES, IQ.Type.result, GetFeaturesResult::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_GET_CALL_HISTORY, IQ.Type.set, GetCallHistoryRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_MAKE_CALL, IQ.Type.set, MakeCallRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_MAKE_CALL, IQ.Type.result, MakeCallResult::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_REQUEST_ACTION, IQ.Type.set, RequestActionRequest::from),
-            new IQMatcher(OpenlinkXmppNamespace.OPENLINK_REQUEST_ACTION, IQ.Type.result, RequestActionResult::from)
-            );
+    /**
+     * Removes the factory for an ad-hoc command; stanzas for the node and type will no longer be converted by the parser.
+     *
+     * @param node the command node URI
+     * @param type the type of IQ
+     * @return the factory that was registered for the node and type, if any
+     */
+    @Nonnull
+    public static Optional<StanzaFactory> unregister(@Nonnull final String node, @Nonnull final IQ.Type type) {
+        final StanzaFactory[] previousFactory = new StanzaFactory[1];
+        STANZA_FACTORIES.computeIfPresent(node, (key, factories) -> {
+            final Map<IQ.Type, StanzaFactory> updatedFactories = new EnumMap<>(factories);
+            previousFactory[0] = updatedFactories.remove(type);
+            return updatedFactories.isEmpty() ? null : updatedFactories;
+        });
+        return Optional.ofNullable(previousFactory[0]);
+    }
 
     @Nonnull
     public static IQ parse(@Nonnull final IQ iq) {
-        final String namespace = iq.getChildElement().getNamespaceURI();
-        switch (namespace) {
-        case "http://jabber.org/protocol/commands":
-            return parseCommand(iq);
-        case "http://jabber.org/protocol/pubsub":
-            return parsePubSub(iq);
-        default:
+        final Element childElement = iq.getChildElement();
+        if (childElement == null) {
             return iq;
-
         }
-    }
-
-    private static IQ parseCommand(@Nonnull final IQ iq) {
-        final Element commandElement = iq.getChildElement();
-        final Optional<String> node = TinderPacketUtil.getStringAttribute(commandElement, "node");
-        if (!node.isPresent()) {
+        final String namespace = childElement.getNamespaceURI();
+        if (OpenlinkXmppNamespace.XMPP_COMMANDS.uri().equals(namespace)) {
+            return parseCommand(iq, childElement);
+        } else if (OpenlinkXmppNamespace.XMPP_PUBSUB.uri().equals(namespace)) {
+            return parsePubSub(iq, childElement);
+        } else {
             return iq;
         }
+    }
+
+    private static IQ parseCommand(@Nonnull final IQ iq, @Nonnull final Element commandElement) {
+        final String node = TinderPacketUtil.getNullableStringAttribute(commandElement, "node");
         final IQ.Type type = iq.getType();
-        for (final IQMatcher iqMatcher : STANZA_TYPE_MATCHER_LIST) {
-            if (iqMatcher.matches(node.get(), type)) {
-                return iqMatcher.stanzaFactory.from(iq);
-            }
+        if (node == null || type == null) {
+            return iq;
         }
-        return iq;
+        final Map<IQ.Type, StanzaFactory> factories = STANZA_FACTORIES.get(node);
+        final StanzaFactory stanzaFactory = factories == null ? null : factories.get(type);
+        return stanzaFactory == null ? iq : stanzaFactory.from(iq);
     }
 
-    private static IQ parsePubSub(@Nonnull final IQ iq) {
+    private static IQ parsePubSub(@Nonnull final IQ iq, @Nonnull final Element pubSubElement) {
 
-        final Element pubSubElement = iq.getChildElement();
         final Element childElement = (Element) pubSubElement.elements().get(0);
         switch (childElement.getName()) {
         case "subscribe":
@@ -1,6 +1,5 @@
 package com.bt.openlink.tinder.iq;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -13,14 +12,22 @@ import org.xmpp.packet.IQ;
 import org.xmpp.packet.JID;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.codec.CallFragmentCache;
 import com.bt.openlink.iq.PubSubPublishRequestBuilder;
 import com.bt.openlink.tinder.internal.TinderPacketUtil;
+import com.bt.openlink.tinder.internal.TinderXmlTemplate;
+import com.bt.openlink.tinder.internal.TinderXmlWriter;
 import com.bt.openlink.type.Call;
 import com.bt.openlink.type.DeviceStatus;
 import com.bt.openlink.type.PubSubNodeId;
 
 public class PubSubPublishRequest extends OpenlinkIQ {
     private static final String STANZA_DESCRIPTION = "PubSub unsubscribe request";
+    private static final TinderXmlTemplate PUBLISH_TEMPLATE = TinderXmlTemplate.start("pubsub", OpenlinkXmppNamespace.XMPP_PUBSUB.uri())
+            .element("publish").slot("node")
+            .element("item")
+            .build();
 
     @Nullable private final PubSubNodeId pubSubNodeId;
     @Nullable private final Boolean callStatusBusy;
@@ -33,14 +40,17 @@ public class PubSubPublishRequest extends OpenlinkIQ {
         this.calls = Collections.unmodifiableList(builder.getCalls());
         this.callStatusBusy = builder.isCallStatusBusy().orElse(null);
         this.deviceStatus = builder.getDeviceStatus().orElse(null);
-        final Element pubSubElement = this.getElement().addElement("pubsub", OpenlinkXmppNamespace.XMPP_PUBSUB.uri());
-        final Element publishElement = pubSubElement.addElement("publish");
-        getPubSubNodeId().ifPresent(nodeId -> publishElement.addAttribute("node", nodeId.value()));
-        final Element itemElement = publishElement.addElement("item");
+        writePubSub(TinderXmlWriter.of(this.getElement()), builder, null);
+    }
+
+    private static void writePubSub(@Nonnull final TinderXmlWriter writer, @Nonnull final Builder builder, @Nullable final CallFragmentCache fragmentCache) {
+        writer.startElements(PUBLISH_TEMPLATE, builder.getPubSubNodeId().map(PubSubNodeId::value).orElse(null));
+        final List<Call> calls = builder.getCalls();
         if (!calls.isEmpty()) {
-            TinderPacketUtil.addCallStatusCalls(itemElement, callStatusBusy, calls);
+            TinderPacketUtil.writeCallStatusCalls(writer, builder.isCallStatusBusy().orElse(null), calls, fragmentCache);
         }
-        getDeviceStatus().ifPresent(status -> TinderPacketUtil.addDeviceStatus(itemElement, status));
+        builder.getDeviceStatus().ifPresent(status -> TinderPacketUtil.writeDeviceStatus(writer, status));
+        writer.endElements(PUBLISH_TEMPLATE);
     }
 
     @Nonnull
@@ -66,7 +76,7 @@ public class PubSubPublishRequest extends OpenlinkIQ {
     @SuppressWarnings("unchecked")
     @Nonnull
     public static PubSubPublishRequest from(@Nonnull IQ iq) {
-        final List<String> parseErrors = new ArrayList<>();
+        final List<String> parseErrors = new ParseDiagnostics();
         final Builder builder = Builder.start(iq);
         final Element publishElement = TinderPacketUtil.getChildElement(iq.getElement(), "pubsub", "publish");
         final Element itemElement = TinderPacketUtil.getChildElement(publishElement, "item");
@@ -105,6 +115,42 @@ public class PubSubPublishRequest extends OpenlinkIQ {
             return new PubSubPublishRequest(this, null);
         }
 
+        /**
+         * Appends the text of the request to a buffer without building the request; the text is the same as that of
+         * {@code build().toXML()}. If the builder has no id, one is generated in the same way as for a built request.
+         *
+         * @param xml the buffer to which the request is appended
+         * @return the buffer
+         * @throws IllegalStateException if the request is not valid
+         */
+        @Nonnull
+        public StringBuilder appendXML(@Nonnull final StringBuilder xml) {
+            return appendXML(xml, null);
+        }
+
+        /**
+         * Appends the text of the request to a buffer without building the request, reusing the encoded element of
+         * any call that is unchanged since it was last encoded with the cache. The text is the same as that of
+         * {@code build().toXML()}.
+         *
+         * @param xml           the buffer to which the request is appended
+         * @param fragmentCache the cache of encoded calls, or {@code null} to encode every call
+         * @return the buffer
+         * @throws IllegalStateException if the request is not valid
+         */
+        @Nonnull
+        public StringBuilder appendXML(@Nonnull final StringBuilder xml, @Nullable final CallFragmentCache fragmentCache) {
+            super.validate();
+            final TinderXmlWriter writer = TinderXmlWriter.of(xml).startElement("iq")
+                    .attribute("type", getIqType().orElse(Type.get).toString())
+                    .attribute("id", getId().orElseGet(() -> new IQ().getID()));
+            getTo().ifPresent(to -> writer.attribute("to", to.toString()));
+            getFrom().ifPresent(from -> writer.attribute("from", from.toString()));
+            writePubSub(writer, this, fragmentCache);
+            writer.endElement();
+            return xml;
+        }
+
         @Nonnull
         private PubSubPublishRequest build(@Nonnull final List<String> errors) {
             super.validate(errors, true);
@@ -1,6 +1,5 @@
 package com.bt.openlink.tinder.iq;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +11,7 @@ import org.xmpp.packet.IQ;
 import org.xmpp.packet.JID;
 
 import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.iq.PubSubSubscriptionRequestResultBuilder;
 import com.bt.openlink.tinder.internal.TinderPacketUtil;
 import com.bt.openlink.type.PubSubNodeId;
@@ -52,7 +52,7 @@ public class PubSubSubscriptionRequest extends OpenlinkIQ {
     @SuppressWarnings("unchecked")
     @Nonnull
     public static PubSubSubscriptionRequest from(@Nonnull IQ iq) {
-        final List<String> parseErrors = new ArrayList<>();
+        final List<String> parseErrors = new ParseDiagnostics();
         final Builder builder = Builder.start(iq);
         Element actionElement = TinderPacketUtil.getChildElement(iq.getElement(), ELEMENT_PUBSUB, "subscribe");
         if (actionElement != null) {
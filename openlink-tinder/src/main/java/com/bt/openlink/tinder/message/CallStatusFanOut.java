@@ -0,0 +1,103 @@
+package com.bt.openlink.tinder.message;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.xmpp.packet.JID;
+
+import com.bt.openlink.tinder.internal.TinderXmlWriter;
+import com.bt.openlink.type.Call;
+
+/**
+ * A call status message that is encoded once and sent to many recipients, such as every subscriber to an interest,
+ * who differ only in the stanza 'to' and 'id'. The PubSub event containing the calls is encoded as text when the
+ * fan-out is built; the stanza for each recipient is then written by splicing the envelope around the encoded event.
+ * If a packet is needed, the element of the message is built once, on first use, and copied for each recipient.
+ * Either way, the calls are not encoded again.
+ * <p>
+ * A fan-out is immutable, so can be shared between threads.
+ *
+ * @see CallStatusMessage.Builder#buildFanOut(com.bt.openlink.codec.CallFragmentCache)
+ */
+public final class CallStatusFanOut {
+
+    private static final String START_TAG = "<message";
+
+    // The message without a recipient, sender or id; it is not changed once the fan-out is built
+    @Nonnull private final CallStatusMessage.Builder envelope;
+    @Nonnull private final List<Call> calls;
+    @Nonnull private final JID from;
+    @Nonnull private final String fromAttribute;
+    // The text of the message following the attributes of its start tag
+    @Nonnull private final String content;
+    // Built on first use; as the message is never changed, it is harmless for racing threads to each build one
+    @Nullable private volatile CallStatusMessage prototype;
+
+    CallStatusFanOut(@Nonnull final CallStatusMessage.Builder envelope, @Nonnull final JID from, @Nonnull final String envelopeXml) {
+        this.envelope = envelope;
+        this.calls = Collections.unmodifiableList(envelope.getCalls());
+        this.from = from;
+        this.fromAttribute = TinderXmlWriter.appendAttribute(new StringBuilder(), "from", from.toString()).toString();
+        this.content = envelopeXml.substring(START_TAG.length());
+    }
+
+    @Nonnull
+    public JID getFrom() {
+        return from;
+    }
+
+    @Nonnull
+    public List<Call> getCalls() {
+        return calls;
+    }
+
+    /**
+     * Appends the text of the message for a recipient to a buffer; the text is the same as that of {@code toXML()} for
+     * the message built by {@link #toMessage(JID, String)}.
+     *
+     * @param xml the buffer to which the message is appended
+     * @param to  the recipient of the message
+     * @param id  the id of the message, or {@code null} if it has none
+     * @return the buffer
+     */
+    @Nonnull
+    public StringBuilder appendXML(@Nonnull final StringBuilder xml, @Nonnull final JID to, @Nullable final String id) {
+        xml.ensureCapacity(xml.length() + content.length() + 128);
+        TinderXmlWriter.appendAttribute(xml.append(START_TAG), "to", to.toString()).append(fromAttribute);
+        if (id != null) {
+            TinderXmlWriter.appendAttribute(xml, "id", id);
+        }
+        return xml.append(content);
+    }
+
+    /**
+     * @param to the recipient of the message
+     * @param id the id of the message, or {@code null} if it has none
+     * @return the text of the message for the recipient
+     */
+    @Nonnull
+    public String toXML(@Nonnull final JID to, @Nullable final String id) {
+        return appendXML(new StringBuilder(), to, id).toString();
+    }
+
+    /**
+     * Builds the message for a recipient. The message is a copy of the element of the message, which is built the
+     * first time a message is needed, so its calls are not encoded again.
+     *
+     * @param to the recipient of the message
+     * @param id the id of the message, or {@code null} if it has none
+     * @return the message for the recipient
+     */
+    @Nonnull
+    public CallStatusMessage toMessage(@Nonnull final JID to, @Nullable final String id) {
+        CallStatusMessage message = prototype;
+        if (message == null) {
+            message = new CallStatusMessage(envelope, null);
+            prototype = message;
+        }
+        return new CallStatusMessage(message, to, from, id);
+    }
+}
@@ -1,20 +1,30 @@
 package com.bt.openlink.tinder.message;
 
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamReader;
 
 import org.dom4j.Element;
 import org.xmpp.packet.JID;
 import org.xmpp.packet.Message;
 
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.ValidationMode;
+import com.bt.openlink.codec.CallFragmentCache;
+import com.bt.openlink.codec.CanonicalPool;
 import com.bt.openlink.message.CallStatusMessageBuilder;
 import com.bt.openlink.tinder.internal.TinderPacketUtil;
+import com.bt.openlink.tinder.internal.TinderXmlStreamUtil;
+import com.bt.openlink.tinder.internal.TinderXmlWriter;
 import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
 
 public class CallStatusMessage extends OpenlinkPubSubMessage {
 
@@ -23,14 +33,25 @@ public class CallStatusMessage extends OpenlinkPubSubMessage {
     @Nullable private final Boolean callStatusBusy;
     @Nonnull private final List<Call> calls;
 
-    private CallStatusMessage(@Nonnull final Builder builder, @Nullable final List<String> parseErrors) {
+    CallStatusMessage(@Nonnull final Builder builder, @Nullable final List<String> parseErrors) {
         super(builder, parseErrors);
         this.callStatusBusy = builder.isCallStatusBusy().orElse(null);
         this.calls = Collections.unmodifiableList(builder.getCalls());
-        final Element messageElement = getElement();
-        final Element itemElement = TinderPacketUtil.addPubSubMetaData(messageElement, builder);
-        TinderPacketUtil.addCallStatusCalls(itemElement, callStatusBusy, calls);
-        TinderPacketUtil.addDelay(messageElement, builder);
+        TinderPacketUtil.writePubSubEvent(TinderXmlWriter.of(getElement()), builder, writer -> TinderPacketUtil.writeCallStatusCalls(writer, callStatusBusy, calls));
+    }
+
+    /**
+     * Copies a prototype message, without a recipient, sender or id, for a recipient.
+     */
+    CallStatusMessage(@Nonnull final CallStatusMessage prototype, @Nonnull final JID to, @Nonnull final JID from, @Nullable final String id) {
+        super(prototype);
+        this.callStatusBusy = prototype.callStatusBusy;
+        this.calls = prototype.calls;
+        setTo(to);
+        setFrom(from);
+        if (id != null) {
+            setID(id);
+        }
     }
 
     @Nonnull
@@ -45,12 +66,186 @@ public class CallStatusMessage extends OpenlinkPubSubMessage {
 
     @Nonnull
     public static CallStatusMessage from(@Nonnull final Message message) {
-        final List<String> parseErrors = new ArrayList<>();
+        return from(message, CallField.ALL);
+    }
+
+    /**
+     * Decodes only the requested fields of each call in a call status message; the elements holding any other fields
+     * are skipped, and the calls report them as not loaded. Mandatory fields that were not requested are not reported
+     * as missing.
+     *
+     * @param message the stanza to decode
+     * @param fields  the fields of each call to decode, e.g. {@link CallField#STATE_ONLY}
+     * @return the decoded call status message
+     */
+    @Nonnull
+    public static CallStatusMessage from(@Nonnull final Message message, @Nonnull final Set<CallField> fields) {
+        return from(message, fields, CanonicalPool.NONE);
+    }
+
+    /**
+     * Decodes only the requested fields of each call in a call status message, taking the ids, phone numbers, sites
+     * and names of each call from a pool. Messages decoded with the same pool share equal values, rather than each
+     * holding its own copy.
+     *
+     * @param message the stanza to decode
+     * @param fields  the fields of each call to decode
+     * @param pool    the pool from which to take the values of each call
+     * @return the decoded call status message
+     */
+    @Nonnull
+    public static CallStatusMessage from(@Nonnull final Message message, @Nonnull final Set<CallField> fields, @Nonnull final CanonicalPool pool) {
+        return from(message, fields, pool, ParseDiagnostics.getDefaultValidationMode());
+    }
+
+    /**
+     * Decodes only the requested fields of each call in a call status message, taking the values of each call from a
+     * pool. A message from a trusted peer can be decoded without validating it.
+     *
+     * @param message        the stanza to decode
+     * @param fields         the fields of each call to decode
+     * @param pool           the pool from which to take the values of each call
+     * @param validationMode how thoroughly to validate the message
+     * @return the decoded call status message
+     */
+    @Nonnull
+    public static CallStatusMessage from(@Nonnull final Message message, @Nonnull final Set<CallField> fields, @Nonnull final CanonicalPool pool, @Nonnull final ValidationMode validationMode) {
+        return from(message, fields, pool, validationMode, false);
+    }
+
+    /**
+     * Decodes only the requested fields of each call in a call status message, taking the values of each call from a
+     * pool. Calls that are {@link Call#isDelta() deltas} are only decoded as such by a receiver that has advertised the
+     * {@link com.bt.openlink.OpenlinkXmppNamespace#OPENLINK_CALL_STATUS_DELTA call status delta} feature; otherwise
+     * each is decoded as a full call, and reported as a parse error.
+     *
+     * @param message          the stanza to decode
+     * @param fields           the fields of each call to decode
+     * @param pool             the pool from which to take the values of each call
+     * @param validationMode   how thoroughly to validate the message
+     * @param deltasNegotiated {@code true} if the receiver has advertised the call status delta feature
+     * @return the decoded call status message
+     */
+    @Nonnull
+    public static CallStatusMessage from(
+            @Nonnull final Message message,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            @Nonnull final ValidationMode validationMode,
+            final boolean deltasNegotiated) {
+        final List<String> parseErrors = new ParseDiagnostics(validationMode);
         final Builder builder = Builder.start();
         final Element itemElement = TinderPacketUtil.setPubSubMetaData(message, builder, STANZA_DESCRIPTION, parseErrors);
         final Element callStatusElement = TinderPacketUtil.getChildElement(itemElement, "callstatus");
         TinderPacketUtil.getBooleanAttribute(callStatusElement, "busy", "busy attribute", parseErrors).ifPresent(builder::setCallStatusBusy);
-        builder.addCalls(TinderPacketUtil.getCalls(callStatusElement, STANZA_DESCRIPTION, parseErrors));
+        builder.addCalls(TinderPacketUtil.getCalls(callStatusElement, fields, pool, deltasNegotiated, STANZA_DESCRIPTION, parseErrors));
+        return builder.build(parseErrors);
+    }
+
+    /**
+     * Decodes a call status message directly from the raw stanza, in a single pass and without first building a dom4j
+     * tree. The result is identical to that of {@link #from(Message)}.
+     *
+     * @param reader the source of a single {@code <message>} stanza
+     * @return the decoded call status message
+     * @throws IllegalArgumentException if the stanza is not well-formed XML, or is not a pub-sub event
+     */
+    @Nonnull
+    public static CallStatusMessage from(@Nonnull final Reader reader) {
+        return from(reader, CallField.ALL);
+    }
+
+    /**
+     * Decodes only the requested fields of each call directly from the raw stanza; the result is identical to that of
+     * {@link #from(Message, Set)}.
+     *
+     * @param reader the source of a single {@code <message>} stanza
+     * @param fields the fields of each call to decode
+     * @return the decoded call status message
+     * @throws IllegalArgumentException if the stanza is not well-formed XML, or is not a pub-sub event
+     */
+    @Nonnull
+    public static CallStatusMessage from(@Nonnull final Reader reader, @Nonnull final Set<CallField> fields) {
+        return from(reader, fields, CanonicalPool.NONE);
+    }
+
+    /**
+     * Decodes only the requested fields of each call directly from the raw stanza, taking the ids, phone numbers, sites
+     * and names of each call from a pool; the result is identical to that of {@link #from(Message, Set, CanonicalPool)}.
+     *
+     * @param reader the source of a single {@code <message>} stanza
+     * @param fields the fields of each call to decode
+     * @param pool   the pool from which to take the values of each call
+     * @return the decoded call status message
+     * @throws IllegalArgumentException if the stanza is not well-formed XML, or is not a pub-sub event
+     */
+    @Nonnull
+    public static CallStatusMessage from(@Nonnull final Reader reader, @Nonnull final Set<CallField> fields, @Nonnull final CanonicalPool pool) {
+        return from(reader, fields, pool, ParseDiagnostics.getDefaultValidationMode());
+    }
+
+    /**
+     * Decodes only the requested fields of each call directly from the raw stanza, taking the values of each call from
+     * a pool; the result is identical to that of {@link #from(Message, Set, CanonicalPool, ValidationMode)}.
+     *
+     * @param reader         the source of a single {@code <message>} stanza
+     * @param fields         the fields of each call to decode
+     * @param pool           the pool from which to take the values of each call
+     * @param validationMode how thoroughly to validate the message
+     * @return the decoded call status message
+     * @throws IllegalArgumentException if the stanza is not well-formed XML, or is not a pub-sub event
+     */
+    @Nonnull
+    public static CallStatusMessage from(@Nonnull final Reader reader, @Nonnull final Set<CallField> fields, @Nonnull final CanonicalPool pool, @Nonnull final ValidationMode validationMode) {
+        return from(reader, fields, pool, validationMode, false);
+    }
+
+    /**
+     * Decodes only the requested fields of each call directly from the raw stanza, taking the values of each call from
+     * a pool; the result is identical to that of {@link #from(Message, Set, CanonicalPool, ValidationMode, boolean)}.
+     *
+     * @param reader           the source of a single {@code <message>} stanza
+     * @param fields           the fields of each call to decode
+     * @param pool             the pool from which to take the values of each call
+     * @param validationMode   how thoroughly to validate the message
+     * @param deltasNegotiated {@code true} if the receiver has advertised the call status delta feature
+     * @return the decoded call status message
+     * @throws IllegalArgumentException if the stanza is not well-formed XML, or is not a pub-sub event
+     */
+    @Nonnull
+    public static CallStatusMessage from(
+            @Nonnull final Reader reader,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            @Nonnull final ValidationMode validationMode,
+            final boolean deltasNegotiated) {
+        return from(TinderXmlStreamUtil.createXMLStreamReader(reader), fields, pool, validationMode, deltasNegotiated);
+    }
+
+    /**
+     * Decodes a call status message directly from the raw stanza, in a single pass and without first building a dom4j
+     * tree. The result is identical to that of {@link #from(Message)}.
+     *
+     * @param inputStream the source of a single {@code <message>} stanza; the character encoding is detected from the
+     *                    stream
+     * @return the decoded call status message
+     * @throws IllegalArgumentException if the stanza is not well-formed XML, or is not a pub-sub event
+     */
+    @Nonnull
+    public static CallStatusMessage from(@Nonnull final InputStream inputStream) {
+        return from(TinderXmlStreamUtil.createXMLStreamReader(inputStream), CallField.ALL, CanonicalPool.NONE, ParseDiagnostics.getDefaultValidationMode(), false);
+    }
+
+    @Nonnull
+    private static CallStatusMessage from(
+            @Nonnull final XMLStreamReader xmlStreamReader,
+            @Nonnull final Set<CallField> fields,
+            @Nonnull final CanonicalPool pool,
+            @Nonnull final ValidationMode validationMode,
+            final boolean deltasNegotiated) {
+        final List<String> parseErrors = new ParseDiagnostics(validationMode);
+        final Builder builder = Builder.start();
+        TinderXmlStreamUtil.setCallStatusMessage(xmlStreamReader, fields, pool, deltasNegotiated, builder, STANZA_DESCRIPTION, parseErrors);
         return builder.build(parseErrors);
     }
 
@@ -70,6 +265,76 @@ public class CallStatusMessage extends OpenlinkPubSubMessage {
             return new CallStatusMessage(this, null);
         }
 
+        /**
+         * Encodes the message once, to be sent to many recipients who differ only in the stanza 'to' and 'id'. The
+         * recipient and id of this builder, if any, are ignored; later changes to this builder do not affect the
+         * fan-out.
+         *
+         * @return the encoded message
+         * @throws IllegalStateException if the message, other than its recipient, is not valid
+         */
+        @Nonnull
+        public CallStatusFanOut buildFanOut() {
+            return buildFanOut(null);
+        }
+
+        /**
+         * Encodes the message once, to be sent to many recipients, reusing the encoded element of any call that is
+         * unchanged since it was last encoded with the cache.
+         *
+         * @param fragmentCache the cache of encoded calls, or {@code null} to encode every call
+         * @return the encoded message
+         * @throws IllegalStateException if the message, other than its recipient, is not valid
+         * @see #buildFanOut()
+         */
+        @Nonnull
+        public CallStatusFanOut buildFanOut(@Nullable final CallFragmentCache fragmentCache) {
+            super.validateWithoutRecipient();
+            final Builder envelope = start().addCalls(getCalls());
+            getPubSubNodeId().ifPresent(envelope::setPubSubNodeId);
+            getItemId().ifPresent(envelope::setItemId);
+            getDelay().ifPresent(envelope::setDelay);
+            isCallStatusBusy().ifPresent(envelope::setCallStatusBusy);
+            return new CallStatusFanOut(envelope, getFrom().get(), envelope.appendMessage(new StringBuilder(), fragmentCache).toString());
+        }
+
+        /**
+         * Appends the text of the message to a buffer without building the message; the text is the same as that of
+         * {@code build().toXML()}. A publisher can so reuse one buffer for every message it sends, and only build the
+         * message if a packet is needed.
+         *
+         * @param xml the buffer to which the message is appended
+         * @return the buffer
+         * @throws IllegalStateException if the message is not valid
+         */
+        @Nonnull
+        public StringBuilder appendXML(@Nonnull final StringBuilder xml) {
+            return appendXML(xml, null);
+        }
+
+        /**
+         * Appends the text of the message to a buffer without building the message, reusing the encoded element of
+         * any call that is unchanged since it was last encoded with the cache. The text is the same as that of
+         * {@code build().toXML()}.
+         *
+         * @param xml           the buffer to which the message is appended
+         * @param fragmentCache the cache of encoded calls, or {@code null} to encode every call
+         * @return the buffer
+         * @throws IllegalStateException if the message is not valid
+         */
+        @Nonnull
+        public StringBuilder appendXML(@Nonnull final StringBuilder xml, @Nullable final CallFragmentCache fragmentCache) {
+            super.validate();
+            return appendMessage(xml, fragmentCache);
+        }
+
+        @Nonnull
+        private StringBuilder appendMessage(@Nonnull final StringBuilder xml, @Nullable final CallFragmentCache fragmentCache) {
+            final Boolean callStatusBusy = isCallStatusBusy().orElse(null);
+            final List<Call> calls = getCalls();
+            return TinderPacketUtil.appendPubSubMessage(xml, this, writer -> TinderPacketUtil.writeCallStatusCalls(writer, callStatusBusy, calls, fragmentCache));
+        }
+
         @Nonnull
         protected CallStatusMessage build(final List<String> parseErrors) {
             super.validate(parseErrors, true);
@@ -1,6 +1,5 @@
 package com.bt.openlink.tinder.message;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,8 +10,10 @@ import org.dom4j.Element;
 import org.xmpp.packet.JID;
 import org.xmpp.packet.Message;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.message.DeviceStatusMessageBuilder;
 import com.bt.openlink.tinder.internal.TinderPacketUtil;
+import com.bt.openlink.tinder.internal.TinderXmlWriter;
 import com.bt.openlink.type.DeviceStatus;
 
 public class DeviceStatusMessage extends OpenlinkPubSubMessage {
@@ -24,15 +25,12 @@ public class DeviceStatusMessage extends OpenlinkPubSubMessage {
     private DeviceStatusMessage(@Nonnull final Builder builder, @Nullable final List<String> parseErrors) {
         super(builder, parseErrors);
         this.deviceStatus = builder.getDeviceStatus().orElse(null);
-        final Element messageElement = getElement();
-        final Element itemElement = TinderPacketUtil.addPubSubMetaData(messageElement, builder);
-        getDeviceStatus().ifPresent(status -> TinderPacketUtil.addDeviceStatus(itemElement, status));
-        TinderPacketUtil.addDelay(messageElement, builder);
+        TinderPacketUtil.writePubSubEvent(TinderXmlWriter.of(getElement()), builder, writer -> getDeviceStatus().ifPresent(status -> TinderPacketUtil.writeDeviceStatus(writer, status)));
     }
 
     @Nonnull
     public static DeviceStatusMessage from(@Nonnull final Message message) {
-        final List<String> parseErrors = new ArrayList<>();
+        final List<String> parseErrors = new ParseDiagnostics();
         final Builder builder = Builder.start();
         final Element itemElement = TinderPacketUtil.setPubSubMetaData(message, builder, STANZA_DESCRIPTION, parseErrors);
         final Element deviceStatusElement = TinderPacketUtil.getChildElement(itemElement, "devicestatus");
@@ -61,6 +59,21 @@ public class DeviceStatusMessage extends OpenlinkPubSubMessage {
             return new DeviceStatusMessage(this, null);
         }
 
+        /**
+         * Appends the text of the message to a buffer without building the message; the text is the same as that of
+         * {@code build().toXML()}.
+         *
+         * @param xml the buffer to which the message is appended
+         * @return the buffer
+         * @throws IllegalStateException if the message is not valid
+         */
+        @Nonnull
+        public StringBuilder appendXML(@Nonnull final StringBuilder xml) {
+            super.validate();
+            final Optional<DeviceStatus> deviceStatus = getDeviceStatus();
+            return TinderPacketUtil.appendPubSubMessage(xml, this, writer -> deviceStatus.ifPresent(status -> TinderPacketUtil.writeDeviceStatus(writer, status)));
+        }
+
         @Nonnull
         protected DeviceStatusMessage build(final List<String> parseErrors) {
             super.validate(parseErrors, true);
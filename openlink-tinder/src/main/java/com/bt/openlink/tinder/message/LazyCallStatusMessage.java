@@ -0,0 +1,113 @@
+package com.bt.openlink.tinder.message;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dom4j.Element;
+import org.xmpp.packet.Message;
+
+import com.bt.openlink.ParseDiagnostics;
+import com.bt.openlink.tinder.internal.TinderPacketUtil;
+import com.bt.openlink.type.Call;
+
+/**
+ * A call status message whose calls are only decoded when they are first needed. The pub-sub metadata and the busy
+ * flag are decoded up front, so that a message can be routed on its node id without decoding any of its calls.
+ * <p>
+ * The message wraps the element of the original stanza, so it can be forwarded without being re-encoded; the original
+ * stanza should not be modified once it has been wrapped. Once decoded, the calls and the parse errors are identical to
+ * those of {@link CallStatusMessage#from(Message)}.
+ */
+public class LazyCallStatusMessage extends OpenlinkPubSubMessage {
+
+    private static final String STANZA_DESCRIPTION = "call status";
+
+    @Nullable private final Boolean callStatusBusy;
+    @Nullable private final Element callStatusElement;
+    @Nonnull private final CallStatusMessage.Builder builder;
+    @Nonnull private final Object decodeLock = new Object();
+    // Guarded by decodeLock until the calls have been decoded; immutable thereafter
+    @Nonnull private List<String> parseErrors;
+    @Nullable private volatile List<Call> calls;
+
+    private LazyCallStatusMessage(
+            @Nonnull final Message message,
+            @Nonnull final CallStatusMessage.Builder builder,
+            @Nullable final Element callStatusElement,
+            @Nonnull final List<String> parseErrors) {
+        super(message.getElement(), builder);
+        this.callStatusBusy = builder.isCallStatusBusy().orElse(null);
+        this.callStatusElement = callStatusElement;
+        this.builder = builder;
+        this.parseErrors = parseErrors;
+    }
+
+    /**
+     * Decodes the pub-sub metadata of a call status message, leaving the calls to be decoded on first access.
+     *
+     * @param message the stanza to decode
+     * @return the partially decoded call status message
+     */
+    @Nonnull
+    public static LazyCallStatusMessage from(@Nonnull final Message message) {
+        final List<String> parseErrors = new ParseDiagnostics();
+        final CallStatusMessage.Builder builder = CallStatusMessage.Builder.start();
+        final Element itemElement = TinderPacketUtil.setPubSubMetaData(message, builder, STANZA_DESCRIPTION, parseErrors);
+        final Element callStatusElement = TinderPacketUtil.getChildElement(itemElement, "callstatus");
+        TinderPacketUtil.getBooleanAttribute(callStatusElement, "busy", "busy attribute", parseErrors).ifPresent(builder::setCallStatusBusy);
+        return new LazyCallStatusMessage(message, builder, callStatusElement, parseErrors);
+    }
+
+    @Nonnull
+    public Optional<Boolean> isCallStatusBusy() {
+        return Optional.ofNullable(callStatusBusy);
+    }
+
+    /**
+     * @return {@code true} if the calls have been decoded, otherwise {@code false}
+     */
+    public boolean isDecoded() {
+        return calls != null;
+    }
+
+    /**
+     * Decodes the calls, if they have not already been decoded.
+     *
+     * @return the calls in the message
+     */
+    @Nonnull
+    public List<Call> getCalls() {
+        List<Call> decodedCalls = calls;
+        if (decodedCalls == null) {
+            synchronized (decodeLock) {
+                decodedCalls = calls;
+                if (decodedCalls == null) {
+                    final ParseDiagnostics errors = new ParseDiagnostics(ParseDiagnostics.validationModeOf(parseErrors));
+                    errors.addAll(parseErrors);
+                    builder.addCalls(TinderPacketUtil.getCalls(callStatusElement, STANZA_DESCRIPTION, errors));
+                    builder.validate(errors);
+                    parseErrors = errors.snapshot();
+                    decodedCalls = Collections.unmodifiableList(builder.getCalls());
+                    calls = decodedCalls;
+                }
+            }
+        }
+        return decodedCalls;
+    }
+
+    /**
+     * Decodes the calls, if they have not already been decoded, as the validity of the message depends on its calls.
+     *
+     * @return the errors found when decoding the message
+     */
+    @Nonnull
+    @Override
+    public List<String> getParseErrors() {
+        getCalls();
+        return parseErrors;
+    }
+}
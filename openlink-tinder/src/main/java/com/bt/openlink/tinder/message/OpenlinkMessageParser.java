@@ -16,6 +16,23 @@ public final class OpenlinkMessageParser {
 
     @Nonnull
     public static Message parse(@Nonnull final Message message) {
+        return parse(message, false);
+    }
+
+    /**
+     * Parses a message as {@link #parse(Message)}, except that a call status message is returned as a
+     * {@link LazyCallStatusMessage} whose calls are only decoded when they are first accessed.
+     *
+     * @param message the message to parse
+     * @return the parsed message
+     */
+    @Nonnull
+    public static Message parseLazily(@Nonnull final Message message) {
+        return parse(message, true);
+    }
+
+    @Nonnull
+    private static Message parse(@Nonnull final Message message, final boolean lazily) {
 
         final List elements = message.getElement().elements();
         if (elements.isEmpty()) {
@@ -24,18 +41,18 @@ public final class OpenlinkMessageParser {
         final Element childElement = (Element) elements.get(0);
         final String namespace = childElement.getNamespaceURI();
         if (namespace.equals("http://jabber.org/protocol/pubsub#event")) {
-            return parsePubSubEvent(message);
+            return parsePubSubEvent(message, lazily);
         } else {
             return message;
         }
     }
 
     @Nonnull
-    private static Message parsePubSubEvent(final Message message) {
+    private static Message parsePubSubEvent(final Message message, final boolean lazily) {
         final Element callStatusElement = TinderPacketUtil.getChildElement(message.getElement(), "event", "items", "item", "callstatus");
         final Element deviceStatusElement = TinderPacketUtil.getChildElement(message.getElement(), "event", "items", "item", "devicestatus");
         if (callStatusElement != null) {
-            return CallStatusMessage.from(message);
+            return lazily ? LazyCallStatusMessage.from(message) : CallStatusMessage.from(message);
         } else if (deviceStatusElement != null) {
             return DeviceStatusMessage.from(message);
         } else {
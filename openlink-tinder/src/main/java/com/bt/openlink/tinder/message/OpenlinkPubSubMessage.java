@@ -1,7 +1,6 @@
 package com.bt.openlink.tinder.message;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -9,9 +8,11 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.dom4j.Element;
 import org.xmpp.packet.JID;
 import org.xmpp.packet.Message;
 
+import com.bt.openlink.ParseDiagnostics;
 import com.bt.openlink.message.PubSubMessageBuilder;
 import com.bt.openlink.type.ItemId;
 import com.bt.openlink.type.PubSubNodeId;
@@ -32,14 +33,34 @@ public class OpenlinkPubSubMessage extends Message {
         this.delay = builder.getDelay().orElse(null);
         this.pubSubNodeId = builder.getPubSubNodeId().orElse(null);
         this.itemId = builder.getItemId().orElse(null);
-        if (parseErrors == null) {
-            this.parseErrors = Collections.emptyList();
-        } else {
-            this.parseErrors = new ArrayList<>(parseErrors);
+        this.parseErrors = ParseDiagnostics.unmodifiableCopyOf(parseErrors);
+        if (parseErrors != null) {
             builder.validate(parseErrors);
         }
     }
 
+    /**
+     * Wraps the element of an existing stanza; the parse errors are the responsibility of the subclass.
+     */
+    OpenlinkPubSubMessage(@Nonnull final Element element, @Nonnull final PubSubMessageBuilder<?, JID> builder) {
+        super(element, true);
+        this.delay = builder.getDelay().orElse(null);
+        this.pubSubNodeId = builder.getPubSubNodeId().orElse(null);
+        this.itemId = builder.getItemId().orElse(null);
+        this.parseErrors = Collections.emptyList();
+    }
+
+    /**
+     * Copies the element of a prototype stanza, along with its pub-sub metadata and parse errors.
+     */
+    OpenlinkPubSubMessage(@Nonnull final OpenlinkPubSubMessage prototype) {
+        super(prototype.getElement().createCopy(), true);
+        this.delay = prototype.delay;
+        this.pubSubNodeId = prototype.pubSubNodeId;
+        this.itemId = prototype.itemId;
+        this.parseErrors = prototype.parseErrors;
+    }
+
     @Nonnull
     public List<String> getParseErrors() {
         return parseErrors;
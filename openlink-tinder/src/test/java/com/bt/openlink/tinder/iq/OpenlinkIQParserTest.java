@@ -0,0 +1,90 @@
+package com.bt.openlink.tinder.iq;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+import org.xmpp.packet.IQ;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.GetInterestFixtures;
+import com.bt.openlink.OpenlinkXmppNamespace;
+import com.bt.openlink.tinder.Fixtures;
+
+@SuppressWarnings("ConstantConditions")
+public class OpenlinkIQParserTest {
+
+    private static final String MANAGE_VOICE_BRIDGE_REQUEST =
+            "<iq type='set' id='" + CoreFixtures.STANZA_ID + "' to='" + CoreFixtures.TO_JID_STRING + "' from='" + CoreFixtures.FROM_JID_STRING + "'>\n" +
+            "  <command xmlns='http://jabber.org/protocol/commands' node='http://xmpp.org/protocol/openlink:01:00:00#manage-voice-bridge' action='execute'>\n" +
+            "    <iodata xmlns='urn:xmpp:tmp:io-data' type='input'>\n" +
+            "      <in>\n" +
+            "        <profile>" + CoreFixtures.PROFILE_ID + "</profile>\n" +
+            "      </in>\n" +
+            "    </iodata>\n" +
+            "  </command>\n" +
+            "</iq>\n";
+
+    @After
+    public void tearDown() {
+        OpenlinkIQParser.unregister(OpenlinkXmppNamespace.OPENLINK_MANAGE_VOICE_BRIDGE.uri(), IQ.Type.set);
+    }
+
+    @Test
+    public void willReturnTheOriginalStanzaIfTheCommandIsNotRegistered() throws Exception {
+
+        final IQ iq = Fixtures.iqFrom(MANAGE_VOICE_BRIDGE_REQUEST);
+
+        assertThat(OpenlinkIQParser.parse(iq), is(sameInstance(iq)));
+    }
+
+    @Test
+    public void willUseARegisteredStanzaFactory() throws Exception {
+
+        final IQ customStanza = new IQ(IQ.Type.set);
+        OpenlinkIQParser.register(OpenlinkXmppNamespace.OPENLINK_MANAGE_VOICE_BRIDGE, IQ.Type.set, iq -> customStanza);
+
+        assertThat(OpenlinkIQParser.parse(Fixtures.iqFrom(MANAGE_VOICE_BRIDGE_REQUEST)), is(sameInstance(customStanza)));
+    }
+
+    @Test
+    public void willNotUseAStanzaFactoryRegisteredForADifferentType() throws Exception {
+
+        OpenlinkIQParser.register(OpenlinkXmppNamespace.OPENLINK_MANAGE_VOICE_BRIDGE, IQ.Type.result, iq -> new IQ(IQ.Type.result));
+        try {
+            final IQ iq = Fixtures.iqFrom(MANAGE_VOICE_BRIDGE_REQUEST);
+
+            assertThat(OpenlinkIQParser.parse(iq), is(sameInstance(iq)));
+        } finally {
+            OpenlinkIQParser.unregister(OpenlinkXmppNamespace.OPENLINK_MANAGE_VOICE_BRIDGE.uri(), IQ.Type.result);
+        }
+    }
+
+    @Test
+    public void willNoLongerUseAnUnregisteredStanzaFactory() throws Exception {
+
+        final OpenlinkIQParser.StanzaFactory stanzaFactory = iq -> new IQ(IQ.Type.set);
+        OpenlinkIQParser.register(OpenlinkXmppNamespace.OPENLINK_MANAGE_VOICE_BRIDGE, IQ.Type.set, stanzaFactory);
+
+        assertThat(OpenlinkIQParser.unregister(OpenlinkXmppNamespace.OPENLINK_MANAGE_VOICE_BRIDGE.uri(), IQ.Type.set).get(), is(sameInstance(stanzaFactory)));
+        final IQ iq = Fixtures.iqFrom(MANAGE_VOICE_BRIDGE_REQUEST);
+        assertThat(OpenlinkIQParser.parse(iq), is(sameInstance(iq)));
+    }
+
+    @Test
+    public void willReplaceABuiltInStanzaFactory() throws Exception {
+
+        final OpenlinkIQParser.StanzaFactory previousFactory = OpenlinkIQParser.register(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST, IQ.Type.set, iq -> iq).get();
+        try {
+            final IQ iq = Fixtures.iqFrom(GetInterestFixtures.GET_INTEREST_REQUEST);
+
+            assertThat(OpenlinkIQParser.parse(iq), is(sameInstance(iq)));
+        } finally {
+            OpenlinkIQParser.register(OpenlinkXmppNamespace.OPENLINK_GET_INTEREST, IQ.Type.set, previousFactory);
+        }
+        assertThat(OpenlinkIQParser.parse(Fixtures.iqFrom(GetInterestFixtures.GET_INTEREST_REQUEST)), is(instanceOf(GetInterestRequest.class)));
+    }
+}
@@ -100,6 +100,19 @@ public class PubSubPublishRequestTest {
         assertThat(request.toXML(), isIdenticalTo(PubSubPublishFixtures.PUBLISH_REQUEST_CALL_STATUS).ignoreWhitespace());
     }
 
+    @Test
+    public void willWriteTheSameXmlAsTheStanza() {
+
+        final PubSubPublishRequest.Builder builder = PubSubPublishRequest.Builder.start()
+                .setId(CoreFixtures.STANZA_ID)
+                .setTo(Fixtures.TO_JID)
+                .setFrom(Fixtures.FROM_JID)
+                .addCall(CoreFixtures.CALL_INCOMING_ORIGINATED)
+                .setInterestId(CoreFixtures.INTEREST_ID);
+
+        assertThat(builder.appendXML(new StringBuilder()).toString(), is(builder.build().toXML()));
+    }
+
     @Test
     public void willParseAnXmppStanza() {
 
@@ -0,0 +1,109 @@
+package com.bt.openlink.tinder.message;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.xmpp.packet.JID;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.PubSubMessageFixtures;
+import com.bt.openlink.codec.CallFragmentCache;
+import com.bt.openlink.tinder.Fixtures;
+import com.bt.openlink.type.Call;
+
+@SuppressWarnings("ConstantConditions")
+public class CallStatusFanOutTest {
+
+    @Rule public final ExpectedException expectedException = ExpectedException.none();
+
+    private static CallStatusMessage.Builder builder() {
+        return builder(CoreFixtures.CALL_INCOMING_ORIGINATED);
+    }
+
+    private static CallStatusMessage.Builder builder(final Call call) {
+        return CallStatusMessage.Builder.start()
+                .setFrom(Fixtures.FROM_JID)
+                .setPubSubNodeId(call.getInterestId().get())
+                .setItemId(PubSubMessageFixtures.ITEM_ID)
+                .setDelay(CoreFixtures.START_TIME)
+                .addCall(call);
+    }
+
+    @Test
+    public void willWriteTheSameXmlAsAMessageForEachRecipient() {
+
+        final CallStatusFanOut fanOut = builder().buildFanOut();
+
+        for (final JID to : new JID[]{Fixtures.TO_JID, Fixtures.USER_FULL_JID}) {
+            final String expectedXml = builder().setTo(to).setId(CoreFixtures.STANZA_ID).build().toXML();
+            assertThat(fanOut.toXML(to, CoreFixtures.STANZA_ID), is(expectedXml));
+        }
+    }
+
+    @Test
+    public void willWriteAMessageWithoutAnId() {
+
+        final CallStatusFanOut fanOut = builder().buildFanOut();
+
+        final String expectedXml = builder().setTo(Fixtures.TO_JID).build().toXML();
+        assertThat(fanOut.appendXML(new StringBuilder(), Fixtures.TO_JID, null).toString(), is(expectedXml));
+    }
+
+    @Test
+    public void willBuildAMessageForEachRecipient() {
+
+        final CallStatusFanOut fanOut = builder().buildFanOut();
+
+        final CallStatusMessage message = fanOut.toMessage(Fixtures.TO_JID, CoreFixtures.STANZA_ID);
+
+        assertThat(message.getTo(), is(Fixtures.TO_JID));
+        assertThat(message.getFrom(), is(Fixtures.FROM_JID));
+        assertThat(message.getID(), is(CoreFixtures.STANZA_ID));
+        assertThat(message.getPubSubNodeId().get(), is(PubSubMessageFixtures.NODE_ID));
+        assertThat(message.getItemId().get(), is(PubSubMessageFixtures.ITEM_ID));
+        assertThat(message.getDelay().get(), is(CoreFixtures.START_TIME));
+        assertThat(message.getCalls(), contains(CoreFixtures.CALL_INCOMING_ORIGINATED));
+        assertThat(message.toXML(), is(fanOut.toXML(Fixtures.TO_JID, CoreFixtures.STANZA_ID)));
+    }
+
+    @Test
+    public void willWriteTheSameXmlWithACacheOfEncodedCalls() {
+
+        // A call of the test's own, as the cache hashes the values of a call, which reflection would then see
+        final Call call = CallStatusMessage.from(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE)).getCalls().get(0);
+        final CallFragmentCache fragmentCache = new CallFragmentCache(16);
+        builder(call).setTo(Fixtures.TO_JID).appendXML(new StringBuilder(), fragmentCache);
+
+        final CallStatusFanOut fanOut = builder(call).buildFanOut(fragmentCache);
+
+        final String expectedXml = builder(call).setTo(Fixtures.TO_JID).setId(CoreFixtures.STANZA_ID).build().toXML();
+        assertThat(fanOut.toXML(Fixtures.TO_JID, CoreFixtures.STANZA_ID), is(expectedXml));
+        assertThat(fanOut.toMessage(Fixtures.TO_JID, CoreFixtures.STANZA_ID).toXML(), is(expectedXml));
+    }
+
+    @Test
+    public void willNotBeAffectedByLaterChangesToTheBuilder() {
+
+        final CallStatusMessage.Builder builder = builder();
+        final CallStatusFanOut fanOut = builder.buildFanOut();
+        final String expectedXml = fanOut.toXML(Fixtures.TO_JID, CoreFixtures.STANZA_ID);
+
+        builder.setFrom(Fixtures.USER_FULL_JID).setCallStatusBusy(true);
+
+        assertThat(fanOut.getFrom(), is(Fixtures.FROM_JID));
+        assertThat(fanOut.toXML(Fixtures.TO_JID, CoreFixtures.STANZA_ID), is(expectedXml));
+    }
+
+    @Test
+    public void cannotBuildAFanOutWithoutASender() {
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("The stanza 'from' has not been set");
+
+        builder().setFrom(null).buildFanOut();
+    }
+}
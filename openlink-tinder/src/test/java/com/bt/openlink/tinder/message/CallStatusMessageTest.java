@@ -3,12 +3,20 @@ package com.bt.openlink.tinder.message;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.junit.Assert.assertThat;
 import static org.xmlunit.matchers.CompareMatcher.isIdenticalTo;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.junit.Rule;
@@ -17,9 +25,23 @@ import org.junit.rules.ExpectedException;
 import org.xmpp.packet.Message;
 
 import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.OpenlinkXmppNamespace;
 import com.bt.openlink.PubSubMessageFixtures;
+import com.bt.openlink.ValidationMode;
+import com.bt.openlink.codec.BinaryCodecs;
+import com.bt.openlink.codec.BinaryReader;
+import com.bt.openlink.codec.BinaryWriter;
+import com.bt.openlink.codec.CallDeltaDecoder;
+import com.bt.openlink.codec.CallDeltaEncoder;
+import com.bt.openlink.codec.CallFragmentCache;
+import com.bt.openlink.codec.CanonicalPool;
+import com.bt.openlink.codec.JsonCodecs;
+import com.bt.openlink.codec.JsonReader;
+import com.bt.openlink.codec.JsonWriter;
 import com.bt.openlink.tinder.Fixtures;
 import com.bt.openlink.type.Call;
+import com.bt.openlink.type.CallField;
+import com.bt.openlink.type.CallState;
 import com.bt.openlink.type.ItemId;
 
 @SuppressWarnings({ "ConstantConditions" })
@@ -66,6 +88,139 @@ public class CallStatusMessageTest {
         assertThat(message.toXML(), isIdenticalTo(PubSubMessageFixtures.CALL_STATUS_MESSAGE).ignoreWhitespace());
     }
 
+    @Test
+    public void willWriteTheSameXmlAsTheStanza() {
+
+        final CallStatusMessage.Builder builder = CallStatusMessage.Builder.start()
+                .setId(CoreFixtures.STANZA_ID)
+                .setTo(Fixtures.TO_JID)
+                .setFrom(Fixtures.FROM_JID)
+                .setPubSubNodeId(CoreFixtures.CALL_INCOMING_ORIGINATED.getInterestId().get())
+                .setItemId(ItemId.from("test-item-id & <another>").get())
+                .setCallStatusBusy(true)
+                .setDelay(CoreFixtures.START_TIME)
+                .addCall(CoreFixtures.CALL_INCOMING_ORIGINATED);
+        final StringBuilder xml = new StringBuilder("<!-- previous stanza -->");
+
+        assertThat(builder.appendXML(xml).toString(), is("<!-- previous stanza -->" + builder.build().toXML()));
+    }
+
+    @Test
+    public void willWriteTheSameXmlWithACacheOfEncodedCalls() {
+
+        // A call of the test's own, as the cache hashes the values of a call, which reflection would then see
+        final Call call = CallStatusMessage.from(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE)).getCalls().get(0);
+        final CallStatusMessage.Builder builder = CallStatusMessage.Builder.start()
+                .setId(CoreFixtures.STANZA_ID)
+                .setTo(Fixtures.TO_JID)
+                .setFrom(Fixtures.FROM_JID)
+                .setPubSubNodeId(call.getInterestId().get())
+                .addCall(call);
+        final CallFragmentCache fragmentCache = new CallFragmentCache(16);
+        final String expectedXml = builder.build().toXML();
+
+        assertThat(builder.appendXML(new StringBuilder(), fragmentCache).toString(), is(expectedXml));
+        assertThat(fragmentCache.size(), is(1));
+        assertThat(builder.appendXML(new StringBuilder(), fragmentCache).toString(), is(expectedXml));
+    }
+
+    @Test
+    public void willParseADeltaOfACall() {
+
+        final CallDeltaEncoder encoder = new CallDeltaEncoder(Collections.singleton(OpenlinkXmppNamespace.OPENLINK_CALL_STATUS_DELTA.uri()));
+        final CallDeltaDecoder decoder = new CallDeltaDecoder();
+        // A call of the test's own, as the encoder hashes the id of a call, which reflection would then see
+        final Call originatedCall = CallStatusMessage.from(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE)).getCalls().get(0);
+        final Call heldCall = Call.Builder.start()
+                .copyFields(originatedCall, CallField.ALL)
+                .setState(CallState.CALL_HELD)
+                .build();
+        final List<String> stanzas = new ArrayList<>();
+        for (final Call call : Arrays.asList(originatedCall, heldCall)) {
+            stanzas.add(CallStatusMessage.Builder.start()
+                    .setId(CoreFixtures.STANZA_ID)
+                    .setTo(Fixtures.TO_JID)
+                    .setFrom(Fixtures.FROM_JID)
+                    .setPubSubNodeId(originatedCall.getInterestId().get())
+                    .addCall(encoder.encode(call))
+                    .build().toXML());
+        }
+
+        decoder.decode(CallStatusMessage.from(new StringReader(stanzas.get(0)), CallField.ALL, CanonicalPool.NONE, ValidationMode.STRICT, true).getCalls());
+        final CallStatusMessage message = CallStatusMessage.from(new StringReader(stanzas.get(1)), CallField.ALL, CanonicalPool.NONE, ValidationMode.STRICT, true);
+        final Call delta = message.getCalls().get(0);
+        final Call call = decoder.decode(delta);
+
+        assertThat(message.getParseErrors(), is(empty()));
+        assertThat(stanzas.get(1).contains("<call fields=\"id state\">"), is(true));
+        assertThat(delta.isDelta(), is(true));
+        assertThat(call.isDelta(), is(false));
+        for (final CallField field : CallField.values()) {
+            assertThat(field.name(), call.hasSameValue(field, heldCall), is(true));
+        }
+    }
+
+    @Test
+    public void willReportADeltaIfDeltasWereNotNegotiated() {
+
+        final String stanza = PubSubMessageFixtures.CALL_STATUS_MESSAGE.replace("<call>", "<call fields='id state'>");
+
+        final CallStatusMessage message = CallStatusMessage.from(Fixtures.messageFrom(stanza));
+        final CallStatusMessage streamedMessage = CallStatusMessage.from(new StringReader(stanza));
+        final CallStatusMessage negotiatedMessage = CallStatusMessage.from(Fixtures.messageFrom(stanza), CallField.ALL, CanonicalPool.NONE, ValidationMode.STRICT, true);
+
+        for (final CallStatusMessage notNegotiatedMessage : Arrays.asList(message, streamedMessage)) {
+            assertThat(notNegotiatedMessage.getParseErrors(), contains("Invalid call; the call is a delta, but call status deltas have not been negotiated"));
+            assertThat(notNegotiatedMessage.getCalls().get(0).isDelta(), is(false));
+            assertThat(notNegotiatedMessage.getCalls().get(0).getLoadedFields(), is(CallField.ALL));
+        }
+        assertThat(negotiatedMessage.getParseErrors(), is(empty()));
+        assertThat(negotiatedMessage.getCalls().get(0).isDelta(), is(true));
+        assertThat(negotiatedMessage.getCalls().get(0).getLoadedFields(), contains(CallField.ID, CallField.STATE));
+    }
+
+    // Rebuilds the call status stanza with its call passed through a codec, which must leave the stanza unchanged
+    private static void assertThatTheCallsOfAStanzaSurvive(final UnaryOperator<Call> roundTrip) {
+
+        final CallStatusMessage message = (CallStatusMessage) OpenlinkMessageParser.parse(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE));
+
+        final CallStatusMessage decodedMessage = CallStatusMessage.Builder.start()
+                .setId(message.getID())
+                .setTo(message.getTo())
+                .setFrom(message.getFrom())
+                .setPubSubNodeId(message.getPubSubNodeId().get())
+                .setItemId(message.getItemId().get())
+                .setCallStatusBusy(message.isCallStatusBusy().get())
+                .addCall(roundTrip.apply(message.getCalls().get(0)))
+                .build();
+
+        assertThat(decodedMessage.toXML(), isIdenticalTo(PubSubMessageFixtures.CALL_STATUS_MESSAGE).ignoreWhitespace());
+    }
+
+    @Test
+    public void willEncodeTheCallsOfAStanzaInBinaryWithoutLoss() {
+
+        assertThatTheCallsOfAStanzaSurvive(call -> {
+            final ByteBuffer buffer = ByteBuffer.allocate(4096);
+            new BinaryWriter().write(BinaryCodecs.CALL, call, buffer);
+            buffer.flip();
+            return new BinaryReader().read(BinaryCodecs.CALL, buffer);
+        });
+    }
+
+    @Test
+    public void willEncodeTheCallsOfAStanzaAsJsonWithoutLoss() {
+
+        assertThatTheCallsOfAStanzaSurvive(call -> {
+            final StringBuilder json = new StringBuilder();
+            JsonWriter.of(json).write(JsonCodecs.CALL, call);
+            final JsonReader reader = JsonReader.of(json);
+            final Call decodedCall = reader.read(JsonCodecs.CALL);
+            assertThat(reader.getParseErrors(), is(empty()));
+            return decodedCall;
+        });
+    }
+
     @Test
     public void willCreateAStanzaWithoutMandatoryFields() {
 
@@ -155,4 +310,122 @@ public class CallStatusMessageTest {
 
         assertThat(message.getParseErrors(), contains("Invalid participant; the legacy timestamp field does not match the start time field"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void willParseAnXmppStanzaFromAReader() {
+
+        final CallStatusMessage message = CallStatusMessage.from(new StringReader(PubSubMessageFixtures.CALL_STATUS_MESSAGE));
+
+        assertThat(message.getID(), is(CoreFixtures.STANZA_ID));
+        assertThat(message.getTo(), is(Fixtures.TO_JID));
+        assertThat(message.getFrom(), is(Fixtures.FROM_JID));
+        assertThat(message.getPubSubNodeId().get(), is(PubSubMessageFixtures.NODE_ID));
+        assertThat(message.getItemId().get(), is(PubSubMessageFixtures.ITEM_ID));
+        assertThat(message.isCallStatusBusy().get(), is(false));
+        final List<Call> calls = message.getCalls();
+        final Call theOnlyCall = calls.get(0);
+        assertThat(EqualsBuilder.reflectionEquals(CoreFixtures.CALL_INCOMING_ORIGINATED, theOnlyCall, false, null, true), is(true));
+        assertThat(calls.size(), is(1));
+        assertThat(message.getParseErrors().size(), is(0));
+    }
+
+    @Test
+    public void willParseTheSameStanzaFromAStreamAsFromAMessage() {
+
+        final List<String> stanzas = Arrays.asList(
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_LEGACY_TIMESTAMP_ONLY,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_MISMATCHED_TIMESTAMPS,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_NO_FIELDS,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_DELAYED,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_DELAYED_WITH_BAD_TIMESTAMP);
+
+        for (final String stanza : stanzas) {
+            final CallStatusMessage expected = CallStatusMessage.from(Fixtures.messageFrom(stanza));
+            final CallStatusMessage actual = CallStatusMessage.from(new ByteArrayInputStream(stanza.getBytes(StandardCharsets.UTF_8)));
+
+            assertThat(actual.toXML(), is(expected.toXML()));
+            assertThat(actual.getDelay(), is(expected.getDelay()));
+            assertThat(actual.getParseErrors(), is(expected.getParseErrors()));
+            assertThat(actual.getCalls().size(), is(expected.getCalls().size()));
+            for (int i = 0; i < expected.getCalls().size(); i++) {
+                assertThat(EqualsBuilder.reflectionEquals(expected.getCalls().get(i), actual.getCalls().get(i), false, null, true), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void willNotParseAMalformedStanzaFromAReader() {
+
+        expectedException.expect(IllegalArgumentException.class);
+
+        CallStatusMessage.from(new StringReader(PubSubMessageFixtures.CALL_STATUS_MESSAGE.replace("</message>", "")));
+    }
+
+    @Test
+    public void willParseOnlyTheRequestedCallFields() {
+
+        final CallStatusMessage message = CallStatusMessage.from(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE), CallField.STATE_ONLY);
+
+        assertThat(message.getParseErrors().size(), is(0));
+        final Call call = message.getCalls().get(0);
+        assertThat(call.getId(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getId()));
+        assertThat(call.getState(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getState()));
+        assertThat(call.getDirection(), is(CoreFixtures.CALL_INCOMING_ORIGINATED.getDirection()));
+        assertThat(call.getSite(), is(Optional.empty()));
+        assertThat(call.getParticipants().size(), is(0));
+        assertThat(call.isLoaded(CallField.SITE), is(false));
+    }
+
+    @Test
+    public void willParseTheSameRequestedCallFieldsFromAReaderAsFromAMessage() {
+
+        final CallStatusMessage expected = CallStatusMessage.from(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_MISMATCHED_TIMESTAMPS), CallField.STATE_ONLY);
+        final CallStatusMessage actual = CallStatusMessage.from(new StringReader(PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_MISMATCHED_TIMESTAMPS), CallField.STATE_ONLY);
+
+        assertThat(actual.toXML(), is(expected.toXML()));
+        assertThat(actual.getParseErrors(), is(expected.getParseErrors()));
+        assertThat(EqualsBuilder.reflectionEquals(expected.getCalls().get(0), actual.getCalls().get(0), false, null, true), is(true));
+    }
+
+    @Test
+    public void willShareTheValuesOfCallsDecodedWithTheSamePool() {
+
+        final CanonicalPool pool = new CanonicalPool(1024);
+
+        final Call first = CallStatusMessage.from(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE), CallField.ALL, pool).getCalls().get(0);
+        final Call second = CallStatusMessage.from(new StringReader(PubSubMessageFixtures.CALL_STATUS_MESSAGE), CallField.ALL, pool).getCalls().get(0);
+
+        assertThat(second.getId().get(), is(sameInstance(first.getId().get())));
+        assertThat(second.getSite().get(), is(sameInstance(first.getSite().get())));
+        assertThat(second.getCallerNumber().get(), is(sameInstance(first.getCallerNumber().get())));
+        assertThat(second.getCalledName().get(), is(sameInstance(first.getCalledName().get())));
+        // Compared through the getters, as the pool has cached the hashes of the values, so reflection would not match
+        final Call expected = CoreFixtures.CALL_INCOMING_ORIGINATED;
+        assertThat(second.getId(), is(expected.getId()));
+        assertThat(second.getSite(), is(expected.getSite()));
+        assertThat(second.getProfileId(), is(expected.getProfileId()));
+        assertThat(second.getUserId(), is(expected.getUserId()));
+        assertThat(second.getInterestId(), is(expected.getInterestId()));
+        assertThat(second.getCallerNumber(), is(expected.getCallerNumber()));
+        assertThat(second.getCallerName(), is(expected.getCallerName()));
+        assertThat(second.getCallerE164Numbers(), is(expected.getCallerE164Numbers()));
+        assertThat(second.getCalledNumber(), is(expected.getCalledNumber()));
+        assertThat(second.getCalledName(), is(expected.getCalledName()));
+        assertThat(second.getCalledDestination(), is(expected.getCalledDestination()));
+        assertThat(second.getCalledE164Numbers(), is(expected.getCalledE164Numbers()));
+        assertThat(second.getState(), is(expected.getState()));
+        assertThat(second.getDirection(), is(expected.getDirection()));
+    }
+
+    @Test
+    public void willNotValidateAMessageFromATrustedPeer() {
+
+        final CallStatusMessage message = CallStatusMessage.from(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_NO_FIELDS), CallField.ALL, CanonicalPool.NONE, ValidationMode.TRUSTED);
+        final CallStatusMessage streamedMessage = CallStatusMessage.from(new StringReader(PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_MISMATCHED_TIMESTAMPS), CallField.ALL, CanonicalPool.NONE, ValidationMode.TRUSTED);
+
+        assertThat(message.getParseErrors(), is(empty()));
+        assertThat(streamedMessage.getParseErrors(), is(empty()));
+        assertThat(streamedMessage.getCalls().get(0).getParticipants().get(0).getStartTime(), is(Optional.of(CoreFixtures.START_TIME.plusSeconds(60))));
+    }
+}
@@ -59,6 +59,20 @@ public class DeviceStatusMessageTest {
         assertThat(message.toXML(), isIdenticalTo(PubSubMessageFixtures.DEVICE_STATUS_MESSAGE).ignoreWhitespace());
     }
 
+    @Test
+    public void willWriteTheSameXmlAsTheStanza() {
+
+        final DeviceStatusMessage.Builder builder = DeviceStatusMessage.Builder.start()
+                .setId(CoreFixtures.STANZA_ID)
+                .setTo(Fixtures.TO_JID)
+                .setFrom(Fixtures.FROM_JID)
+                .setPubSubNodeId(CoreFixtures.CALL_INCOMING_ORIGINATED.getInterestId().get())
+                .setItemId(ItemId.from("test-item-id").get())
+                .setDeviceStatus(CoreFixtures.DEVICE_STATUS_LOGON);
+
+        assertThat(builder.appendXML(new StringBuilder()).toString(), is(builder.build().toXML()));
+    }
+
     @Test
     public void willCreateAStanzaWithoutMandatoryFields() {
 
@@ -0,0 +1,83 @@
+package com.bt.openlink.tinder.message;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.xmlunit.matchers.CompareMatcher.isIdenticalTo;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.junit.Test;
+import org.xmpp.packet.Message;
+
+import com.bt.openlink.CoreFixtures;
+import com.bt.openlink.PubSubMessageFixtures;
+import com.bt.openlink.tinder.Fixtures;
+import com.bt.openlink.type.Call;
+
+@SuppressWarnings({ "ConstantConditions" })
+public class LazyCallStatusMessageTest {
+
+    @Test
+    public void willDecodeTheMetaDataWithoutDecodingTheCalls() {
+
+        final LazyCallStatusMessage message = (LazyCallStatusMessage) OpenlinkMessageParser.parseLazily(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE));
+
+        assertThat(message.getID(), is(CoreFixtures.STANZA_ID));
+        assertThat(message.getTo(), is(Fixtures.TO_JID));
+        assertThat(message.getFrom(), is(Fixtures.FROM_JID));
+        assertThat(message.getPubSubNodeId().get(), is(PubSubMessageFixtures.NODE_ID));
+        assertThat(message.getItemId().get(), is(PubSubMessageFixtures.ITEM_ID));
+        assertThat(message.isCallStatusBusy().get(), is(false));
+        assertThat(message.isDecoded(), is(false));
+    }
+
+    @Test
+    public void willForwardTheOriginalStanza() {
+
+        final LazyCallStatusMessage message = LazyCallStatusMessage.from(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE));
+
+        assertThat(message.toXML(), isIdenticalTo(PubSubMessageFixtures.CALL_STATUS_MESSAGE).ignoreWhitespace());
+        assertThat(message.isDecoded(), is(false));
+    }
+
+    @Test
+    public void willDecodeTheCallsOnFirstAccess() {
+
+        final LazyCallStatusMessage message = LazyCallStatusMessage.from(Fixtures.messageFrom(PubSubMessageFixtures.CALL_STATUS_MESSAGE));
+
+        final List<Call> calls = message.getCalls();
+
+        assertThat(message.isDecoded(), is(true));
+        assertThat(calls.size(), is(1));
+        assertThat(EqualsBuilder.reflectionEquals(CoreFixtures.CALL_INCOMING_ORIGINATED, calls.get(0), false, null, true), is(true));
+        assertThat(message.getCalls(), is(calls));
+    }
+
+    @Test
+    public void willDecodeTheSameStanzaAsTheEagerParser() {
+
+        final List<String> stanzas = Arrays.asList(
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_LEGACY_TIMESTAMP_ONLY,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_MISMATCHED_TIMESTAMPS,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_WITH_NO_FIELDS,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_DELAYED,
+                PubSubMessageFixtures.CALL_STATUS_MESSAGE_DELAYED_WITH_BAD_TIMESTAMP);
+
+        for (final String stanza : stanzas) {
+            final CallStatusMessage expected = CallStatusMessage.from(Fixtures.messageFrom(stanza));
+            final Message actual = OpenlinkMessageParser.parseLazily(Fixtures.messageFrom(stanza));
+            final LazyCallStatusMessage lazyMessage = (LazyCallStatusMessage) actual;
+
+            assertThat(lazyMessage.getDelay(), is(expected.getDelay()));
+            assertThat(lazyMessage.isCallStatusBusy(), is(expected.isCallStatusBusy()));
+            assertThat(lazyMessage.getParseErrors(), is(expected.getParseErrors()));
+            assertThat(lazyMessage.getCalls().size(), is(expected.getCalls().size()));
+            for (int i = 0; i < expected.getCalls().size(); i++) {
+                assertThat(EqualsBuilder.reflectionEquals(expected.getCalls().get(i), lazyMessage.getCalls().get(i), false, null, true), is(true));
+            }
+        }
+    }
+}